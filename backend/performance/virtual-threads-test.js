@@ -0,0 +1,129 @@
+/**
+ * k6 Throughput Test - platform vs virtual threads at high concurrency
+ *
+ * Many users with no think time against I/O-bound reads, run once per
+ * execution mode against the same data:
+ *
+ *   VIRTUAL_THREADS_ENABLED=false CONCURRENCY_LIMIT_ENABLED=false java -jar app.jar
+ *   k6 run -e MODE=platform performance/virtual-threads-test.js
+ *
+ *   VIRTUAL_THREADS_ENABLED=true CONCURRENCY_LIMIT_ENABLED=false java -jar app.jar   (Java 21+)
+ *   k6 run -e MODE=virtual performance/virtual-threads-test.js
+ *
+ * Each run writes performance/results/throughput-<MODE>.json; the second run
+ * prints both side by side. The adaptive concurrency limit is switched off so
+ * the numbers show the server's capacity rather than its load shedding.
+ *
+ * Options: -e VUS=400 -e DURATION=2m -e BASE_URL=http://localhost:8080/api
+ */
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Rate } from 'k6/metrics';
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.2/index.js';
+
+const MODE = __ENV.MODE || 'platform';
+const OTHER_MODE = MODE === 'virtual' ? 'platform' : 'virtual';
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api';
+
+// Custom metrics
+const errorRate = new Rate('errors');
+const shed = new Counter('shed_responses');
+
+export const options = {
+    scenarios: {
+        saturate: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '20s', target: Number(__ENV.VUS || 400) },
+                { duration: __ENV.DURATION || '2m', target: Number(__ENV.VUS || 400) },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '5s',
+        },
+    },
+    thresholds: {
+        errors: ['rate<0.05'],
+    },
+    tags: { mode: MODE },
+};
+
+// Previous run in the other mode, if any (open() only works in the init context)
+let previous = null;
+try {
+    previous = JSON.parse(open(`./results/throughput-${OTHER_MODE}.json`));
+} catch (e) {
+    previous = null;
+}
+
+const testUser = {
+    mobile: __ENV.MOBILE || '9876543210',
+    password: __ENV.PASSWORD || 'Test@1234',
+};
+
+export function setup() {
+    const loginRes = http.post(`${BASE_URL}/auth/login`, JSON.stringify(testUser), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+
+    const body = JSON.parse(loginRes.body);
+    return { token: body.data?.accessToken || '' };
+}
+
+const ENDPOINTS = [
+    '/bills/recent?limit=10',
+    '/bills/stats/today',
+    '/farmers',
+    '/dashboard/summary',
+];
+
+export default function (data) {
+    const headers = { 'Authorization': `Bearer ${data.token}` };
+    const path = ENDPOINTS[Math.floor(Math.random() * ENDPOINTS.length)];
+
+    const res = http.get(`${BASE_URL}${path}`, { headers, tags: { name: path.split('?')[0] } });
+
+    check(res, { 'status is 200': (r) => r.status === 200 });
+    errorRate.add(res.status !== 200);
+    if (res.status === 503) {
+        shed.add(1);
+    }
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const failed = data.metrics.errors ? data.metrics.errors.values.passes : 0;
+    const total = data.metrics.http_reqs.values.count;
+    const result = {
+        mode: MODE,
+        vus: Number(__ENV.VUS || 400),
+        requestsPerSecond: round(total / seconds),
+        successfulPerSecond: round((total - failed) / seconds),
+        p50Ms: round(data.metrics.http_req_duration.values.med),
+        p95Ms: round(data.metrics.http_req_duration.values['p(95)']),
+        errorRate: round(data.metrics.errors ? data.metrics.errors.values.rate : 0),
+        shed: data.metrics.shed_responses ? data.metrics.shed_responses.values.count : 0,
+    };
+
+    let report = `\n${describe(result)}\n`;
+    if (previous) {
+        report += `${describe(previous)}\n`;
+        const gain = (result.successfulPerSecond / previous.successfulPerSecond - 1) * 100;
+        report += `${MODE} vs ${OTHER_MODE}: ${gain >= 0 ? '+' : ''}${round(gain)}% successful req/s\n`;
+    }
+
+    return {
+        stdout: textSummary(data, { indent: ' ', enableColors: true }) + report,
+        [`performance/results/throughput-${MODE}.json`]: JSON.stringify(result, null, 2),
+    };
+}
+
+function describe(r) {
+    return `${r.mode.padEnd(8)} ${r.vus} VUs: ${r.successfulPerSecond} ok req/s, `
+        + `p50 ${r.p50Ms}ms, p95 ${r.p95Ms}ms, errors ${(r.errorRate * 100).toFixed(1)}%, shed ${r.shed}`;
+}
+
+function round(value) {
+    return Math.round(value * 100) / 100;
+}
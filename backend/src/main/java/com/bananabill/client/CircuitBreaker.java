@@ -0,0 +1,123 @@
+package com.bananabill.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one outbound provider
+ *
+ * Counts the outcomes of the last windowSize calls. Once at least
+ * minimumCalls are in and the failure share reaches failureRate the circuit
+ * opens: calls fail at once for openMs instead of each waiting out a
+ * timeout. Then a single trial call is let through (half-open); it closes
+ * the circuit on success and opens it again on failure.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    // Ring buffer of recent outcomes (true = failed)
+    private final boolean[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRate, long openMs) {
+        this(windowSize, minimumCalls, failureRate, openMs, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRate, long openMs, LongSupplier clock) {
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRate = failureRate;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMs));
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may go out now; when true, report it with onSuccess() or onFailure()
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= minimumCalls && failures >= failureRate * calls) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
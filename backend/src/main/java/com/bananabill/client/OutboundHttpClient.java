@@ -0,0 +1,262 @@
+package com.bananabill.client;
+
+import com.bananabill.config.IntegrationConfig;
+import com.bananabill.exception.IntegrationUnavailableException;
+import com.bananabill.util.RequestDeadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Outbound HTTP Client - Shared client for Fast2SMS, Cloudinary and Twilio
+ *
+ * - Pooled: one java.net.http client per provider, created once, keeps its
+ *   connections open between calls (HTTP/2 where the provider offers it,
+ *   otherwise keep-alive HTTP/1.1)
+ * - Non-blocking: sendAsync() returns at once; responses and retries are
+ *   handled on integrationExecutor. send() is the blocking form for callers
+ *   that need the answer on the request thread
+ * - Timeouts: per provider (integrations.*.timeout-ms), capped by what is
+ *   left of the calling request's deadline, taken on the caller's thread
+ * - Circuit breaker per provider: while open, calls fail at once with
+ *   IntegrationUnavailableException (503) instead of waiting out timeouts
+ * - Retries with jittered backoff, within the provider's retry budget. A
+ *   connect failure (the request never left) is retried for any method.
+ *   Timeouts, 429 and 5xx are retried only for idempotent methods or
+ *   requests carrying an Idempotency-Key header: a POST the provider may
+ *   already have acted on is never repeated, so a message is never sent twice
+ * - Metrics: integration.requests{provider,outcome} (timer, per attempt),
+ *   integration.retries{provider}, integration.rejected{provider},
+ *   integration.circuit.state{provider} (0 closed, 1 open, 2 half-open)
+ */
+@Component
+public class OutboundHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundHttpClient.class);
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    // Lets the provider drop a repeated request, which makes any method safe to retry
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Provider> providers = new HashMap<>();
+
+    public OutboundHttpClient(IntegrationConfig config,
+            @Qualifier("integrationExecutor") Executor executor,
+            MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+
+        config.providers().forEach((name, settings) -> {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMs()))
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .executor(executor)
+                    .build();
+            Provider provider = new Provider(name, settings, client,
+                    new CircuitBreaker(settings.getCircuitWindowSize(), settings.getCircuitMinimumCalls(),
+                            settings.getCircuitFailureRate(), settings.getCircuitOpenMs()),
+                    new RetryBudget(settings.getRetryBudgetRatio(), settings.getRetryBudgetMax()));
+            providers.put(name, provider);
+            Gauge.builder("integration.circuit.state", provider.breaker, breaker -> breaker.getState().ordinal())
+                    .tag("provider", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    /**
+     * Configured base URL of a provider, without trailing slash
+     */
+    public String baseUrl(String provider) {
+        String baseUrl = provider(provider).settings.getBaseUrl();
+        if (baseUrl == null) {
+            return "";
+        }
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Send and wait for the response
+     *
+     * @throws IntegrationUnavailableException while the provider's circuit is open
+     * @throws IOException                     when the call failed (after any retries)
+     */
+    public HttpResponse<String> send(String provider, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<String>> response = sendAsync(provider, request);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Send without waiting; the timeout is fixed here, on the caller's thread,
+     * so the request's deadline still applies
+     */
+    public CompletableFuture<HttpResponse<String>> sendAsync(String provider, HttpRequest.Builder request) {
+        Provider target = provider(provider);
+        long timeoutMs = RequestDeadline.timeoutMillis(target.settings.getTimeoutMs());
+        long deadline = RequestDeadline.isSet()
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RequestDeadline.remainingMillis())
+                : Long.MAX_VALUE;
+
+        target.budget.onCall();
+        return attempt(target, request.timeout(Duration.ofMillis(timeoutMs)).build(), 0, deadline);
+    }
+
+    private CompletableFuture<HttpResponse<String>> attempt(Provider provider, HttpRequest request,
+            int retry, long deadline) {
+        if (!provider.breaker.tryAcquire()) {
+            meterRegistry.counter("integration.rejected", "provider", provider.name).increment();
+            return CompletableFuture.failedFuture(new IntegrationUnavailableException(provider.name));
+        }
+
+        long started = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> sent;
+        try {
+            sent = provider.client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            provider.breaker.onFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return sent.handle((response, error) -> {
+            Throwable failure = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            String outcome = outcome(response, failure);
+            Timer.builder("integration.requests")
+                    .tag("provider", provider.name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+            boolean failed = failure != null || response.statusCode() == 429 || response.statusCode() >= 500;
+            if (failed) {
+                provider.breaker.onFailure();
+            } else {
+                provider.breaker.onSuccess();
+            }
+
+            if (failed && shouldRetry(request, response, failure) && retry < provider.settings.getMaxRetries()) {
+                long delayMs = backoffMillis(provider.settings.getRetryBackoffMs(), retry);
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs > delayMs && provider.budget.tryRetry()) {
+                    logger.debug("Retrying {} {} ({}) in {}ms", provider.name, request.method(), outcome, delayMs);
+                    meterRegistry.counter("integration.retries", "provider", provider.name).increment();
+                    HttpRequest next = deadline == Long.MAX_VALUE
+                            ? request
+                            : withTimeout(request, Math.min(provider.settings.getTimeoutMs(), remainingMs - delayMs));
+                    Executor delayed = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, executor);
+                    return CompletableFuture.supplyAsync(() -> next, delayed)
+                            .thenCompose(r -> attempt(provider, r, retry + 1, deadline));
+                }
+            }
+
+            if (failure != null) {
+                if (failure instanceof HttpTimeoutException || failure instanceof ConnectException) {
+                    logger.warn("{} call failed: {}", provider.name, failure.toString());
+                }
+                return CompletableFuture.<HttpResponse<String>>failedFuture(failure);
+            }
+            return CompletableFuture.completedFuture(response);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Whether a failed attempt may be repeated without the provider acting twice
+     */
+    private static boolean shouldRetry(HttpRequest request, HttpResponse<String> response, Throwable failure) {
+        if (failure instanceof HttpConnectTimeoutException || failure instanceof ConnectException) {
+            return true;
+        }
+        // A 429 or 503 does not prove the provider did nothing (gateways answer them after forwarding)
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method())
+                || request.headers().firstValue(IDEMPOTENCY_KEY_HEADER).isPresent();
+        if (failure != null) {
+            return idempotent && failure instanceof IOException;
+        }
+        return idempotent && (response.statusCode() == 429 || response.statusCode() >= 500);
+    }
+
+    private static String outcome(HttpResponse<String> response, Throwable failure) {
+        if (failure instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        if (failure != null) {
+            return "error";
+        }
+        int status = response.statusCode();
+        if (status >= 500) {
+            return "server_error";
+        }
+        if (status >= 400) {
+            return "client_error";
+        }
+        return "success";
+    }
+
+    /**
+     * Exponential backoff with jitter: between half and all of base * 2^retry
+     */
+    private static long backoffMillis(long baseMs, int retry) {
+        long ceiling = Math.max(1, baseMs) << Math.min(retry, 10);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static HttpRequest withTimeout(HttpRequest request, long timeoutMs) {
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofMillis(Math.max(1, timeoutMs)))
+                .build();
+    }
+
+    private Provider provider(String name) {
+        Provider provider = providers.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown integration: " + name);
+        }
+        return provider;
+    }
+
+    private record Provider(String name, IntegrationConfig.Provider settings, HttpClient client,
+            CircuitBreaker breaker, RetryBudget budget) {
+    }
+}
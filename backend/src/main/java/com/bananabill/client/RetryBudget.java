@@ -0,0 +1,41 @@
+package com.bananabill.client;
+
+/**
+ * Retry budget for one outbound provider
+ *
+ * Every call deposits ratio of a token, up to maxTokens; every retry takes a
+ * whole token. While the provider is healthy a few retries are saved up;
+ * during an outage retries stop once the savings are spent, so they add at
+ * most ratio extra load instead of multiplying it.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.ratio = Math.max(0, ratio);
+        this.maxTokens = Math.max(0, maxTokens);
+        this.tokens = this.maxTokens;
+    }
+
+    public synchronized void onCall() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Take a token for one retry; false when the budget is spent
+     */
+    public synchronized boolean tryRetry() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bananabill.client;
+
+import com.twilio.constant.EnumConstants;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.http.HttpClient;
+import com.twilio.http.HttpUtility;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Twilio SDK transport through OutboundHttpClient
+ *
+ * Lets Message.creator(...).create() share the pooled client, timeouts,
+ * circuit breaker and metrics of the other integrations. The SDK's own
+ * retry loop is bypassed; OutboundHttpClient decides what is safe to retry.
+ */
+public class TwilioHttpClient extends HttpClient {
+
+    static final String PROVIDER = "twilio";
+
+    private final OutboundHttpClient outbound;
+
+    public TwilioHttpClient(OutboundHttpClient outbound) {
+        this.outbound = outbound;
+    }
+
+    @Override
+    public Response reliableRequest(Request request, int[] retryCodes, int retries, long delayMillis) {
+        return makeRequest(request);
+    }
+
+    @Override
+    public Response makeRequest(Request request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(request))
+                .header("Accept", "application/json")
+                .header("User-Agent", HttpUtility.getUserAgentString(request.getUserAgentExtensions()));
+        if (request.requiresAuthentication()) {
+            builder.header("Authorization", request.getAuthString());
+        }
+        for (Map.Entry<String, List<String>> header : request.getHeaderParams().entrySet()) {
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+
+        String method = request.getMethod().name();
+        if ("POST".equals(method) || "PUT".equals(method)) {
+            if (request.getContentType() == EnumConstants.ContentType.JSON) {
+                builder.header("Content-Type", "application/json");
+                builder.method(method, HttpRequest.BodyPublishers.ofString(
+                        request.getBody() != null ? request.getBody() : ""));
+            } else {
+                builder.header("Content-Type", "application/x-www-form-urlencoded");
+                builder.method(method, HttpRequest.BodyPublishers.ofString(request.encodeFormBody()));
+            }
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        try {
+            HttpResponse<String> response = outbound.send(PROVIDER, builder);
+            return new Response(response.body(), response.statusCode());
+        } catch (IOException e) {
+            throw new ApiConnectionException("Twilio call failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Twilio call interrupted", e);
+        }
+    }
+
+    /**
+     * The SDK's URL, moved to integrations.twilio.base-url when one is set
+     */
+    private URI uri(Request request) {
+        URI uri = URI.create(request.constructURL().toString());
+        String baseUrl = outbound.baseUrl(PROVIDER);
+        if (baseUrl.isEmpty()) {
+            return uri;
+        }
+        return URI.create(baseUrl + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+    }
+}
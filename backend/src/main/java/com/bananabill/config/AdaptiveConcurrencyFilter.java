@@ -0,0 +1,144 @@
+package com.bananabill.config;
+
+import com.bananabill.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limit for the whole API (AdaptiveConcurrencyLimit)
+ *
+ * Unlike RateLimitingFilter (fixed requests per window per client) this
+ * limits requests in flight and follows observed latency: when MongoDB slows
+ * down the limit drops and excess requests get 503 + Retry-After right away
+ * instead of piling up on Tomcat threads until everything times out.
+ *
+ * Priorities: concurrency.limit.critical-paths (login, bill entry, payments,
+ * health) may use the whole limit, ordinary requests normal-share of it and
+ * concurrency.limit.low-paths (reports, statements) low-share, so reports
+ * are shed first.
+ *
+ * Runs ahead of BulkheadFilter; long-lived async responses (SSE) are admitted
+ * but not sampled. Metrics: concurrency.limit, concurrency.inflight,
+ * concurrency.rtt.long, concurrency.rtt.recent and concurrency.rejected{priority}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 20)
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyFilter.class);
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit limit;
+    private final EndpointPatterns criticalPaths;
+    private final EndpointPatterns lowPaths;
+    private final int retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveConcurrencyFilter(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${concurrency.limit.enabled:true}") boolean enabled,
+            @Value("${concurrency.limit.initial:50}") int initialLimit,
+            @Value("${concurrency.limit.min:10}") int minLimit,
+            @Value("${concurrency.limit.max:400}") int maxLimit,
+            @Value("${concurrency.limit.tolerance:2.0}") double tolerance,
+            @Value("${concurrency.limit.window-ms:1000}") long windowMs,
+            @Value("${concurrency.limit.normal-share:0.9}") double normalShare,
+            @Value("${concurrency.limit.low-share:0.5}") double lowShare,
+            @Value("${concurrency.limit.retry-after-seconds:2}") int retryAfterSeconds,
+            @Value("${concurrency.limit.critical-paths:POST /auth/login,POST /auth/refresh,/health/**,POST /bills,POST /bills/*/record-payment,POST /bills/*/mark-paid,POST /bills/allocate-payment}") List<String> criticalPaths,
+            @Value("${concurrency.limit.low-paths:/reports/**,/dashboard/stats,GET /bills/filter,GET /bills/search-with-filters,GET /bills/farmer-report/*,GET /bills/export,GET /farmers/balances}") List<String> lowPaths) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, windowMs,
+                normalShare, lowShare);
+        this.criticalPaths = EndpointPatterns.of(criticalPaths);
+        this.lowPaths = EndpointPatterns.of(lowPaths);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.rtt.long", limit, AdaptiveConcurrencyLimit::getLongRttMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.rtt.recent", limit, AdaptiveConcurrencyLimit::getRecentRttMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        AdaptiveConcurrencyLimit.Priority priority = priorityOf(request);
+        if (!limit.tryAcquire(priority)) {
+            reject(request, response, priority);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.onComplete(request.isAsyncStarted() ? -1 : System.nanoTime() - start);
+        }
+    }
+
+    AdaptiveConcurrencyLimit.Priority priorityOf(HttpServletRequest request) {
+        if (criticalPaths.matches(request)) {
+            return AdaptiveConcurrencyLimit.Priority.CRITICAL;
+        }
+        if (lowPaths.matches(request)) {
+            return AdaptiveConcurrencyLimit.Priority.LOW;
+        }
+        return AdaptiveConcurrencyLimit.Priority.NORMAL;
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+            AdaptiveConcurrencyLimit.Priority priority) throws IOException {
+        meterRegistry.counter("concurrency.rejected", "priority", priority.name().toLowerCase()).increment();
+        logger.debug("Shed {} {} ({} priority, limit {}, {} in flight)", request.getMethod(),
+                EndpointPatterns.pathOf(request), priority, limit.getLimit(), limit.getInFlight());
+
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new GlobalExceptionHandler.ErrorResponse(status,
+                        "Server is under heavy load, please retry in " + retryAfterSeconds + " seconds",
+                        EndpointPatterns.pathOf(request)));
+    }
+}
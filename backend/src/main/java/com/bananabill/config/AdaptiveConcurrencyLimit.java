@@ -0,0 +1,170 @@
+package com.bananabill.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Gradient concurrency limit - how many requests may be in flight at once
+ *
+ * Latency is sampled per window. The limit follows the ratio between the
+ * long-term (no-load) latency and the latest window's latency:
+ *
+ *   gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1.0)
+ *   newLimit = limit * gradient + sqrt(limit)
+ *
+ * While latency stays within tolerance the sqrt(limit) headroom lets the
+ * limit grow; when MongoDB slows down, requests queue, shortRtt rises and
+ * the limit shrinks (at most halving per window) until latency recovers.
+ * The limit does not grow while fewer than half of it are in use, so a
+ * quiet period does not leave a huge limit behind for the next burst.
+ *
+ * Lower priorities may only use part of the limit, so they are shed first.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public enum Priority {
+        CRITICAL,
+        NORMAL,
+        LOW
+    }
+
+    // Long-term latency average over roughly this many windows
+    private static final int LONG_WINDOWS = 600;
+    private static final int MIN_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final double normalShare;
+    private final double lowShare;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Current window, guarded by this
+    private long windowStart;
+    private int samples;
+    private long rttSum;
+    private int maxInFlight;
+    private double longRtt;
+    private double lastRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            long windowMs, double normalShare, double lowShare) {
+        this(initialLimit, minLimit, maxLimit, tolerance, windowMs, normalShare, lowShare, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            long windowMs, double normalShare, double lowShare, LongSupplier clock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = 0.2;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowMs));
+        this.normalShare = normalShare;
+        this.lowShare = lowShare;
+        this.clock = clock;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.windowStart = clock.getAsLong();
+    }
+
+    /**
+     * Admit a request if there is room for its priority; onComplete() must follow
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = allowed(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request
+     *
+     * @param rttNanos time the request took, or a negative value to skip
+     *                 sampling (e.g. long-lived async responses)
+     */
+    public void onComplete(long rttNanos) {
+        int before = inFlight.getAndDecrement();
+        if (rttNanos < 0) {
+            return;
+        }
+        synchronized (this) {
+            samples++;
+            rttSum += rttNanos;
+            maxInFlight = Math.max(maxInFlight, before);
+
+            long now = clock.getAsLong();
+            if (now - windowStart >= windowNanos && samples >= MIN_SAMPLES) {
+                update((double) rttSum / samples);
+                windowStart = now;
+                samples = 0;
+                rttSum = 0;
+                maxInFlight = 0;
+            }
+        }
+    }
+
+    private void update(double shortRtt) {
+        lastRtt = shortRtt;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * 2.0 / (LONG_WINDOWS + 1);
+        }
+        // Latency has been lower than the long-term average for a while; let it catch up
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        if (newLimit > current && maxInFlight < current / 2) {
+            return;
+        }
+        newLimit = current * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private int allowed(Priority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> normalShare;
+            case LOW -> lowShare;
+        };
+        return Math.max(1, (int) Math.ceil(limit * share));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Long-term (no-load) latency in milliseconds
+     */
+    public synchronized double getLongRttMs() {
+        return longRtt / 1_000_000.0;
+    }
+
+    /**
+     * Latest window's average latency in milliseconds
+     */
+    public synchronized double getRecentRttMs() {
+        return lastRtt / 1_000_000.0;
+    }
+}
@@ -1,9 +1,15 @@
 package com.bananabill.config;
 
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.concurrent.Executor;
 
@@ -12,12 +18,29 @@ import java.util.concurrent.Executor;
  * 
  * Used for:
  * - WhatsApp message sending (external API calls)
- * - Background report generation
+ * - Background report generation (report jobs, see ReportJobService)
  * - Notification dispatch
+ * - Background data maintenance (snapshot propagation, migrations)
+ * - Dashboard SSE delivery
+ * - Streamed responses (Flux return values, see ReportStreamService)
+ * - Outbound integration calls (responses and retries, see OutboundHttpClient)
+ *
+ * With spring.threads.virtual.enabled (Java 21+) the pools below run their
+ * tasks on virtual threads: pool and queue sizes still bound how much work
+ * runs at once, but a task blocked on Twilio, Cloudinary or MongoDB no longer
+ * holds a platform thread. On older runtimes the setting is ignored.
  */
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final boolean virtualThreads;
+    private final int integrationThreads;
+
+    public AsyncConfig(Environment environment, IntegrationConfig integrationConfig) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.integrationThreads = Math.max(1, integrationConfig.getThreads());
+    }
 
     @Bean(name = "whatsappExecutor")
     public Executor whatsappExecutor() {
@@ -26,6 +49,7 @@ public class AsyncConfig {
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("whatsapp-");
+        useVirtualThreads(executor);
         executor.setKeepAliveSeconds(60);
         executor.initialize();
         return executor;
@@ -38,7 +62,84 @@ public class AsyncConfig {
         executor.setMaxPoolSize(4);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("report-");
+        useVirtualThreads(executor);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single thread so throttled maintenance batches never compete with each other
+     */
+    @Bean(name = "maintenanceExecutor")
+    public Executor maintenanceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("maintenance-");
+        useVirtualThreads(executor);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes queued dashboard events to SSE clients
+     * A slow socket ties up one thread, never the request or publisher thread
+     */
+    @Bean(name = "dashboardStreamExecutor")
+    public Executor dashboardStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("dashboard-sse-");
+        useVirtualThreads(executor);
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Writes items of streamed (Flux) responses as the client takes them
+     * Without it Spring MVC would start a new thread per written item
+     */
+    @Bean(name = "streamExecutor")
+    public AsyncTaskExecutor streamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(2000);
+        executor.setThreadNamePrefix("stream-");
+        useVirtualThreads(executor);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Completes outbound HTTP calls and runs their retries
+     * Tasks are short (hand over a response, schedule a retry), so a few
+     * threads serve every integration; the queue is unbounded because
+     * rejecting a completion would lose the response
+     */
+    @Bean(name = "integrationExecutor")
+    public Executor integrationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(integrationThreads);
+        executor.setMaxPoolSize(integrationThreads);
+        executor.setThreadNamePrefix("integration-");
+        useVirtualThreads(executor);
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor());
+    }
+
+    private void useVirtualThreads(ThreadPoolTaskExecutor executor) {
+        if (virtualThreads) {
+            executor.setThreadFactory(
+                    new VirtualThreadTaskExecutor(executor.getThreadNamePrefix()).getVirtualThreadFactory());
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package com.bananabill.config;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory cache with a hard entry cap, evicting the least recently used entry
+ * Used in simple (non-Redis) mode for caches keyed by unbounded ids such as bills
+ *
+ * The map is guarded by a short ReentrantLock. get(key, loader) runs the
+ * loader (a MongoDB query) outside it: concurrent loads of the same key share
+ * one per-key future, and loads never hold up reads or writes of other keys.
+ */
+public class BoundedLruCache extends AbstractValueAdaptingCache {
+
+        private final String name;
+        private final Map<Object, Object> store;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+        public BoundedLruCache(String name, int maxEntries) {
+                super(false);
+                this.name = name;
+                this.store = new LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                                return size() > maxEntries;
+                        }
+                };
+        }
+
+        @Override
+        public String getName() {
+                return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+                return store;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+                lock.lock();
+                try {
+                        return store.get(key);
+                } finally {
+                        lock.unlock();
+                }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+                Object value = lookup(key);
+                if (value != null) {
+                        return (T) fromStoreValue(value);
+                }
+
+                CompletableFuture<Object> mine = new CompletableFuture<>();
+                CompletableFuture<Object> running = loading.putIfAbsent(key, mine);
+                if (running != null) {
+                        try {
+                                return (T) running.join();
+                        } catch (CompletionException e) {
+                                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+                        }
+                }
+                try {
+                        // A load that finished between lookup and putIfAbsent has already stored it
+                        value = lookup(key);
+                        T loaded;
+                        if (value != null) {
+                                loaded = (T) fromStoreValue(value);
+                        } else {
+                                loaded = valueLoader.call();
+                                put(key, loaded);
+                        }
+                        mine.complete(loaded);
+                        return loaded;
+                } catch (Exception e) {
+                        mine.completeExceptionally(e);
+                        throw new ValueRetrievalException(key, valueLoader, e);
+                } finally {
+                        loading.remove(key, mine);
+                }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+                lock.lock();
+                try {
+                        if (value == null) {
+                                store.remove(key);
+                                return;
+                        }
+                        store.put(key, toStoreValue(value));
+                } finally {
+                        lock.unlock();
+                }
+        }
+
+        @Override
+        public void evict(Object key) {
+                lock.lock();
+                try {
+                        store.remove(key);
+                } finally {
+                        lock.unlock();
+                }
+        }
+
+        @Override
+        public void clear() {
+                lock.lock();
+                try {
+                        store.clear();
+                } finally {
+                        lock.unlock();
+                }
+        }
+
+        public int size() {
+                lock.lock();
+                try {
+                        return store.size();
+                } finally {
+                        lock.unlock();
+                }
+        }
+}
@@ -0,0 +1,86 @@
+package com.bananabill.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit with a short bounded queue for one workload class
+ *
+ * Up to maxConcurrent callers run at once; up to maxQueued more wait (in
+ * arrival order) for at most maxWaitMs. Anyone beyond that is turned away
+ * at once instead of holding a server thread.
+ */
+public class Bulkhead {
+
+    public enum Outcome {
+        ACQUIRED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMs;
+    private final int retryAfterSeconds;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMs, int retryAfterSeconds) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    /**
+     * Take a permit, waiting in the queue if there is room; release() it
+     * afterwards only when the outcome is ACQUIRED
+     */
+    public Outcome acquire() throws InterruptedException {
+        // Timed form honours fairness: a free permit is not taken ahead of queued callers
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            return Outcome.ACQUIRED;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return Outcome.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS) ? Outcome.ACQUIRED : Outcome.TIMED_OUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+}
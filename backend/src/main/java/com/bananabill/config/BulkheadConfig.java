@@ -0,0 +1,113 @@
+package com.bananabill.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workload bulkheads (see BulkheadFilter)
+ *
+ * Each endpoint class gets its own concurrency limit and queue, so month-end
+ * reports cannot take the threads bill entry at the weighbridge needs.
+ * Paths are Ant patterns under /api, optionally prefixed with the HTTP
+ * method ("POST /bills"); the first workload that matches wins, in the
+ * order messaging, payment, entry, reporting. Other requests are not limited.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "bulkheads")
+public class BulkheadConfig {
+
+    /**
+     * Turn all bulkheads off (default: on)
+     */
+    private boolean enabled = true;
+
+    /**
+     * WhatsApp and SMS sends (slow external calls)
+     */
+    private Workload messaging = new Workload(5, 20, 1000, 5, new ArrayList<>(List.of(
+            "POST /bills/*/send-whatsapp",
+            "POST /bills/*/send-confirmation",
+            "POST /reports/send-statement-whatsapp",
+            "POST /auth/send-otp")));
+
+    /**
+     * Recording payments
+     */
+    private Workload payment = new Workload(20, 50, 2000, 1, new ArrayList<>(List.of(
+            "POST /bills/*/record-payment",
+            "POST /bills/*/mark-paid",
+            "POST /bills/allocate-payment")));
+
+    /**
+     * Bill and farmer entry
+     */
+    private Workload entry = new Workload(40, 100, 2000, 1, new ArrayList<>(List.of(
+            "POST /bills",
+            "PUT /bills/*",
+            "DELETE /bills/*",
+            "POST /bills/*/set-due-date",
+            "POST /farmers")));
+
+    /**
+     * Reports, filters, exports and statements
+     * Patterns, so new report endpoints (e.g. the streamed bill lists) are
+     * covered without being listed here
+     */
+    private Workload reporting = new Workload(6, 10, 500, 10, new ArrayList<>(List.of(
+            "GET /reports/**",
+            "GET /bills/export",
+            "GET /bills/filter",
+            "GET /bills/search-with-filters",
+            "GET /bills/farmer-report/*",
+            "GET /farmers/balances",
+            "GET /dashboard/stats")));
+
+    /**
+     * Workloads in matching order
+     */
+    public Map<String, Workload> workloads() {
+        Map<String, Workload> workloads = new LinkedHashMap<>();
+        workloads.put("messaging", messaging);
+        workloads.put("payment", payment);
+        workloads.put("entry", entry);
+        workloads.put("reporting", reporting);
+        return workloads;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Workload {
+
+        /**
+         * Requests of this class running at once
+         */
+        private int maxConcurrent;
+
+        /**
+         * Requests waiting for a slot; beyond this they are rejected at once
+         */
+        private int maxQueued;
+
+        /**
+         * Longest a queued request waits before it is rejected
+         */
+        private long maxWaitMs;
+
+        /**
+         * Retry-After sent with the 503
+         */
+        private int retryAfterSeconds;
+
+        private List<String> paths = new ArrayList<>();
+    }
+}
@@ -0,0 +1,206 @@
+package com.bananabill.config;
+
+import com.bananabill.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Workload bulkheads - per endpoint class concurrency limits (BulkheadConfig)
+ *
+ * A request that finds its class full and its queue full, or that waits
+ * longer than max-wait-ms, gets 503 with Retry-After instead of a thread.
+ * The 503 means "not started": nothing was written, so the client can retry
+ * the same request (with the same Idempotency-Key) after Retry-After.
+ *
+ * A streamed (async) response keeps its permit until the async request
+ * completes, errors or times out, not just until the controller has
+ * returned its Flux, so downloads count against their class while they run.
+ *
+ * Runs after Spring Security (so CORS headers are on the 503) and before
+ * IdempotencyFilter (so a rejected request does not claim its key).
+ *
+ * Metrics per workload: bulkhead.limit, bulkhead.queue.limit, bulkhead.active,
+ * bulkhead.queued and bulkhead.rejected{reason}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<Route> routes = new ArrayList<>();
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    public BulkheadFilter(BulkheadConfig config, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        config.workloads().forEach((name, workload) -> {
+            Bulkhead bulkhead = new Bulkhead(name, workload.getMaxConcurrent(), workload.getMaxQueued(),
+                    workload.getMaxWaitMs(), workload.getRetryAfterSeconds());
+            bulkheads.add(bulkhead);
+            routes.add(new Route(EndpointPatterns.of(workload.getPaths()), bulkhead));
+            register(bulkhead);
+        });
+    }
+
+    private void register(Bulkhead bulkhead) {
+        Gauge.builder("bulkhead.limit", bulkhead, Bulkhead::getMaxConcurrent)
+                .tag("workload", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queue.limit", bulkhead, Bulkhead::getMaxQueued)
+                .tag("workload", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.active", bulkhead, Bulkhead::getActive)
+                .tag("workload", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                .tag("workload", bulkhead.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Bulkhead bulkhead = classify(request);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Bulkhead.Outcome outcome;
+        try {
+            outcome = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = Bulkhead.Outcome.TIMED_OUT;
+        }
+
+        if (outcome != Bulkhead.Outcome.ACQUIRED) {
+            reject(request, response, bulkhead, outcome);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(bulkhead));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * Workload of a request, or null if it is not limited
+     */
+    Bulkhead classify(HttpServletRequest request) {
+        for (Route route : routes) {
+            if (route.endpoints().matches(request)) {
+                return route.bulkhead();
+            }
+        }
+        return null;
+    }
+
+    List<Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Bulkhead bulkhead,
+            Bulkhead.Outcome outcome) throws IOException {
+        String reason = outcome == Bulkhead.Outcome.QUEUE_FULL ? "queue_full" : "timeout";
+        meterRegistry.counter("bulkhead.rejected", "workload", bulkhead.getName(), "reason", reason).increment();
+        logger.warn("Bulkhead {} rejected {} {} ({}, {} active, {} queued)", bulkhead.getName(),
+                request.getMethod(), EndpointPatterns.pathOf(request), reason,
+                bulkhead.getActive(), bulkhead.getQueued());
+
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new GlobalExceptionHandler.ErrorResponse(status,
+                        "Server is busy with " + bulkhead.getName() + " requests, please retry in "
+                                + bulkhead.getRetryAfterSeconds() + " seconds",
+                        EndpointPatterns.pathOf(request)));
+    }
+
+    private record Route(EndpointPatterns endpoints, Bulkhead bulkhead) {
+    }
+
+    /**
+     * Releases an async request's permit once, whichever way it ends
+     */
+    private static final class ReleasingListener implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingListener(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-dispatched async: the listener stays registered for the new cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
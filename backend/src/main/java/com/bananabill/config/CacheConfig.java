@@ -1,7 +1,14 @@
 package com.bananabill.config;
 
+import com.bananabill.model.Bill;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
@@ -12,10 +19,12 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Caching configuration for improved performance
@@ -32,9 +41,22 @@ public class CacheConfig {
         public static final String FARMER_CACHE = "farmers";
         public static final String RECENT_BILLS = "recentBills";
 
+        /**
+         * Read-through bill cache shared by single-bill and bulk lookups
+         * BILLS: bill id -> Bill, BILL_NUMBERS: bill number -> bill id
+         */
+        public static final String BILLS = "bills";
+        public static final String BILL_NUMBERS = "billNumbers";
+
         @Autowired(required = false)
         private RedisConnectionFactory redisConnectionFactory;
 
+        @Value("${cache.bills.ttl-minutes:10}")
+        private long billsTtlMinutes;
+
+        @Value("${cache.bills.max-entries:5000}")
+        private int billsMaxEntries;
+
         /**
          * Redis Cache Manager for production
          */
@@ -44,7 +66,7 @@ public class CacheConfig {
         public CacheManager redisCacheManager() {
                 if (redisConnectionFactory == null) {
                         // Fallback if factory is null even if property says redis
-                        return new ConcurrentMapCacheManager(BILL_STATS, FARMER_CACHE, RECENT_BILLS);
+                        return boundedMapCacheManager();
                 }
 
                 RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
@@ -60,6 +82,12 @@ public class CacheConfig {
                                 .withCacheConfiguration(FARMER_CACHE, config.entryTtl(Duration.ofHours(24)))
                                 .withCacheConfiguration(BILL_STATS, config.entryTtl(Duration.ofMinutes(10)))
                                 .withCacheConfiguration(RECENT_BILLS, config.entryTtl(Duration.ofMinutes(5)))
+                                .withCacheConfiguration(BILLS, config.entryTtl(Duration.ofMinutes(billsTtlMinutes))
+                                                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                                                .fromSerializer(billSerializer())))
+                                .withCacheConfiguration(BILL_NUMBERS, config.entryTtl(Duration.ofMinutes(billsTtlMinutes))
+                                                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                                                .fromSerializer(new StringRedisSerializer())))
                                 .transactionAware()
                                 .build();
         }
@@ -70,9 +98,34 @@ public class CacheConfig {
         @Bean
         @ConditionalOnProperty(name = "spring.cache.type", havingValue = "simple", matchIfMissing = true)
         public CacheManager inMemoryCacheManager() {
-                return new ConcurrentMapCacheManager(
-                                BILL_STATS,
-                                FARMER_CACHE,
-                                RECENT_BILLS);
+                return boundedMapCacheManager();
+        }
+
+        /**
+         * ConcurrentMap caches, except bill caches which are capped (LRU)
+         */
+        private CacheManager boundedMapCacheManager() {
+                ConcurrentMapCacheManager manager = new ConcurrentMapCacheManager() {
+                        @Override
+                        protected Cache createConcurrentMapCache(String name) {
+                                if (BILLS.equals(name) || BILL_NUMBERS.equals(name)) {
+                                        return new BoundedLruCache(name, billsMaxEntries);
+                                }
+                                return super.createConcurrentMapCache(name);
+                        }
+                };
+                manager.setCacheNames(List.of(BILL_STATS, FARMER_CACHE, RECENT_BILLS, BILLS, BILL_NUMBERS));
+                return manager;
+        }
+
+        /**
+         * Typed Bill serializer; the generic one cannot read LocalDateTime fields
+         */
+        private Jackson2JsonRedisSerializer<Bill> billSerializer() {
+                ObjectMapper mapper = new ObjectMapper()
+                                .registerModule(new JavaTimeModule())
+                                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+                return new Jackson2JsonRedisSerializer<>(mapper, Bill.class);
         }
 }
@@ -0,0 +1,131 @@
+package com.bananabill.config;
+
+import com.bananabill.util.RequestDeadline;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database factory that applies the request deadline to reads
+ *
+ * MongoTemplate and all repositories get their database from here, so each
+ * find, aggregate, distinct and count runs with maxTimeMS set to the time
+ * the request has left: MongoDB abandons the query when the caller would
+ * give up anyway. Writes (including findAndModify) are never limited; only
+ * the first one is refused once the deadline has passed, when nothing has
+ * been changed yet. After that the rest of the flow - later reads, writes
+ * and any compensation - runs to completion. Without a deadline (background
+ * jobs, change streams) nothing changes.
+ */
+public class DeadlineMongoDatabaseFactory extends SimpleMongoClientDatabaseFactory {
+
+    // Collection and database methods that only read
+    private static final Set<String> READS = Set.of("find", "aggregate", "distinct", "countDocuments",
+            "estimatedDocumentCount", "listIndexes", "listCollections", "listCollectionNames");
+
+    public DeadlineMongoDatabaseFactory(MongoClient mongoClient, String databaseName) {
+        super(mongoClient, databaseName);
+    }
+
+    @Override
+    protected MongoDatabase doGetMongoDatabase(String dbName) {
+        return proxy(MongoDatabase.class, super.doGetMongoDatabase(dbName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> invoke(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        long maxTimeMs = 0;
+        if (RequestDeadline.isSet() && !RequestDeadline.hasWritten() && isOperation(method)) {
+            if (READS.contains(method.getName())) {
+                maxTimeMs = RequestDeadline.timeoutMillis(Long.MAX_VALUE);
+                limitOptions(args, maxTimeMs);
+            } else {
+                RequestDeadline.check();
+                RequestDeadline.markWritten();
+            }
+        }
+
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        if (result instanceof MongoCollection<?> collection) {
+            return proxy(MongoCollection.class, collection);
+        }
+        if (result instanceof MongoDatabase database) {
+            return proxy(MongoDatabase.class, database);
+        }
+        return maxTimeMs > 0 ? limitIterable(result, maxTimeMs) : result;
+    }
+
+    /**
+     * Accessors, with* copies and Object methods are not database round trips
+     */
+    private static boolean isOperation(Method method) {
+        String name = method.getName();
+        return method.getDeclaringClass() != Object.class
+                && !name.startsWith("get")
+                && !name.startsWith("with");
+    }
+
+    private static void limitOptions(Object[] args, long maxTimeMs) {
+        if (args == null) {
+            return;
+        }
+        for (Object arg : args) {
+            if (arg instanceof CountOptions options && exceeds(options.getMaxTime(TimeUnit.MILLISECONDS), maxTimeMs)) {
+                options.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+            } else if (arg instanceof EstimatedDocumentCountOptions options
+                    && exceeds(options.getMaxTime(TimeUnit.MILLISECONDS), maxTimeMs)) {
+                options.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Set maxTimeMS on a cursor; MongoTemplate applies a Query's own maxTimeMsec afterwards
+     */
+    private static Object limitIterable(Object result, long maxTimeMs) {
+        if (result instanceof FindIterable<?> iterable) {
+            return iterable.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+        }
+        if (result instanceof AggregateIterable<?> iterable) {
+            return iterable.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+        }
+        if (result instanceof DistinctIterable<?> iterable) {
+            return iterable.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+        }
+        if (result instanceof ListIndexesIterable<?> iterable) {
+            return iterable.maxTime(maxTimeMs, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * An unset (0) limit or one beyond the deadline is replaced
+     */
+    private static boolean exceeds(long current, long maxTimeMs) {
+        return current == 0 || current > maxTimeMs;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bananabill.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A list of endpoints written as "METHOD /pattern" or just "/pattern"
+ * (Ant pattern, matched against the path under the /api context path)
+ */
+final class EndpointPatterns {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<Endpoint> endpoints;
+
+    private EndpointPatterns(List<Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    static EndpointPatterns of(Collection<String> specs) {
+        return new EndpointPatterns(specs.stream()
+                .map(String::trim)
+                .filter(spec -> !spec.isEmpty())
+                .map(Endpoint::parse)
+                .toList());
+    }
+
+    boolean matches(HttpServletRequest request) {
+        String path = pathOf(request);
+        String method = request.getMethod();
+        for (Endpoint endpoint : endpoints) {
+            if ((endpoint.method() == null || endpoint.method().equalsIgnoreCase(method))
+                    && PATH_MATCHER.match(endpoint.pattern(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Endpoint(String method, String pattern) {
+
+        static Endpoint parse(String spec) {
+            int space = spec.indexOf(' ');
+            return space < 0
+                    ? new Endpoint(null, spec)
+                    : new Endpoint(spec.substring(0, space), spec.substring(space + 1).trim());
+        }
+    }
+}
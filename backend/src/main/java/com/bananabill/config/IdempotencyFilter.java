@@ -0,0 +1,254 @@
+package com.bananabill.config;
+
+import com.bananabill.exception.GlobalExceptionHandler;
+import com.bananabill.model.IdempotencyRecord;
+import com.bananabill.service.IdempotencyService;
+import com.bananabill.util.SecurityUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Idempotency-Key support for retried writes (bill creation, payments)
+ *
+ * A POST to one of idempotency.paths that carries an Idempotency-Key header
+ * runs once per user and key; a retry gets the stored response back with
+ * Idempotent-Replayed: true. Reusing a key for a different request is 422,
+ * a duplicate that outlives the wait while the original still runs is 409.
+ * Server errors are not stored, so those retries run again.
+ *
+ * The body is read into memory to hash it, so it is capped at
+ * idempotency.max-request-bytes (by Content-Length and while reading);
+ * larger requests get 413 without claiming the key.
+ *
+ * Registered as a plain servlet filter, so it runs after Spring Security
+ * and keys are scoped to the authenticated user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final List<String> paths;
+    private final int maxResponseBytes;
+    private final int maxRequestBytes;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.paths:/bills,/bills/*/record-payment,/bills/*/mark-paid,/bills/allocate-payment}") List<String> paths,
+            @Value("${idempotency.max-response-bytes:65536}") int maxResponseBytes,
+            @Value("${idempotency.max-request-bytes:1048576}") int maxRequestBytes) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.paths = paths;
+        this.maxResponseBytes = maxResponseBytes;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = pathOf(request);
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, request, HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        if (!SecurityUtils.isAuthenticated()) {
+            // Rejected further down the chain anyway
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = pathOf(request);
+        byte[] body = readBody(request);
+        if (body == null) {
+            writeError(response, request, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Request body exceeds " + maxRequestBytes + " bytes");
+            return;
+        }
+        String requestHash = IdempotencyService.sha256(
+                (request.getMethod() + ' ' + path).getBytes(StandardCharsets.UTF_8),
+                String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8),
+                body);
+
+        IdempotencyService.Outcome outcome = idempotencyService.begin(
+                SecurityUtils.getCurrentUserId(), key, request.getMethod(), path, requestHash);
+
+        switch (outcome.type()) {
+            case REPLAY -> replay(response, outcome);
+            case MISMATCH -> writeError(response, request, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+            case IN_PROGRESS -> {
+                response.setHeader("Retry-After", "1");
+                writeError(response, request, HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still being processed");
+            }
+            default -> execute(new CachedBodyRequest(request, body), response, filterChain, outcome.id(), key);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+            String id, String key) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+
+            int status = cachingResponse.getStatus();
+            byte[] content = cachingResponse.getContentAsByteArray();
+            if (isReplayable(status) && content.length <= maxResponseBytes) {
+                idempotencyService.complete(id, status, cachingResponse.getContentType(),
+                        new String(content, StandardCharsets.UTF_8));
+                stored = true;
+            } else if (content.length > maxResponseBytes) {
+                logger.warn("Response for idempotency key {} too large to store ({} bytes)", key, content.length);
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(id);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Reads the body to hash it, or null once it is known to exceed maxRequestBytes
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxRequestBytes) {
+            return null;
+        }
+        // Chunked bodies carry no length: read one byte past the cap to notice
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        return body.length > maxRequestBytes ? null : body;
+    }
+
+    /**
+     * Successes and client errors are final; server errors, conflicts and
+     * throttling may succeed on retry
+     */
+    private static boolean isReplayable(int status) {
+        return status < 500 && status != HttpStatus.CONFLICT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyService.Outcome outcome) throws IOException {
+        IdempotencyRecord record = outcome.record();
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getResponseBody() != null) {
+            response.getOutputStream().write(record.getResponseBody().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpServletRequest request, HttpStatus status,
+            String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new GlobalExceptionHandler.ErrorResponse(status, message, pathOf(request)));
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Request whose body was read up front (to hash it) and is served again from memory
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory: ready at once, then done
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
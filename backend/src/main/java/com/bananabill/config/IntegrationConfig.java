@@ -0,0 +1,110 @@
+package com.bananabill.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outbound integrations (see OutboundHttpClient)
+ *
+ * One entry per provider: where it lives, how long a call may take, how often
+ * a failed call is retried and when its circuit breaker opens. Timeouts are
+ * further capped by the calling request's deadline.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "integrations")
+public class IntegrationConfig {
+
+    /**
+     * Threads completing outbound calls (responses, retries); callers never wait on them
+     */
+    private int threads = 4;
+
+    /**
+     * SMS OTPs
+     */
+    private Provider fast2sms = new Provider("https://www.fast2sms.com", 5000);
+
+    /**
+     * Bill image uploads
+     */
+    private Provider cloudinary = new Provider("https://api.cloudinary.com", 15000);
+
+    /**
+     * WhatsApp messages; an empty base-url keeps the hosts the Twilio SDK picks
+     */
+    private Provider twilio = new Provider("", 10000);
+
+    /**
+     * Providers by name, as used for OutboundHttpClient calls and metric tags
+     */
+    public Map<String, Provider> providers() {
+        Map<String, Provider> providers = new LinkedHashMap<>();
+        providers.put("fast2sms", fast2sms);
+        providers.put("cloudinary", cloudinary);
+        providers.put("twilio", twilio);
+        return providers;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Provider {
+
+        private String baseUrl = "";
+
+        /**
+         * Longest one attempt may take, connect to last byte
+         */
+        private long timeoutMs = 10000;
+
+        private long connectTimeoutMs = 3000;
+
+        /**
+         * Retries after the first attempt (only where a retry is safe, see OutboundHttpClient)
+         */
+        private int maxRetries = 2;
+
+        /**
+         * First retry delay; doubles per retry, with jitter
+         */
+        private long retryBackoffMs = 200;
+
+        /**
+         * Retries allowed per call made (0.2 = one retry per five calls), so
+         * an outage does not multiply the load on the provider
+         */
+        private double retryBudgetRatio = 0.2;
+
+        /**
+         * Retries that may be saved up while calls succeed
+         */
+        private int retryBudgetMax = 10;
+
+        /**
+         * Share of failed calls in the window that opens the circuit
+         */
+        private double circuitFailureRate = 0.5;
+
+        /**
+         * Calls the window needs before the failure rate counts
+         */
+        private int circuitMinimumCalls = 10;
+
+        private int circuitWindowSize = 20;
+
+        /**
+         * How long an open circuit fails calls at once before letting a trial call through
+         */
+        private long circuitOpenMs = 30000;
+
+        public Provider(String baseUrl, long timeoutMs) {
+            this.baseUrl = baseUrl;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bananabill.config;
+
+import com.mongodb.client.MongoClient;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Replaces Spring Boot's MongoDatabaseFactory with one that applies request
+ * deadlines as maxTimeMS (DeadlineMongoDatabaseFactory)
+ */
+@Configuration
+public class MongoDeadlineConfig {
+
+    @Bean
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient, MongoProperties properties) {
+        return new DeadlineMongoDatabaseFactory(mongoClient, properties.getMongoClientDatabase());
+    }
+}
@@ -2,7 +2,13 @@ package com.bananabill.config;
 
 import com.bananabill.model.Bill;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerLedger;
+import com.bananabill.model.IdempotencyRecord;
+import com.bananabill.model.JobRun;
 import com.bananabill.model.RefreshToken;
+import com.bananabill.model.ReminderClaim;
+import com.bananabill.model.ReportJob;
+import com.bananabill.model.ReportResult;
 import com.bananabill.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +21,8 @@ import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.IndexDefinition;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 
+import java.time.Duration;
+
 /**
  * MongoDB Index Configuration for optimal query performance
  * 
@@ -38,6 +46,11 @@ public class MongoIndexConfig {
             createFarmerIndexes(mongoTemplate);
             createUserIndexes(mongoTemplate);
             createRefreshTokenIndexes(mongoTemplate);
+            createLedgerIndexes(mongoTemplate);
+            createIdempotencyIndexes(mongoTemplate);
+            createReminderIndexes(mongoTemplate);
+            createJobIndexes(mongoTemplate);
+            createReportJobIndexes(mongoTemplate);
 
             logger.info("MongoDB index creation process completed");
         };
@@ -58,6 +71,20 @@ public class MongoIndexConfig {
         }
     }
 
+    /**
+     * Drop an index this version no longer creates, if it exists
+     */
+    private void dropIndexSafely(IndexOperations indexOps, String indexName) {
+        try {
+            if (indexOps.getIndexInfo().stream().anyMatch(info -> indexName.equals(info.getName()))) {
+                indexOps.dropIndex(indexName);
+                logger.info("Dropped retired index {}", indexName);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to drop index {}: {}", indexName, e.getMessage());
+        }
+    }
+
     /**
      * Bill Collection Indexes
      * Most queried collection - needs careful optimization
@@ -105,12 +132,15 @@ public class MongoIndexConfig {
                         .on("createdAt", Sort.Direction.DESC)
                         .named("idx_bill_payment_date"));
 
-        // 7. Compound index for overdue bills
+        // 7. Compound index for overdue bills; _id last so the reminder scan's
+        // (dueDate, _id) keyset sort is read from the index across both statuses
         ensureIndexSafely(billIndexOps,
                 new Index()
                         .on("paymentStatus", Sort.Direction.ASC)
                         .on("dueDate", Sort.Direction.ASC)
-                        .named("idx_bill_overdue"));
+                        .on("_id", Sort.Direction.ASC)
+                        .named("idx_bill_overdue_scan"));
+        dropIndexSafely(billIndexOps, "idx_bill_overdue");
 
         // 8. Compound index for user + payment status
         ensureIndexSafely(billIndexOps,
@@ -119,6 +149,17 @@ public class MongoIndexConfig {
                         .on("paymentStatus", Sort.Direction.ASC)
                         .named("idx_bill_user_payment"));
 
+        // 9. Farmer's bills newest first (summary listings); recent summaries use idx_bill_created_desc.
+        // Only filter and sort keys: the listings read a page of documents, and a covering
+        // index over every summary field cost more on each bill write than it saved
+        ensureIndexSafely(billIndexOps,
+                new Index()
+                        .on("farmerId", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .named("idx_bill_farmer_date"));
+        dropIndexSafely(billIndexOps, "idx_bill_recent_summary");
+        dropIndexSafely(billIndexOps, "idx_bill_farmer_summary");
+
         logger.debug("Processed indexes on bills collection");
     }
 
@@ -148,7 +189,15 @@ public class MongoIndexConfig {
                         .on("name", Sort.Direction.ASC)
                         .named("idx_farmer_user_name"));
 
-        // 4. Text index for farmer name search
+        // 4. Keyset paging of user's farmers on (name, _id)
+        ensureIndexSafely(farmerIndexOps,
+                new Index()
+                        .on("createdBy", Sort.Direction.ASC)
+                        .on("name", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("idx_farmer_user_name_id"));
+
+        // 5. Text index for farmer name search
         ensureIndexSafely(farmerIndexOps,
                 new Index()
                         .on("name", Sort.Direction.ASC)
@@ -202,4 +251,102 @@ public class MongoIndexConfig {
 
         logger.debug("Processed indexes on refresh_tokens collection");
     }
+
+    /**
+     * FarmerLedger Collection Indexes
+     */
+    private void createLedgerIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations ledgerIndexOps = mongoTemplate.indexOps(FarmerLedger.class);
+
+        // 1. Keyset paging of user's farmer balances on (farmerName, _id)
+        ensureIndexSafely(ledgerIndexOps,
+                new Index()
+                        .on("createdBy", Sort.Direction.ASC)
+                        .on("farmerName", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("idx_ledger_user_name_id"));
+
+        logger.debug("Processed indexes on farmer_ledgers collection");
+    }
+
+    /**
+     * IdempotencyRecord Collection Indexes
+     */
+    private void createIdempotencyIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations idempotencyIndexOps = mongoTemplate.indexOps(IdempotencyRecord.class);
+
+        // 1. TTL index - records are removed once expiresAt has passed
+        ensureIndexSafely(idempotencyIndexOps,
+                new Index()
+                        .on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO)
+                        .named("idx_idempotency_ttl"));
+
+        logger.debug("Processed indexes on idempotency_keys collection");
+    }
+
+    private void createReminderIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations reminderIndexOps = mongoTemplate.indexOps(ReminderClaim.class);
+
+        // 1. TTL index - claims disappear when the farmer's cool-down ends
+        ensureIndexSafely(reminderIndexOps,
+                new Index()
+                        .on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO)
+                        .named("idx_reminder_claim_ttl"));
+
+        logger.debug("Processed indexes on reminder_claims collection");
+    }
+
+    private void createJobIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations jobRunIndexOps = mongoTemplate.indexOps(JobRun.class);
+
+        // 1. Run history per job, newest first
+        ensureIndexSafely(jobRunIndexOps,
+                new Index()
+                        .on("jobName", Sort.Direction.ASC)
+                        .on("startedAt", Sort.Direction.DESC)
+                        .named("idx_job_run_history"));
+
+        // 2. TTL index - history is kept for jobs.history-days
+        ensureIndexSafely(jobRunIndexOps,
+                new Index()
+                        .on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO)
+                        .named("idx_job_run_ttl"));
+
+        logger.debug("Processed indexes on job_runs collection");
+    }
+
+    private void createReportJobIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations reportJobIndexOps = mongoTemplate.indexOps(ReportJob.class);
+
+        // 1. A trader's jobs, newest first (also counts pending jobs per trader)
+        ensureIndexSafely(reportJobIndexOps,
+                new Index()
+                        .on("userId", Sort.Direction.ASC)
+                        .on("submittedAt", Sort.Direction.DESC)
+                        .named("idx_report_job_user"));
+
+        // 2. Stale job sweep (ReportJobReaper)
+        ensureIndexSafely(reportJobIndexOps,
+                new Index()
+                        .on("status", Sort.Direction.ASC)
+                        .on("submittedAt", Sort.Direction.ASC)
+                        .named("idx_report_job_status"));
+
+        // 3. TTL indexes - jobs and results expire after report.jobs.ttl-hours
+        ensureIndexSafely(reportJobIndexOps,
+                new Index()
+                        .on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO)
+                        .named("idx_report_job_ttl"));
+        ensureIndexSafely(mongoTemplate.indexOps(ReportResult.class),
+                new Index()
+                        .on("expiresAt", Sort.Direction.ASC)
+                        .expire(Duration.ZERO)
+                        .named("idx_report_result_ttl"));
+
+        logger.debug("Processed indexes on report_jobs and report_results collections");
+    }
 }
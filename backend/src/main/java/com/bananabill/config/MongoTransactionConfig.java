@@ -0,0 +1,24 @@
+package com.bananabill.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document MongoDB transactions
+ *
+ * Off by default because transactions need a replica set (a standalone
+ * mongod rejects them). When enabled, every @Transactional service method
+ * runs in a Mongo session and its writes commit or roll back together.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mongo.transactions.enabled", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
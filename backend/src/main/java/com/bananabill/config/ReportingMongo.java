@@ -0,0 +1,115 @@
+package com.bananabill.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * MongoDB access for reporting reads
+ *
+ * With mongo.reporting.enabled, reports read through their own MongoClient:
+ * a separate, smaller connection pool that prefers secondaries, so month-end
+ * reports cannot drain the pool bill entry writes through. Otherwise reports
+ * share the application's MongoTemplate.
+ *
+ * With reports.stream.reactive, streaming reads (ReportStreamService) get a
+ * reactive client of their own, with the reporting settings when those are
+ * enabled. It is the only reactive pool: Spring Boot's reactive MongoDB
+ * auto-configuration is excluded, so without the flag no second pool exists
+ * and streams page through template() instead.
+ *
+ * Kept out of the bean types on purpose: a second MongoClient or MongoTemplate
+ * bean would switch off Spring Boot's auto-configured primary ones.
+ */
+@Component
+public class ReportingMongo implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportingMongo.class);
+
+    private final MongoTemplate template;
+    private final MongoClient client;
+    private final ReactiveMongoTemplate reactiveTemplate;
+    private final com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+
+    public ReportingMongo(MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${mongo.reporting.enabled:false}") boolean enabled,
+            @Value("${mongo.reporting.uri:${spring.data.mongodb.uri:mongodb://localhost:27017/banana_bill_learning}}") String uri,
+            @Value("${mongo.reporting.read-preference:secondaryPreferred}") String readPreference,
+            @Value("${mongo.reporting.max-pool-size:10}") int maxPoolSize,
+            @Value("${reports.stream.reactive:false}") boolean reactive) {
+        String databaseName = mongoTemplate.getDb().getName();
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(maxPoolSize)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)))
+                .applicationName("bananabill-reporting");
+        if (enabled) {
+            settings.readPreference(ReadPreference.valueOf(readPreference));
+            this.client = MongoClients.create(settings.build());
+            // Same database, converter and request deadlines as the primary template
+            this.template = new MongoTemplate(new DeadlineMongoDatabaseFactory(client, databaseName),
+                    mongoTemplate.getConverter());
+            logger.info("Reporting reads use a separate MongoDB pool (max {}, {})", maxPoolSize, readPreference);
+        } else {
+            this.client = null;
+            this.template = mongoTemplate;
+        }
+
+        if (reactive) {
+            this.reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(settings.build());
+            this.reactiveTemplate = new ReactiveMongoTemplate(
+                    new SimpleReactiveMongoDatabaseFactory(reactiveClient, databaseName),
+                    mongoTemplate.getConverter());
+            logger.info("Streamed report reads use a reactive MongoDB pool (max {})", maxPoolSize);
+        } else {
+            this.reactiveClient = null;
+            this.reactiveTemplate = null;
+        }
+    }
+
+    /**
+     * Template for report queries; may read slightly stale data from a secondary
+     */
+    public MongoTemplate template() {
+        return template;
+    }
+
+    /**
+     * Reactive template for streamed report reads, null unless reports.stream.reactive
+     */
+    public ReactiveMongoTemplate reactiveTemplate() {
+        return reactiveTemplate;
+    }
+
+    public boolean isReactive() {
+        return reactiveTemplate != null;
+    }
+
+    public boolean isSeparatePool() {
+        return client != null;
+    }
+
+    @Override
+    public void destroy() {
+        if (client != null) {
+            client.close();
+        }
+        if (reactiveClient != null) {
+            reactiveClient.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bananabill.config;
+
+import com.bananabill.util.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the request's time budget (RequestDeadline)
+ *
+ * deadlines.budgets lists "METHOD /pattern=millis" entries, first match
+ * wins; other requests get deadlines.default-ms. A budget of 0 means no
+ * deadline (e.g. the SSE stream). Runs ahead of the load-shedding filters,
+ * so time spent waiting for a slot counts against the budget.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 30)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final long defaultMillis;
+    private final List<Budget> budgets = new ArrayList<>();
+
+    public RequestDeadlineFilter(
+            @Value("${deadlines.enabled:true}") boolean enabled,
+            @Value("${deadlines.default-ms:10000}") long defaultMillis,
+            @Value("${deadlines.budgets:GET /dashboard/stream=0,GET /reports/**=30000}") List<String> budgets) {
+        this.enabled = enabled;
+        this.defaultMillis = defaultMillis;
+        for (String spec : budgets) {
+            int separator = spec.lastIndexOf('=');
+            if (separator > 0) {
+                this.budgets.add(new Budget(EndpointPatterns.of(List.of(spec.substring(0, separator))),
+                        Long.parseLong(spec.substring(separator + 1).trim())));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        long budget = budgetFor(request);
+        if (budget <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestDeadline.start(Duration.ofMillis(budget));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    long budgetFor(HttpServletRequest request) {
+        for (Budget budget : budgets) {
+            if (budget.endpoints().matches(request)) {
+                return budget.millis();
+            }
+        }
+        return defaultMillis;
+    }
+
+    private record Budget(EndpointPatterns endpoints, long millis) {
+    }
+}
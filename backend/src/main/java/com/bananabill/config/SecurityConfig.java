@@ -1,6 +1,7 @@
 package com.bananabill.config;
 
 import com.bananabill.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -81,6 +82,9 @@ public class SecurityConfig {
 
                                 // Authorization rules
                                 .authorizeHttpRequests(auth -> auth
+                                                // Async re-dispatch of an already authorized
+                                                // streaming request (SSE) carries no JWT header
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 // Public: Auth endpoints
                                                 .requestMatchers("/auth/**").permitAll()
                                                 // Public: Health checks
@@ -1,23 +1,41 @@
 package com.bananabill.controller;
 
+import com.bananabill.dto.AllocatePaymentRequest;
+import com.bananabill.dto.BillLookupRequest;
 import com.bananabill.dto.CreateBillRequest;
 import com.bananabill.dto.response.ApiResponse;
+import com.bananabill.dto.response.BillLookupResult;
 import com.bananabill.dto.response.BillResponse;
+import com.bananabill.dto.response.PaymentAllocationResult;
+import com.bananabill.exception.ValidationException;
 import com.bananabill.model.Bill;
+import com.bananabill.service.BillQueryService;
 import com.bananabill.service.BillService;
+import com.bananabill.service.ImageUploadService;
+import com.bananabill.service.PaymentAllocationService;
+import com.bananabill.service.ReportStreamService;
 import com.bananabill.service.WhatsAppService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import com.bananabill.util.DateRangeParser;
 
@@ -32,13 +50,25 @@ public class BillController {
 
     private static final Logger logger = LoggerFactory.getLogger(BillController.class);
 
+    private static final String SUMMARY_VIEW = "summary";
+
     private final BillService billService;
+    private final BillQueryService billQueryService;
     private final WhatsAppService whatsAppService;
+    private final PaymentAllocationService paymentAllocationService;
+    private final ReportStreamService reportStreamService;
+    private final ImageUploadService imageUploadService;
 
     // Constructor injection (best practice)
-    public BillController(BillService billService, WhatsAppService whatsAppService) {
+    public BillController(BillService billService, BillQueryService billQueryService,
+            WhatsAppService whatsAppService, PaymentAllocationService paymentAllocationService,
+            ReportStreamService reportStreamService, ImageUploadService imageUploadService) {
         this.billService = billService;
+        this.billQueryService = billQueryService;
         this.whatsAppService = whatsAppService;
+        this.paymentAllocationService = paymentAllocationService;
+        this.reportStreamService = reportStreamService;
+        this.imageUploadService = imageUploadService;
     }
 
     // ===================== CRUD OPERATIONS =====================
@@ -54,7 +84,8 @@ public class BillController {
         Bill bill = billService.createBill(request);
 
         logger.info("Bill created: {}", bill.getBillNumber());
-        return ResponseEntity.ok(ApiResponse.success("Bill created successfully", BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success("Bill created successfully",
+                BillResponse.from(bill, billService.getFarmerVillage(bill))));
     }
 
     /**
@@ -67,7 +98,7 @@ public class BillController {
 
         Bill bill = billService.getBillById(id);
 
-        return ResponseEntity.ok(ApiResponse.success(BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success(BillResponse.from(bill, billService.getFarmerVillage(bill))));
     }
 
     /**
@@ -80,7 +111,27 @@ public class BillController {
 
         Bill bill = billService.getBillByNumber(billNumber);
 
-        return ResponseEntity.ok(ApiResponse.success(BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success(BillResponse.from(bill, billService.getFarmerVillage(bill))));
+    }
+
+    /**
+     * Fetch many bills by id and/or bill number in one call
+     * POST /api/bills/lookup  Body: { "keys": ["BB250300001", "65f0..."] }
+     * Results follow request order; unknown keys come back with found=false
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<List<BillLookupResult>>> lookupBills(
+            @Valid @RequestBody BillLookupRequest request) {
+        logger.debug("Bulk bill lookup for {} keys", request.getKeys().size());
+
+        List<BillService.BillLookup> lookups = billService.lookupBills(request.getKeys());
+        Map<String, String> villages = billService.getFarmerVillages(
+                lookups.stream().map(BillService.BillLookup::bill).filter(Objects::nonNull).toList());
+        List<BillLookupResult> results = lookups.stream()
+                .map(lookup -> BillLookupResult.from(lookup, villages))
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(results));
     }
 
     /**
@@ -96,7 +147,8 @@ public class BillController {
         Bill updatedBill = billService.updateBill(id, request);
 
         logger.info("Bill updated: {}", updatedBill.getBillNumber());
-        return ResponseEntity.ok(ApiResponse.success("Bill updated successfully", BillResponse.from(updatedBill)));
+        return ResponseEntity.ok(ApiResponse.success("Bill updated successfully",
+                BillResponse.from(updatedBill, billService.getFarmerVillage(updatedBill))));
     }
 
     /**
@@ -116,29 +168,50 @@ public class BillController {
 
     /**
      * Get bills by farmer mobile
-     * GET /api/bills/farmer/{mobile}
+     * GET /api/bills/farmer/{mobile}?view=summary | ?fields=billNumber,netAmount
      */
     @GetMapping("/farmer/{mobile}")
-    public ResponseEntity<ApiResponse<List<BillResponse>>> getBillsByFarmerMobile(@PathVariable String mobile) {
+    public ResponseEntity<ApiResponse<List<?>>> getBillsByFarmerMobile(
+            @PathVariable String mobile,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
         logger.debug("Fetching bills for farmer mobile: ******{}", mobile.substring(Math.max(0, mobile.length() - 4)));
 
+        if (fields != null) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    billQueryService.getBillFields(BillQueryService.Listing.FARMER, fields, mobile, 0)));
+        }
+        if (SUMMARY_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(ApiResponse.success(billQueryService.getFarmerSummaries(mobile)));
+        }
+
         List<Bill> bills = billService.getBillsByFarmerMobile(mobile);
-        List<BillResponse> responses = bills.stream().map(BillResponse::from).toList();
+        List<BillResponse> responses = toResponses(bills);
 
         return ResponseEntity.ok(ApiResponse.success(responses));
     }
 
     /**
      * Get recent bills
-     * GET /api/bills/recent?limit=10
+     * GET /api/bills/recent?limit=10&view=summary | &fields=billNumber,netAmount
      */
     @GetMapping("/recent")
-    public ResponseEntity<ApiResponse<List<BillResponse>>> getRecentBills(
-            @RequestParam(defaultValue = "10") @Min(1) int limit) {
+    public ResponseEntity<ApiResponse<List<?>>> getRecentBills(
+            @RequestParam(defaultValue = "10") @Min(1) int limit,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
         logger.debug("Fetching {} recent bills", limit);
 
+        if (fields != null) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    billQueryService.getBillFields(BillQueryService.Listing.RECENT, fields, null, limit)));
+        }
+        if (SUMMARY_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(ApiResponse.success(billQueryService.getRecentSummaries(limit)));
+        }
+
         List<Bill> bills = billService.getRecentBills(limit);
-        List<BillResponse> responses = bills.stream().map(BillResponse::from).toList();
+        List<BillResponse> responses = toResponses(bills);
 
         return ResponseEntity.ok(ApiResponse.success(responses));
     }
@@ -158,6 +231,28 @@ public class BillController {
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
+    /**
+     * Export bills in a date range as CSV, streamed as the client reads it
+     * GET /api/bills/export?startDate=2024-01-01&endDate=2024-03-31
+     */
+    @GetMapping(value = "/export", produces = "text/csv;charset=UTF-8")
+    public ResponseEntity<Flux<String>> exportBills(
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        logger.info("Exporting bills: {} to {}", startDate, endDate);
+
+        DateRangeParser.DateRange range = DateRangeParser.parse(startDate, endDate);
+        if (!range.hasStartDate() || !range.hasEndDate() || range.endDate().isBefore(range.startDate())) {
+            throw new ValidationException("startDate", "Export needs a start date on or before the end date");
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bills-" + range.startDate().toLocalDate() + "-to-"
+                                + range.endDate().toLocalDate() + ".csv\"")
+                .body(reportStreamService.exportCsv(range.startDate(), range.endDate()));
+    }
+
     // ===================== STATISTICS =====================
 
     /**
@@ -207,7 +302,8 @@ public class BillController {
 
         Bill bill = billService.markAsPaid(id);
 
-        return ResponseEntity.ok(ApiResponse.success("Bill marked as paid", BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success("Bill marked as paid",
+                BillResponse.from(bill, billService.getFarmerVillage(bill))));
     }
 
     /**
@@ -222,29 +318,65 @@ public class BillController {
 
         Bill bill = billService.recordPayment(id, amount);
 
-        return ResponseEntity.ok(ApiResponse.success("Payment recorded", BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success("Payment recorded",
+                BillResponse.from(bill, billService.getFarmerVillage(bill))));
+    }
+
+    /**
+     * Apply one lump-sum payment across a farmer's unpaid bills, oldest first
+     * POST /api/bills/allocate-payment  Body: { "farmerId": "...", "amount": 25000, "billIds": [...] }
+     * billIds is optional and pays exactly those bills in the given order
+     */
+    @PostMapping("/allocate-payment")
+    public ResponseEntity<ApiResponse<PaymentAllocationResult>> allocatePayment(
+            @Valid @RequestBody AllocatePaymentRequest request) {
+        logger.info("Allocating payment of {} for farmer {}", request.getAmount(), request.getFarmerId());
+
+        PaymentAllocationResult result = paymentAllocationService.allocate(request);
+
+        return ResponseEntity.ok(ApiResponse.success("Payment allocated", result));
     }
 
     /**
      * Get unpaid bills
-     * GET /api/bills/unpaid
+     * GET /api/bills/unpaid?view=summary | ?fields=billNumber,netAmount
      */
     @GetMapping("/unpaid")
-    public ResponseEntity<ApiResponse<List<BillResponse>>> getUnpaidBills() {
+    public ResponseEntity<ApiResponse<List<?>>> getUnpaidBills(
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    billQueryService.getBillFields(BillQueryService.Listing.UNPAID, fields, null, 0)));
+        }
+        if (SUMMARY_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(ApiResponse.success(billQueryService.getUnpaidSummaries()));
+        }
+
         List<Bill> bills = billService.getUnpaidBills();
-        List<BillResponse> responses = bills.stream().map(BillResponse::from).toList();
+        List<BillResponse> responses = toResponses(bills);
 
         return ResponseEntity.ok(ApiResponse.success(responses));
     }
 
     /**
      * Get overdue bills
-     * GET /api/bills/overdue
+     * GET /api/bills/overdue?view=summary | ?fields=billNumber,dueDate
      */
     @GetMapping("/overdue")
-    public ResponseEntity<ApiResponse<List<BillResponse>>> getOverdueBills() {
+    public ResponseEntity<ApiResponse<List<?>>> getOverdueBills(
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    billQueryService.getBillFields(BillQueryService.Listing.OVERDUE, fields, null, 0)));
+        }
+        if (SUMMARY_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(ApiResponse.success(billQueryService.getOverdueSummaries()));
+        }
+
         List<Bill> bills = billService.getOverdueBills();
-        List<BillResponse> responses = bills.stream().map(BillResponse::from).toList();
+        List<BillResponse> responses = toResponses(bills);
 
         return ResponseEntity.ok(ApiResponse.success(responses));
     }
@@ -262,7 +394,8 @@ public class BillController {
         LocalDateTime due = LocalDateTime.parse(dueDate);
         Bill bill = billService.setDueDate(id, due);
 
-        return ResponseEntity.ok(ApiResponse.success("Due date set", BillResponse.from(bill)));
+        return ResponseEntity.ok(ApiResponse.success("Due date set",
+                BillResponse.from(bill, billService.getFarmerVillage(bill))));
     }
 
     /**
@@ -294,6 +427,62 @@ public class BillController {
         return ResponseEntity.ok(ApiResponse.success("WhatsApp sent", result));
     }
 
+    /**
+     * Send bill to WhatsApp with the bill image uploaded as a file
+     * POST /api/bills/{id}/send-whatsapp (multipart/form-data, part "image")
+     * Optional header X-Content-SHA256: hex SHA-256 of the image
+     */
+    @PostMapping(value = "/{id}/send-whatsapp", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<Map<String, String>>> sendBillImageToWhatsApp(
+            @PathVariable String id,
+            @RequestPart("image") MultipartFile image,
+            @RequestHeader(value = "X-Content-SHA256", required = false) String sha256) throws IOException {
+        try (InputStream in = image.getInputStream()) {
+            return sendWithImage(id, in, sha256);
+        }
+    }
+
+    /**
+     * Send bill to WhatsApp with the bill image as the raw request body
+     * POST /api/bills/{id}/send-whatsapp (Content-Type image/png or image/jpeg)
+     * Optional header X-Content-SHA256: hex SHA-256 of the image
+     */
+    @PostMapping(value = "/{id}/send-whatsapp", consumes = { MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE })
+    public ResponseEntity<ApiResponse<Map<String, String>>> sendBillImageBytesToWhatsApp(
+            @PathVariable String id,
+            HttpServletRequest request,
+            @RequestHeader(value = "X-Content-SHA256", required = false) String sha256) throws IOException {
+        return sendWithImage(id, request.getInputStream(), sha256);
+    }
+
+    /**
+     * Bill list responses with each farmer's village, looked up in one query
+     */
+    private List<BillResponse> toResponses(List<Bill> bills) {
+        Map<String, String> villages = billService.getFarmerVillages(bills);
+        return bills.stream()
+                .map(bill -> BillResponse.from(bill, villages.get(bill.getFarmerId())))
+                .toList();
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, String>>> sendWithImage(String id, InputStream image,
+            String sha256) throws IOException {
+        Bill bill = billService.getBillById(id);
+        logger.info("Sending bill {} to WhatsApp with uploaded image", bill.getBillNumber());
+
+        ImageUploadService.UploadedImage uploaded = imageUploadService.uploadImage(image, sha256);
+        whatsAppService.sendBillToFarmer(bill, uploaded.url());
+
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("message", uploaded.url() != null
+                ? "Bill sent to WhatsApp successfully!"
+                : "Bill sent to WhatsApp without image (image upload unavailable)");
+        result.put("phone", bill.getFarmer().getMobileNumber());
+        result.put("sha256", uploaded.sha256());
+
+        return ResponseEntity.ok(ApiResponse.success("WhatsApp sent", result));
+    }
+
     /**
      * Send payment confirmation via WhatsApp
      * POST /api/bills/{id}/send-confirmation
@@ -1,39 +1,58 @@
 package com.bananabill.controller;
 
-import com.bananabill.model.Bill;
-import com.bananabill.service.BillService;
+import com.bananabill.dto.response.ApiResponse;
+import com.bananabill.dto.response.DashboardSummary;
+import com.bananabill.service.DashboardService;
+import com.bananabill.service.DashboardStreamService;
+import com.bananabill.util.SecurityUtils;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/dashboard")
 public class DashboardController {
 
-    private final BillService billService;
+    private final DashboardService dashboardService;
+    private final DashboardStreamService streamService;
 
-    public DashboardController(BillService billService) {
-        this.billService = billService;
+    public DashboardController(DashboardService dashboardService, DashboardStreamService streamService) {
+        this.dashboardService = dashboardService;
+        this.streamService = streamService;
     }
 
-    @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
+    /**
+     * Counts, today's weight/amount, outstanding balance and recent bills in one call
+     * GET /api/dashboard/summary
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<DashboardSummary>> getDashboardSummary() {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getSummary()));
+    }
 
-        // Get today's bills count
-        Long todayCount = billService.getTodayBillsCount();
-        stats.put("todayBills", todayCount);
+    /**
+     * Live dashboard deltas (Server-Sent Events) for the current trader
+     * GET /api/dashboard/stream   Header: Last-Event-ID to resume after a reconnect
+     * Event names: BILL_CREATED, BILL_UPDATED, BILL_DELETED, PAYMENT_RECORDED, resync
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return streamService.subscribe(SecurityUtils.getCurrentUserId(), lastEventId);
+    }
 
-        // Get total bills count
-        Long totalCount = billService.getTotalBillsCount();
-        stats.put("totalBills", totalCount);
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getDashboardStats() {
+        DashboardSummary summary = dashboardService.getSummary();
 
-        // Get recent bills
-        List<Bill> recentBills = billService.getRecentBills(10);
-        stats.put("recentBills", recentBills);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("todayBills", summary.todayBills());
+        stats.put("totalBills", summary.totalBills());
+        stats.put("recentBills", summary.recentBills());
 
         return ResponseEntity.ok(stats);
     }
@@ -2,15 +2,23 @@ package com.bananabill.controller;
 
 import com.bananabill.dto.FarmerRequest;
 import com.bananabill.dto.response.ApiResponse;
+import com.bananabill.dto.response.CursorPageResponse;
 import com.bananabill.exception.ResourceNotFoundException;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerLedger;
+import com.bananabill.service.AdvancePoolService;
+import com.bananabill.service.FarmerLedgerService;
 import com.bananabill.service.FarmerService;
+import com.bananabill.service.FarmerSuggestIndex;
+import com.bananabill.util.SecurityUtils;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -24,10 +32,15 @@ public class FarmerController {
     private static final Logger logger = LoggerFactory.getLogger(FarmerController.class);
 
     private final FarmerService farmerService;
+    private final FarmerLedgerService ledgerService;
+    private final AdvancePoolService advancePoolService;
 
     // Constructor injection
-    public FarmerController(FarmerService farmerService) {
+    public FarmerController(FarmerService farmerService, FarmerLedgerService ledgerService,
+            AdvancePoolService advancePoolService) {
         this.farmerService = farmerService;
+        this.ledgerService = ledgerService;
+        this.advancePoolService = advancePoolService;
     }
 
     /**
@@ -72,6 +85,88 @@ public class FarmerController {
         return ResponseEntity.ok(ApiResponse.success(farmers));
     }
 
+    /**
+     * Page through current user's farmers by name (keyset cursor)
+     * GET /api/farmers/page?size=50&cursor=...&view=list|full
+     * Sends a weak ETag; If-None-Match on an unchanged page returns 304
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPageResponse<?>>> getFarmerPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "list") String view,
+            WebRequest webRequest) {
+        FarmerService.FarmerPage page = farmerService.getFarmerPage(cursor,
+                Math.max(1, Math.min(size, 200)), !"full".equalsIgnoreCase(view));
+
+        if (webRequest.checkNotModified(page.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(page.etag())
+                .body(ApiResponse.success(page.page()));
+    }
+
+    /**
+     * Typeahead suggestions by mobile or name prefix (Latin or Devanagari)
+     * GET /api/farmers/suggest?q=ram&limit=10
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<FarmerSuggestIndex.Suggestion>>> suggestFarmers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<FarmerSuggestIndex.Suggestion> suggestions = farmerService.suggestFarmers(q,
+                Math.max(1, Math.min(limit, 50)));
+
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+
+    /**
+     * Current user's farmers with running balances, by name (keyset cursor)
+     * GET /api/farmers/balances?size=50&cursor=...&outstanding=true
+     */
+    @GetMapping("/balances")
+    public ResponseEntity<ApiResponse<CursorPageResponse<FarmerLedger>>> getFarmerBalances(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean outstanding) {
+        CursorPageResponse<FarmerLedger> page = ledgerService.getBalancesPage(cursor,
+                Math.max(1, Math.min(size, 200)), outstanding);
+
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * Recompute current user's farmer ledgers from their bills
+     * POST /api/farmers/balances/rebuild
+     */
+    @PostMapping("/balances/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildFarmerBalances() {
+        logger.info("Rebuilding farmer ledgers");
+
+        int ledgers = ledgerService.rebuildAll(SecurityUtils.getCurrentUserId());
+
+        return ResponseEntity.ok(ApiResponse.success("Farmer ledgers rebuilt", ledgers));
+    }
+
+    /**
+     * Farmer statement: totals, outstanding and advance balance, last bill and payment
+     * GET /api/farmers/{id}/ledger
+     */
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<ApiResponse<FarmerLedger>> getFarmerLedger(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(ledgerService.getLedger(id)));
+    }
+
+    /**
+     * Unused advance that the farmer's next bill will be paid from
+     * GET /api/farmers/{id}/advance
+     */
+    @GetMapping("/{id}/advance")
+    public ResponseEntity<ApiResponse<BigDecimal>> getFarmerAdvance(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(advancePoolService.getBalance(id)));
+    }
+
     /**
      * Get farmer by ID
      * GET /api/farmers/{id}
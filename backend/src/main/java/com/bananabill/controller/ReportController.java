@@ -1,19 +1,42 @@
 package com.bananabill.controller;
 
+import com.bananabill.dto.ReportJobRequest;
 import com.bananabill.dto.response.ApiResponse;
+import com.bananabill.dto.response.ReportJobResponse;
+import com.bananabill.model.Bill;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.ReportJob;
+import com.bananabill.service.BillAnalyticsCache;
+import com.bananabill.service.ReportJobService;
 import com.bananabill.service.ReportService;
+import com.bananabill.service.ReportStreamService;
 import com.bananabill.service.WhatsAppService;
+import com.bananabill.util.SecurityUtils;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Report Controller - Analytics and reporting APIs
@@ -26,26 +49,33 @@ public class ReportController {
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
 
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final ReportStreamService reportStreamService;
     private final WhatsAppService whatsAppService;
 
     // Constructor injection
-    public ReportController(ReportService reportService, WhatsAppService whatsAppService) {
+    public ReportController(ReportService reportService, ReportJobService reportJobService,
+            ReportStreamService reportStreamService, WhatsAppService whatsAppService) {
         this.reportService = reportService;
+        this.reportJobService = reportJobService;
+        this.reportStreamService = reportStreamService;
         this.whatsAppService = whatsAppService;
     }
 
     /**
-     * Get monthly report
+     * Get monthly report statistics; the bills themselves come from /monthly/bills
+     * (billsUrl in the report), or inline with includeBills=true
      * GET /api/reports/monthly?year=2024&month=12
      */
     @GetMapping("/monthly")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getMonthlyReport(
             @RequestParam @Min(2020) @Max(2100) int year,
-            @RequestParam @Min(1) @Max(12) int month) {
+            @RequestParam @Min(1) @Max(12) int month,
+            @RequestParam(defaultValue = "false") boolean includeBills) {
 
         logger.info("Generating monthly report for {}/{}", month, year);
 
-        Map<String, Object> report = reportService.getMonthlyReport(year, month);
+        Map<String, Object> report = reportService.getMonthlyReport(year, month, includeBills);
 
         return ResponseEntity.ok(ApiResponse.success(report));
     }
@@ -64,24 +94,171 @@ public class ReportController {
     }
 
     /**
-     * Get report for a specific date range
+     * Get report statistics for a date range; bills from /date-range/bills, or
+     * inline with includeBills=true
      * GET /api/reports/date-range?startDate=2024-01-01&endDate=2024-01-31
      */
     @GetMapping("/date-range")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getDateRangeReport(
             @RequestParam String startDate,
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "false") boolean includeBills) {
 
         logger.info("Generating date range report: {} to {}", startDate, endDate);
 
         LocalDate start = LocalDate.parse(startDate);
         LocalDate end = LocalDate.parse(endDate);
 
-        Map<String, Object> report = reportService.getDateRangeReport(start, end);
+        Map<String, Object> report = reportService.getDateRangeReport(start, end, includeBills);
 
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
+    /**
+     * Get filtered report summary (served from the analytics cache when enabled)
+     * GET
+     * /api/reports/summary?startDate=...&endDate=...&farmerId=...&paymentStatus=...&minWeight=...&maxWeight=...
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getReportSummary(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String farmerId,
+            @RequestParam(required = false) PaymentStatus paymentStatus,
+            @RequestParam(required = false) BigDecimal minWeight,
+            @RequestParam(required = false) BigDecimal maxWeight) {
+
+        logger.debug("Generating report summary: {} to {}", startDate, endDate);
+
+        BillAnalyticsCache.Filter filter = new BillAnalyticsCache.Filter(
+                startDate != null && !startDate.isBlank() ? LocalDate.parse(startDate) : null,
+                endDate != null && !endDate.isBlank() ? LocalDate.parse(endDate) : null,
+                farmerId != null && !farmerId.isBlank() ? farmerId : null,
+                paymentStatus,
+                minWeight,
+                maxWeight);
+
+        Map<String, Object> summary = reportService.getReportSummary(filter);
+
+        return ResponseEntity.ok(ApiResponse.success(summary));
+    }
+
+    // ==================== STREAMED BILLS ====================
+
+    /**
+     * Stream a month's bills as NDJSON (one bill per line) instead of one JSON document
+     * Pair with /monthly?includeBills=false for the statistics
+     * GET /api/reports/monthly/bills?year=2024&month=12
+     */
+    @GetMapping(value = "/monthly/bills", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Bill> streamMonthlyBills(
+            @RequestParam @Min(2020) @Max(2100) int year,
+            @RequestParam @Min(1) @Max(12) int month) {
+
+        logger.info("Streaming bills for {}/{}", month, year);
+
+        return reportStreamService.streamMonth(YearMonth.of(year, month));
+    }
+
+    /**
+     * Stream the bills of a date range as NDJSON
+     * GET /api/reports/date-range/bills?startDate=2024-01-01&endDate=2024-01-31
+     */
+    @GetMapping(value = "/date-range/bills", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Bill> streamDateRangeBills(
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+
+        logger.info("Streaming bills: {} to {}", startDate, endDate);
+
+        return reportStreamService.streamBills(LocalDate.parse(startDate).atStartOfDay(),
+                LocalDate.parse(endDate).atTime(LocalTime.MAX));
+    }
+
+    // ==================== REPORT JOBS ====================
+
+    /**
+     * Queue a report to run in the background
+     * POST /api/reports/jobs
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitReportJob(
+            @Valid @RequestBody ReportJobRequest request) {
+
+        ReportJob job = reportJobService.submit(SecurityUtils.getCurrentUserId(), request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/reports/jobs/" + job.getId())
+                .body(ApiResponse.success("Report queued", ReportJobResponse.from(job)));
+    }
+
+    /**
+     * List the current user's report jobs, newest first
+     * GET /api/reports/jobs?limit=20
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<ApiResponse<List<ReportJobResponse>>> getReportJobs(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+
+        List<ReportJobResponse> jobs = reportJobService.getJobs(SecurityUtils.getCurrentUserId(), limit)
+                .stream()
+                .map(ReportJobResponse::from)
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(jobs));
+    }
+
+    /**
+     * Poll a report job's status and progress
+     * GET /api/reports/jobs/{id}
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getReportJob(@PathVariable String id) {
+        ReportJob job = reportJobService.getJob(SecurityUtils.getCurrentUserId(), id);
+
+        return ResponseEntity.ok(ApiResponse.success(ReportJobResponse.from(job)));
+    }
+
+    /**
+     * Download a finished report (same body as the synchronous endpoint)
+     * Sent gzipped as stored when the client accepts gzip, otherwise inflated on the fly
+     * GET /api/reports/jobs/{id}/download
+     */
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<Resource> downloadReport(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
+
+        byte[] compressed = reportJobService.getResult(SecurityUtils.getCurrentUserId(), id);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + id + ".json\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(compressed.length)
+                    .body(new ByteArrayResource(compressed));
+        }
+        return response.body(new InputStreamResource(
+                new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    /**
+     * Cancel a queued or running report job
+     * DELETE /api/reports/jobs/{id}
+     */
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> cancelReportJob(@PathVariable String id) {
+        ReportJob job = reportJobService.cancel(SecurityUtils.getCurrentUserId(), id);
+
+        return ResponseEntity.ok(ApiResponse.success("Report job " + job.getStatus().name().toLowerCase(),
+                ReportJobResponse.from(job)));
+    }
+
     /**
      * Send statement image to farmer via WhatsApp
      * POST /api/reports/send-statement-whatsapp
@@ -0,0 +1,41 @@
+package com.bananabill.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Request DTO for spreading one lump-sum payment across a farmer's unpaid bills
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocatePaymentRequest {
+
+    @NotBlank(message = "Farmer ID is required")
+    private String farmerId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    /** Bills to pay, in order; empty means oldest unpaid bills first */
+    @Size(max = 500, message = "At most 500 bills per allocation")
+    private List<String> billIds;
+
+    @Size(max = 30, message = "Payment method must be at most 30 characters")
+    private String paymentMethod;
+
+    @Size(max = 100, message = "Transaction reference must be at most 100 characters")
+    private String transactionRef;
+
+    @Size(max = 500, message = "Notes must be at most 500 characters")
+    private String notes;
+}
@@ -0,0 +1,20 @@
+package com.bananabill.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillLookupRequest {
+
+    /** Bill ids and/or bill numbers, mixed freely */
+    @NotEmpty(message = "At least one bill id or number is required")
+    @Size(max = 500, message = "At most 500 keys per lookup")
+    private List<String> keys;
+}
@@ -0,0 +1,49 @@
+package com.bananabill.dto;
+
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.ReportJob;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for an asynchronous report job
+ *
+ * MONTHLY needs year and month, DATE_RANGE needs startDate and endDate;
+ * SUMMARY takes any of the filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+
+    @NotNull(message = "Report type is required")
+    private ReportJob.Type type;
+
+    @Min(value = 2020, message = "Year must be 2020 or later")
+    @Max(value = 2100, message = "Year must be 2100 or earlier")
+    private Integer year;
+
+    @Min(value = 1, message = "Month must be 1-12")
+    @Max(value = 12, message = "Month must be 1-12")
+    private Integer month;
+
+    private String startDate; // yyyy-MM-dd
+
+    private String endDate; // yyyy-MM-dd
+
+    private Boolean includeBills;
+
+    private String farmerId;
+
+    private PaymentStatus paymentStatus;
+
+    private BigDecimal minWeight;
+
+    private BigDecimal maxWeight;
+}
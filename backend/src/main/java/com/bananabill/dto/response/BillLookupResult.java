@@ -0,0 +1,24 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.service.BillService;
+
+import java.util.Map;
+
+/**
+ * One slot of a bulk bill lookup - found=false marks keys that matched nothing
+ */
+public record BillLookupResult(
+        String key,
+        boolean found,
+        BillResponse bill) {
+
+    /**
+     * @param villages farmer id to village, see BillService.getFarmerVillages
+     */
+    public static BillLookupResult from(BillService.BillLookup lookup, Map<String, String> villages) {
+        return lookup.bill() != null
+                ? new BillLookupResult(lookup.key(), true,
+                        BillResponse.from(lookup.bill(), villages.get(lookup.bill().getFarmerId())))
+                : new BillLookupResult(lookup.key(), false, null);
+    }
+}
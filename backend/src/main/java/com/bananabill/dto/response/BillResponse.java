@@ -56,16 +56,18 @@ public record BillResponse(
         }
 
         /**
-         * Factory method to convert entity to DTO
+         * Convert entity to DTO with the farmer's village
+         * The embedded snapshot carries no address, so callers look it up
+         * (BillService.getFarmerVillage, or getFarmerVillages for a list)
          */
-        public static BillResponse from(Bill bill) {
+        public static BillResponse from(Bill bill, String village) {
                 FarmerSummary farmer = null;
                 if (bill.getFarmer() != null) {
                         farmer = new FarmerSummary(
                                         bill.getFarmer().getId(),
                                         bill.getFarmer().getName(),
                                         bill.getFarmer().getMobileNumber(),
-                                        bill.getFarmer().getAddress());
+                                        village);
                 }
 
                 WeightDetails weight = new WeightDetails(
@@ -0,0 +1,16 @@
+package com.bananabill.dto.response;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated response wrapper
+ * Pass nextCursor back as ?cursor= to fetch the following page
+ *
+ * @param <T> The type of items in the list
+ */
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean hasMore) {
+}
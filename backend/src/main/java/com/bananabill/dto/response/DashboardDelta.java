@@ -0,0 +1,40 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.event.BillEvent;
+import com.bananabill.model.Bill;
+import com.bananabill.model.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One incremental dashboard update pushed over SSE
+ * id is the SSE event id; clients resume with Last-Event-ID
+ */
+public record DashboardDelta(
+        long id,
+        BillEvent.Type type,
+        String billId,
+        String billNumber,
+        String farmerName,
+        BigDecimal netAmount,
+        BigDecimal paidAmount,
+        PaymentStatus paymentStatus,
+        BigDecimal amount,
+        LocalDateTime occurredAt) {
+
+    public static DashboardDelta from(long id, BillEvent event) {
+        Bill bill = event.bill();
+        return new DashboardDelta(
+                id,
+                event.type(),
+                bill.getId(),
+                bill.getBillNumber(),
+                bill.getFarmer() != null ? bill.getFarmer().getName() : null,
+                bill.getNetAmount(),
+                bill.getPaidAmount(),
+                bill.getPaymentStatus(),
+                event.amount(),
+                event.occurredAt());
+    }
+}
@@ -0,0 +1,24 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.model.BillSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, from one aggregation
+ * outstandingBalance = netAmount - paidAmount over bills not yet PAID
+ */
+public record DashboardSummary(
+        long totalBills,
+        long todayBills,
+        BigDecimal todayWeight,
+        BigDecimal todayAmount,
+        long unpaidBills,
+        BigDecimal unpaidAmount,
+        long outstandingBills,
+        BigDecimal outstandingBalance,
+        List<BillSummary> recentBills,
+        LocalDateTime generatedAt) {
+}
@@ -0,0 +1,16 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.model.Farmer;
+
+/**
+ * Farmer projection for list views - no address or timestamps
+ */
+public record FarmerListItem(
+        String id,
+        String name,
+        String mobileNumber) {
+
+    public static FarmerListItem from(Farmer farmer) {
+        return new FarmerListItem(farmer.getId(), farmer.getName(), farmer.getMobileNumber());
+    }
+}
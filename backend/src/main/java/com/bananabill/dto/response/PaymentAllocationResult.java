@@ -0,0 +1,30 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.model.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of a lump-sum payment - how much went to each bill, and what was left as advance
+ *
+ * @param allocationId shared by the payment history rows of this allocation
+ * @param advance      part of the amount beyond what the bills owed, kept as advanceAmount
+ *                     on the last bill
+ */
+public record PaymentAllocationResult(
+        String allocationId,
+        String farmerId,
+        BigDecimal amount,
+        BigDecimal advance,
+        List<BillAllocation> bills) {
+
+    public record BillAllocation(
+            String billId,
+            String billNumber,
+            BigDecimal applied,
+            BigDecimal paidAmount,
+            BigDecimal outstanding,
+            PaymentStatus paymentStatus) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.bananabill.dto.response;
+
+import com.bananabill.model.ReportJob;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Report job status for polling
+ * downloadUrl is set once the report is ready
+ */
+public record ReportJobResponse(
+        String id,
+        ReportJob.Type type,
+        Map<String, String> params,
+        ReportJob.Status status,
+        int progress,
+        String stage,
+        String error,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        Long resultBytes,
+        Long compressedBytes,
+        Instant expiresAt,
+        String downloadUrl) {
+
+    public static ReportJobResponse from(ReportJob job) {
+        return new ReportJobResponse(
+                job.getId(),
+                job.getType(),
+                job.getParams(),
+                job.getStatus(),
+                job.getProgress(),
+                job.getStage(),
+                job.getError(),
+                job.getSubmittedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getResultBytes(),
+                job.getCompressedBytes(),
+                job.getExpiresAt(),
+                job.getStatus() == ReportJob.Status.SUCCEEDED
+                        ? "/api/reports/jobs/" + job.getId() + "/download"
+                        : null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+
+import java.time.LocalDateTime;
+
+/**
+ * New bill saved
+ */
+public record BillCreated(Bill bill, LocalDateTime occurredAt) implements BillEvent {
+
+    public static BillCreated of(Bill bill) {
+        return new BillCreated(bill, LocalDateTime.now());
+    }
+
+    @Override
+    public Type type() {
+        return Type.BILL_CREATED;
+    }
+}
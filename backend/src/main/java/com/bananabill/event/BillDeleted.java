@@ -0,0 +1,20 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bill removed; carries the last saved state
+ */
+public record BillDeleted(Bill bill, LocalDateTime occurredAt) implements BillEvent {
+
+    public static BillDeleted of(Bill bill) {
+        return new BillDeleted(bill, LocalDateTime.now());
+    }
+
+    @Override
+    public Type type() {
+        return Type.BILL_DELETED;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+
+import java.math.BigDecimal;
+
+/**
+ * Domain events carrying the bill as saved (or as it was, for BillDeleted)
+ */
+public sealed interface BillEvent extends DomainEvent
+        permits BillCreated, BillUpdated, BillDeleted, PaymentRecorded {
+
+    enum Type {
+        BILL_CREATED, BILL_UPDATED, BILL_DELETED, PAYMENT_RECORDED
+    }
+
+    Bill bill();
+
+    Type type();
+
+    /**
+     * User who owns the bill (Bill.createdBy)
+     */
+    default String traderId() {
+        return bill().getCreatedBy();
+    }
+
+    /**
+     * Ledger-relevant state before the change, for BillUpdated and PaymentRecorded
+     */
+    default BillBalance before() {
+        return null;
+    }
+
+    /**
+     * Payment amount for PaymentRecorded, otherwise null
+     */
+    default BigDecimal amount() {
+        return null;
+    }
+}
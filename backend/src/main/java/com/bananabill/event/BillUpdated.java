@@ -0,0 +1,23 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bill weights, rate or farmer edited
+ *
+ * @param before ledger-relevant state before the edit
+ */
+public record BillUpdated(Bill bill, BillBalance before, LocalDateTime occurredAt) implements BillEvent {
+
+    public static BillUpdated of(Bill bill, BillBalance before) {
+        return new BillUpdated(bill, before, LocalDateTime.now());
+    }
+
+    @Override
+    public Type type() {
+        return Type.BILL_UPDATED;
+    }
+}
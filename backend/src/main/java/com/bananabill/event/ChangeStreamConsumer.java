@@ -0,0 +1,381 @@
+package com.bananabill.event;
+
+import com.bananabill.model.ChangeStreamCheckpoint;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change Stream Consumer - Follows MongoDB writes from every node
+ *
+ * - One watcher thread per watched collection (bills, farmers, payment_history,
+ *   users by default), each feeding the ChangeStreamListener beans for it
+ * - Batching: changes already buffered by the driver are handed over together,
+ *   up to mongo.change-streams.batch-size
+ * - Resume tokens are checkpointed per node and collection in
+ *   change_stream_checkpoints, so a restart or reconnect continues where it
+ *   stopped; if the oplog no longer has that point, listeners are told to resync
+ * - Connection failures reconnect with exponential backoff
+ *
+ * Requires a replica set (a single-node one is enough); enable with
+ * mongo.change-streams.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "mongo.change-streams.enabled", havingValue = "true")
+public class ChangeStreamConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamConsumer.class);
+
+    private static final List<String> OPERATION_TYPES = List.of(
+            "insert", "update", "replace", "delete", "invalidate");
+
+    // Server error codes meaning the resume token can no longer be used
+    private static final Set<Integer> RESUME_LOST_CODES = Set.of(260, 280, 286);
+    // $changeStream is only supported on replica sets
+    private static final int NOT_REPLICA_SET = 40573;
+
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final int batchSize;
+    private final long maxAwaitMs;
+    private final long checkpointIntervalMs;
+    private final Map<String, Watcher> watchers = new LinkedHashMap<>();
+
+    public ChangeStreamConsumer(List<ChangeStreamListener> listeners,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${mongo.change-streams.collections:bills,farmers,payment_history,users}") List<String> collections,
+            @Value("${mongo.change-streams.node-id:${HOSTNAME:local}}") String nodeId,
+            @Value("${mongo.change-streams.batch-size:100}") int batchSize,
+            @Value("${mongo.change-streams.max-await-ms:1000}") long maxAwaitMs,
+            @Value("${mongo.change-streams.checkpoint-interval-ms:5000}") long checkpointIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId;
+        this.batchSize = batchSize;
+        this.maxAwaitMs = maxAwaitMs;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+
+        for (String collection : collections) {
+            List<ChangeStreamListener> interested = listeners.stream()
+                    .filter(listener -> listener.getWatchedCollections().contains(collection))
+                    .toList();
+            if (interested.isEmpty()) {
+                logger.info("No change stream listeners for {}; not watching it", collection);
+            } else {
+                watchers.put(collection, new Watcher(collection, interested));
+            }
+        }
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        watchers.values().forEach(Watcher::start);
+        logger.info("Change streams started on {} as node {}", watchers.keySet(), nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchers.values().forEach(Watcher::stop);
+    }
+
+    public Set<String> getWatchedCollections() {
+        return watchers.keySet();
+    }
+
+    // ==================== CHECKPOINTS ====================
+
+    private String checkpointId(String collection) {
+        return nodeId + ":" + collection;
+    }
+
+    private BsonDocument loadCheckpoint(String collection) {
+        ChangeStreamCheckpoint checkpoint = mongoTemplate.findById(checkpointId(collection),
+                ChangeStreamCheckpoint.class);
+        if (checkpoint == null || checkpoint.getResumeToken() == null) {
+            return null;
+        }
+        return BsonDocument.parse(checkpoint.getResumeToken().toJson());
+    }
+
+    private void saveCheckpoint(String collection, BsonDocument token) {
+        Update update = new Update()
+                .set("nodeId", nodeId)
+                .set("collection", collection)
+                .set("resumeToken", token != null ? Document.parse(token.toJson()) : null)
+                .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(checkpointId(collection))), update,
+                ChangeStreamCheckpoint.class);
+    }
+
+    // ==================== WATCHER ====================
+
+    /**
+     * Watch loop of one collection
+     */
+    private final class Watcher implements Runnable {
+
+        private final String collection;
+        private final List<ChangeStreamListener> listeners;
+        private final Thread thread;
+        private final Counter changes;
+        private final Counter reconnects;
+        private final Counter resyncs;
+        private final Timer lag;
+
+        private volatile boolean running;
+        private BsonDocument resumeToken;
+        private BsonDocument savedToken;
+        private long lastCheckpointAt;
+        private boolean resyncPending;
+
+        Watcher(String collection, List<ChangeStreamListener> listeners) {
+            this.collection = collection;
+            this.listeners = listeners;
+            this.thread = new Thread(this, "change-stream-" + collection);
+            this.thread.setDaemon(true);
+            this.changes = Counter.builder("mongo.change-streams.changes").tag("collection", collection)
+                    .register(meterRegistry);
+            this.reconnects = Counter.builder("mongo.change-streams.reconnects").tag("collection", collection)
+                    .register(meterRegistry);
+            this.resyncs = Counter.builder("mongo.change-streams.resyncs").tag("collection", collection)
+                    .register(meterRegistry);
+            this.lag = Timer.builder("mongo.change-streams.lag").tag("collection", collection)
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            running = true;
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            try {
+                thread.join(maxAwaitMs + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                resumeToken = loadCheckpoint(collection);
+                savedToken = resumeToken;
+            } catch (RuntimeException e) {
+                logger.warn("Could not read change stream checkpoint for {}: {}", collection, e.getMessage());
+            }
+
+            long backoff = MIN_BACKOFF_MS;
+            while (running) {
+                try {
+                    watch();
+                    backoff = MIN_BACKOFF_MS;
+                } catch (MongoException e) {
+                    if (e.getCode() == NOT_REPLICA_SET) {
+                        logger.warn("Change streams need a replica set; stopped watching {}", collection);
+                        return;
+                    }
+                    if (RESUME_LOST_CODES.contains(e.getCode())) {
+                        logger.warn("Change stream on {} cannot resume ({}); resyncing", collection, e.getMessage());
+                        resync();
+                        continue;
+                    }
+                    reconnects.increment();
+                    logger.warn("Change stream on {} failed, reconnecting in {}ms: {}",
+                            collection, backoff, e.getMessage());
+                    sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                } catch (RuntimeException e) {
+                    logger.error("Change stream on {} stopped unexpectedly: {}", collection, e.getMessage(), e);
+                    sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                }
+            }
+            checkpoint(true);
+        }
+
+        private void watch() {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection)
+                    .watch(List.of(Aggregates.match(Filters.in("operationType", OPERATION_TYPES))))
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .batchSize(batchSize)
+                    .maxAwaitTime(maxAwaitMs, TimeUnit.MILLISECONDS);
+            if (resumeToken != null) {
+                stream = stream.resumeAfter(resumeToken);
+            }
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                if (resyncPending) {
+                    notifyResync();
+                }
+                List<CollectionChange> batch = new ArrayList<>();
+                while (running) {
+                    ChangeStreamDocument<Document> next = cursor.tryNext();
+                    if (next != null) {
+                        if (next.getOperationType() == OperationType.INVALIDATE) {
+                            // Collection dropped or renamed: the stream is closed for good
+                            deliver(batch);
+                            resync();
+                            return;
+                        }
+                        recordLag(next);
+                        batch.add(toChange(next));
+                        if (batch.size() < batchSize && cursor.available() > 0) {
+                            continue;
+                        }
+                    }
+                    deliver(batch);
+                    BsonDocument token = cursor.getResumeToken();
+                    if (token != null) {
+                        resumeToken = token;
+                    }
+                    checkpoint(false);
+                }
+            }
+        }
+
+        private void deliver(List<CollectionChange> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<CollectionChange> delivered = List.copyOf(batch);
+            batch.clear();
+            for (ChangeStreamListener listener : listeners) {
+                try {
+                    listener.onChanges(collection, delivered);
+                } catch (Exception e) {
+                    meterRegistry.counter("mongo.change-streams.failed", "listener", listener.getListenerName())
+                            .increment();
+                    logger.error("Change stream listener {} failed on {} changes to {}: {}",
+                            listener.getListenerName(), delivered.size(), collection, e.getMessage(), e);
+                }
+            }
+            changes.increment(delivered.size());
+        }
+
+        /**
+         * Forget the resume point; listeners rebuild once the next stream is
+         * open, so nothing written during the rebuild is missed
+         */
+        private void resync() {
+            resyncs.increment();
+            resumeToken = null;
+            resyncPending = true;
+            checkpoint(true);
+        }
+
+        private void notifyResync() {
+            resyncPending = false;
+            for (ChangeStreamListener listener : listeners) {
+                try {
+                    listener.onResync(collection);
+                } catch (Exception e) {
+                    logger.error("Change stream listener {} failed to resync {}: {}",
+                            listener.getListenerName(), collection, e.getMessage(), e);
+                }
+            }
+        }
+
+        /**
+         * Persist the resume token, at most once per checkpoint interval unless forced
+         */
+        private void checkpoint(boolean force) {
+            long now = System.currentTimeMillis();
+            if (!force && (now - lastCheckpointAt < checkpointIntervalMs
+                    || Objects.equals(resumeToken, savedToken))) {
+                return;
+            }
+            try {
+                saveCheckpoint(collection, resumeToken);
+                savedToken = resumeToken;
+                lastCheckpointAt = now;
+            } catch (RuntimeException e) {
+                // Keep going; a restart just replays a little more
+                logger.warn("Could not save change stream checkpoint for {}: {}", collection, e.getMessage());
+            }
+        }
+
+        private void recordLag(ChangeStreamDocument<Document> change) {
+            if (change.getClusterTime() != null) {
+                long lagMs = System.currentTimeMillis() - change.getClusterTime().getTime() * 1000L;
+                lag.record(Math.max(0, lagMs), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private static CollectionChange toChange(ChangeStreamDocument<Document> change) {
+        CollectionChange.Type type = switch (change.getOperationType()) {
+            case INSERT -> CollectionChange.Type.INSERT;
+            case REPLACE -> CollectionChange.Type.REPLACE;
+            case DELETE -> CollectionChange.Type.DELETE;
+            default -> CollectionChange.Type.UPDATE;
+        };
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        return new CollectionChange(collection, type, documentId(change.getDocumentKey()), change.getFullDocument());
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        if (documentKey == null || !documentKey.containsKey("_id")) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return id.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.bananabill.event;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumer of MongoDB change streams, for state that must follow writes made
+ * by every backend node (in-memory caches, read models)
+ *
+ * Changes arrive in batches, in oplog order per collection, on that
+ * collection's watcher thread. Delivery is at-least-once: after a restart or
+ * reconnect a batch may be seen again, so handling must be idempotent. This
+ * node's own writes come back too.
+ */
+public interface ChangeStreamListener {
+
+    /**
+     * Metric tag, e.g. "bill-read-cache"
+     */
+    String getListenerName();
+
+    Set<String> getWatchedCollections();
+
+    void onChanges(String collection, List<CollectionChange> changes);
+
+    /**
+     * Changes were lost (resume point fell off the oplog, collection dropped):
+     * rebuild or drop everything derived from the collection
+     */
+    default void onResync(String collection) {
+    }
+}
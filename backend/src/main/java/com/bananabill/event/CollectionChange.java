@@ -0,0 +1,20 @@
+package com.bananabill.event;
+
+import org.bson.Document;
+
+/**
+ * One write observed on a MongoDB change stream, possibly made by another node
+ *
+ * document is the full post-change document (looked up for updates); it is
+ * null for deletes and when the document was deleted before the lookup ran.
+ */
+public record CollectionChange(String collection, Type type, String id, Document document) {
+
+    public enum Type {
+        INSERT, UPDATE, REPLACE, DELETE
+    }
+
+    public boolean isDelete() {
+        return type == Type.DELETE;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bananabill.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to a bill or farmer, delivered to DomainEventListeners
+ * after the change is committed (see DomainEventPublisher)
+ */
+public sealed interface DomainEvent permits BillEvent, FarmerUpdated {
+
+    LocalDateTime occurredAt();
+}
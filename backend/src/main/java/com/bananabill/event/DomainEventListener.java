@@ -0,0 +1,36 @@
+package com.bananabill.event;
+
+/**
+ * Asynchronous consumer of domain events
+ *
+ * Each listener bean gets its own queue and worker thread, so events reach it
+ * one at a time in publish order and a slow listener never delays the others.
+ */
+public interface DomainEventListener {
+
+    /**
+     * Metric tag and worker thread name, e.g. "analytics-cache"
+     */
+    String getListenerName();
+
+    default boolean supports(DomainEvent event) {
+        return true;
+    }
+
+    void onEvent(DomainEvent event);
+
+    /**
+     * Called on the publishing thread when the listener's queue was full and
+     * the event was dropped. Must be cheap and must not block; typically
+     * records what reconcile() will have to rebuild.
+     */
+    default void onDropped(DomainEvent event) {
+    }
+
+    /**
+     * Called on the worker thread once the queue has drained after one or more
+     * drops. Brings derived data back in line with MongoDB.
+     */
+    default void reconcile() {
+    }
+}
@@ -0,0 +1,203 @@
+package com.bananabill.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Domain Event Publisher - In-process, after-commit event bus
+ *
+ * - publish() inside a transaction defers delivery to afterCommit, so listeners
+ *   never see rolled-back changes; outside one the write is already durable
+ * - Every DomainEventListener bean gets a bounded queue and one worker thread:
+ *   ordered delivery per listener, isolation between listeners
+ * - Backpressure without blocking: publish() never waits on a listener. When
+ *   a queue is full the event is dropped for that listener and counted;
+ *   onDropped records what was missed, and once the worker has drained the
+ *   queue it calls reconcile() to rebuild what the dropped events would have
+ *   changed
+ *
+ * Metrics per listener (tag "listener"): domain.events.lag (publish to start
+ * of handling), domain.events.handle, domain.events.queued, domain.events.dropped,
+ * domain.events.reconciled, domain.events.failed.
+ */
+@Component
+public class DomainEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventPublisher.class);
+
+    /** How often an idle worker checks for a reconcile requested by a drop */
+    private static final long RECONCILE_CHECK_MS = 1000;
+
+    private final List<Channel> channels;
+
+    public DomainEventPublisher(List<DomainEventListener> listeners,
+            MeterRegistry meterRegistry,
+            @Value("${events.queue-capacity:1000}") int queueCapacity) {
+        this.channels = listeners.stream()
+                .map(listener -> new Channel(listener, queueCapacity, meterRegistry))
+                .toList();
+        channels.forEach(Channel::start);
+        logger.info("Domain event bus started with listeners {}",
+                listeners.stream().map(DomainEventListener::getListenerName).toList());
+    }
+
+    // ==================== PUBLISH ====================
+
+    /**
+     * Deliver after the surrounding transaction commits, or now if there is none
+     */
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(DomainEvent event) {
+        long publishedAt = System.nanoTime();
+        for (Channel channel : channels) {
+            if (channel.listener.supports(event)) {
+                channel.offer(new Envelope(event, publishedAt));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.forEach(Channel::stop);
+    }
+
+    // ==================== PER-LISTENER CHANNEL ====================
+
+    private record Envelope(DomainEvent event, long publishedAt) {
+    }
+
+    private static final class Channel implements Runnable {
+
+        private final DomainEventListener listener;
+        private final BlockingQueue<Envelope> queue;
+        private final Thread worker;
+        private final Timer lag;
+        private final Timer handle;
+        private final Counter dropped;
+        private final Counter reconciled;
+        private final Counter failed;
+        private final AtomicBoolean reconcilePending = new AtomicBoolean();
+        private volatile boolean running = true;
+
+        Channel(DomainEventListener listener, int capacity, MeterRegistry meterRegistry) {
+            String name = listener.getListenerName();
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this, "events-" + name);
+            this.worker.setDaemon(true);
+            this.lag = Timer.builder("domain.events.lag").tag("listener", name).register(meterRegistry);
+            this.handle = Timer.builder("domain.events.handle").tag("listener", name).register(meterRegistry);
+            this.dropped = Counter.builder("domain.events.dropped").tag("listener", name).register(meterRegistry);
+            this.reconciled = Counter.builder("domain.events.reconciled").tag("listener", name)
+                    .register(meterRegistry);
+            this.failed = Counter.builder("domain.events.failed").tag("listener", name).register(meterRegistry);
+            Gauge.builder("domain.events.queued", queue, BlockingQueue::size)
+                    .tag("listener", name)
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            worker.start();
+        }
+
+        void stop() {
+            running = false;
+            worker.interrupt();
+        }
+
+        /**
+         * Never blocks the publisher; a full queue drops the event for this listener
+         */
+        void offer(Envelope envelope) {
+            if (queue.offer(envelope)) {
+                return;
+            }
+            dropped.increment();
+            logger.warn("Event queue full for listener {}; dropped {}", listener.getListenerName(),
+                    envelope.event().getClass().getSimpleName());
+            try {
+                listener.onDropped(envelope.event());
+            } finally {
+                reconcilePending.set(true);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Envelope envelope;
+                try {
+                    envelope = queue.poll(RECONCILE_CHECK_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (envelope != null) {
+                    handle(envelope);
+                }
+                if (queue.isEmpty() && reconcilePending.getAndSet(false)) {
+                    reconcile();
+                }
+            }
+        }
+
+        private void handle(Envelope envelope) {
+            lag.record(System.nanoTime() - envelope.publishedAt(), TimeUnit.NANOSECONDS);
+            long start = System.nanoTime();
+            try {
+                listener.onEvent(envelope.event());
+            } catch (Exception e) {
+                failed.increment();
+                logger.error("Listener {} failed on {}: {}", listener.getListenerName(),
+                        envelope.event().getClass().getSimpleName(), e.getMessage(), e);
+            } finally {
+                handle.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Caught up after a drop: let the listener rebuild what it missed
+         * A failed reconcile is retried on the next check
+         */
+        private void reconcile() {
+            try {
+                listener.reconcile();
+                reconciled.increment();
+                logger.info("Listener {} reconciled after dropped events", listener.getListenerName());
+            } catch (Exception e) {
+                failed.increment();
+                reconcilePending.set(true);
+                logger.error("Listener {} failed to reconcile: {}", listener.getListenerName(), e.getMessage(), e);
+            }
+        }
+    }
+}
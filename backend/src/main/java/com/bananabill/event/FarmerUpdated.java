@@ -0,0 +1,25 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Farmer;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Farmer created or edited
+ *
+ * @param previousName name before the change, null for a new farmer
+ */
+public record FarmerUpdated(Farmer farmer, String previousName, LocalDateTime occurredAt) implements DomainEvent {
+
+    public static FarmerUpdated of(Farmer farmer, String previousName) {
+        return new FarmerUpdated(farmer, previousName, LocalDateTime.now());
+    }
+
+    /**
+     * True when an existing farmer's name changed (bill snapshots are stale)
+     */
+    public boolean renamed() {
+        return previousName != null && !Objects.equals(previousName, farmer.getName());
+    }
+}
@@ -0,0 +1,26 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Paid amount or payment status changed
+ *
+ * @param amount change in paid amount (negative when a payment is reversed)
+ * @param before ledger-relevant state before the payment
+ */
+public record PaymentRecorded(Bill bill, BigDecimal amount, BillBalance before, LocalDateTime occurredAt)
+        implements BillEvent {
+
+    public static PaymentRecorded of(Bill bill, BigDecimal amount, BillBalance before) {
+        return new PaymentRecorded(bill, amount, before, LocalDateTime.now());
+    }
+
+    @Override
+    public Type type() {
+        return Type.PAYMENT_RECORDED;
+    }
+}
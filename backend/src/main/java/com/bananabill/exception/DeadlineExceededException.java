@@ -0,0 +1,12 @@
+package com.bananabill.exception;
+
+/**
+ * The current request ran out of its time budget (see RequestDeadline)
+ * Mapped to 504 Gateway Timeout
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
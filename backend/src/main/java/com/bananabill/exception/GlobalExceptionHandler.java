@@ -1,5 +1,6 @@
 package com.bananabill.exception;
 
+import com.mongodb.MongoExecutionTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -8,7 +9,10 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -95,20 +99,24 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Handle Payment Errors (400)
+     * Handle Payment Errors (400/409/503)
      */
     @ExceptionHandler(PaymentException.class)
     public ResponseEntity<ErrorResponse> handlePayment(PaymentException ex) {
         logger.warn("Payment error: {} - {}", ex.getErrorCode(), ex.getMessage());
 
+        HttpStatus status = ex.getErrorCode().equals("CONCURRENT_UPDATE") ? HttpStatus.CONFLICT
+                : ex.getErrorCode().equals("NOT_RECORDED") ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.BAD_REQUEST;
+
         ErrorResponse error = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
+                status.value(),
                 ex.getErrorCode(),
                 ex.getMessage(),
                 null,
                 LocalDateTime.now());
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(status).body(error);
     }
 
     /**
@@ -133,6 +141,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(error);
     }
 
+    /**
+     * Handle Report Job Errors (400/404/409/429)
+     */
+    @ExceptionHandler(ReportJobException.class)
+    public ResponseEntity<ErrorResponse> handleReportJob(ReportJobException ex) {
+        logger.warn("Report job error: {} - {}", ex.getErrorCode(), ex.getMessage());
+
+        HttpStatus status = switch (ex.getErrorCode()) {
+            case "REPORT_JOB_NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            case "REPORT_NOT_READY" -> HttpStatus.CONFLICT;
+            case "TOO_MANY_REPORT_JOBS" -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+
+        ErrorResponse error = new ErrorResponse(
+                status.value(),
+                ex.getErrorCode(),
+                ex.getMessage(),
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(status).body(error);
+    }
+
     /**
      * Handle Optimistic Locking Failures (409 Conflict)
      * Occurs when concurrent updates clash due to @Version annotation
@@ -174,11 +206,56 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Handle Upload Too Large (413)
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        logger.warn("Upload too large: {}", ex.getMessage());
+
+        String limit = ex.getMaxUploadSize() > 0
+                ? " (limit " + ex.getMaxUploadSize() / (1024 * 1024) + " MB)"
+                : "";
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                "PAYLOAD_TOO_LARGE",
+                "The uploaded file is too large" + limit,
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+    }
+
+    /**
+     * Handle Request Deadline Exceeded (504)
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(DeadlineExceededException ex) {
+        return gatewayTimeout(ex);
+    }
+
+    /**
+     * Handle Open Integration Circuit (503)
+     */
+    @ExceptionHandler(IntegrationUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleIntegrationUnavailable(IntegrationUnavailableException ex) {
+        return integrationUnavailable(ex);
+    }
+
     /**
      * Handle Runtime Exceptions (500)
+     * Timeouts wrapped by data access or outbound clients are 504, an open
+     * integration circuit wrapped by a service is 503
      */
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntime(RuntimeException ex) {
+        if (isTimeout(ex)) {
+            return gatewayTimeout(ex);
+        }
+        IntegrationUnavailableException unavailable = findCause(ex, IntegrationUnavailableException.class);
+        if (unavailable != null) {
+            return integrationUnavailable(unavailable);
+        }
         logger.error("Runtime error: {}", ex.getMessage(), ex);
 
         ErrorResponse error = new ErrorResponse(
@@ -191,6 +268,62 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    private ResponseEntity<ErrorResponse> gatewayTimeout(Exception ex) {
+        logger.warn("Request timed out: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                "DEADLINE_EXCEEDED",
+                "The request took too long. Please try again, or narrow the date range.",
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+
+    private ResponseEntity<ErrorResponse> integrationUnavailable(IntegrationUnavailableException ex) {
+        logger.warn("Integration unavailable: {}", ex.getProvider());
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "INTEGRATION_UNAVAILABLE",
+                ex.getMessage(),
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    private static <T extends Throwable> T findCause(Throwable ex, Class<T> type) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deadline, MongoDB maxTimeMS or outbound call timeout anywhere in the cause chain
+     */
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException
+                    || cause instanceof MongoExecutionTimeoutException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
     /**
      * Catch-all for any unhandled exceptions
      */
@@ -0,0 +1,20 @@
+package com.bananabill.exception;
+
+/**
+ * An outbound provider's circuit is open (see CircuitBreaker), so the call
+ * was not made
+ * Mapped to 503 Service Unavailable
+ */
+public class IntegrationUnavailableException extends RuntimeException {
+
+    private final String provider;
+
+    public IntegrationUnavailableException(String provider) {
+        super(provider + " is unavailable, please try again shortly");
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
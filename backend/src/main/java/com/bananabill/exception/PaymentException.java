@@ -42,6 +42,26 @@ public class PaymentException extends RuntimeException {
         return new PaymentException("Bill is already fully paid", "ALREADY_PAID", billId);
     }
 
+    public static PaymentException nothingToAllocate(String farmerId) {
+        return new PaymentException("Farmer has no bills to apply the payment to: " + farmerId,
+                "NOTHING_TO_ALLOCATE", null);
+    }
+
+    public static PaymentException overpaymentNotAllowed(String billId) {
+        return new PaymentException("Payment exceeds the outstanding amount and overpayment tracking is off",
+                "OVERPAYMENT_NOT_ALLOWED", billId);
+    }
+
+    public static PaymentException concurrentUpdate() {
+        return new PaymentException("Bills were changed while the payment was being applied, please retry",
+                "CONCURRENT_UPDATE", null);
+    }
+
+    public static PaymentException notRecorded() {
+        return new PaymentException("Payment could not be recorded and was not applied, please retry",
+                "NOT_RECORDED", null);
+    }
+
     public static PaymentException authenticationRequired() {
         return new PaymentException("User authentication required", "AUTH_REQUIRED", null);
     }
@@ -0,0 +1,37 @@
+package com.bananabill.exception;
+
+/**
+ * Exception for asynchronous report job errors
+ */
+public class ReportJobException extends RuntimeException {
+
+    private final String errorCode;
+
+    public ReportJobException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    // Common factory methods
+    public static ReportJobException notFound(String jobId) {
+        return new ReportJobException("Report job not found: " + jobId, "REPORT_JOB_NOT_FOUND");
+    }
+
+    public static ReportJobException invalidRequest(String message) {
+        return new ReportJobException(message, "INVALID_REPORT_REQUEST");
+    }
+
+    public static ReportJobException tooManyJobs(int limit) {
+        return new ReportJobException("At most " + limit + " report jobs may be queued or running at once",
+                "TOO_MANY_REPORT_JOBS");
+    }
+
+    public static ReportJobException notReady(String jobId, String status) {
+        return new ReportJobException("Report job " + jobId + " has no result (" + status + ")",
+                "REPORT_NOT_READY");
+    }
+}
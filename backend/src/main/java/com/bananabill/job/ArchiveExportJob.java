@@ -0,0 +1,45 @@
+package com.bananabill.job;
+
+import com.bananabill.service.BillArchiveService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Monthly bill archive export (BillArchiveService.exportClosedMonths) on one node
+ * Other nodes fetch the segments it publishes from the archive store.
+ */
+@Component
+public class ArchiveExportJob implements ClusterJob {
+
+    private final BillArchiveService archiveService;
+    private final boolean enabled;
+    private final String cron;
+
+    public ArchiveExportJob(BillArchiveService archiveService,
+            @Value("${archive.enabled:false}") boolean enabled,
+            @Value("${archive.export.cron:0 30 2 1 * *}") String cron) {
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+        this.cron = cron;
+    }
+
+    @Override
+    public String getJobName() {
+        return "archive-export";
+    }
+
+    @Override
+    public String getCron() {
+        return cron;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void run(JobContext context) throws Exception {
+        archiveService.exportClosedMonths(context);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bananabill.job;
+
+import java.time.Duration;
+
+/**
+ * Scheduled work that runs once per tick across all nodes
+ *
+ * Each partition of a tick is executed by exactly one node holding its lease.
+ * Jobs with several partitions are split between the nodes that are up; the
+ * job reads context.partition() to pick its share of the work.
+ */
+public interface ClusterJob {
+
+    /**
+     * Lease and metric name, e.g. "overdue-reminders"
+     */
+    String getJobName();
+
+    /**
+     * Spring cron expression (six fields, server time zone)
+     */
+    String getCron();
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    default int getPartitions() {
+        return 1;
+    }
+
+    /**
+     * How long a lease outlives its last heartbeat; heartbeats run every third
+     */
+    default Duration getLeaseDuration() {
+        return Duration.ofMinutes(2);
+    }
+
+    /**
+     * Run one partition. Long jobs should call context.checkLease() between
+     * units of work and stop when it throws.
+     */
+    void run(JobContext context) throws Exception;
+}
@@ -0,0 +1,272 @@
+package com.bananabill.job;
+
+import com.bananabill.model.JobLease;
+import com.bananabill.model.JobRun;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster Job Scheduler - Runs ClusterJob beans once per tick across all nodes
+ *
+ * - Every node schedules every enabled job on its cron; at each tick the
+ *   nodes race for the partition leases and each partition runs on one node
+ * - A node starts at a partition derived from its owner id, so nodes spread
+ *   over a partitioned job instead of queueing on partition 0
+ * - Leases are renewed by a separate heartbeat thread; if renewal fails the
+ *   job sees it on its next context.checkLease()
+ * - Every partition run is recorded in job_runs (TTL jobs.history-days) and
+ *   timed as jobs.run{job,status}
+ */
+@Component
+public class ClusterJobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobScheduler.class);
+
+    private final Map<String, ClusterJob> jobs;
+    private final JobLeaseManager leases;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration historyRetention;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final ScheduledExecutorService heartbeats;
+    private final AtomicInteger running = new AtomicInteger();
+    private final Map<String, Counter> leasesLost = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public ClusterJobScheduler(List<ClusterJob> jobs,
+            JobLeaseManager leases,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${jobs.enabled:true}") boolean enabled,
+            @Value("${jobs.pool-size:4}") int poolSize,
+            @Value("${jobs.history-days:14}") int historyDays) {
+        this.jobs = jobs.stream().collect(Collectors.toMap(ClusterJob::getJobName, Function.identity()));
+        this.leases = leases;
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.historyRetention = Duration.ofDays(historyDays);
+
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        this.taskScheduler.setPoolSize(poolSize);
+        this.taskScheduler.setThreadNamePrefix("cluster-job-");
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("jobs.running", running);
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Cluster jobs disabled on this node");
+            return;
+        }
+        taskScheduler.initialize();
+        jobs.values().stream().filter(ClusterJob::isEnabled).forEach(job -> {
+            scheduleNext(job, CronExpression.parse(job.getCron()));
+            logger.info("Scheduled cluster job {} ({}, {} partition(s))",
+                    job.getJobName(), job.getCron(), job.getPartitions());
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        taskScheduler.shutdown();
+        heartbeats.shutdownNow();
+    }
+
+    private void scheduleNext(ClusterJob job, CronExpression cron) {
+        if (stopping) {
+            return;
+        }
+        ZonedDateTime next = cron.next(ZonedDateTime.now());
+        if (next == null) {
+            return;
+        }
+        Instant fireTime = next.toInstant();
+        taskScheduler.schedule(() -> {
+            try {
+                runTick(job, fireTime);
+            } finally {
+                scheduleNext(job, cron);
+            }
+        }, fireTime);
+    }
+
+    // ==================== EXECUTION ====================
+
+    /**
+     * Run every partition of one tick that no other node has taken
+     *
+     * All nodes compute the same fireTime from the cron, which makes it the
+     * key that stops a partition from running twice in one tick.
+     *
+     * @return number of partitions this node ran
+     */
+    public int trigger(String jobName, Instant fireTime) {
+        ClusterJob job = jobs.get(jobName);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown cluster job: " + jobName);
+        }
+        return runTick(job, fireTime);
+    }
+
+    private int runTick(ClusterJob job, Instant fireTime) {
+        int partitions = Math.max(1, job.getPartitions());
+        int first = Math.floorMod(leases.getOwner().hashCode(), partitions);
+        int ran = 0;
+        for (int i = 0; i < partitions && !stopping; i++) {
+            int partition = (first + i) % partitions;
+            JobLeaseManager.Lease lease = leases.acquire(JobLease.idOf(job.getJobName(), partition),
+                    fireTime.toString(), job.getLeaseDuration());
+            if (lease != null) {
+                runPartition(job, partition, partitions, lease, fireTime);
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    private void runPartition(ClusterJob job, int partition, int partitions, JobLeaseManager.Lease lease,
+            Instant fireTime) {
+        Duration leaseDuration = job.getLeaseDuration();
+        Instant startedAt = Instant.now();
+        JobContext context = new JobContext(job.getJobName(), partition, partitions, lease.token(), fireTime,
+                validUntil(startedAt, leaseDuration));
+        JobRun run = startRun(job, context, lease, startedAt);
+
+        long interval = Math.max(1, leaseDuration.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                () -> heartbeat(job, lease, context), interval, interval, TimeUnit.MILLISECONDS);
+
+        running.incrementAndGet();
+        JobRun.Status status;
+        String error = null;
+        try {
+            job.run(context);
+            status = JobRun.Status.SUCCEEDED;
+        } catch (LeaseLostException e) {
+            status = JobRun.Status.LEASE_LOST;
+        } catch (Exception e) {
+            status = JobRun.Status.FAILED;
+            error = e.getMessage();
+            logger.error("Cluster job {} partition {} failed: {}", job.getJobName(), partition, e.getMessage(), e);
+        } finally {
+            running.decrementAndGet();
+            heartbeat.cancel(false);
+        }
+
+        // A failed run also completes the tick; the next tick retries it
+        if (status == JobRun.Status.LEASE_LOST || !leases.complete(lease)) {
+            status = JobRun.Status.LEASE_LOST;
+            leasesLost.computeIfAbsent(job.getJobName(),
+                    name -> meterRegistry.counter("jobs.lease.lost", "job", name)).increment();
+            logger.warn("Cluster job {} partition {} lost its lease (token {})",
+                    job.getJobName(), partition, lease.token());
+        }
+        finishRun(run, status, error);
+    }
+
+    private void heartbeat(ClusterJob job, JobLeaseManager.Lease lease, JobContext context) {
+        try {
+            Instant now = Instant.now();
+            if (leases.heartbeat(lease, job.getLeaseDuration())) {
+                context.renewed(validUntil(now, job.getLeaseDuration()));
+            } else {
+                context.markLost();
+            }
+        } catch (Exception e) {
+            // Lease stays valid until it runs out; the next beat may get through
+            logger.warn("Heartbeat for {} failed: {}", lease.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Treat the lease as lost a third early, leaving room for clock skew between nodes
+     */
+    private static Instant validUntil(Instant from, Duration leaseDuration) {
+        return from.plus(leaseDuration.multipliedBy(2).dividedBy(3));
+    }
+
+    // ==================== HISTORY ====================
+
+    private JobRun startRun(ClusterJob job, JobContext context, JobLeaseManager.Lease lease, Instant startedAt) {
+        JobRun run = new JobRun();
+        run.setJobName(job.getJobName());
+        run.setPartition(context.partition());
+        run.setPartitions(context.partitions());
+        run.setOwner(lease.owner());
+        run.setToken(lease.token());
+        run.setFireKey(lease.fireKey());
+        run.setStatus(JobRun.Status.RUNNING);
+        run.setStartedAt(startedAt);
+        run.setExpiresAt(startedAt.plus(historyRetention));
+        return mongoTemplate.insert(run);
+    }
+
+    private void finishRun(JobRun run, JobRun.Status status, String error) {
+        Instant finishedAt = Instant.now();
+        long durationMs = Duration.between(run.getStartedAt(), finishedAt).toMillis();
+        Timer.builder("jobs.run")
+                .tag("job", run.getJobName())
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(run.getId())),
+                    new Update()
+                            .set("status", status)
+                            .set("error", error)
+                            .set("finishedAt", finishedAt)
+                            .set("durationMs", durationMs),
+                    JobRun.class);
+        } catch (Exception e) {
+            logger.warn("Could not record run of {}: {}", run.getJobName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Latest partition runs of a job, newest first
+     */
+    public List<JobRun> getRecentRuns(String jobName, int limit) {
+        return mongoTemplate.find(new Query(Criteria.where("jobName").is(jobName))
+                .with(Sort.by(Sort.Direction.DESC, "startedAt"))
+                .limit(limit), JobRun.class);
+    }
+}
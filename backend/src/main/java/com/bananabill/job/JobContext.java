@@ -0,0 +1,87 @@
+package com.bananabill.job;
+
+import com.bananabill.model.JobLease;
+
+import java.time.Instant;
+
+/**
+ * What a running job partition knows about its lease
+ *
+ * The fencing token increases with every acquisition of the partition; writes
+ * that must never come from a stale holder can store it and refuse lower ones.
+ */
+public final class JobContext {
+
+    private final String jobName;
+    private final int partition;
+    private final int partitions;
+    private final long fencingToken;
+    private final Instant fireTime;
+    private volatile Instant validUntil;
+    private volatile boolean lost;
+
+    JobContext(String jobName, int partition, int partitions, long fencingToken, Instant fireTime,
+            Instant validUntil) {
+        this.jobName = jobName;
+        this.partition = partition;
+        this.partitions = partitions;
+        this.fencingToken = fencingToken;
+        this.fireTime = fireTime;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * Context for running a job outside the scheduler (tests, manual runs)
+     */
+    public static JobContext standalone(String jobName) {
+        return new JobContext(jobName, 0, 1, 0, Instant.now(), Instant.MAX);
+    }
+
+    public String jobName() {
+        return jobName;
+    }
+
+    public int partition() {
+        return partition;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    public Instant fireTime() {
+        return fireTime;
+    }
+
+    /**
+     * Whether a key (e.g. a farmer id) belongs to this partition
+     */
+    public boolean owns(String key) {
+        return partitions == 1 || Math.floorMod(key.hashCode(), partitions) == partition;
+    }
+
+    public boolean isLeaseHeld() {
+        return !lost && Instant.now().isBefore(validUntil);
+    }
+
+    /**
+     * @throws LeaseLostException once the lease was lost or not renewed in time
+     */
+    public void checkLease() {
+        if (!isLeaseHeld()) {
+            throw new LeaseLostException(JobLease.idOf(jobName, partition), fencingToken);
+        }
+    }
+
+    void renewed(Instant validUntil) {
+        this.validUntil = validUntil;
+    }
+
+    void markLost() {
+        lost = true;
+    }
+}
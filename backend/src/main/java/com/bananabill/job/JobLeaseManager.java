@@ -0,0 +1,102 @@
+package com.bananabill.job;
+
+import com.bananabill.model.JobLease;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Job Lease Manager - MongoDB leases with fencing tokens (job_leases)
+ *
+ * - Acquire: one findAndModify upsert; a lease that is still held or whose
+ *   tick already ran does not match, so the upsert hits the unique _id and
+ *   fails instead of stealing it
+ * - Heartbeat and complete only match the owner and token they were granted,
+ *   so a node that was fenced off cannot extend or finish someone else's lease
+ */
+@Component
+public class JobLeaseManager {
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner;
+
+    public JobLeaseManager(MongoTemplate mongoTemplate,
+            @Value("${jobs.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.mongoTemplate = mongoTemplate;
+        // Unique per process, so two instances on one host never share leases
+        this.owner = nodeId + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return the granted lease, or null if another node holds it or already ran fireKey
+     */
+    public Lease acquire(String leaseId, String fireKey, Duration duration) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(leaseId)
+                .and("lastFireKey").ne(fireKey)
+                .orOperator(Criteria.where("lockedUntil").is(null), Criteria.where("lockedUntil").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", now.plus(duration))
+                .set("acquiredAt", now)
+                .set("heartbeatAt", now)
+                .set("fireKey", fireKey)
+                .inc("token", 1);
+        try {
+            JobLease lease = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class);
+            return lease != null ? new Lease(leaseId, owner, lease.getToken(), fireKey) : null;
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Extend a held lease
+     *
+     * @return false if the lease was taken over (fenced off) in the meantime
+     */
+    public boolean heartbeat(Lease lease, Duration duration) {
+        Instant now = Instant.now();
+        return mongoTemplate.updateFirst(held(lease),
+                new Update().set("lockedUntil", now.plus(duration)).set("heartbeatAt", now),
+                JobLease.class).getMatchedCount() == 1;
+    }
+
+    /**
+     * Free the lease and mark its tick as done, so no other node repeats it
+     */
+    public boolean complete(Lease lease) {
+        return mongoTemplate.updateFirst(held(lease),
+                new Update()
+                        .set("lastFireKey", lease.fireKey())
+                        .set("lockedUntil", Instant.EPOCH)
+                        .unset("owner"),
+                JobLease.class).getMatchedCount() == 1;
+    }
+
+    private static Query held(Lease lease) {
+        return new Query(Criteria.where("_id").is(lease.id())
+                .and("owner").is(lease.owner())
+                .and("token").is(lease.token()));
+    }
+
+    /**
+     * A granted lease; token is the fencing token
+     */
+    public record Lease(String id, String owner, long token, String fireKey) {
+    }
+}
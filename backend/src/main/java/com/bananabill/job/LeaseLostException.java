@@ -0,0 +1,11 @@
+package com.bananabill.job;
+
+/**
+ * Thrown by JobContext.checkLease() once another node may own the partition
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String leaseId, long token) {
+        super("Lease " + leaseId + " (token " + token + ") is no longer held");
+    }
+}
@@ -0,0 +1,44 @@
+package com.bananabill.job;
+
+import com.bananabill.service.FarmerLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly farmer ledger drift check (FarmerLedgerService.checkDrift) on one node
+ */
+@Component
+public class LedgerDriftJob implements ClusterJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerDriftJob.class);
+
+    private final FarmerLedgerService farmerLedgerService;
+    private final String cron;
+
+    public LedgerDriftJob(FarmerLedgerService farmerLedgerService,
+            @Value("${ledger.drift.cron:0 30 3 * * *}") String cron) {
+        this.farmerLedgerService = farmerLedgerService;
+        this.cron = cron;
+    }
+
+    @Override
+    public String getJobName() {
+        return "ledger-drift";
+    }
+
+    @Override
+    public String getCron() {
+        return cron;
+    }
+
+    @Override
+    public void run(JobContext context) {
+        FarmerLedgerService.DriftReport report = farmerLedgerService.checkDrift();
+        if (report.drifted() > 0) {
+            logger.warn("Farmer ledger drift: {} of {} ledgers differed from their bills ({} repaired)",
+                    report.drifted(), report.checked(), report.repaired());
+        }
+    }
+}
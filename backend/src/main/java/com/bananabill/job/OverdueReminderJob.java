@@ -0,0 +1,44 @@
+package com.bananabill.job;
+
+import com.bananabill.service.ReminderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Overdue reminder sweep (ReminderService) as a single-partition cluster job
+ */
+@Component
+public class OverdueReminderJob implements ClusterJob {
+
+    private final ReminderService reminderService;
+    private final boolean enabled;
+    private final String cron;
+
+    public OverdueReminderJob(ReminderService reminderService,
+            @Value("${reminders.enabled:false}") boolean enabled,
+            @Value("${reminders.cron:0 0 10 * * *}") String cron) {
+        this.reminderService = reminderService;
+        this.enabled = enabled;
+        this.cron = cron;
+    }
+
+    @Override
+    public String getJobName() {
+        return "overdue-reminders";
+    }
+
+    @Override
+    public String getCron() {
+        return cron;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void run(JobContext context) {
+        reminderService.run(context);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bananabill.job;
+
+import com.bananabill.service.ReportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails report jobs whose node went down before they finished
+ * (ReportJobService.failStaleJobs), on one node
+ */
+@Component
+public class ReportJobReaper implements ClusterJob {
+
+    private final ReportJobService reportJobService;
+    private final String cron;
+
+    public ReportJobReaper(ReportJobService reportJobService,
+            @Value("${report.jobs.reaper-cron:0 */5 * * * *}") String cron) {
+        this.reportJobService = reportJobService;
+        this.cron = cron;
+    }
+
+    @Override
+    public String getJobName() {
+        return "report-job-reaper";
+    }
+
+    @Override
+    public String getCron() {
+        return cron;
+    }
+
+    @Override
+    public void run(JobContext context) {
+        reportJobService.failStaleJobs();
+    }
+}
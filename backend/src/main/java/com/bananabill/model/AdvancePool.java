@@ -0,0 +1,57 @@
+package com.bananabill.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unused advance of one farmer (one document per farmer)
+ *
+ * Credited when a payment exceeds a bill, drawn down when the farmer's next
+ * bills are created. balance is always the sum of sources; sources are kept
+ * oldest first so advance is carried forward in the order it was paid.
+ * revision is bumped on every write and guards compare-and-set updates.
+ */
+@Data
+@Document(collection = "advance_pools")
+public class AdvancePool {
+
+    @Id
+    private String id; // farmer id
+
+    private String createdBy;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    private List<Source> sources = new ArrayList<>();
+
+    private long revision;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Advance still held on one overpaid bill
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Source {
+
+        private String billId;
+
+        private String billNumber;
+
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+    }
+}
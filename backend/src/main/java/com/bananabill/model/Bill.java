@@ -51,8 +51,8 @@ public class Bill {
     @CreatedDate
     private LocalDateTime createdAt;
 
-    // Embedded farmer details for join queries (denormalized for performance)
-    private Farmer farmer;
+    // Embedded farmer snapshot (id, name, mobile) - kept current by FarmerSnapshotPropagator
+    private FarmerSnapshot farmer;
 
     // Payment tracking fields (Trader pays Farmer)
     private PaymentStatus paymentStatus = PaymentStatus.UNPAID;
@@ -0,0 +1,44 @@
+package com.bananabill.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of a bill that counts toward its farmer's ledger
+ * Captured before a mutation so the ledger can apply the difference.
+ */
+public record BillBalance(
+        String farmerId,
+        BigDecimal netAmount,
+        BigDecimal finalNetWeight,
+        BigDecimal paidAmount,
+        BigDecimal advanceAmount,
+        PaymentStatus paymentStatus) {
+
+    public static BillBalance of(Bill bill) {
+        if (bill == null) {
+            return null;
+        }
+        return new BillBalance(
+                bill.getFarmerId(),
+                orZero(bill.getNetAmount()),
+                orZero(bill.getFinalNetWeight()),
+                orZero(bill.getPaidAmount()),
+                orZero(bill.getAdvanceAmount()),
+                bill.getPaymentStatus() != null ? bill.getPaymentStatus() : PaymentStatus.UNPAID);
+    }
+
+    public boolean isPaid() {
+        return paymentStatus == PaymentStatus.PAID;
+    }
+
+    /**
+     * Net amount still owed on an unpaid or partly paid bill
+     */
+    public BigDecimal outstanding() {
+        return isPaid() ? BigDecimal.ZERO : netAmount.subtract(paidAmount).max(BigDecimal.ZERO);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
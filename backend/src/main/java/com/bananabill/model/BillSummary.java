@@ -0,0 +1,21 @@
+package com.bananabill.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bill Summary - Read-only projection for list screens
+ * Number, farmer, amounts and status only; weights are never loaded.
+ * Fields match BillRepository.SUMMARY_FIELDS.
+ */
+public record BillSummary(
+        String id,
+        String billNumber,
+        String farmerId,
+        FarmerSnapshot farmer,
+        BigDecimal netAmount,
+        BigDecimal paidAmount,
+        PaymentStatus paymentStatus,
+        LocalDateTime createdAt,
+        LocalDateTime dueDate) {
+}
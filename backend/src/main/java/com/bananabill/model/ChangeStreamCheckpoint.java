@@ -0,0 +1,27 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last processed change-stream position of one node on one collection
+ * Lets a restarted node resume its watch instead of starting from "now"
+ */
+@Data
+@Document(collection = "change_stream_checkpoints")
+public class ChangeStreamCheckpoint {
+
+    @Id
+    private String id; // "<nodeId>:<collection>"
+
+    private String nodeId;
+
+    private String collection;
+
+    private org.bson.Document resumeToken;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,65 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of one farmer's bills (read model, one document per farmer)
+ *
+ * Maintained incrementally from bill and payment events with $inc, so money
+ * is stored as Decimal128 rather than the usual string. Rebuilt from the
+ * bills collection on demand and when drift is detected.
+ */
+@Data
+@Document(collection = "farmer_ledgers")
+public class FarmerLedger {
+
+    @Id
+    private String id; // farmer id
+
+    private String createdBy;
+
+    private String farmerName;
+
+    private String farmerMobile;
+
+    private long billCount;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalWeight = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    // Bills not fully paid: count, their net amount, and what is still owed on them
+    private long unpaidBills;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal unpaidAmount = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal outstandingBalance = BigDecimal.ZERO;
+
+    // Overpayments tracked as advance
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal advanceBalance = BigDecimal.ZERO;
+
+    private String lastBillId;
+
+    private String lastBillNumber;
+
+    private LocalDateTime lastBillAt;
+
+    private LocalDateTime lastPaymentAt;
+
+    private LocalDateTime updatedAt;
+}
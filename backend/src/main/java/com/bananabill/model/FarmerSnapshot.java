@@ -0,0 +1,29 @@
+package com.bananabill.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact farmer copy embedded in each bill
+ * Only what bill lists, receipts and WhatsApp messages need; the full
+ * farmer (address, audit fields) stays in the farmers collection.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FarmerSnapshot {
+
+    private String id;
+
+    private String name;
+
+    private String mobileNumber;
+
+    public static FarmerSnapshot of(Farmer farmer) {
+        if (farmer == null) {
+            return null;
+        }
+        return new FarmerSnapshot(farmer.getId(), farmer.getName(), farmer.getMobileNumber());
+    }
+}
@@ -0,0 +1,67 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key header
+ *
+ * The id is a hash of user, method, path and key, so the same key on another
+ * endpoint or from another user is a different record. IN_PROGRESS records
+ * are held by the executing node until lockedUntil, which it keeps extending
+ * while the request runs; lockToken changes on every claim or takeover, so a
+ * node that lost the record cannot extend, complete or release it. COMPLETED
+ * records keep the response so retries get it back instead of running the
+ * request again.
+ */
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public enum State {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String idempotencyKey;
+
+    private String method;
+
+    private String path;
+
+    private String requestHash; // Same key with a different request is rejected
+
+    private State state;
+
+    private Instant lockedUntil;
+
+    private String lockToken;
+
+    private int responseStatus;
+
+    private String contentType;
+
+    private String responseBody;
+
+    private Instant createdAt;
+
+    @Indexed(expireAfter = "0s") // TTL index - records are dropped once expired
+    private Instant expiresAt;
+
+    public boolean isCompleted() {
+        return state == State.COMPLETED;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on one partition of a cluster job
+ *
+ * The id is jobName:partition. A node owns the partition until lockedUntil
+ * and keeps pushing it forward with heartbeats. Every acquisition increments
+ * token, so a node that lost its lease (GC pause, network split) is fenced
+ * off: its heartbeats and completion no longer match. Documents are never
+ * deleted, which keeps tokens increasing across owners.
+ */
+@Data
+@Document(collection = "job_leases")
+public class JobLease {
+
+    @Id
+    private String id;
+
+    private String owner; // null while free
+
+    private long token; // Fencing token
+
+    private Instant lockedUntil;
+
+    private Instant acquiredAt;
+
+    private Instant heartbeatAt;
+
+    private String fireKey; // Scheduled run being executed
+
+    private String lastFireKey; // Last scheduled run finished, so no node repeats it
+
+    public static String idOf(String jobName, int partition) {
+        return jobName + ":" + partition;
+    }
+}
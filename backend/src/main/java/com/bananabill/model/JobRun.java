@@ -0,0 +1,51 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One execution of one partition of a cluster job (run history)
+ */
+@Data
+@Document(collection = "job_runs")
+public class JobRun {
+
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        LEASE_LOST
+    }
+
+    @Id
+    private String id;
+
+    private String jobName;
+
+    private int partition;
+
+    private int partitions;
+
+    private String owner;
+
+    private long token;
+
+    private String fireKey;
+
+    private Status status;
+
+    private String error;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private Long durationMs;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -44,10 +44,12 @@ public class PaymentHistory {
     private BigDecimal newPaidAmount;
     private BigDecimal billNetAmount;
 
-    private PaymentType paymentType; // PAYMENT, REFUND, ADJUSTMENT
+    private PaymentType paymentType; // PAYMENT, REFUND, ADJUSTMENT, ADVANCE_RECEIVED, ADVANCE_USED
     private String paymentMethod; // CASH, UPI, BANK_TRANSFER, etc.
     private String transactionRef; // UPI ID, cheque number, etc.
     private String notes;
+    private String allocationId; // Groups the rows of one lump-sum payment or advance settlement
+    private String relatedBillId; // ADVANCE_USED on a source bill: the bill the advance went to
 
     private String createdBy;
     private String createdByName;
@@ -59,6 +61,7 @@ public class PaymentHistory {
         PAYMENT,
         REFUND,
         ADJUSTMENT,
+        ADVANCE_RECEIVED, // Overpayment kept as advance for the farmer's next bills
         ADVANCE_USED
     }
 }
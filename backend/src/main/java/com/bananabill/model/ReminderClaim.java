@@ -0,0 +1,39 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Last overdue reminder sent to a farmer on behalf of a trader
+ *
+ * The id is traderId:farmerId. A node may only message the farmer after
+ * moving sentAt forward past the cool-down, which one node wins, so several
+ * nodes sweeping at once never send the same reminder twice. The record
+ * expires with the cool-down.
+ */
+@Data
+@Document(collection = "reminder_claims")
+public class ReminderClaim {
+
+    @Id
+    private String id;
+
+    private String traderId;
+
+    private String farmerId;
+
+    private Instant sentAt;
+
+    private Integer billCount;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public static String idOf(String traderId, String farmerId) {
+        return traderId + ":" + farmerId;
+    }
+}
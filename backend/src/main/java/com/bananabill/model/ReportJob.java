@@ -0,0 +1,68 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Asynchronous report request and its progress
+ *
+ * The finished report itself lives in report_results, so polling reads only
+ * this small document. Both expire after report.jobs.ttl-hours.
+ */
+@Data
+@Document(collection = "report_jobs")
+public class ReportJob {
+
+    public enum Type {
+        MONTHLY,
+        DATE_RANGE,
+        SUMMARY
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private Type type;
+
+    private Map<String, String> params;
+
+    private Status status;
+
+    private int progress; // 0-100
+
+    private String stage;
+
+    private String error;
+
+    private Instant submittedAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private Long resultBytes; // Uncompressed JSON size
+
+    private Long compressedBytes;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.bananabill.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Gzipped JSON body of a finished report job (id = job id)
+ */
+@Data
+@Document(collection = "report_results")
+public class ReportResult {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private byte[] data;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -1,6 +1,7 @@
 package com.bananabill.repository;
 
 import com.bananabill.model.Bill;
+import com.bananabill.model.BillSummary;
 import com.bananabill.model.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +34,12 @@ import java.util.Optional;
 @Repository
 public interface BillRepository extends MongoRepository<Bill, String> {
 
+        /**
+         * Projection for BillSummary
+         */
+        String SUMMARY_FIELDS = "{ '_id': 1, 'billNumber': 1, 'farmerId': 1, 'farmer.name': 1, "
+                        + "'netAmount': 1, 'paidAmount': 1, 'paymentStatus': 1, 'createdAt': 1, 'dueDate': 1 }";
+
         // ==================== BASIC QUERIES ====================
 
         Optional<Bill> findByBillNumber(String billNumber);
@@ -107,6 +114,24 @@ public interface BillRepository extends MongoRepository<Bill, String> {
         Page<Bill> findByDueDateBeforeAndPaymentStatusNot(
                         LocalDateTime dueDate, PaymentStatus status, Pageable pageable);
 
+        // ==================== SUMMARY PROJECTIONS ====================
+        // Only SUMMARY_FIELDS are read; recent and farmer listings walk
+        // idx_bill_created_desc / idx_bill_farmer_date in sort order
+
+        @Query(value = "{}", sort = "{ 'createdAt': -1 }", fields = SUMMARY_FIELDS)
+        List<BillSummary> findRecentSummaries(Pageable pageable);
+
+        @Query(value = "{ 'farmerId': ?0 }", sort = "{ 'createdAt': -1 }", fields = SUMMARY_FIELDS)
+        List<BillSummary> findSummariesByFarmerId(String farmerId);
+
+        @Query(value = "{ 'paymentStatus': { $in: [ null, 'UNPAID' ] } }", sort = "{ 'createdAt': -1 }",
+                        fields = SUMMARY_FIELDS)
+        List<BillSummary> findUnpaidSummaries();
+
+        @Query(value = "{ 'dueDate': { $lt: ?0 }, 'paymentStatus': { $ne: 'PAID' } }", sort = "{ 'dueDate': 1 }",
+                        fields = SUMMARY_FIELDS)
+        List<BillSummary> findOverdueSummaries(LocalDateTime now);
+
         // ==================== COUNT QUERIES (O(1) with index) ====================
 
         Long countByCreatedAtAfter(LocalDateTime dateTime);
@@ -0,0 +1,510 @@
+package com.bananabill.service;
+
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.job.JobLeaseManager;
+import com.bananabill.model.AdvancePool;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+import com.bananabill.model.PaymentHistory;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.User;
+import com.bananabill.util.SecurityUtils;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Advance Pool Service - Carries overpayments forward to a farmer's next bills
+ *
+ * - Credit: a payment beyond a bill's net amount adds the excess to the
+ *   farmer's pool (advance_pools, one document per farmer)
+ * - Apply: a new bill draws from the pool at creation, oldest advance first;
+ *   the pool is read by id and updated with compare-and-set on its revision,
+ *   so bill creation costs one extra point read when there is no advance
+ * - Settle: the drawn amount moves off the overpaid bills (paid and advance
+ *   amounts go down) and ADVANCE_USED history rows record both sides, so
+ *   ledger totals never count the same money twice
+ * - Return: deleting a bill that drew advance puts it back on the source
+ *   bills and in the pool
+ * - Rebuild: pools are recomputed into a side collection that is renamed over
+ *   advance_pools, so readers never see it empty; the startup build runs on
+ *   one node under a job lease
+ */
+@Service
+public class AdvancePoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvancePoolService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String REBUILD_SUFFIX = "_rebuild";
+    private static final String BUILD_LEASE = "advance-pool-build";
+    private static final String BUILD_FIRE_KEY = "initial";
+    private static final Duration BUILD_LEASE_DURATION = Duration.ofMinutes(10);
+
+    private final MongoTemplate mongoTemplate;
+    private final BillReadCache billCache;
+    private final DomainEventPublisher eventPublisher;
+    private final JobLeaseManager leases;
+    private final Counter conflicts;
+
+    public AdvancePoolService(MongoTemplate mongoTemplate,
+            BillReadCache billCache,
+            DomainEventPublisher eventPublisher,
+            JobLeaseManager leases,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.billCache = billCache;
+        this.eventPublisher = eventPublisher;
+        this.leases = leases;
+        this.conflicts = meterRegistry.counter("advance.pool.conflicts");
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * First start with pools: seed them from bills that already carry advance
+     * One node builds; the lease's fire key keeps the others from repeating it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        try {
+            if (mongoTemplate.estimatedCount(AdvancePool.class) > 0) {
+                return;
+            }
+            JobLeaseManager.Lease lease = leases.acquire(BUILD_LEASE, BUILD_FIRE_KEY, BUILD_LEASE_DURATION);
+            if (lease == null) {
+                return;
+            }
+            int pools = rebuildAll();
+            leases.complete(lease);
+            if (pools > 0) {
+                logger.info("Built {} advance pools from existing bills", pools);
+            }
+        } catch (Exception e) {
+            // Existing advance is not carried forward until the next rebuild
+            logger.warn("Advance pool build failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every pool from the advance still held on bills
+     * Written to a side collection and renamed over advance_pools in one step
+     */
+    public int rebuildAll() {
+        Query overpaid = new BasicQuery(new Document("$expr", new Document("$gt",
+                List.of(toDecimal("$advanceAmount"), Decimal128.POSITIVE_ZERO))))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
+        overpaid.fields().include("farmerId", "billNumber", "advanceAmount", "createdBy");
+
+        Map<String, AdvancePool> pools = new LinkedHashMap<>();
+        for (Bill bill : mongoTemplate.find(overpaid, Bill.class)) {
+            if (bill.getFarmerId() == null) {
+                continue;
+            }
+            AdvancePool pool = pools.computeIfAbsent(bill.getFarmerId(), farmerId -> {
+                AdvancePool created = new AdvancePool();
+                created.setId(farmerId);
+                created.setCreatedBy(bill.getCreatedBy());
+                created.setUpdatedAt(LocalDateTime.now());
+                return created;
+            });
+            pool.getSources().add(new AdvancePool.Source(bill.getId(), bill.getBillNumber(), bill.getAdvanceAmount()));
+            pool.setBalance(pool.getBalance().add(bill.getAdvanceAmount()));
+        }
+
+        String target = mongoTemplate.getCollectionName(AdvancePool.class);
+        String staging = target + REBUILD_SUFFIX;
+        mongoTemplate.dropCollection(staging);
+        mongoTemplate.createCollection(staging);
+        if (!pools.isEmpty()) {
+            mongoTemplate.insert(pools.values(), staging);
+        }
+        mongoTemplate.getCollection(staging).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), target),
+                new RenameCollectionOptions().dropTarget(true));
+        return pools.size();
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Advance a farmer has not used yet
+     */
+    public BigDecimal getBalance(String farmerId) {
+        AdvancePool pool = mongoTemplate.findById(farmerId, AdvancePool.class);
+        return pool != null ? pool.getBalance() : BigDecimal.ZERO;
+    }
+
+    // ==================== CREDIT ====================
+
+    /**
+     * Add whatever advance a payment created on this bill to the farmer's pool
+     *
+     * @param before the bill as it was before the payment
+     */
+    public void creditOverpayment(Bill bill, BillBalance before) {
+        BigDecimal previous = before != null ? before.advanceAmount() : BigDecimal.ZERO;
+        BigDecimal added = orZero(bill.getAdvanceAmount()).subtract(previous);
+        if (added.signum() <= 0 || bill.getFarmerId() == null) {
+            return;
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(bill.getFarmerId())), new Update()
+                .inc("balance", new Decimal128(added))
+                .push("sources", new AdvancePool.Source(bill.getId(), bill.getBillNumber(), added))
+                .inc("revision", 1)
+                .set("updatedAt", LocalDateTime.now())
+                .setOnInsert("createdBy", bill.getCreatedBy()),
+                AdvancePool.class);
+        logger.info("Advance of {} from bill {} added to farmer {}'s pool",
+                added, bill.getBillNumber(), bill.getFarmerId());
+    }
+
+    // ==================== APPLY ====================
+
+    /**
+     * Draw advance for a bill that is about to be saved and mark it paid by that much
+     *
+     * @return what was drawn; pass it to settle() once the bill is saved,
+     *         or to release() if saving fails
+     */
+    public Claim applyTo(Bill bill) {
+        BigDecimal netAmount = orZero(bill.getNetAmount());
+        if (bill.getFarmerId() == null || netAmount.signum() <= 0) {
+            return Claim.NONE;
+        }
+
+        Claim claim = claim(bill.getFarmerId(), netAmount);
+        if (claim.isEmpty()) {
+            return claim;
+        }
+        bill.setPaidAmount(claim.amount());
+        bill.setPaymentStatus(claim.amount().compareTo(netAmount) >= 0 ? PaymentStatus.PAID : PaymentStatus.PARTIAL);
+        bill.setPaymentDate(LocalDateTime.now());
+        return claim;
+    }
+
+    /**
+     * Take up to limit from the pool, oldest sources first
+     */
+    Claim claim(String farmerId, BigDecimal limit) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            AdvancePool pool = mongoTemplate.findById(farmerId, AdvancePool.class);
+            if (pool == null || pool.getBalance() == null || pool.getBalance().signum() <= 0) {
+                return Claim.NONE;
+            }
+
+            List<Draw> draws = new ArrayList<>();
+            List<AdvancePool.Source> remaining = new ArrayList<>();
+            BigDecimal left = pool.getBalance().min(limit);
+            for (AdvancePool.Source source : pool.getSources()) {
+                BigDecimal take = left.min(source.getAmount());
+                if (take.signum() > 0) {
+                    draws.add(new Draw(source.getBillId(), source.getBillNumber(), take));
+                    left = left.subtract(take);
+                }
+                BigDecimal rest = source.getAmount().subtract(take);
+                if (rest.signum() > 0) {
+                    remaining.add(new AdvancePool.Source(source.getBillId(), source.getBillNumber(), rest));
+                }
+            }
+            BigDecimal drawn = draws.stream().map(Draw::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal balance = remaining.stream().map(AdvancePool.Source::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            if (compareAndSet(pool, balance, remaining)) {
+                return draws.isEmpty() ? Claim.NONE : new Claim(farmerId, drawn, draws);
+            }
+            conflicts.increment();
+        }
+        // Heavy contention on one farmer: the bill is created unpaid, the advance stays for the next one
+        logger.warn("Advance pool of farmer {} kept changing, bill created without advance", farmerId);
+        return Claim.NONE;
+    }
+
+    /**
+     * Give drawn advance back (the bill it was drawn for was not saved)
+     */
+    public void release(Claim claim) {
+        if (claim.isEmpty()) {
+            return;
+        }
+        List<AdvancePool.Source> sources = claim.draws().stream()
+                .map(draw -> new AdvancePool.Source(draw.billId(), draw.billNumber(), draw.amount()))
+                .toList();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(claim.farmerId())), new Update()
+                .inc("balance", new Decimal128(claim.amount()))
+                .push("sources").atPosition(Update.Position.FIRST).each(sources.toArray())
+                .inc("revision", 1)
+                .set("updatedAt", LocalDateTime.now()),
+                AdvancePool.class);
+    }
+
+    /**
+     * Drop a deleted bill's advance from its farmer's pool
+     */
+    public void removeSource(Bill bill) {
+        if (bill.getFarmerId() == null || orZero(bill.getAdvanceAmount()).signum() <= 0) {
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            AdvancePool pool = mongoTemplate.findById(bill.getFarmerId(), AdvancePool.class);
+            if (pool == null || pool.getSources().stream().noneMatch(source -> bill.getId().equals(source.getBillId()))) {
+                return;
+            }
+            List<AdvancePool.Source> remaining = pool.getSources().stream()
+                    .filter(source -> !bill.getId().equals(source.getBillId()))
+                    .toList();
+            BigDecimal balance = remaining.stream().map(AdvancePool.Source::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (compareAndSet(pool, balance, remaining)) {
+                return;
+            }
+            conflicts.increment();
+        }
+        logger.warn("Could not remove bill {} from advance pool of farmer {}", bill.getBillNumber(), bill.getFarmerId());
+    }
+
+    private boolean compareAndSet(AdvancePool pool, BigDecimal balance, List<AdvancePool.Source> sources) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(pool.getId()).and("revision").is(pool.getRevision())),
+                new Update()
+                        .set("balance", new Decimal128(balance))
+                        .set("sources", sources)
+                        .inc("revision", 1)
+                        .set("updatedAt", LocalDateTime.now()),
+                AdvancePool.class);
+        return result.getModifiedCount() == 1;
+    }
+
+    // ==================== SETTLE ====================
+
+    /**
+     * Move drawn advance off the overpaid bills and record ADVANCE_USED on both sides
+     *
+     * Without a transaction a failure part way puts the source bills back and
+     * removes the rows already written before rethrowing; the caller then
+     * drops the bill and releases the claim.
+     *
+     * @param bill the saved bill the advance was applied to
+     */
+    public void settle(Bill bill, Claim claim) {
+        if (claim.isEmpty()) {
+            return;
+        }
+        User currentUser = SecurityUtils.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        String settlementId = new ObjectId().toHexString();
+        List<PaymentHistory> rows = new ArrayList<>();
+        Map<String, BigDecimal> moved = new LinkedHashMap<>();
+
+        rows.add(history(bill, claim.amount(), BigDecimal.ZERO, orZero(bill.getPaidAmount()),
+                "Advance from " + claim.draws().stream().map(Draw::billNumber).distinct()
+                        .collect(Collectors.joining(", ")),
+                null, settlementId, currentUser, now));
+
+        Map<String, BigDecimal> bySource = claim.draws().stream()
+                .collect(Collectors.toMap(Draw::billId, Draw::amount, BigDecimal::add, LinkedHashMap::new));
+        try {
+            bySource.forEach((sourceId, amount) -> {
+                Bill source = drawFrom(sourceId, amount, currentUser, now);
+                if (source != null) {
+                    moved.put(sourceId, amount);
+                    rows.add(history(source, amount.negate(), orZero(source.getPaidAmount()).add(amount),
+                            source.getPaidAmount(), "Carried forward to " + bill.getBillNumber(),
+                            bill.getId(), settlementId, currentUser, now));
+                }
+            });
+            mongoTemplate.insert(rows, PaymentHistory.class);
+        } catch (RuntimeException e) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                logger.error("Failed to settle advance for bill {}; putting the source bills back",
+                        bill.getBillNumber(), e);
+                undoSettle(settlementId, moved, currentUser, now);
+            }
+            throw e;
+        }
+    }
+
+    private void undoSettle(String settlementId, Map<String, BigDecimal> moved, User currentUser,
+            LocalDateTime now) {
+        mongoTemplate.remove(new Query(Criteria.where("allocationId").is(settlementId)), PaymentHistory.class);
+        moved.forEach((sourceId, amount) -> {
+            try {
+                drawFrom(sourceId, amount.negate(), currentUser, now);
+            } catch (RuntimeException e) {
+                // Left for the next pool rebuild and ledger drift check
+                logger.error("Could not put {} back on advance source bill {}", amount, sourceId, e);
+            }
+        });
+    }
+
+    // ==================== RETURN ====================
+
+    /**
+     * Give back the advance a deleted bill drew: the source bills get their
+     * paid and advance amounts back and the advance returns to the pool
+     *
+     * What is still owed per source is the sum of the ADVANCE_USED rows that
+     * name the bill, so a second call finds nothing left to return.
+     */
+    public void returnDraws(Bill bill) {
+        if (bill.getFarmerId() == null) {
+            return;
+        }
+        Query drawnFor = new Query(Criteria.where("relatedBillId").is(bill.getId())
+                .and("paymentType").is(PaymentHistory.PaymentType.ADVANCE_USED));
+        Map<String, BigDecimal> owed = new LinkedHashMap<>();
+        Map<String, String> numbers = new LinkedHashMap<>();
+        for (PaymentHistory row : mongoTemplate.find(drawnFor, PaymentHistory.class)) {
+            owed.merge(row.getBillId(), orZero(row.getAmount()).negate(), BigDecimal::add);
+            numbers.put(row.getBillId(), row.getBillNumber());
+        }
+        owed.values().removeIf(amount -> amount.signum() <= 0);
+        if (owed.isEmpty()) {
+            return;
+        }
+
+        User currentUser = SecurityUtils.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        String settlementId = new ObjectId().toHexString();
+        List<Draw> returned = new ArrayList<>();
+        List<PaymentHistory> rows = new ArrayList<>();
+        owed.forEach((sourceId, amount) -> {
+            Bill source = drawFrom(sourceId, amount.negate(), currentUser, now);
+            if (source != null) {
+                returned.add(new Draw(sourceId, numbers.get(sourceId), amount));
+                rows.add(history(source, amount, orZero(source.getPaidAmount()).subtract(amount),
+                        source.getPaidAmount(), "Returned from deleted bill " + bill.getBillNumber(),
+                        bill.getId(), settlementId, currentUser, now));
+            }
+        });
+        if (returned.isEmpty()) {
+            return;
+        }
+        BigDecimal total = returned.stream().map(Draw::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        release(new Claim(bill.getFarmerId(), total, returned));
+        try {
+            mongoTemplate.insert(rows, PaymentHistory.class);
+        } catch (Exception e) {
+            // The bill is gone and the sources are whole again; only the audit rows are missing
+            logger.error("Failed to record advance returned from deleted bill {}", bill.getBillNumber(), e);
+        }
+        logger.info("Returned advance of {} from deleted bill {} to farmer {}'s pool",
+                total, bill.getBillNumber(), bill.getFarmerId());
+    }
+
+    /**
+     * Lower an overpaid bill's paid and advance amounts by what was carried
+     * forward; a negative amount puts advance back
+     */
+    private Bill drawFrom(String billId, BigDecimal amount, User currentUser, LocalDateTime now) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Bill source = mongoTemplate.findById(billId, Bill.class);
+            if (source == null) {
+                // Archived since the advance was credited; its segment stays as it was
+                logger.info("Advance source bill {} is no longer in bills, left unchanged", billId);
+                return null;
+            }
+            BillBalance before = BillBalance.of(source);
+            source.setAdvanceAmount(orZero(source.getAdvanceAmount()).subtract(amount).max(BigDecimal.ZERO));
+            source.setPaidAmount(orZero(source.getPaidAmount()).subtract(amount));
+            source.setUpdatedAt(now);
+            source.setUpdatedBy(currentUser.getId());
+            try {
+                Bill saved = mongoTemplate.save(source);
+                billCache.evict(saved.getId());
+                eventPublisher.publish(PaymentRecorded.of(saved, amount.negate(), before));
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+            }
+        }
+        throw new OptimisticLockingFailureException("Advance source bill " + billId + " kept changing");
+    }
+
+    private static PaymentHistory history(Bill bill, BigDecimal amount, BigDecimal previousPaid, BigDecimal newPaid,
+            String notes, String relatedBillId, String settlementId, User currentUser, LocalDateTime now) {
+        PaymentHistory history = new PaymentHistory();
+        history.setBillId(bill.getId());
+        history.setBillNumber(bill.getBillNumber());
+        history.setFarmerId(bill.getFarmerId());
+        if (bill.getFarmer() != null) {
+            history.setFarmerName(bill.getFarmer().getName());
+            history.setFarmerMobile(bill.getFarmer().getMobileNumber());
+        }
+        history.setAmount(amount);
+        history.setPreviousPaidAmount(previousPaid);
+        history.setNewPaidAmount(newPaid);
+        history.setBillNetAmount(bill.getNetAmount());
+        history.setPaymentType(PaymentHistory.PaymentType.ADVANCE_USED);
+        history.setNotes(notes);
+        history.setRelatedBillId(relatedBillId);
+        history.setAllocationId(settlementId);
+        history.setCreatedBy(currentUser.getId());
+        history.setCreatedByName(currentUser.getName());
+        history.setCreatedAt(now);
+        return history;
+    }
+
+    // ==================== HELPERS ====================
+
+    private static Document toDecimal(String field) {
+        return new Document("$convert", new Document("input", field)
+                .append("to", "decimal")
+                .append("onError", Decimal128.POSITIVE_ZERO)
+                .append("onNull", Decimal128.POSITIVE_ZERO));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // ==================== TYPES ====================
+
+    /**
+     * Advance drawn for one bill
+     */
+    public record Claim(String farmerId, BigDecimal amount, List<Draw> draws) {
+
+        public static final Claim NONE = new Claim(null, BigDecimal.ZERO, List.of());
+
+        public boolean isEmpty() {
+            return draws.isEmpty();
+        }
+    }
+
+    /**
+     * Part of a claim taken from one overpaid bill
+     */
+    public record Draw(String billId, String billNumber, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,714 @@
+package com.bananabill.service;
+
+import com.bananabill.event.BillDeleted;
+import com.bananabill.event.BillEvent;
+import com.bananabill.event.ChangeStreamListener;
+import com.bananabill.event.CollectionChange;
+import com.bananabill.event.DomainEvent;
+import com.bananabill.event.DomainEventListener;
+import com.bananabill.event.FarmerUpdated;
+import com.bananabill.model.Bill;
+import com.bananabill.model.Farmer;
+import com.bananabill.model.PaymentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bill Analytics Cache - Columnar in-memory projection of bills for reporting
+ *
+ * Layout (struct-of-arrays, one slot per bill):
+ * - netAmount / paidAmount in paise (long)
+ * - finalNetWeight in grams (long)
+ * - createdAt as epoch day (int)
+ * - farmer as dictionary-encoded ordinal (int)
+ * - payment status ordinal (byte, -1 for deleted slots)
+ *
+ * Loaded once at startup when analytics.cache.enabled=true and kept current
+ * from bill, payment and farmer domain events (and, with change streams enabled,
+ * from writes made by other nodes). Report filters run as parallel scans over
+ * the arrays instead of reading bill documents from MongoDB.
+ *
+ * Footprint is exposed as analytics.cache.* gauges on /actuator/metrics.
+ */
+@Service
+public class BillAnalyticsCache implements DomainEventListener, ChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillAnalyticsCache.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SCAN_CHUNK_SIZE = 16_384;
+    private static final byte DELETED = -1;
+
+    private final MongoTemplate mongoTemplate;
+    private final BillArchiveService archiveService;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Current columns; replaced as a whole by reload(), changed in place under the write lock
+    private volatile Table table = new Table();
+
+    private volatile boolean ready;
+    private volatile boolean reloadPending;
+
+    // Writes seen while a reload builds its table, replayed onto it before the swap
+    private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    private volatile boolean loading;
+    // One reload at a time
+    private final Object reloadMonitor = new Object();
+
+    public BillAnalyticsCache(MongoTemplate mongoTemplate,
+            BillArchiveService archiveService,
+            @Value("${analytics.cache.enabled:false}") boolean enabled,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+
+        Gauge.builder("analytics.cache.rows", this, cache -> cache.liveRows())
+                .description("Live bill rows held in the analytics cache")
+                .register(meterRegistry);
+        Gauge.builder("analytics.cache.farmers", this, cache -> cache.farmerCount())
+                .description("Farmer dictionary entries in the analytics cache")
+                .register(meterRegistry);
+        Gauge.builder("analytics.cache.memory", this, cache -> cache.estimatedBytes())
+                .description("Estimated heap footprint of the analytics cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // Reports fall back to MongoDB until the next successful reload
+            logger.warn("Analytics cache load failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the cache from the bills collection and archived segments
+     *
+     * The new table is built without the lock, so reports keep reading the
+     * current one meanwhile; writes made during the build are buffered and
+     * replayed onto it under a short write lock before it is swapped in.
+     */
+    public void reload() {
+        synchronized (reloadMonitor) {
+            long start = System.currentTimeMillis();
+
+            Query query = new Query();
+            query.fields()
+                    .include("farmerId", "farmer", "netAmount", "paidAmount",
+                            "finalNetWeight", "createdAt", "paymentStatus");
+
+            synchronized (pendingWrites) {
+                pendingWrites.clear();
+                loading = true;
+            }
+            Table built = new Table();
+            try {
+                try (Stream<Bill> bills = mongoTemplate.stream(query, Bill.class)) {
+                    bills.forEach(built::upsertRow);
+                }
+                // A bill still live while its month is being exported keeps its live row
+                archiveService.findBetween(null, null).stream()
+                        .filter(bill -> !built.rowByBillId.containsKey(bill.getId()))
+                        .forEach(built::upsertRow);
+
+                lock.writeLock().lock();
+                try {
+                    synchronized (pendingWrites) {
+                        pendingWrites.forEach((billId, write) -> replay(built, billId, write));
+                        table = built;
+                        ready = true;
+                        pendingWrites.clear();
+                        loading = false;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                synchronized (pendingWrites) {
+                    pendingWrites.clear();
+                    loading = false;
+                }
+            }
+
+            logger.info("Analytics cache loaded {} bills for {} farmers in {}ms (~{} KB)",
+                    liveRows(), farmerCount(), System.currentTimeMillis() - start, estimatedBytes() / 1024);
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // ==================== DOMAIN EVENTS ====================
+
+    @Override
+    public String getListenerName() {
+        return "analytics-cache";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return enabled && (event instanceof BillEvent || event instanceof FarmerUpdated updated && updated.renamed());
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (reloadPending) {
+            reloadPending = false;
+            reload();
+            return;
+        }
+        if (event instanceof BillDeleted deleted) {
+            remove(deleted.bill().getId());
+        } else if (event instanceof BillEvent billEvent) {
+            upsert(billEvent.bill());
+        } else if (event instanceof FarmerUpdated updated) {
+            renameFarmer(updated.farmer().getId(), updated.farmer().getName(), updated.farmer().getMobileNumber());
+        }
+    }
+
+    /**
+     * A missed event leaves rows stale: serve reports from MongoDB until the
+     * reload in reconcile() (or the next event) has run on the listener thread
+     */
+    @Override
+    public void onDropped(DomainEvent event) {
+        ready = false;
+        reloadPending = true;
+    }
+
+    @Override
+    public void reconcile() {
+        if (reloadPending) {
+            reloadPending = false;
+            reload();
+        }
+    }
+
+    // ==================== CHANGE STREAM ====================
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return enabled ? Set.of("bills", "farmers") : Set.of();
+    }
+
+    @Override
+    public void onChanges(String collection, List<CollectionChange> changes) {
+        for (CollectionChange change : changes) {
+            if ("farmers".equals(collection)) {
+                if (change.document() != null) {
+                    Farmer farmer = mongoTemplate.getConverter().read(Farmer.class, change.document());
+                    renameFarmer(farmer.getId(), farmer.getName(), farmer.getMobileNumber());
+                }
+            } else if (change.isDelete()) {
+                removeUnlessArchived(change.id());
+            } else if (change.document() != null) {
+                upsert(mongoTemplate.getConverter().read(Bill.class, change.document()));
+            }
+        }
+    }
+
+    @Override
+    public void onResync(String collection) {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // ==================== MUTATIONS ====================
+
+    /**
+     * Insert or refresh the row for a saved bill
+     */
+    public void upsert(Bill bill) {
+        if (!enabled || bill == null || bill.getId() == null
+                || buffered(bill.getId(), new PendingWrite(bill, false)) || !isReady()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            table.upsertRow(bill);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the row for a deleted bill
+     */
+    public void remove(String billId) {
+        if (!enabled || billId == null || buffered(billId, new PendingWrite(null, false)) || !isReady()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            table.removeRow(billId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a row deleted from MongoDB, unless its month was exported to an
+     * archive segment (archiving removes the documents but reports keep them)
+     */
+    private void removeUnlessArchived(String billId) {
+        if (!enabled || billId == null || buffered(billId, new PendingWrite(null, true)) || !isReady()) {
+            return;
+        }
+        int epochDay;
+        lock.readLock().lock();
+        try {
+            Table current = table;
+            Integer row = current.rowByBillId.get(billId);
+            if (row == null) {
+                return;
+            }
+            epochDay = current.epochDays[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!archiveService.isArchived(YearMonth.from(LocalDate.ofEpochDay(epochDay)), billId)) {
+            remove(billId);
+        }
+    }
+
+    /**
+     * Refresh the dictionary entry after a farmer rename
+     */
+    public void renameFarmer(String farmerId, String name, String mobile) {
+        if (!isReady() || farmerId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Table current = table;
+            Integer ordinal = current.farmerOrdinalById.get(farmerId);
+            if (ordinal != null) {
+                current.farmerNames.set(ordinal, name);
+                current.farmerMobiles.set(ordinal, mobile);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Aggregate all bills matching the filter with a parallel scan
+     */
+    public Aggregate aggregate(Filter filter) {
+        lock.readLock().lock();
+        try {
+            final Table current = table;
+            final int rows = current.size;
+            final int fromDay = filter.startDate() != null ? (int) filter.startDate().toEpochDay() : Integer.MIN_VALUE;
+            final int toDay = filter.endDate() != null ? (int) filter.endDate().toEpochDay() : Integer.MAX_VALUE;
+            final int farmer = filter.farmerId() != null
+                    ? current.farmerOrdinalById.getOrDefault(filter.farmerId(), -2)
+                    : -1;
+            final byte status = filter.paymentStatus() != null ? (byte) filter.paymentStatus().ordinal() : DELETED;
+            final long minWeight = filter.minWeight() != null ? toGrams(filter.minWeight()) : Long.MIN_VALUE;
+            final long maxWeight = filter.maxWeight() != null ? toGrams(filter.maxWeight()) : Long.MAX_VALUE;
+
+            if (farmer == -2) {
+                return Aggregate.empty();
+            }
+
+            // Capture column references so worker threads read a consistent snapshot
+            final long[] amounts = current.netAmountPaise;
+            final long[] paid = current.paidAmountPaise;
+            final long[] weights = current.weightGrams;
+            final int[] days = current.epochDays;
+            final int[] farmers = current.farmerOrdinals;
+            final byte[] states = current.statuses;
+
+            int chunks = (rows + SCAN_CHUNK_SIZE - 1) / SCAN_CHUNK_SIZE;
+            Partial total = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> {
+                        Partial partial = new Partial();
+                        int end = Math.min(rows, (chunk + 1) * SCAN_CHUNK_SIZE);
+                        for (int i = chunk * SCAN_CHUNK_SIZE; i < end; i++) {
+                            byte state = states[i];
+                            if (state == DELETED
+                                    || days[i] < fromDay || days[i] > toDay
+                                    || (farmer >= 0 && farmers[i] != farmer)
+                                    || (status != DELETED && state != status)
+                                    || weights[i] < minWeight || weights[i] > maxWeight) {
+                                continue;
+                            }
+                            long outstanding = state == PaymentStatus.PAID.ordinal()
+                                    ? 0
+                                    : Math.max(0, amounts[i] - paid[i]);
+                            partial.add(farmers[i], amounts[i], weights[i], outstanding);
+                        }
+                        return partial;
+                    })
+                    .reduce(new Partial(), Partial::merge);
+
+            List<FarmerTotals> farmerTotals = new ArrayList<>(total.byFarmer.size());
+            total.byFarmer.forEach((ordinal, sums) -> farmerTotals.add(new FarmerTotals(
+                    current.farmerIds.get(ordinal),
+                    current.farmerNames.get(ordinal),
+                    current.farmerMobiles.get(ordinal),
+                    sums[0],
+                    fromPaise(sums[1]),
+                    fromGrams(sums[2]))));
+            farmerTotals.sort((a, b) -> b.totalAmount().compareTo(a.totalAmount()));
+
+            return new Aggregate(
+                    total.count,
+                    fromPaise(total.amount),
+                    fromGrams(total.weight),
+                    fromPaise(total.outstanding),
+                    farmerTotals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct months that contain at least one bill, newest first
+     */
+    public List<YearMonth> availableMonths() {
+        lock.readLock().lock();
+        try {
+            final Table current = table;
+            final int[] days = current.epochDays;
+            final byte[] states = current.statuses;
+            return IntStream.range(0, current.size)
+                    .parallel()
+                    .filter(i -> states[i] != DELETED)
+                    .map(i -> days[i])
+                    .distinct()
+                    .mapToObj(day -> YearMonth.from(LocalDate.ofEpochDay(day)))
+                    .distinct()
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== FOOTPRINT ====================
+
+    public int liveRows() {
+        Table current = table;
+        return current.size - current.deleted;
+    }
+
+    public int farmerCount() {
+        return table.farmerIds.size();
+    }
+
+    /**
+     * Rough heap estimate: column arrays + row index + farmer dictionary
+     */
+    public long estimatedBytes() {
+        Table current = table;
+        long capacity = current.statuses.length;
+        long columns = capacity * (Long.BYTES * 3 + Integer.BYTES * 2 + Byte.BYTES);
+        long rowIndex = capacity * 8L + current.rowByBillId.size() * (32L + 64L);
+        long dictionary = current.farmerIds.size() * (3 * 64L + 48L);
+        return columns + rowIndex + dictionary;
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    /**
+     * While a reload builds its table, keep the write for replay onto it (the
+     * build may already have read an older version of the bill). Returns true
+     * when there is no current table to apply it to as well (first load).
+     */
+    private boolean buffered(String billId, PendingWrite write) {
+        if (!loading) {
+            return false;
+        }
+        synchronized (pendingWrites) {
+            if (!loading) {
+                return false;
+            }
+            // Latest write per bill wins; re-insert keeps arrival order
+            pendingWrites.remove(billId);
+            pendingWrites.put(billId, write);
+            return !ready;
+        }
+    }
+
+    /**
+     * Apply a buffered write to a table that is not yet visible to readers
+     */
+    private void replay(Table target, String billId, PendingWrite write) {
+        if (write.bill() != null) {
+            target.upsertRow(write.bill());
+            return;
+        }
+        Integer row = target.rowByBillId.get(billId);
+        if (row == null) {
+            return;
+        }
+        if (write.onlyIfLive()
+                && archiveService.isArchived(YearMonth.from(LocalDate.ofEpochDay(target.epochDays[row])), billId)) {
+            return;
+        }
+        target.removeRow(billId);
+    }
+
+    private static long toPaise(BigDecimal value) {
+        return value == null ? 0 : value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static long toGrams(BigDecimal value) {
+        return value == null ? 0 : value.movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static BigDecimal fromGrams(long grams) {
+        return BigDecimal.valueOf(grams, 3);
+    }
+
+    private static int toEpochDay(LocalDateTime createdAt) {
+        return createdAt == null ? 0 : (int) createdAt.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Column arrays, row index and farmer dictionary of one load
+     */
+    private static final class Table {
+
+        // Row identity
+        private String[] billIds = new String[INITIAL_CAPACITY];
+        private final Map<String, Integer> rowByBillId = new HashMap<>();
+
+        // Columns
+        private long[] netAmountPaise = new long[INITIAL_CAPACITY];
+        private long[] paidAmountPaise = new long[INITIAL_CAPACITY];
+        private long[] weightGrams = new long[INITIAL_CAPACITY];
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+        private int[] farmerOrdinals = new int[INITIAL_CAPACITY];
+        private byte[] statuses = new byte[INITIAL_CAPACITY];
+
+        // Farmer dictionary
+        private final Map<String, Integer> farmerOrdinalById = new HashMap<>();
+        private final List<String> farmerIds = new ArrayList<>();
+        private final List<String> farmerNames = new ArrayList<>();
+        private final List<String> farmerMobiles = new ArrayList<>();
+
+        private int size;
+        private int deleted;
+
+        void removeRow(String billId) {
+            Integer row = rowByBillId.remove(billId);
+            if (row != null) {
+                statuses[row] = DELETED;
+                billIds[row] = null;
+                deleted++;
+                if (deleted > INITIAL_CAPACITY && deleted > size / 4) {
+                    compact();
+                }
+            }
+        }
+
+        void upsertRow(Bill bill) {
+            Integer row = rowByBillId.get(bill.getId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowByBillId.put(bill.getId(), row);
+                billIds[row] = bill.getId();
+            }
+
+            netAmountPaise[row] = toPaise(bill.getNetAmount());
+            paidAmountPaise[row] = toPaise(bill.getPaidAmount());
+            weightGrams[row] = toGrams(bill.getFinalNetWeight());
+            epochDays[row] = toEpochDay(bill.getCreatedAt());
+            farmerOrdinals[row] = farmerOrdinal(bill);
+            statuses[row] = (byte) (bill.getPaymentStatus() != null
+                    ? bill.getPaymentStatus()
+                    : PaymentStatus.UNPAID).ordinal();
+        }
+
+        private int farmerOrdinal(Bill bill) {
+            String farmerId = bill.getFarmerId() != null ? bill.getFarmerId()
+                    : bill.getFarmer() != null ? bill.getFarmer().getId() : "";
+            String name = bill.getFarmer() != null ? bill.getFarmer().getName() : null;
+            String mobile = bill.getFarmer() != null ? bill.getFarmer().getMobileNumber() : null;
+
+            Integer ordinal = farmerOrdinalById.get(farmerId);
+            if (ordinal == null) {
+                ordinal = farmerIds.size();
+                farmerOrdinalById.put(farmerId, ordinal);
+                farmerIds.add(farmerId);
+                farmerNames.add(name);
+                farmerMobiles.add(mobile);
+            } else if (name != null) {
+                // Latest bill carries the current farmer name
+                farmerNames.set(ordinal, name);
+                farmerMobiles.set(ordinal, mobile);
+            }
+            return ordinal;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= statuses.length) {
+                return;
+            }
+            int capacity = Math.max(required, statuses.length + (statuses.length >> 1));
+            billIds = Arrays.copyOf(billIds, capacity);
+            netAmountPaise = Arrays.copyOf(netAmountPaise, capacity);
+            paidAmountPaise = Arrays.copyOf(paidAmountPaise, capacity);
+            weightGrams = Arrays.copyOf(weightGrams, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            farmerOrdinals = Arrays.copyOf(farmerOrdinals, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+
+        /**
+         * Squeeze out deleted slots so scans stay dense
+         */
+        private void compact() {
+            int target = 0;
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] == DELETED) {
+                    continue;
+                }
+                if (target != i) {
+                    billIds[target] = billIds[i];
+                    netAmountPaise[target] = netAmountPaise[i];
+                    paidAmountPaise[target] = paidAmountPaise[i];
+                    weightGrams[target] = weightGrams[i];
+                    epochDays[target] = epochDays[i];
+                    farmerOrdinals[target] = farmerOrdinals[i];
+                    statuses[target] = statuses[i];
+                    rowByBillId.put(billIds[target], target);
+                }
+                target++;
+            }
+            Arrays.fill(billIds, target, size, null);
+            size = target;
+            deleted = 0;
+        }
+    }
+
+    /**
+     * Upsert (bill set) or removal (bill null) held during a reload
+     */
+    private record PendingWrite(Bill bill, boolean onlyIfLive) {
+    }
+
+    /**
+     * Per-thread accumulator for a scan chunk
+     */
+    private static final class Partial {
+        private long count;
+        private long amount;
+        private long weight;
+        private long outstanding;
+        // farmer ordinal -> [billCount, amountPaise, weightGrams]
+        private final Map<Integer, long[]> byFarmer = new HashMap<>();
+
+        void add(int farmer, long amountPaise, long grams, long outstandingPaise) {
+            count++;
+            amount += amountPaise;
+            weight += grams;
+            outstanding += outstandingPaise;
+            long[] sums = byFarmer.computeIfAbsent(farmer, k -> new long[3]);
+            sums[0]++;
+            sums[1] += amountPaise;
+            sums[2] += grams;
+        }
+
+        Partial merge(Partial other) {
+            Partial merged = new Partial();
+            merged.count = count + other.count;
+            merged.amount = amount + other.amount;
+            merged.weight = weight + other.weight;
+            merged.outstanding = outstanding + other.outstanding;
+            byFarmer.forEach((k, v) -> merged.byFarmer.put(k, v.clone()));
+            other.byFarmer.forEach((k, v) -> merged.byFarmer.merge(k, v.clone(), (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                a[2] += b[2];
+                return a;
+            }));
+            return merged;
+        }
+    }
+
+    /**
+     * Report filter - null fields are not applied
+     */
+    public record Filter(
+            LocalDate startDate,
+            LocalDate endDate,
+            String farmerId,
+            PaymentStatus paymentStatus,
+            BigDecimal minWeight,
+            BigDecimal maxWeight) {
+
+        public static Filter between(LocalDate startDate, LocalDate endDate) {
+            return new Filter(startDate, endDate, null, null, null, null);
+        }
+    }
+
+    /**
+     * Totals for one farmer within a filtered scan
+     */
+    public record FarmerTotals(
+            String farmerId,
+            String name,
+            String mobile,
+            long billCount,
+            BigDecimal totalAmount,
+            BigDecimal totalWeight) {
+    }
+
+    /**
+     * Result of a filtered scan
+     */
+    public record Aggregate(
+            long billCount,
+            BigDecimal totalAmount,
+            BigDecimal totalWeight,
+            BigDecimal outstandingAmount,
+            List<FarmerTotals> farmers) {
+
+        static Aggregate empty() {
+            return new Aggregate(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, List.of());
+        }
+    }
+}
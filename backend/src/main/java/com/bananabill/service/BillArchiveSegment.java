@@ -0,0 +1,483 @@
+package com.bananabill.service;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Bill Archive Segment - Immutable per-month file of archived bills
+ *
+ * File layout (big-endian):
+ * - Header (32 bytes): magic "BBAR", version, yyyyMM, record count
+ * - Records: variable width, in createdAt order. Every Bill field is stored;
+ *   strings are length-prefixed UTF-8 and decimals keep their exact scale,
+ *   so a record decodes back equal to the document it was written from
+ * - Record table (16 bytes per record): createdAt seconds, nanos, offset
+ * - Footer index: record numbers sorted by bill number (UTF-8 byte order)
+ * - Trailer (32 bytes): record count, table offset, index offset, CRC32, magic
+ *
+ * Segments are written once to a temp file and atomically moved into place,
+ * then read through a MappedByteBuffer. Bill number lookups binary-search the
+ * footer index, so they stay O(log n) without loading the segment on heap.
+ */
+public final class BillArchiveSegment implements Closeable {
+
+    static final int MAGIC = 0x42424152; // "BBAR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int TRAILER_SIZE = 32;
+
+    private static final int TABLE_ENTRY_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_SECONDS = Long.MIN_VALUE;
+
+    private static final Pattern FILE_NAME = Pattern.compile("bills-(\\d{4})-(\\d{2})\\.seg");
+
+    private final Path path;
+    private final YearMonth month;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int recordCount;
+    private final int tableOffset;
+    private final int indexOffset;
+
+    private BillArchiveSegment(Path path, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE + TRAILER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a bill archive segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive segment version: " + path);
+        }
+        int yyyymm = buffer.getInt(8);
+        this.month = YearMonth.of(yyyymm / 100, yyyymm % 100);
+
+        int trailer = buffer.capacity() - TRAILER_SIZE;
+        if (buffer.getInt(trailer + 28) != MAGIC) {
+            throw new IOException("Archive segment is truncated: " + path);
+        }
+        this.recordCount = buffer.getInt(trailer);
+        this.tableOffset = (int) buffer.getLong(trailer + 4);
+        this.indexOffset = (int) buffer.getLong(trailer + 12);
+        if (recordCount != buffer.getInt(12)
+                || indexOffset != tableOffset + recordCount * TABLE_ENTRY_SIZE
+                || trailer != indexOffset + recordCount * INDEX_ENTRY_SIZE) {
+            throw new IOException("Archive segment layout is inconsistent: " + path);
+        }
+    }
+
+    // ==================== WRITE ====================
+
+    /**
+     * Write a sealed segment for one month
+     * The file appears atomically; an existing segment is never overwritten
+     */
+    public static Path write(Path directory, YearMonth month, List<Bill> bills) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(month));
+        if (Files.exists(target)) {
+            throw new IOException("Archive segment already exists: " + target);
+        }
+
+        List<Bill> ordered = new ArrayList<>(bills);
+        ordered.sort(Comparator.comparing(Bill::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(month.getYear() * 100 + month.getMonthValue());
+        out.writeInt(ordered.size());
+        out.write(new byte[HEADER_SIZE - out.size()]);
+
+        int[] offsets = new int[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            offsets[i] = out.size();
+            writeRecord(out, ordered.get(i));
+            if (out.size() < 0) {
+                throw new IOException("Archive segment for " + month + " is larger than 2 GB");
+            }
+        }
+
+        int tableOffset = out.size();
+        for (int i = 0; i < ordered.size(); i++) {
+            LocalDateTime createdAt = ordered.get(i).getCreatedAt();
+            out.writeLong(createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : NULL_SECONDS);
+            out.writeInt(createdAt != null ? createdAt.getNano() : 0);
+            out.writeInt(offsets[i]);
+        }
+
+        // Footer index sorted by bill number, in the byte order the lookup compares
+        int indexOffset = out.size();
+        List<Integer> byNumber = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            byNumber.add(i);
+        }
+        byNumber.sort(Comparator.comparing(i -> utf8(ordered.get(i).getBillNumber()), Arrays::compareUnsigned));
+        for (int recordNo : byNumber) {
+            out.writeInt(recordNo);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), HEADER_SIZE, out.size() - HEADER_SIZE);
+        out.writeInt(ordered.size());
+        out.writeLong(tableOffset);
+        out.writeLong(indexOffset);
+        out.writeLong(crc.getValue());
+        out.writeInt(MAGIC);
+        out.flush();
+
+        Path temp = directory.resolve(fileName(month) + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer content = ByteBuffer.wrap(bytes.toByteArray());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        return Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Map an existing segment read-only
+     */
+    public static BillArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BillArchiveSegment(path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static String fileName(YearMonth month) {
+        return String.format("bills-%04d-%02d.seg", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Month of a segment file name, or null for other files
+     */
+    public static YearMonth monthOf(String fileName) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(matcher.group(1)), month) : null;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Verify the CRC over records, table and index
+     */
+    public boolean verify() {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_SIZE).limit(buffer.capacity() - TRAILER_SIZE);
+        crc.update(view);
+        return crc.getValue() == buffer.getLong(buffer.capacity() - TRAILER_SIZE + 20);
+    }
+
+    /**
+     * Binary search the footer index - O(log n)
+     */
+    public Bill findByBillNumber(String billNumber) {
+        if (billNumber == null) {
+            return null;
+        }
+        byte[] key = utf8(billNumber);
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int recordNo = buffer.getInt(indexOffset + mid * INDEX_ENTRY_SIZE);
+            int cmp = Arrays.compareUnsigned(billNumberBytes(recordNo), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return readRecord(recordNo);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read every bill created within [start, end]
+     */
+    public List<Bill> findBetween(LocalDateTime start, LocalDateTime end) {
+        List<Bill> bills = new ArrayList<>();
+        for (int i = 0; i < recordCount; i++) {
+            LocalDateTime createdAt = createdAt(i);
+            if (createdAt == null) {
+                if (start == null && end == null) {
+                    bills.add(readRecord(i));
+                }
+                continue;
+            }
+            if (end != null && createdAt.isAfter(end)) {
+                break; // records are in createdAt order
+            }
+            if (start == null || !createdAt.isBefore(start)) {
+                bills.add(readRecord(i));
+            }
+        }
+        return bills;
+    }
+
+    public List<Bill> readAll() {
+        return findBetween(null, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ==================== RECORD LAYOUT ====================
+
+    /*
+     * Field order of a record. The bill number comes first so index lookups
+     * compare it without decoding the rest. Nullable values carry a marker:
+     * length -1 for strings and decimals, a 0/1 byte for numbers and dates.
+     */
+    private static void writeRecord(DataOutputStream out, Bill bill) throws IOException {
+        writeString(out, bill.getBillNumber());
+        writeString(out, bill.getId());
+        writeLong(out, bill.getVersion());
+        writeString(out, bill.getFarmerId());
+        writeString(out, bill.getVehicleNumber());
+
+        writeDecimal(out, bill.getGrossWeight());
+        writeDecimal(out, bill.getPattiWeight());
+        out.writeBoolean(bill.getBoxCount() != null);
+        out.writeInt(bill.getBoxCount() != null ? bill.getBoxCount() : 0);
+        writeDecimal(out, bill.getNetWeight());
+        writeDecimal(out, bill.getDandaWeight());
+        writeDecimal(out, bill.getTutWastage());
+        writeDecimal(out, bill.getFinalNetWeight());
+
+        writeDecimal(out, bill.getRatePerKg());
+        writeDecimal(out, bill.getTotalAmount());
+        writeDecimal(out, bill.getMajuri());
+        writeDecimal(out, bill.getNetAmount());
+
+        writeString(out, bill.getCreatedBy());
+        writeDateTime(out, bill.getCreatedAt());
+
+        FarmerSnapshot farmer = bill.getFarmer();
+        out.writeBoolean(farmer != null);
+        if (farmer != null) {
+            writeString(out, farmer.getId());
+            writeString(out, farmer.getName());
+            writeString(out, farmer.getMobileNumber());
+        }
+
+        writeString(out, bill.getPaymentStatus() != null ? bill.getPaymentStatus().name() : null);
+        writeDecimal(out, bill.getPaidAmount());
+        writeDateTime(out, bill.getPaymentDate());
+        writeDateTime(out, bill.getDueDate());
+        writeDateTime(out, bill.getLastReminderSent());
+        writeDecimal(out, bill.getAdvanceAmount());
+
+        writeDateTime(out, bill.getUpdatedAt());
+        writeString(out, bill.getUpdatedBy());
+    }
+
+    private Bill readRecord(int recordNo) {
+        Cursor in = new Cursor(recordOffset(recordNo));
+
+        Bill bill = new Bill();
+        bill.setBillNumber(in.string());
+        bill.setId(in.string());
+        bill.setVersion(in.nullableLong());
+        bill.setFarmerId(in.string());
+        bill.setVehicleNumber(in.string());
+
+        bill.setGrossWeight(in.decimal());
+        bill.setPattiWeight(in.decimal());
+        bill.setBoxCount(in.nullableInt());
+        bill.setNetWeight(in.decimal());
+        bill.setDandaWeight(in.decimal());
+        bill.setTutWastage(in.decimal());
+        bill.setFinalNetWeight(in.decimal());
+
+        bill.setRatePerKg(in.decimal());
+        bill.setTotalAmount(in.decimal());
+        bill.setMajuri(in.decimal());
+        bill.setNetAmount(in.decimal());
+
+        bill.setCreatedBy(in.string());
+        bill.setCreatedAt(in.dateTime());
+
+        if (in.flag()) {
+            bill.setFarmer(new FarmerSnapshot(in.string(), in.string(), in.string()));
+        } else {
+            bill.setFarmer(null);
+        }
+
+        String status = in.string();
+        bill.setPaymentStatus(status != null ? PaymentStatus.valueOf(status) : null);
+        bill.setPaidAmount(in.decimal());
+        bill.setPaymentDate(in.dateTime());
+        bill.setDueDate(in.dateTime());
+        bill.setLastReminderSent(in.dateTime());
+        bill.setAdvanceAmount(in.decimal());
+
+        bill.setUpdatedAt(in.dateTime());
+        bill.setUpdatedBy(in.string());
+        return bill;
+    }
+
+    private int recordOffset(int recordNo) {
+        return buffer.getInt(tableOffset + recordNo * TABLE_ENTRY_SIZE + 12);
+    }
+
+    private LocalDateTime createdAt(int recordNo) {
+        int entry = tableOffset + recordNo * TABLE_ENTRY_SIZE;
+        long seconds = buffer.getLong(entry);
+        return seconds == NULL_SECONDS
+                ? null
+                : LocalDateTime.ofEpochSecond(seconds, buffer.getInt(entry + 8), ZoneOffset.UTC);
+    }
+
+    private byte[] billNumberBytes(int recordNo) {
+        int offset = recordOffset(recordNo);
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[Math.max(0, length)];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return bytes;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    /**
+     * Decimals as their exact string form, so scale survives (BigDecimal.equals)
+     */
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toString() : null);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeLong(value != null ? value : 0);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeLong(value != null ? value.toEpochSecond(ZoneOffset.UTC) : 0);
+        out.writeInt(value != null ? value.getNano() : 0);
+    }
+
+    /**
+     * Sequential reader over one record of the mapped buffer
+     */
+    private final class Cursor {
+
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        String string() {
+            int length = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        BigDecimal decimal() {
+            String value = string();
+            return value != null ? new BigDecimal(value) : null;
+        }
+
+        boolean flag() {
+            return buffer.get(position++) != 0;
+        }
+
+        Long nullableLong() {
+            boolean present = flag();
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return present ? value : null;
+        }
+
+        Integer nullableInt() {
+            boolean present = flag();
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return present ? value : null;
+        }
+
+        LocalDateTime dateTime() {
+            boolean present = flag();
+            long seconds = buffer.getLong(position);
+            int nanos = buffer.getInt(position + Long.BYTES);
+            position += Long.BYTES + Integer.BYTES;
+            return present ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+        }
+    }
+}
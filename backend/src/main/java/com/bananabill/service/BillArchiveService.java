@@ -0,0 +1,436 @@
+package com.bananabill.service;
+
+import com.bananabill.job.JobContext;
+import com.bananabill.job.LeaseLostException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.PaymentStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bill Archive Service - Historical bills in memory-mapped monthly segments
+ *
+ * Responsibilities:
+ * - Open and keep mapped every sealed segment in archive.dir
+ * - Fetch segments exported by other nodes from the shared BillArchiveStore
+ * - Transparent reads for reports and bill-number lookups
+ * - Export closed months out of the bills collection (ArchiveExportJob, one node)
+ *
+ * A month is closed when it ended more than archive.retain-months ago and
+ * none of its bills are UNPAID or PARTIAL. Export writes the segment, checks
+ * that every record decodes back equal to its bill and uploads it to the
+ * store before any document is removed from MongoDB. Each bill is removed
+ * only if its version is the one archived; a bill edited in between stays
+ * live and its archived copy is marked superseded.
+ */
+@Service
+public class BillArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillArchiveService.class);
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final BillArchiveStore store;
+    private final Path directory;
+    private final boolean enabled;
+    private final int retainMonths;
+
+    private final Map<YearMonth, BillArchiveSegment> segments = new ConcurrentSkipListMap<>();
+    private final Map<YearMonth, Set<String>> superseded = new ConcurrentHashMap<>();
+
+    public BillArchiveService(MongoTemplate mongoTemplate,
+            BillArchiveStore store,
+            @Value("${archive.dir:./data/archive}") String directory,
+            @Value("${archive.enabled:false}") boolean enabled,
+            @Value("${archive.retain-months:6}") int retainMonths) {
+        this.mongoTemplate = mongoTemplate;
+        this.store = store;
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+        this.retainMonths = retainMonths;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "bills-*.seg")) {
+                for (Path file : files) {
+                    try {
+                        BillArchiveSegment segment = BillArchiveSegment.open(file);
+                        segments.put(segment.getMonth(), segment);
+                    } catch (IOException e) {
+                        logger.error("Skipping unreadable archive segment {}: {}", file, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Failed to scan archive directory {}: {}", directory, e.getMessage());
+            }
+        }
+        if (enabled) {
+            try {
+                sync();
+            } catch (Exception e) {
+                logger.error("Failed to fetch archive segments from the store: {}", e.getMessage());
+            }
+        }
+        if (!segments.isEmpty()) {
+            logger.info("Opened {} archive segments from {}", segments.size(), directory);
+        }
+    }
+    @PreDestroy
+    public void close() {
+        segments.values().forEach(segment -> {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close archive segment {}", segment.getPath());
+            }
+        });
+        segments.clear();
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Whether a month was exported; for a closed month not seen yet, the
+     * store is checked first, since another node may have just exported it
+     */
+    public boolean isArchived(YearMonth month) {
+        if (segments.containsKey(month)) {
+            return true;
+        }
+        if (!enabled || !isClosed(month)) {
+            return false;
+        }
+        try {
+            sync();
+        } catch (Exception e) {
+            logger.warn("Failed to fetch archive segments from the store: {}", e.getMessage());
+        }
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Whether a bill's archived copy is the current one (its month was
+     * exported and the bill was not edited while that happened)
+     */
+    public boolean isArchived(YearMonth month, String billId) {
+        return isArchived(month) && !superseded.getOrDefault(month, Set.of()).contains(billId);
+    }
+
+    /**
+     * Archived months, newest first
+     */
+    public List<YearMonth> getArchivedMonths() {
+        List<YearMonth> months = new ArrayList<>(segments.keySet());
+        months.sort(Comparator.reverseOrder());
+        return months;
+    }
+
+    /**
+     * Look up an archived bill by number
+     * Bill numbers embed their month (BB + yyMM + sequence), so this is one
+     * binary search in one segment; other formats search every segment.
+     */
+    public Bill findByBillNumber(String billNumber) {
+        if (billNumber == null || segments.isEmpty()) {
+            return null;
+        }
+        YearMonth month = monthOf(billNumber);
+        if (month != null) {
+            BillArchiveSegment segment = segments.get(month);
+            return segment != null ? current(month, segment.findByBillNumber(billNumber)) : null;
+        }
+        for (Map.Entry<YearMonth, BillArchiveSegment> entry : segments.entrySet()) {
+            Bill bill = current(entry.getKey(), entry.getValue().findByBillNumber(billNumber));
+            if (bill != null) {
+                return bill;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Archived bills created within [start, end]
+     */
+    public List<Bill> findBetween(LocalDateTime start, LocalDateTime end) {
+        List<Bill> bills = new ArrayList<>();
+        if (segments.isEmpty()) {
+            return bills;
+        }
+        YearMonth from = start != null ? YearMonth.from(start) : YearMonth.of(1970, 1);
+        YearMonth to = end != null ? YearMonth.from(end) : YearMonth.of(9999, 12);
+        segments.forEach((month, segment) -> {
+            if (!month.isBefore(from) && !month.isAfter(to)) {
+                Set<String> replaced = superseded.getOrDefault(month, Set.of());
+                segment.findBetween(start, end).stream()
+                        .filter(bill -> !replaced.contains(bill.getId()))
+                        .forEach(bills::add);
+            }
+        });
+        return bills;
+    }
+
+    // ==================== SYNC ====================
+
+    /**
+     * Fetch segments other nodes exported and refresh superseded bills
+     */
+    @Scheduled(fixedDelayString = "${archive.sync-interval-ms:300000}",
+            initialDelayString = "${archive.sync-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sync();
+        } catch (Exception e) {
+            logger.warn("Failed to fetch archive segments from the store: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        for (BillArchiveStore.StoredSegment stored : store.list()) {
+            YearMonth month = BillArchiveSegment.monthOf(stored.fileName());
+            if (month == null) {
+                continue;
+            }
+            superseded.computeIfAbsent(month, m -> ConcurrentHashMap.newKeySet()).addAll(stored.superseded());
+            if (segments.containsKey(month)) {
+                continue;
+            }
+
+            Files.createDirectories(directory);
+            Path file = directory.resolve(stored.fileName());
+            Path temp = directory.resolve(stored.fileName() + ".download");
+            store.download(stored.fileName(), temp);
+            BillArchiveSegment segment = BillArchiveSegment.open(temp);
+            boolean valid = segment.verify() && month.equals(segment.getMonth());
+            segment.close();
+            if (!valid) {
+                Files.deleteIfExists(temp);
+                logger.error("Archive segment {} from the store failed verification", stored.fileName());
+                continue;
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            segments.put(month, BillArchiveSegment.open(file));
+            logger.info("Fetched archive segment {} from the store", stored.fileName());
+        }
+    }
+
+    // ==================== EXPORT ====================
+
+    /**
+     * Archive every closed month still held in MongoDB
+     * Runs on the node holding the archive-export lease (ArchiveExportJob)
+     */
+    public void exportClosedMonths(JobContext context) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        sync();
+        YearMonth firstOpen = firstRetainedMonth();
+
+        Query oldest = new Query(Criteria.where("createdAt").lt(firstOpen.atDay(1).atStartOfDay()))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        oldest.fields().include("createdAt");
+        Bill first = mongoTemplate.findOne(oldest, Bill.class);
+        if (first == null || first.getCreatedAt() == null) {
+            return;
+        }
+
+        for (YearMonth month = YearMonth.from(first.getCreatedAt()); month.isBefore(firstOpen); month = month
+                .plusMonths(1)) {
+            context.checkLease();
+            try {
+                exportMonth(month, context);
+            } catch (LeaseLostException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Archive export failed for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Move one closed month from the bills collection into a segment
+     * A month archived earlier only has its remaining live bills retired.
+     *
+     * @return number of bills removed from MongoDB
+     */
+    public int exportMonth(YearMonth month, JobContext context) throws IOException {
+        if (!isClosed(month)) {
+            throw new IllegalStateException("Month " + month + " is still within the retention window");
+        }
+
+        BillArchiveSegment segment = segments.get(month);
+        if (segment == null) {
+            Criteria inMonth = inMonth(month);
+            long open = mongoTemplate.count(new Query(new Criteria().andOperator(inMonth,
+                    Criteria.where("paymentStatus").ne(PaymentStatus.PAID))), Bill.class);
+            if (open > 0) {
+                logger.info("Month {} has {} unsettled bills - not archiving yet", month, open);
+                return 0;
+            }
+
+            List<Bill> bills = mongoTemplate.find(new Query(inMonth), Bill.class);
+            if (bills.isEmpty()) {
+                return 0;
+            }
+            segment = seal(month, bills);
+        } else if (!store.contains(segment.getPath().getFileName().toString())) {
+            // Written here before a failed upload: other nodes must be able to fetch it first
+            store.upload(segment.getPath());
+        }
+        return retire(month, segment, context);
+    }
+
+    /**
+     * Write, verify and publish a segment; nothing is removed from MongoDB yet
+     */
+    private BillArchiveSegment seal(YearMonth month, List<Bill> bills) throws IOException {
+        Path file = BillArchiveSegment.write(directory, month, bills);
+        BillArchiveSegment segment = BillArchiveSegment.open(file);
+
+        if (!segment.verify() || segment.size() != bills.size() || !decodesEqual(segment, bills)) {
+            segment.close();
+            Files.move(file, file.resolveSibling(file.getFileName() + ".corrupt"));
+            throw new IOException("Archive segment verification failed for " + month);
+        }
+
+        try {
+            store.upload(file);
+        } catch (IOException | RuntimeException e) {
+            segment.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        segments.put(month, segment);
+        return segment;
+    }
+
+    /**
+     * Every record must read back equal to the document it was written from,
+     * by position and through the bill number index
+     */
+    private static boolean decodesEqual(BillArchiveSegment segment, List<Bill> bills) {
+        Map<String, Bill> decoded = new HashMap<>();
+        segment.readAll().forEach(bill -> decoded.put(bill.getId(), bill));
+        return decoded.size() == bills.size() && bills.stream().allMatch(bill -> bill.equals(decoded.get(bill.getId()))
+                && (bill.getBillNumber() == null || bill.equals(segment.findByBillNumber(bill.getBillNumber()))));
+    }
+
+    /**
+     * Remove the archived bills from MongoDB, each only at the version that
+     * was archived. Bills edited since stay live and supersede their copy.
+     */
+    private int retire(YearMonth month, BillArchiveSegment segment, JobContext context) {
+        String fileName = segment.getPath().getFileName().toString();
+        Set<String> replaced = superseded.computeIfAbsent(month, m -> ConcurrentHashMap.newKeySet());
+
+        Query liveQuery = new Query(inMonth(month));
+        liveQuery.fields().include("_id");
+        Set<String> live = new HashSet<>();
+        mongoTemplate.find(liveQuery, Bill.class).forEach(bill -> live.add(bill.getId()));
+
+        List<Bill> candidates = segment.readAll().stream()
+                .filter(bill -> live.contains(bill.getId()) && !replaced.contains(bill.getId()))
+                .toList();
+
+        int removed = 0;
+        for (int i = 0; i < candidates.size(); i += DELETE_BATCH_SIZE) {
+            context.checkLease();
+            List<Bill> batch = candidates.subList(i, Math.min(candidates.size(), i + DELETE_BATCH_SIZE));
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class);
+            batch.forEach(bill -> bulk.remove(new Query(Criteria.where("_id").is(bill.getId())
+                    .and("version").is(bill.getVersion()))));
+            removed += bulk.execute().getDeletedCount();
+
+            Query changedQuery = new Query(Criteria.where("_id").in(batch.stream().map(Bill::getId).toList()));
+            changedQuery.fields().include("_id");
+            List<String> changed = mongoTemplate.find(changedQuery, Bill.class).stream().map(Bill::getId).toList();
+            if (!changed.isEmpty()) {
+                store.addSuperseded(fileName, changed);
+                replaced.addAll(changed);
+                logger.warn("{} bills of {} were edited during export and stay live", changed.size(), month);
+            }
+        }
+
+        if (removed > 0) {
+            logger.info("Archived {} bills for {} into {}", removed, month, segment.getPath());
+        }
+        return removed;
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    /**
+     * Months before this one are closed: they ended more than retain-months ago
+     */
+    private YearMonth firstRetainedMonth() {
+        return YearMonth.now().minusMonths(retainMonths);
+    }
+
+    private boolean isClosed(YearMonth month) {
+        return month.isBefore(firstRetainedMonth());
+    }
+
+    private static Criteria inMonth(YearMonth month) {
+        return Criteria.where("createdAt")
+                .gte(month.atDay(1).atStartOfDay())
+                .lte(month.atEndOfMonth().atTime(LocalTime.MAX));
+    }
+
+    private Bill current(YearMonth month, Bill archived) {
+        return archived != null && !superseded.getOrDefault(month, Set.of()).contains(archived.getId())
+                ? archived
+                : null;
+    }
+
+    /**
+     * Parse the month out of BByyMMnnnnn bill numbers
+     */
+    private static YearMonth monthOf(String billNumber) {
+        if (billNumber.length() < 7 || !billNumber.startsWith("BB")) {
+            return null;
+        }
+        try {
+            int yy = Integer.parseInt(billNumber.substring(2, 4));
+            int mm = Integer.parseInt(billNumber.substring(4, 6));
+            return mm >= 1 && mm <= 12 ? YearMonth.of(2000 + yy, mm) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bananabill.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bill Archive Store - Sealed segments shared between nodes through GridFS
+ *
+ * The node that exports a month uploads its segment here before any bill is
+ * removed from MongoDB; the other nodes download it into their own
+ * archive.dir. File metadata lists bills that were edited while their month
+ * was being exported: those stay live and the archived copy is ignored.
+ */
+@Component
+public class BillArchiveStore {
+
+    private static final String SUPERSEDED = "superseded";
+
+    private final MongoTemplate mongoTemplate;
+    private final String bucketName;
+
+    /**
+     * A segment in the store and the ids of its records that live bills replace
+     */
+    public record StoredSegment(String fileName, Set<String> superseded) {
+    }
+
+    public BillArchiveStore(MongoTemplate mongoTemplate,
+            @Value("${archive.bucket:bill_archive}") String bucketName) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketName = bucketName;
+    }
+
+    public List<StoredSegment> list() {
+        List<StoredSegment> segments = new ArrayList<>();
+        for (GridFSFile file : bucket().find()) {
+            Document metadata = file.getMetadata();
+            List<String> superseded = metadata != null ? metadata.getList(SUPERSEDED, String.class) : null;
+            segments.add(new StoredSegment(file.getFilename(),
+                    superseded != null ? new HashSet<>(superseded) : Set.of()));
+        }
+        return segments;
+    }
+
+    public boolean contains(String fileName) {
+        return bucket().find(Filters.eq("filename", fileName)).first() != null;
+    }
+
+    public void upload(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            bucket().uploadFromStream(file.getFileName().toString(), in,
+                    new GridFSUploadOptions().metadata(new Document(SUPERSEDED, List.of())));
+        }
+    }
+
+    public void download(String fileName, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            bucket().downloadToStream(fileName, out);
+        }
+    }
+
+    /**
+     * Record bills whose live copy replaces the archived one
+     */
+    public void addSuperseded(String fileName, Collection<String> billIds) {
+        mongoTemplate.getCollection(bucketName + ".files").updateOne(Filters.eq("filename", fileName),
+                Updates.addEachToSet("metadata." + SUPERSEDED, new ArrayList<>(billIds)));
+    }
+
+    private GridFSBucket bucket() {
+        return GridFSBuckets.create(mongoTemplate.getDb(), bucketName);
+    }
+}
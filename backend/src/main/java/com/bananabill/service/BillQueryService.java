@@ -0,0 +1,169 @@
+package com.bananabill.service;
+
+import com.bananabill.exception.BillException;
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillSummary;
+import com.bananabill.model.Farmer;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.repository.BillRepository;
+import com.bananabill.repository.FarmerRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bill Query Service - Read-only list views without full Bill hydration
+ *
+ * - view=summary: BillSummary projections (no weights or audit fields loaded)
+ * - fields=a,b,c: sparse fieldsets, projected in MongoDB before documents leave the server
+ */
+@Service
+public class BillQueryService {
+
+    /**
+     * List screens served by the projected queries
+     */
+    public enum Listing {
+        RECENT, UNPAID, OVERDUE, FARMER
+    }
+
+    /**
+     * Allowed sparse-fieldset names -> MongoDB path and accessor
+     */
+    private static final Map<String, Field> FIELDS = new LinkedHashMap<>();
+
+    static {
+        field("id", "_id", Bill::getId);
+        field("billNumber", "billNumber", Bill::getBillNumber);
+        field("farmerId", "farmerId", Bill::getFarmerId);
+        field("farmerName", "farmer.name", bill -> bill.getFarmer() != null ? bill.getFarmer().getName() : null);
+        field("farmerMobile", "farmer.mobileNumber",
+                bill -> bill.getFarmer() != null ? bill.getFarmer().getMobileNumber() : null);
+        field("vehicleNumber", "vehicleNumber", Bill::getVehicleNumber);
+        field("grossWeight", "grossWeight", Bill::getGrossWeight);
+        field("pattiWeight", "pattiWeight", Bill::getPattiWeight);
+        field("boxCount", "boxCount", Bill::getBoxCount);
+        field("netWeight", "netWeight", Bill::getNetWeight);
+        field("dandaWeight", "dandaWeight", Bill::getDandaWeight);
+        field("tutWastage", "tutWastage", Bill::getTutWastage);
+        field("finalNetWeight", "finalNetWeight", Bill::getFinalNetWeight);
+        field("ratePerKg", "ratePerKg", Bill::getRatePerKg);
+        field("totalAmount", "totalAmount", Bill::getTotalAmount);
+        field("majuri", "majuri", Bill::getMajuri);
+        field("netAmount", "netAmount", Bill::getNetAmount);
+        field("paidAmount", "paidAmount", Bill::getPaidAmount);
+        field("advanceAmount", "advanceAmount", Bill::getAdvanceAmount);
+        field("paymentStatus", "paymentStatus",
+                bill -> bill.getPaymentStatus() != null ? bill.getPaymentStatus() : PaymentStatus.UNPAID);
+        field("paymentDate", "paymentDate", Bill::getPaymentDate);
+        field("dueDate", "dueDate", Bill::getDueDate);
+        field("createdAt", "createdAt", Bill::getCreatedAt);
+    }
+
+    private final BillRepository billRepository;
+    private final FarmerRepository farmerRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public BillQueryService(BillRepository billRepository, FarmerRepository farmerRepository,
+            MongoTemplate mongoTemplate) {
+        this.billRepository = billRepository;
+        this.farmerRepository = farmerRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // ==================== SUMMARY VIEWS ====================
+
+    public List<BillSummary> getRecentSummaries(int limit) {
+        return billRepository.findRecentSummaries(PageRequest.of(0, limit));
+    }
+
+    public List<BillSummary> getUnpaidSummaries() {
+        return billRepository.findUnpaidSummaries();
+    }
+
+    public List<BillSummary> getOverdueSummaries() {
+        return billRepository.findOverdueSummaries(LocalDateTime.now());
+    }
+
+    public List<BillSummary> getFarmerSummaries(String mobile) {
+        return billRepository.findSummariesByFarmerId(findFarmerId(mobile));
+    }
+
+    // ==================== SPARSE FIELDSETS ====================
+
+    /**
+     * Bills for a listing with only the requested fields
+     *
+     * @param fields comma-separated names, e.g. "billNumber,farmerName,netAmount"
+     * @param mobile farmer mobile (FARMER listing only)
+     * @param limit  row cap (RECENT listing only)
+     */
+    public List<Map<String, Object>> getBillFields(Listing listing, String fields, String mobile, int limit) {
+        Set<String> names = parseFields(fields);
+
+        Query query = switch (listing) {
+            case RECENT -> new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(limit);
+            case UNPAID -> new Query(Criteria.where("paymentStatus").in(null, PaymentStatus.UNPAID))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+            case OVERDUE -> new Query(Criteria.where("dueDate").lt(LocalDateTime.now())
+                    .and("paymentStatus").ne(PaymentStatus.PAID))
+                    .with(Sort.by(Sort.Direction.ASC, "dueDate"));
+            case FARMER -> new Query(Criteria.where("farmerId").is(findFarmerId(mobile)))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        };
+        names.forEach(name -> query.fields().include(FIELDS.get(name).path()));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Bill bill : mongoTemplate.find(query, Bill.class)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            names.forEach(name -> row.put(name, FIELDS.get(name).accessor().apply(bill)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private Set<String> parseFields(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(name -> {
+                    if (!FIELDS.containsKey(name)) {
+                        throw new ValidationException("fields", "Unknown field '" + name + "'. Allowed: "
+                                + String.join(", ", FIELDS.keySet()));
+                    }
+                    names.add(name);
+                });
+        return names;
+    }
+
+    private String findFarmerId(String mobile) {
+        return farmerRepository.findByMobileNumber(mobile)
+                .map(Farmer::getId)
+                .orElseThrow(() -> BillException.farmerNotFound(mobile));
+    }
+
+    private static void field(String name, String path, Function<Bill, Object> accessor) {
+        FIELDS.put(name, new Field(path, accessor));
+    }
+
+    private record Field(String path, Function<Bill, Object> accessor) {
+    }
+}
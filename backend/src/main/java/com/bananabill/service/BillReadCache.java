@@ -0,0 +1,210 @@
+package com.bananabill.service;
+
+import com.bananabill.config.CacheConfig;
+import com.bananabill.event.ChangeStreamListener;
+import com.bananabill.event.CollectionChange;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bill Read Cache - Read-through cache shared by single-bill and bulk lookups
+ *
+ * - bills: id -> Bill
+ * - billNumbers: bill number -> id (numbers never change, so only deletes drop them)
+ *
+ * Every bill write evicts here; with change streams enabled, writes from other
+ * nodes evict too. Cache failures (e.g. Redis down) are treated as misses so
+ * reads fall back to MongoDB instead of failing.
+ *
+ * The in-memory caches hold object references, so bills are copied on the way
+ * in and out: a caller changing the bill it got cannot change the cached one.
+ */
+@Service
+public class BillReadCache implements ChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillReadCache.class);
+
+    private final CacheManager cacheManager;
+
+    public BillReadCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // ==================== READS ====================
+
+    public Bill get(String id) {
+        return copyOf(read(CacheConfig.BILLS, id, Bill.class));
+    }
+
+    public String getIdByNumber(String billNumber) {
+        return read(CacheConfig.BILL_NUMBERS, billNumber, String.class);
+    }
+
+    /**
+     * Cached bill for a key that may be either an id or a bill number
+     */
+    public Bill find(String key) {
+        Bill bill = get(key);
+        if (bill != null) {
+            return bill;
+        }
+        String id = getIdByNumber(key);
+        return id != null ? get(id) : null;
+    }
+
+    // ==================== WRITES ====================
+
+    public void put(Bill bill) {
+        if (bill == null || bill.getId() == null) {
+            return;
+        }
+        write(CacheConfig.BILLS, bill.getId(), copyOf(bill));
+        if (bill.getBillNumber() != null) {
+            write(CacheConfig.BILL_NUMBERS, bill.getBillNumber(), bill.getId());
+        }
+    }
+
+    public void evict(String id) {
+        if (id != null) {
+            write(CacheConfig.BILLS, id, null);
+        }
+    }
+
+    public void evictAll(Collection<?> ids) {
+        ids.forEach(id -> evict(String.valueOf(id)));
+    }
+
+    /**
+     * Drop a deleted bill, including its number mapping
+     */
+    public void evictDeleted(Bill bill) {
+        evict(bill.getId());
+        if (bill.getBillNumber() != null) {
+            write(CacheConfig.BILL_NUMBERS, bill.getBillNumber(), null);
+        }
+    }
+
+    /**
+     * Drop everything, including number mappings
+     */
+    public void clear() {
+        for (String cacheName : List.of(CacheConfig.BILLS, CacheConfig.BILL_NUMBERS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            try {
+                cache.clear();
+            } catch (RuntimeException e) {
+                logger.debug("Cache {} clear failed: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    // ==================== CHANGE STREAM ====================
+
+    @Override
+    public String getListenerName() {
+        return "bill-read-cache";
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("bills");
+    }
+
+    /**
+     * A stale number mapping for a deleted bill is harmless: the id lookup
+     * misses and the read falls back to MongoDB
+     */
+    @Override
+    public void onChanges(String collection, List<CollectionChange> changes) {
+        changes.forEach(change -> evict(change.id()));
+    }
+
+    @Override
+    public void onResync(String collection) {
+        clear();
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    /**
+     * Copy of every field; the embedded snapshot is the only mutable value
+     */
+    static Bill copyOf(Bill bill) {
+        if (bill == null) {
+            return null;
+        }
+        Bill copy = new Bill();
+        copy.setId(bill.getId());
+        copy.setVersion(bill.getVersion());
+        copy.setBillNumber(bill.getBillNumber());
+        copy.setFarmerId(bill.getFarmerId());
+        copy.setVehicleNumber(bill.getVehicleNumber());
+        copy.setGrossWeight(bill.getGrossWeight());
+        copy.setPattiWeight(bill.getPattiWeight());
+        copy.setBoxCount(bill.getBoxCount());
+        copy.setNetWeight(bill.getNetWeight());
+        copy.setDandaWeight(bill.getDandaWeight());
+        copy.setTutWastage(bill.getTutWastage());
+        copy.setFinalNetWeight(bill.getFinalNetWeight());
+        copy.setRatePerKg(bill.getRatePerKg());
+        copy.setTotalAmount(bill.getTotalAmount());
+        copy.setMajuri(bill.getMajuri());
+        copy.setNetAmount(bill.getNetAmount());
+        copy.setCreatedBy(bill.getCreatedBy());
+        copy.setCreatedAt(bill.getCreatedAt());
+        FarmerSnapshot farmer = bill.getFarmer();
+        copy.setFarmer(farmer != null
+                ? new FarmerSnapshot(farmer.getId(), farmer.getName(), farmer.getMobileNumber())
+                : null);
+        copy.setPaymentStatus(bill.getPaymentStatus());
+        copy.setPaidAmount(bill.getPaidAmount());
+        copy.setPaymentDate(bill.getPaymentDate());
+        copy.setDueDate(bill.getDueDate());
+        copy.setLastReminderSent(bill.getLastReminderSent());
+        copy.setAdvanceAmount(bill.getAdvanceAmount());
+        copy.setUpdatedAt(bill.getUpdatedAt());
+        copy.setUpdatedBy(bill.getUpdatedBy());
+        return copy;
+    }
+
+    private <T> T read(String cacheName, String key, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || key == null) {
+            return null;
+        }
+        try {
+            return cache.get(key, type);
+        } catch (RuntimeException e) {
+            logger.debug("Cache {} read failed for {}: {}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String cacheName, String key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        try {
+            if (value == null) {
+                cache.evict(key);
+            } else {
+                cache.put(key, value);
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Cache {} write failed for {}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
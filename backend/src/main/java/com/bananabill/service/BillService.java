@@ -1,9 +1,16 @@
 package com.bananabill.service;
 
 import com.bananabill.dto.CreateBillRequest;
+import com.bananabill.event.BillCreated;
+import com.bananabill.event.BillDeleted;
+import com.bananabill.event.BillUpdated;
+import com.bananabill.event.DomainEventPublisher;
 import com.bananabill.exception.BillException;
+import com.bananabill.exception.ValidationException;
 import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
 import com.bananabill.model.PaymentHistory;
 import com.bananabill.model.PaymentStatus;
 import com.bananabill.model.User;
@@ -12,13 +19,22 @@ import com.bananabill.repository.FarmerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.bananabill.util.SecurityUtils;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Bill Service - Orchestrator for bill operations
@@ -37,23 +53,41 @@ public class BillService {
 
     private static final Logger logger = LoggerFactory.getLogger(BillService.class);
 
+    /** Upper bound for POST /bills/lookup, keeps the $in query and response small */
+    public static final int MAX_LOOKUP_KEYS = 500;
+
     private final BillRepository billRepository;
     private final FarmerRepository farmerRepository;
     private final CounterService counterService;
     private final BillCalculationService calculationService;
     private final PaymentService paymentService;
+    private final BillArchiveService archiveService;
+    private final BillReadCache billCache;
+    private final MongoTemplate mongoTemplate;
+    private final DomainEventPublisher eventPublisher;
+    private final AdvancePoolService advancePool;
 
     public BillService(
             BillRepository billRepository,
             FarmerRepository farmerRepository,
             CounterService counterService,
             BillCalculationService calculationService,
-            PaymentService paymentService) {
+            PaymentService paymentService,
+            BillArchiveService archiveService,
+            BillReadCache billCache,
+            MongoTemplate mongoTemplate,
+            DomainEventPublisher eventPublisher,
+            AdvancePoolService advancePool) {
         this.billRepository = billRepository;
         this.farmerRepository = farmerRepository;
         this.counterService = counterService;
         this.calculationService = calculationService;
         this.paymentService = paymentService;
+        this.archiveService = archiveService;
+        this.billCache = billCache;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.advancePool = advancePool;
     }
 
     // ==================== BILL CREATION ====================
@@ -87,7 +121,25 @@ public class BillService {
         logger.info("Creating bill {} for farmer {} by user {}",
                 billNumber, farmer.getMobileNumber(), currentUser.getMobileNumber());
 
-        return billRepository.save(bill);
+        // Unused advance from earlier overpayments pays this bill first
+        AdvancePoolService.Claim advance = advancePool.applyTo(bill);
+        Bill savedBill;
+        try {
+            savedBill = billRepository.save(bill);
+        } catch (RuntimeException e) {
+            advancePool.release(advance);
+            throw e;
+        }
+        try {
+            advancePool.settle(savedBill, advance);
+        } catch (RuntimeException e) {
+            // settle() put the source bills back; the bill must not keep advance nobody gave up
+            billRepository.delete(savedBill);
+            advancePool.release(advance);
+            throw e;
+        }
+        eventPublisher.publish(BillCreated.of(savedBill));
+        return savedBill;
     }
 
     /**
@@ -114,11 +166,15 @@ public class BillService {
                 grossWeight, pattiWeight, boxCount, tutWastage, ratePerKg, majuri);
 
         // Update bill
+        BillBalance before = BillBalance.of(existingBill);
         updateBillFields(existingBill, request, calc, farmer, currentUser);
 
         logger.info("Bill {} updated by user {}", existingBill.getBillNumber(), currentUser.getMobileNumber());
 
-        return billRepository.save(existingBill);
+        Bill savedBill = billRepository.save(existingBill);
+        billCache.evict(savedBill.getId());
+        eventPublisher.publish(BillUpdated.of(savedBill, before));
+        return savedBill;
     }
 
     /**
@@ -129,6 +185,10 @@ public class BillService {
                 .orElseThrow(() -> BillException.notFound(id));
         logger.warn("Bill {} deleted by user {}", bill.getBillNumber(), getCurrentUser().getMobileNumber());
         billRepository.delete(bill);
+        advancePool.returnDraws(bill);
+        advancePool.removeSource(bill);
+        billCache.evictDeleted(bill);
+        eventPublisher.publish(BillDeleted.of(bill));
     }
 
     // ==================== PAYMENT OPERATIONS (Delegate to PaymentService)
@@ -153,14 +213,124 @@ public class BillService {
     // ==================== QUERY OPERATIONS (Inlined from BillQueryService)
     // ====================
 
+    /**
+     * Read-through: cache, then MongoDB
+     */
     public Bill getBillById(String id) {
-        return billRepository.findById(id)
+        Bill cached = billCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Bill bill = billRepository.findById(id)
                 .orElseThrow(() -> BillException.notFound(id));
+        billCache.put(bill);
+        return bill;
+    }
+
+    /**
+     * Farmer address shown as village on bill receipts
+     * Bills embed only a FarmerSnapshot, so this reads the farmers collection
+     */
+    public String getFarmerVillage(Bill bill) {
+        if (bill == null || bill.getFarmerId() == null) {
+            return null;
+        }
+        return farmerRepository.findById(bill.getFarmerId())
+                .map(Farmer::getAddress)
+                .orElse(null);
+    }
+
+    /**
+     * Villages for a page of bills, keyed by farmer id, in one farmers query
+     */
+    public Map<String, String> getFarmerVillages(Collection<Bill> bills) {
+        Set<String> farmerIds = new LinkedHashSet<>();
+        for (Bill bill : bills) {
+            if (bill != null && bill.getFarmerId() != null) {
+                farmerIds.add(bill.getFarmerId());
+            }
+        }
+        Map<String, String> villages = new HashMap<>();
+        if (farmerIds.isEmpty()) {
+            return villages;
+        }
+        Query query = new Query(Criteria.where("_id").in(farmerIds));
+        query.fields().include("address");
+        for (Farmer farmer : mongoTemplate.find(query, Farmer.class)) {
+            if (farmer.getAddress() != null) {
+                villages.put(farmer.getId(), farmer.getAddress());
+            }
+        }
+        return villages;
     }
 
+    /**
+     * Read-through: cache, then MongoDB, then closed-month archive
+     */
     public Bill getBillByNumber(String billNumber) {
-        return billRepository.findByBillNumber(billNumber)
+        String cachedId = billCache.getIdByNumber(billNumber);
+        Bill cached = cachedId != null ? billCache.get(cachedId) : null;
+        if (cached != null) {
+            return cached;
+        }
+        Bill bill = billRepository.findByBillNumber(billNumber)
+                .or(() -> Optional.ofNullable(archiveService.findByBillNumber(billNumber)))
                 .orElseThrow(() -> BillException.notFound(billNumber));
+        billCache.put(bill);
+        return bill;
+    }
+
+    /**
+     * Resolve many bill ids and/or bill numbers at once
+     * Cache hits are served directly; all misses go to MongoDB in a single $in
+     * query, and numbers still missing are tried against the archive.
+     *
+     * @return one entry per requested key, in request order (bill null when not found)
+     */
+    public List<BillLookup> lookupBills(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new ValidationException("keys", "At least one bill id or number is required");
+        }
+        if (keys.size() > MAX_LOOKUP_KEYS) {
+            throw new ValidationException("keys", "At most " + MAX_LOOKUP_KEYS + " keys per lookup");
+        }
+
+        Map<String, Bill> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            Bill cached = key != null ? billCache.find(key) : null;
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else if (key != null && !key.isBlank()) {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Query query = new Query(new Criteria().orOperator(
+                    Criteria.where("id").in(missing),
+                    Criteria.where("billNumber").in(missing)));
+            for (Bill bill : mongoTemplate.find(query, Bill.class)) {
+                billCache.put(bill);
+                resolved.put(bill.getId(), bill);
+                if (bill.getBillNumber() != null) {
+                    resolved.put(bill.getBillNumber(), bill);
+                }
+            }
+            for (String key : missing) {
+                if (!resolved.containsKey(key)) {
+                    Bill archived = archiveService.findByBillNumber(key);
+                    if (archived != null) {
+                        billCache.put(archived);
+                        resolved.put(key, archived);
+                    }
+                }
+            }
+        }
+
+        return keys.stream()
+                .map(key -> new BillLookup(key, key != null ? resolved.get(key) : null))
+                .toList();
     }
 
     public List<Bill> getBillsByFarmerMobile(String mobile) {
@@ -337,14 +507,18 @@ public class BillService {
                 .orElseThrow(() -> BillException.notFound(billId));
         bill.setDueDate(dueDate);
         bill.setUpdatedAt(LocalDateTime.now());
-        return billRepository.save(bill);
+        Bill savedBill = billRepository.save(bill);
+        billCache.evict(billId);
+        return savedBill;
     }
 
     public Bill updateLastReminderSent(String billId) {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> BillException.notFound(billId));
         bill.setLastReminderSent(LocalDateTime.now());
-        return billRepository.save(bill);
+        Bill savedBill = billRepository.save(bill);
+        billCache.evict(billId);
+        return savedBill;
     }
 
     // ==================== PRIVATE HELPERS ====================
@@ -394,7 +568,7 @@ public class BillService {
         bill.setMajuri(calculationService.scaleMoney(defaultIfNull(request.getMajuri(), BigDecimal.ZERO)));
         bill.setNetAmount(calculationService.scaleMoney(calc.netAmount()));
         bill.setCreatedBy(currentUser.getId());
-        bill.setFarmer(farmer);
+        bill.setFarmer(FarmerSnapshot.of(farmer));
         bill.setPaymentStatus(PaymentStatus.UNPAID);
         bill.setPaidAmount(BigDecimal.ZERO);
         return bill;
@@ -415,8 +589,16 @@ public class BillService {
         bill.setTotalAmount(calculationService.scaleMoney(calc.totalAmount()));
         bill.setMajuri(calculationService.scaleMoney(defaultIfNull(request.getMajuri(), BigDecimal.ZERO)));
         bill.setNetAmount(calculationService.scaleMoney(calc.netAmount()));
-        bill.setFarmer(farmer);
+        bill.setFarmer(FarmerSnapshot.of(farmer));
         bill.setUpdatedAt(LocalDateTime.now());
         bill.setUpdatedBy(currentUser.getId());
     }
+
+    // ==================== RESULT TYPES ====================
+
+    /**
+     * One bulk-lookup slot; bill is null when the key matched nothing
+     */
+    public record BillLookup(String key, Bill bill) {
+    }
 }
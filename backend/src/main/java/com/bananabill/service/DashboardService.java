@@ -0,0 +1,253 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.response.DashboardSummary;
+import com.bananabill.event.BillEvent;
+import com.bananabill.event.ChangeStreamListener;
+import com.bananabill.event.CollectionChange;
+import com.bananabill.event.DomainEvent;
+import com.bananabill.event.DomainEventListener;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillSummary;
+import com.bananabill.repository.BillRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dashboard Service - All dashboard numbers in one MongoDB round trip
+ *
+ * A single $facet aggregation computes counts, today's weight and amount,
+ * unpaid/outstanding totals and the recent bill summaries. Results are kept
+ * for a few seconds and concurrent callers share one in-flight aggregation,
+ * so a burst of dashboard loads costs one query. Bill writes on this node
+ * (domain events) or any node (change streams) drop the cached result.
+ */
+@Service
+public class DashboardService implements DomainEventListener, ChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    public static final int RECENT_LIMIT = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final long cacheTtlMs;
+
+    private final AtomicReference<CompletableFuture<DashboardSummary>> inFlight = new AtomicReference<>();
+    private volatile CachedSummary cached;
+
+    public DashboardService(MongoTemplate mongoTemplate,
+            @Value("${dashboard.cache-ttl-ms:5000}") long cacheTtlMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    // ==================== SUMMARY ====================
+
+    /**
+     * Cached summary if fresh; otherwise join (or start) the single in-flight aggregation
+     */
+    public DashboardSummary getSummary() {
+        CachedSummary current = cached;
+        if (current != null && System.currentTimeMillis() < current.expiresAt()) {
+            return current.summary();
+        }
+
+        CompletableFuture<DashboardSummary> mine = new CompletableFuture<>();
+        CompletableFuture<DashboardSummary> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            DashboardSummary summary = aggregate();
+            cached = new CachedSummary(summary, System.currentTimeMillis() + cacheTtlMs);
+            mine.complete(summary);
+            return summary;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    /**
+     * Drop the cached summary so the next call re-aggregates
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    // ==================== DOMAIN EVENTS ====================
+
+    @Override
+    public String getListenerName() {
+        return "dashboard-summary";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof BillEvent;
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        invalidate();
+    }
+
+    @Override
+    public void reconcile() {
+        invalidate();
+    }
+
+    // ==================== CHANGE STREAM ====================
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("bills", "payment_history");
+    }
+
+    @Override
+    public void onChanges(String collection, List<CollectionChange> changes) {
+        invalidate();
+    }
+
+    @Override
+    public void onResync(String collection) {
+        invalidate();
+    }
+
+    // ==================== AGGREGATION ====================
+
+    DashboardSummary aggregate() {
+        long start = System.currentTimeMillis();
+        // Same LocalDateTime -> Date mapping the MongoTemplate converter uses on write
+        Date startOfDay = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Document unpaid = new Document("paymentStatus", new Document("$in", Arrays.asList(null, "UNPAID")));
+        Document notPaid = new Document("paymentStatus", new Document("$ne", "PAID"));
+
+        Document facets = new Document()
+                .append("total", List.of(new Document("$count", "n")))
+                .append("today", List.of(
+                        new Document("$match", new Document("createdAt", new Document("$gte", startOfDay))),
+                        group(new Document("count", new Document("$sum", 1))
+                                .append("weight", sumDecimal("$finalNetWeight"))
+                                .append("amount", sumDecimal("$netAmount")))))
+                .append("unpaid", List.of(
+                        new Document("$match", unpaid),
+                        group(new Document("count", new Document("$sum", 1))
+                                .append("amount", sumDecimal("$netAmount")))))
+                .append("outstanding", List.of(
+                        new Document("$match", notPaid),
+                        group(new Document("count", new Document("$sum", 1))
+                                .append("balance", new Document("$sum", new Document("$subtract", List.of(
+                                        toDecimal("$netAmount"), toDecimal("$paidAmount"))))))))
+                .append("recent", List.of(
+                        new Document("$sort", new Document("createdAt", -1)),
+                        new Document("$limit", RECENT_LIMIT),
+                        new Document("$project", Document.parse(BillRepository.SUMMARY_FIELDS))));
+
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Bill.class))
+                .aggregate(List.of(new Document("$facet", facets)))
+                .first();
+        if (result == null) {
+            result = new Document();
+        }
+
+        Document today = firstOf(result, "today");
+        Document unpaidTotals = firstOf(result, "unpaid");
+        Document outstanding = firstOf(result, "outstanding");
+        List<BillSummary> recent = result.getList("recent", Document.class, List.of()).stream()
+                .map(doc -> mongoTemplate.getConverter().read(BillSummary.class, doc))
+                .toList();
+
+        DashboardSummary summary = new DashboardSummary(
+                count(firstOf(result, "total"), "n"),
+                count(today, "count"),
+                decimal(today, "weight", 3),
+                decimal(today, "amount", 2),
+                count(unpaidTotals, "count"),
+                decimal(unpaidTotals, "amount", 2),
+                count(outstanding, "count"),
+                decimal(outstanding, "balance", 2),
+                recent,
+                LocalDateTime.now());
+
+        logger.debug("Dashboard summary aggregated in {}ms", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private static Document group(Document accumulators) {
+        Document group = new Document("_id", null);
+        group.putAll(accumulators);
+        return new Document("$group", group);
+    }
+
+    /**
+     * Amounts are stored as strings; convert so $sum stays exact
+     */
+    private static Document toDecimal(String field) {
+        return new Document("$convert", new Document("input", field)
+                .append("to", "decimal")
+                .append("onError", Decimal128.POSITIVE_ZERO)
+                .append("onNull", Decimal128.POSITIVE_ZERO));
+    }
+
+    private static Document sumDecimal(String field) {
+        return new Document("$sum", toDecimal(field));
+    }
+
+    private static Document firstOf(Document result, String facet) {
+        List<Document> rows = result.getList(facet, Document.class, List.of());
+        return rows.isEmpty() ? new Document() : rows.get(0);
+    }
+
+    private static long count(Document row, String key) {
+        Object value = row.get(key);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static BigDecimal decimal(Document row, String key, int scale) {
+        Object value = row.get(key);
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue().setScale(scale, RoundingMode.HALF_UP);
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue()).setScale(scale, RoundingMode.HALF_UP);
+        }
+        return BigDecimal.ZERO.setScale(scale);
+    }
+
+    private static DashboardSummary await(CompletableFuture<DashboardSummary> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedSummary(DashboardSummary summary, long expiresAt) {
+    }
+}
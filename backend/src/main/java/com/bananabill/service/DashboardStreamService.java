@@ -0,0 +1,299 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.response.DashboardDelta;
+import com.bananabill.event.BillEvent;
+import com.bananabill.event.DomainEvent;
+import com.bananabill.event.DomainEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard Stream Service - Pushes dashboard deltas to open dashboards over SSE
+ *
+ * - Fan-out per trader: a bill event reaches only its owner's connections
+ * - Backpressure: each connection has a bounded queue drained on
+ *   dashboardStreamExecutor; a slow client that overflows gets its backlog
+ *   dropped and a single "resync" event telling it to reload /dashboard/summary
+ * - Heartbeats keep idle connections alive through proxies
+ * - Resume: the last events per trader are kept, so a reconnect with
+ *   Last-Event-ID replays what was missed (or asks for a resync if too old)
+ * - Bill events dropped by the event bus cannot be replayed: the affected
+ *   traders' connections are told to resync once the bus has caught up
+ */
+@Service
+public class DashboardStreamService implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    static final String RESYNC_EVENT = "resync";
+
+    private static final Object HEARTBEAT = new Object();
+    private static final Object RESYNC = new Object();
+
+    private final Executor executor;
+    private final long emitterTimeoutMs;
+    private final int queueCapacity;
+    private final int replaySize;
+    private final Counter overflows;
+
+    /** Ids start at boot time, so ids from a previous process are always older */
+    private final long firstEventId = System.currentTimeMillis();
+    private final AtomicLong nextEventId = new AtomicLong(firstEventId);
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<String> missedTraders = ConcurrentHashMap.newKeySet();
+
+    public DashboardStreamService(@Qualifier("dashboardStreamExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${dashboard.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${dashboard.stream.queue-capacity:64}") int queueCapacity,
+            @Value("${dashboard.stream.replay-size:256}") int replaySize) {
+        this.executor = executor;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.replaySize = replaySize;
+        this.overflows = meterRegistry.counter("dashboard.stream.overflows");
+        meterRegistry.gauge("dashboard.stream.subscribers", channels,
+                map -> map.values().stream().mapToInt(channel -> channel.subscribers.size()).sum());
+    }
+
+    // ==================== SUBSCRIBE ====================
+
+    /**
+     * Open a stream for one trader, replaying events after lastEventId
+     */
+    public SseEmitter subscribe(String traderId, String lastEventId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel = channels.computeIfAbsent(traderId, id -> new Channel());
+
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+
+        Long resumeAfter = parseEventId(lastEventId);
+        synchronized (channel) {
+            // Under the channel lock so no event lands between replay and registration
+            if (resumeAfter != null) {
+                if (resumeAfter < firstEventId || resumeAfter < channel.evictedThrough) {
+                    // Missed events are gone (restart or replay buffer rolled over)
+                    subscriber.offer(RESYNC, queueCapacity);
+                } else {
+                    channel.recent.stream()
+                            .filter(delta -> delta.id() > resumeAfter)
+                            .forEach(delta -> subscriber.offer(delta, queueCapacity));
+                }
+            }
+            channel.subscribers.add(subscriber);
+        }
+        subscriber.offer(HEARTBEAT, queueCapacity);
+        schedule(subscriber, channel);
+        return emitter;
+    }
+
+    // ==================== PUBLISH ====================
+
+    @Override
+    public String getListenerName() {
+        return "dashboard-stream";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof BillEvent billEvent && billEvent.traderId() != null;
+    }
+
+    @Override
+    public void onEvent(DomainEvent domainEvent) {
+        BillEvent event = (BillEvent) domainEvent;
+        Channel channel = channels.computeIfAbsent(event.traderId(), id -> new Channel());
+        synchronized (channel) {
+            DashboardDelta delta = DashboardDelta.from(nextEventId.incrementAndGet(), event);
+            channel.recent.addLast(delta);
+            if (channel.recent.size() > replaySize) {
+                channel.evictedThrough = channel.recent.removeFirst().id();
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                if (!subscriber.offer(delta, queueCapacity)) {
+                    overflows.increment();
+                }
+                schedule(subscriber, channel);
+            }
+        }
+    }
+
+    @Override
+    public void onDropped(DomainEvent event) {
+        missedTraders.add(((BillEvent) event).traderId());
+    }
+
+    /**
+     * Events were dropped for these traders: nothing before now can be
+     * replayed, and open connections reload the summary
+     */
+    @Override
+    public void reconcile() {
+        for (String traderId : List.copyOf(missedTraders)) {
+            missedTraders.remove(traderId);
+            Channel channel = channels.get(traderId);
+            if (channel == null) {
+                continue;
+            }
+            synchronized (channel) {
+                channel.recent.clear();
+                channel.evictedThrough = nextEventId.get();
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offer(RESYNC, queueCapacity);
+                    schedule(subscriber, channel);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        channels.forEach((traderId, channel) -> {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.isIdle()) {
+                    subscriber.offer(HEARTBEAT, queueCapacity);
+                    schedule(subscriber, channel);
+                }
+            }
+        });
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+
+    public int getSubscriberCount(String traderId) {
+        Channel channel = channels.get(traderId);
+        return channel != null ? channel.subscribers.size() : 0;
+    }
+
+    // ==================== DELIVERY ====================
+
+    private void schedule(Subscriber subscriber, Channel channel) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber, channel));
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: keep the backlog, the next event or heartbeat retries
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber, Channel channel) {
+        try {
+            Object next;
+            while ((next = subscriber.poll()) != null) {
+                send(subscriber.emitter, next);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter
+            channel.subscribers.remove(subscriber);
+            logger.debug("Dashboard stream closed: {}", e.getMessage());
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.isIdle()) {
+            schedule(subscriber, channel);
+        }
+    }
+
+    private static void send(SseEmitter emitter, Object item) throws IOException {
+        if (item == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        } else if (item == RESYNC) {
+            emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+        } else {
+            DashboardDelta delta = (DashboardDelta) item;
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(delta.id()))
+                    .name(delta.type().name())
+                    .data(delta, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ==================== STATE ====================
+
+    /**
+     * Connections and recent events of one trader
+     */
+    private static final class Channel {
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final Deque<DashboardDelta> recent = new ArrayDeque<>();
+        long evictedThrough;
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        private final Deque<Object> queue = new ArrayDeque<>();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queue an item; on overflow drop the backlog and queue a resync instead
+         *
+         * @return false if the subscriber overflowed
+         */
+        synchronized boolean offer(Object item, int capacity) {
+            if (!queue.isEmpty() && queue.peekLast() == RESYNC && item instanceof DashboardDelta) {
+                // Already told to reload; deltas until then would be redundant
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                queue.clear();
+                queue.add(RESYNC);
+                return false;
+            }
+            queue.add(item);
+            return true;
+        }
+
+        synchronized Object poll() {
+            return queue.poll();
+        }
+
+        synchronized boolean isIdle() {
+            return queue.isEmpty();
+        }
+    }
+}
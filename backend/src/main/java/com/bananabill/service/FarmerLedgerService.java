@@ -0,0 +1,622 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.response.CursorPageResponse;
+import com.bananabill.event.BillCreated;
+import com.bananabill.event.BillDeleted;
+import com.bananabill.event.BillEvent;
+import com.bananabill.event.DomainEvent;
+import com.bananabill.event.DomainEventListener;
+import com.bananabill.event.FarmerUpdated;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+import com.bananabill.model.FarmerLedger;
+import com.bananabill.util.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Farmer Ledger Service - Per-farmer running totals (farmer_ledgers)
+ *
+ * - Incremental: bill and payment events $inc the farmer's ledger by the
+ *   difference between the bill before and after the change
+ * - Rebuild: one aggregation over bills $merged into farmer_ledgers, per farmer
+ *   or for a whole trader; archived bills are added back from their segments
+ * - Drift: a nightly check recomputes every ledger and repairs mismatches
+ *   (events lost in a crash, a dropped event, manual edits)
+ *
+ * Statements and the farmer balances list are then single-document reads.
+ */
+@Service
+public class FarmerLedgerService implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FarmerLedgerService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final BillArchiveService archiveService;
+    private final boolean repairDrift;
+    private final long settleMs;
+    private final Counter driftDetected;
+
+    // Serializes ledger writes; a lock rather than synchronized so a virtual
+    // thread waiting on MongoDB does not pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Farmers whose ledger missed an event; rebuilt before the next event is applied
+    private final Set<String> dirtyFarmers = ConcurrentHashMap.newKeySet();
+
+    public FarmerLedgerService(MongoTemplate mongoTemplate,
+            BillArchiveService archiveService,
+            MeterRegistry meterRegistry,
+            @Value("${ledger.drift.repair:true}") boolean repairDrift,
+            @Value("${ledger.drift.settle-ms:2000}") long settleMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveService = archiveService;
+        this.repairDrift = repairDrift;
+        this.settleMs = settleMs;
+        this.driftDetected = meterRegistry.counter("ledger.drift.detected");
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * First start with ledgers: build them all from existing bills
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        try {
+            if (mongoTemplate.estimatedCount(FarmerLedger.class) == 0 && mongoTemplate.estimatedCount(Bill.class) > 0) {
+                int ledgers = rebuildAll(null);
+                logger.info("Built {} farmer ledgers from existing bills", ledgers);
+            }
+        } catch (Exception e) {
+            // Statements read zeros until the next rebuild or drift check
+            logger.warn("Farmer ledger build failed: {}", e.getMessage());
+        }
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Statement totals for one farmer; zeros if the farmer has no bills
+     */
+    public FarmerLedger getLedger(String farmerId) {
+        FarmerLedger ledger = mongoTemplate.findById(farmerId, FarmerLedger.class);
+        if (ledger == null) {
+            ledger = new FarmerLedger();
+            ledger.setId(farmerId);
+        }
+        return ledger;
+    }
+
+    /**
+     * Current user's farmer ledgers by name (keyset cursor, same format as /farmers/page)
+     */
+    public CursorPageResponse<FarmerLedger> getBalancesPage(String cursor, int size, boolean outstandingOnly) {
+        Criteria criteria = Criteria.where("createdBy").is(SecurityUtils.getCurrentUserId());
+        if (outstandingOnly) {
+            criteria = criteria.and("unpaidBills").gt(0);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] last = FarmerService.decodeCursor(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("farmerName").gt(last[0]),
+                    Criteria.where("farmerName").is(last[0]).and("_id").gt(last[1]));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("farmerName"), Sort.Order.asc("_id")))
+                .limit(size + 1);
+        List<FarmerLedger> ledgers = mongoTemplate.find(query, FarmerLedger.class);
+        boolean hasMore = ledgers.size() > size;
+        if (hasMore) {
+            ledgers = ledgers.subList(0, size);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            FarmerLedger last = ledgers.get(ledgers.size() - 1);
+            nextCursor = FarmerService.encodeCursor(last.getFarmerName(), last.getId());
+        }
+        return new CursorPageResponse<>(ledgers, ledgers.size(), nextCursor, hasMore);
+    }
+
+    // ==================== DOMAIN EVENTS ====================
+
+    @Override
+    public String getListenerName() {
+        return "farmer-ledger";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof BillEvent || event instanceof FarmerUpdated updated && updated.renamed();
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        lock.lock();
+        try {
+            repairDirty();
+            if (event instanceof FarmerUpdated updated) {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(updated.farmer().getId())),
+                        new Update()
+                                .set("farmerName", updated.farmer().getName())
+                                .set("farmerMobile", updated.farmer().getMobileNumber()),
+                        FarmerLedger.class);
+            } else if (event instanceof BillEvent billEvent) {
+                apply(billEvent);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The ledger would silently drift: the affected farmers are rebuilt in
+     * reconcile(), or before the next event if that comes first
+     */
+    @Override
+    public void onDropped(DomainEvent event) {
+        if (event instanceof FarmerUpdated updated) {
+            dirtyFarmers.add(updated.farmer().getId());
+        } else if (event instanceof BillEvent billEvent) {
+            addIfPresent(dirtyFarmers, billEvent.bill().getFarmerId());
+            if (billEvent.before() != null) {
+                addIfPresent(dirtyFarmers, billEvent.before().farmerId());
+            }
+        }
+    }
+
+    @Override
+    public void reconcile() {
+        lock.lock();
+        try {
+            repairDirty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(BillEvent event) {
+        Bill bill = event.bill();
+        BillBalance after = BillBalance.of(bill);
+
+        if (event instanceof BillCreated) {
+            increment(after.farmerId(), Totals.of(after), bill, true);
+        } else if (event instanceof BillDeleted) {
+            FarmerLedger ledger = decrement(after.farmerId(), Totals.of(after));
+            if (ledger != null && Objects.equals(ledger.getLastBillId(), bill.getId())) {
+                // The previous bill becomes the last one; only a rebuild knows which
+                rebuildFarmer(after.farmerId());
+            }
+        } else {
+            BillBalance before = event.before();
+            if (before == null || !Objects.equals(before.farmerId(), after.farmerId())) {
+                // Unknown previous state, or the bill moved to another farmer
+                if (before != null) {
+                    rebuildFarmer(before.farmerId());
+                }
+                rebuildFarmer(after.farmerId());
+            } else {
+                increment(after.farmerId(), Totals.of(after).minus(Totals.of(before)), bill, false);
+            }
+        }
+    }
+
+    private FarmerLedger increment(String farmerId, Totals delta, Bill bill, boolean newBill) {
+        if (farmerId == null) {
+            return null;
+        }
+        Update update = delta.toUpdate()
+                .setOnInsert("createdBy", bill.getCreatedBy())
+                .set("updatedAt", LocalDateTime.now());
+        if (bill.getFarmer() != null) {
+            update.set("farmerName", bill.getFarmer().getName())
+                    .set("farmerMobile", bill.getFarmer().getMobileNumber());
+        }
+        if (newBill) {
+            update.set("lastBillId", bill.getId())
+                    .set("lastBillNumber", bill.getBillNumber())
+                    .set("lastBillAt", bill.getCreatedAt());
+        }
+        if (bill.getPaymentDate() != null) {
+            update.max("lastPaymentAt", bill.getPaymentDate());
+        }
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(farmerId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), FarmerLedger.class);
+    }
+
+    private FarmerLedger decrement(String farmerId, Totals removed) {
+        if (farmerId == null) {
+            return null;
+        }
+        Update update = Totals.ZERO.minus(removed).toUpdate().set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(farmerId)), update,
+                FindAndModifyOptions.options().returnNew(true), FarmerLedger.class);
+    }
+
+    // ==================== REBUILD ====================
+
+    /**
+     * Recompute one farmer's ledger from their bills
+     */
+    public void rebuildFarmer(String farmerId) {
+        if (farmerId == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            dirtyFarmers.remove(farmerId);
+            Query farmerBills = new Query(Criteria.where("farmerId").is(farmerId));
+            if (!mongoTemplate.exists(farmerBills, Bill.class)) {
+                mongoTemplate.remove(new Query(Criteria.where("_id").is(farmerId)), FarmerLedger.class);
+            } else {
+                merge(Criteria.where("farmerId").is(farmerId));
+            }
+            addArchived(bill -> farmerId.equals(bill.getFarmerId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recompute all ledgers of one trader, or of everyone when traderId is null
+     *
+     * @return number of ledgers written
+     */
+    public int rebuildAll(String traderId) {
+        lock.lock();
+        try {
+            return doRebuildAll(traderId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int doRebuildAll(String traderId) {
+        long start = System.currentTimeMillis();
+        Criteria bills = Criteria.where("farmerId").ne(null);
+        Criteria ledgers = new Criteria();
+        if (traderId != null) {
+            bills = bills.and("createdBy").is(traderId);
+            ledgers = Criteria.where("createdBy").is(traderId);
+        }
+
+        merge(bills);
+        List<String> farmerIds = mongoTemplate.findDistinct(new Query(bills), "farmerId", Bill.class, String.class);
+        mongoTemplate.remove(new Query(new Criteria().andOperator(ledgers, Criteria.where("_id").nin(farmerIds))),
+                FarmerLedger.class);
+        addArchived(bill -> traderId == null || traderId.equals(bill.getCreatedBy()));
+        dirtyFarmers.clear();
+
+        int count = (int) mongoTemplate.count(new Query(ledgers), FarmerLedger.class);
+        logger.info("Rebuilt {} farmer ledgers in {}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private void repairDirty() {
+        if (dirtyFarmers.isEmpty()) {
+            return;
+        }
+        for (String farmerId : List.copyOf(dirtyFarmers)) {
+            rebuildFarmer(farmerId);
+        }
+    }
+
+    // ==================== DRIFT DETECTION ====================
+
+    /**
+     * Compare every ledger with totals recomputed from bills; repair mismatches
+     * when ledger.drift.repair is on
+     *
+     * Bill writes keep happening during the scan, so a farmer whose event was
+     * still queued looks drifted. Candidates are therefore re-checked one by
+     * one after the event queue had time to settle.
+     */
+    public DriftReport checkDrift() {
+        Set<String> candidates = new HashSet<>();
+        int checked;
+        lock.lock();
+        try {
+            Map<String, Totals> expected = expectedTotals(Criteria.where("farmerId").ne(null), bill -> true);
+            Set<String> seen = new HashSet<>();
+            try (Stream<FarmerLedger> ledgers = mongoTemplate.stream(new Query(), FarmerLedger.class)) {
+                ledgers.forEach(ledger -> {
+                    seen.add(ledger.getId());
+                    if (!Totals.of(ledger).matches(expected.getOrDefault(ledger.getId(), Totals.ZERO))) {
+                        candidates.add(ledger.getId());
+                    }
+                });
+            }
+            expected.keySet().stream().filter(id -> !seen.contains(id)).forEach(candidates::add);
+            checked = seen.size();
+        } finally {
+            lock.unlock();
+        }
+        if (candidates.isEmpty()) {
+            return new DriftReport(checked, 0, 0);
+        }
+
+        sleep(settleMs);
+        int drifted = 0;
+        int repaired = 0;
+        for (String farmerId : candidates) {
+            lock.lock();
+            try {
+                Totals expected = expectedTotals(Criteria.where("farmerId").is(farmerId),
+                        bill -> farmerId.equals(bill.getFarmerId()))
+                        .getOrDefault(farmerId, Totals.ZERO);
+                FarmerLedger ledger = mongoTemplate.findById(farmerId, FarmerLedger.class);
+                Totals actual = ledger != null ? Totals.of(ledger) : Totals.ZERO;
+                if (actual.matches(expected)) {
+                    continue;
+                }
+                drifted++;
+                driftDetected.increment();
+                logger.warn("Farmer ledger {} drifted: ledger {} vs bills {}", farmerId, actual, expected);
+                if (repairDrift) {
+                    rebuildFarmer(farmerId);
+                    repaired++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new DriftReport(checked, drifted, repaired);
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private Map<String, Totals> expectedTotals(Criteria bills, Predicate<Bill> archived) {
+        Map<String, Totals> expected = new HashMap<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Bill.class))
+                .aggregate(ledgerPipeline(bills))
+                .allowDiskUse(true)
+                .forEach(row -> expected.put(row.getString("_id"), Totals.of(row)));
+        archivedTotals(archived).forEach((farmerId, totals) -> expected.merge(farmerId, totals, Totals::plus));
+        return expected;
+    }
+
+    private void merge(Criteria bills) {
+        List<Document> pipeline = new ArrayList<>(ledgerPipeline(bills));
+        pipeline.add(new Document("$addFields", new Document("updatedAt", "$$NOW")));
+        pipeline.add(new Document("$merge", new Document("into", mongoTemplate.getCollectionName(FarmerLedger.class))
+                .append("on", "_id")
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert")));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Bill.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    /**
+     * Bills grouped by farmer into ledger documents (oldest first, so $last is the latest bill)
+     */
+    static List<Document> ledgerPipeline(Criteria bills) {
+        Document notPaid = new Document("$ne", List.of("$paymentStatus", "PAID"));
+        Document net = toDecimal("$netAmount");
+        Document owed = new Document("$max", List.of(Decimal128.POSITIVE_ZERO,
+                new Document("$subtract", List.of(net, toDecimal("$paidAmount")))));
+
+        Document group = new Document("_id", "$farmerId")
+                .append("createdBy", new Document("$last", "$createdBy"))
+                .append("farmerName", new Document("$last", "$farmer.name"))
+                .append("farmerMobile", new Document("$last", "$farmer.mobileNumber"))
+                .append("billCount", new Document("$sum", 1L))
+                .append("totalAmount", new Document("$sum", net))
+                .append("totalWeight", new Document("$sum", toDecimal("$finalNetWeight")))
+                .append("paidAmount", new Document("$sum", toDecimal("$paidAmount")))
+                .append("unpaidBills", new Document("$sum", cond(notPaid, 1L, 0L)))
+                .append("unpaidAmount", new Document("$sum", cond(notPaid, net, Decimal128.POSITIVE_ZERO)))
+                .append("outstandingBalance", new Document("$sum", cond(notPaid, owed, Decimal128.POSITIVE_ZERO)))
+                .append("advanceBalance", new Document("$sum", toDecimal("$advanceAmount")))
+                .append("lastBillId", new Document("$last", new Document("$toString", "$_id")))
+                .append("lastBillNumber", new Document("$last", "$billNumber"))
+                .append("lastBillAt", new Document("$last", "$createdAt"))
+                .append("lastPaymentAt", new Document("$max", "$paymentDate"));
+
+        return List.of(
+                new Document("$match", bills.getCriteriaObject()),
+                new Document("$sort", new Document("createdAt", 1).append("_id", 1)),
+                new Document("$group", group));
+    }
+
+    /**
+     * Archived bills are gone from the bills collection but still count toward the ledger
+     */
+    private void addArchived(Predicate<Bill> filter) {
+        archivedTotals(filter).forEach((farmerId, totals) -> mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(farmerId)), totals.toUpdate(), FarmerLedger.class));
+    }
+
+    private Map<String, Totals> archivedTotals(Predicate<Bill> filter) {
+        if (archiveService.getArchivedMonths().isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Totals> totals = new HashMap<>();
+        archiveService.findBetween(null, null).stream()
+                .filter(bill -> bill.getFarmerId() != null && filter.test(bill))
+                .forEach(bill -> totals.merge(bill.getFarmerId(), Totals.of(BillBalance.of(bill)), Totals::plus));
+        return totals;
+    }
+
+    private static Document toDecimal(String field) {
+        return new Document("$convert", new Document("input", field)
+                .append("to", "decimal")
+                .append("onError", Decimal128.POSITIVE_ZERO)
+                .append("onNull", Decimal128.POSITIVE_ZERO));
+    }
+
+    private static Document cond(Document test, Object then, Object otherwise) {
+        return new Document("$cond", List.of(test, then, otherwise));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void addIfPresent(Set<String> set, String value) {
+        if (value != null) {
+            set.add(value);
+        }
+    }
+
+    // ==================== TYPES ====================
+
+    /**
+     * Additive ledger figures; a bill contributes Totals.of(its balance)
+     */
+    record Totals(
+            long billCount,
+            BigDecimal totalAmount,
+            BigDecimal totalWeight,
+            BigDecimal paidAmount,
+            long unpaidBills,
+            BigDecimal unpaidAmount,
+            BigDecimal outstandingBalance,
+            BigDecimal advanceBalance) {
+
+        static final Totals ZERO = new Totals(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        static Totals of(BillBalance bill) {
+            boolean paid = bill.isPaid();
+            return new Totals(1, bill.netAmount(), bill.finalNetWeight(), bill.paidAmount(),
+                    paid ? 0 : 1,
+                    paid ? BigDecimal.ZERO : bill.netAmount(),
+                    bill.outstanding(),
+                    bill.advanceAmount());
+        }
+
+        static Totals of(FarmerLedger ledger) {
+            return new Totals(ledger.getBillCount(), orZero(ledger.getTotalAmount()), orZero(ledger.getTotalWeight()),
+                    orZero(ledger.getPaidAmount()), ledger.getUnpaidBills(), orZero(ledger.getUnpaidAmount()),
+                    orZero(ledger.getOutstandingBalance()), orZero(ledger.getAdvanceBalance()));
+        }
+
+        static Totals of(Document row) {
+            return new Totals(count(row, "billCount"), decimal(row, "totalAmount"), decimal(row, "totalWeight"),
+                    decimal(row, "paidAmount"), count(row, "unpaidBills"), decimal(row, "unpaidAmount"),
+                    decimal(row, "outstandingBalance"), decimal(row, "advanceBalance"));
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(billCount + other.billCount,
+                    totalAmount.add(other.totalAmount),
+                    totalWeight.add(other.totalWeight),
+                    paidAmount.add(other.paidAmount),
+                    unpaidBills + other.unpaidBills,
+                    unpaidAmount.add(other.unpaidAmount),
+                    outstandingBalance.add(other.outstandingBalance),
+                    advanceBalance.add(other.advanceBalance));
+        }
+
+        Totals minus(Totals other) {
+            return new Totals(billCount - other.billCount,
+                    totalAmount.subtract(other.totalAmount),
+                    totalWeight.subtract(other.totalWeight),
+                    paidAmount.subtract(other.paidAmount),
+                    unpaidBills - other.unpaidBills,
+                    unpaidAmount.subtract(other.unpaidAmount),
+                    outstandingBalance.subtract(other.outstandingBalance),
+                    advanceBalance.subtract(other.advanceBalance));
+        }
+
+        /**
+         * Same figures, ignoring decimal scale
+         */
+        boolean matches(Totals other) {
+            return billCount == other.billCount
+                    && unpaidBills == other.unpaidBills
+                    && totalAmount.compareTo(other.totalAmount) == 0
+                    && totalWeight.compareTo(other.totalWeight) == 0
+                    && paidAmount.compareTo(other.paidAmount) == 0
+                    && unpaidAmount.compareTo(other.unpaidAmount) == 0
+                    && outstandingBalance.compareTo(other.outstandingBalance) == 0
+                    && advanceBalance.compareTo(other.advanceBalance) == 0;
+        }
+
+        /**
+         * $inc for every non-zero figure
+         */
+        Update toUpdate() {
+            Update update = new Update();
+            inc(update, "billCount", billCount);
+            inc(update, "unpaidBills", unpaidBills);
+            inc(update, "totalAmount", totalAmount);
+            inc(update, "totalWeight", totalWeight);
+            inc(update, "paidAmount", paidAmount);
+            inc(update, "unpaidAmount", unpaidAmount);
+            inc(update, "outstandingBalance", outstandingBalance);
+            inc(update, "advanceBalance", advanceBalance);
+            return update;
+        }
+
+        private static void inc(Update update, String field, long delta) {
+            if (delta != 0) {
+                update.inc(field, delta);
+            }
+        }
+
+        private static void inc(Update update, String field, BigDecimal delta) {
+            if (delta.signum() != 0) {
+                update.inc(field, new Decimal128(delta));
+            }
+        }
+
+        private static BigDecimal orZero(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
+
+        private static long count(Document row, String key) {
+            Object value = row.get(key);
+            return value instanceof Number number ? number.longValue() : 0L;
+        }
+
+        private static BigDecimal decimal(Document row, String key) {
+            Object value = row.get(key);
+            if (value instanceof Decimal128 decimal) {
+                return decimal.bigDecimalValue();
+            }
+            return value instanceof Number number ? new BigDecimal(number.toString()) : BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Result of a drift check
+     */
+    public record DriftReport(int checked, int drifted, int repaired) {
+    }
+}
@@ -1,22 +1,43 @@
 package com.bananabill.service;
 
 import com.bananabill.dto.FarmerRequest;
+import com.bananabill.dto.response.CursorPageResponse;
+import com.bananabill.dto.response.FarmerListItem;
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.FarmerUpdated;
 import com.bananabill.exception.ResourceNotFoundException;
+import com.bananabill.exception.ValidationException;
 import com.bananabill.model.Farmer;
 import com.bananabill.model.User;
 import com.bananabill.repository.FarmerRepository;
+import com.bananabill.util.SecurityUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class FarmerService {
 
     private final FarmerRepository farmerRepository;
+    private final FarmerSuggestIndex suggestIndex;
+    private final MongoTemplate mongoTemplate;
+    private final DomainEventPublisher eventPublisher;
 
-    public FarmerService(FarmerRepository farmerRepository) {
+    public FarmerService(FarmerRepository farmerRepository, FarmerSuggestIndex suggestIndex,
+            MongoTemplate mongoTemplate, DomainEventPublisher eventPublisher) {
         this.farmerRepository = farmerRepository;
+        this.suggestIndex = suggestIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     public Farmer findByMobile(String mobile) {
@@ -33,8 +54,10 @@ public class FarmerService {
         // Check if farmer exists
         Farmer farmer = farmerRepository.findByMobileNumber(cleanMobile).orElse(null);
 
+        String previousName = null;
         if (farmer != null) {
             // Update existing farmer
+            previousName = farmer.getName();
             farmer.setName(request.getName());
             farmer.setAddress(request.getAddress());
         } else {
@@ -46,7 +69,11 @@ public class FarmerService {
             farmer.setCreatedBy(currentUser.getId());
         }
 
-        return farmerRepository.save(farmer);
+        Farmer savedFarmer = farmerRepository.save(farmer);
+        suggestIndex.put(savedFarmer);
+        // Renames are applied to bill snapshots by FarmerSnapshotPropagator
+        eventPublisher.publish(FarmerUpdated.of(savedFarmer, previousName));
+        return savedFarmer;
     }
 
     public Farmer getFarmerById(String id) {
@@ -57,4 +84,91 @@ public class FarmerService {
     public List<Farmer> getAllFarmers() {
         return farmerRepository.findAll();
     }
+
+    /**
+     * Typeahead suggestions among the current user's farmers by mobile or name prefix
+     */
+    public List<FarmerSuggestIndex.Suggestion> suggestFarmers(String query, int limit) {
+        return suggestIndex.suggest(SecurityUtils.getCurrentUserId(), query, limit);
+    }
+
+    /**
+     * One page of the current user's farmers, ordered by (name, _id)
+     * Keyset paging: the cursor carries the last (name, id) seen, so every
+     * page is an index range scan on idx_farmer_user_name_id
+     *
+     * @param listView true to return only id, name and mobile
+     */
+    public FarmerPage getFarmerPage(String cursor, int size, boolean listView) {
+        Criteria criteria = Criteria.where("createdBy").is(SecurityUtils.getCurrentUserId());
+        if (cursor != null && !cursor.isBlank()) {
+            String[] last = decodeCursor(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("name").gt(last[0]),
+                    Criteria.where("name").is(last[0]).and("_id").gt(last[1]));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("name"), Sort.Order.asc("_id")))
+                .limit(size + 1);
+        if (listView) {
+            query.fields().include("name", "mobileNumber", "updatedAt");
+        }
+
+        List<Farmer> farmers = mongoTemplate.find(query, Farmer.class);
+        boolean hasMore = farmers.size() > size;
+        if (hasMore) {
+            farmers = farmers.subList(0, size);
+        }
+        String nextCursor = hasMore ? encodeCursor(farmers.get(farmers.size() - 1)) : null;
+
+        List<?> content = listView ? farmers.stream().map(FarmerListItem::from).toList() : farmers;
+        return new FarmerPage(new CursorPageResponse<>(content, content.size(), nextCursor, hasMore),
+                etag(farmers, listView, nextCursor));
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private static String encodeCursor(Farmer farmer) {
+        return encodeCursor(farmer.getName(), farmer.getId());
+    }
+
+    /**
+     * Keyset cursor over (name, _id); also used for the farmer balances page
+     */
+    static String encodeCursor(String name, String id) {
+        String key = name != null ? name : "";
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8)) + "." + id;
+    }
+
+    static String[] decodeCursor(String cursor) {
+        int dot = cursor.lastIndexOf('.');
+        if (dot < 0 || dot == cursor.length() - 1) {
+            throw new ValidationException("cursor", "Invalid cursor");
+        }
+        try {
+            String name = new String(Base64.getUrlDecoder().decode(cursor.substring(0, dot)),
+                    StandardCharsets.UTF_8);
+            return new String[] { name, cursor.substring(dot + 1) };
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cursor", "Invalid cursor");
+        }
+    }
+
+    /**
+     * Weak ETag over the ids and last-modified times on the page
+     */
+    private static String etag(List<Farmer> farmers, boolean listView, String nextCursor) {
+        StringBuilder key = new StringBuilder(listView ? "list" : "full").append('|').append(nextCursor);
+        for (Farmer farmer : farmers) {
+            key.append('|').append(farmer.getId()).append(':')
+                    .append(farmer.getUpdatedAt() != null ? farmer.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) : 0)
+                    .append(':').append(farmer.getName()).append(':').append(farmer.getMobileNumber());
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public record FarmerPage(CursorPageResponse<?> page, String etag) {
+    }
 }
@@ -0,0 +1,204 @@
+package com.bananabill.service;
+
+import com.bananabill.event.DomainEvent;
+import com.bananabill.event.DomainEventListener;
+import com.bananabill.event.FarmerUpdated;
+import com.bananabill.model.Bill;
+import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Farmer Snapshot Propagator - Keeps FarmerSnapshot copies in bills current
+ *
+ * Responsibilities:
+ * - Rewrite bill snapshots after a farmer rename (throttled updateMulti batches)
+ * - One-time migration shrinking legacy full Farmer embeds to snapshots
+ *
+ * Renames arrive as FarmerUpdated events on this listener's own thread, so
+ * farmer saves return immediately and renames apply in the order they happened.
+ * The migration runs on maintenanceExecutor.
+ */
+@Service
+public class FarmerSnapshotPropagator implements DomainEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FarmerSnapshotPropagator.class);
+
+    /** Fields the old embedded Farmer carried that the snapshot drops */
+    private static final String[] LEGACY_FIELDS = {
+            "farmer.address", "farmer.createdBy", "farmer.createdAt", "farmer.updatedAt" };
+
+    private final MongoTemplate mongoTemplate;
+    private final BillReadCache billCache;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final boolean migrateOnStartup;
+
+    /** Farmers whose rename event was dropped; propagated from MongoDB in reconcile() */
+    private final Set<String> missedRenames = ConcurrentHashMap.newKeySet();
+
+    public FarmerSnapshotPropagator(MongoTemplate mongoTemplate,
+            BillReadCache billCache,
+            @Value("${farmer.snapshot.batch-size:500}") int batchSize,
+            @Value("${farmer.snapshot.batch-pause-ms:50}") long batchPauseMs,
+            @Value("${farmer.snapshot.migrate-on-startup:true}") boolean migrateOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.billCache = billCache;
+        this.batchSize = batchSize;
+        this.batchPauseMs = batchPauseMs;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    // ==================== RENAME PROPAGATION ====================
+
+    @Override
+    public String getListenerName() {
+        return "farmer-snapshots";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof FarmerUpdated updated && updated.renamed();
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        propagate(FarmerSnapshot.of(((FarmerUpdated) event).farmer()));
+    }
+
+    @Override
+    public void onDropped(DomainEvent event) {
+        missedRenames.add(((FarmerUpdated) event).farmer().getId());
+    }
+
+    /**
+     * Propagate the current name of every farmer whose rename was dropped
+     */
+    @Override
+    public void reconcile() {
+        for (String farmerId : List.copyOf(missedRenames)) {
+            missedRenames.remove(farmerId);
+            Farmer farmer = mongoTemplate.findById(farmerId, Farmer.class);
+            if (farmer != null) {
+                propagate(FarmerSnapshot.of(farmer));
+            }
+        }
+    }
+
+    /**
+     * Rewrite the snapshot in every bill of this farmer
+     */
+    public void propagate(FarmerSnapshot snapshot) {
+        if (snapshot == null || snapshot.getId() == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long updated = 0;
+        Criteria stale = Criteria.where("farmerId").is(snapshot.getId()).orOperator(
+                Criteria.where("farmer.name").ne(snapshot.getName()),
+                Criteria.where("farmer.mobileNumber").ne(snapshot.getMobileNumber()));
+        long batch;
+        while ((batch = updateBatch(stale, new Update().set("farmer", snapshot))) > 0) {
+            updated += batch;
+            pause();
+        }
+
+        if (updated > 0) {
+            logger.info("Propagated farmer {} rename to {} bills in {}ms", snapshot.getId(), updated,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    // ==================== MIGRATION ====================
+
+    /**
+     * Strip legacy Farmer fields from embedded copies, in throttled batches
+     * Idempotent: only documents that still carry a legacy field are touched
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async("maintenanceExecutor")
+    public void migrateLegacySnapshots() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        Criteria legacy = new Criteria().orOperator(Arrays.stream(LEGACY_FIELDS)
+                .map(field -> Criteria.where(field).exists(true))
+                .toArray(Criteria[]::new));
+        Update shrink = new Update();
+        for (String field : LEGACY_FIELDS) {
+            shrink.unset(field);
+        }
+
+        long start = System.currentTimeMillis();
+        long migrated = 0;
+        try {
+            long batch;
+            while ((batch = updateBatch(legacy, shrink)) > 0) {
+                migrated += batch;
+                pause();
+            }
+        } catch (Exception e) {
+            logger.warn("Farmer snapshot migration stopped after {} bills: {}", migrated, e.getMessage());
+            return;
+        }
+
+        if (migrated > 0) {
+            logger.info("Shrunk embedded farmer in {} bills in {}ms", migrated, System.currentTimeMillis() - start);
+        }
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    /**
+     * Apply the update to the next batch of matching bills
+     * The version is incremented in the same update, so a bill read before
+     * the rewrite fails its optimistic-lock check instead of restoring the
+     * old snapshot
+     *
+     * @return number of bills modified
+     */
+    private long updateBatch(Criteria criteria, Update update) {
+        Query idsOnly = new Query(criteria).limit(batchSize);
+        idsOnly.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(idsOnly, Document.class, mongoTemplate.getCollectionName(Bill.class))
+                .stream()
+                .map(doc -> doc.get("_id"))
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Query batch = new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), criteria));
+        long modified = mongoTemplate.updateMulti(batch, update.inc("version", 1), Bill.class)
+                .getModifiedCount();
+        billCache.evictAll(ids);
+        return modified;
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while propagating farmer snapshots", e);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.bananabill.service;
+
+import com.bananabill.event.ChangeStreamListener;
+import com.bananabill.event.CollectionChange;
+import com.bananabill.model.Farmer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Farmer Suggest Index - In-memory prefix index for farmer typeahead
+ *
+ * Three sorted maps, each keyed "<owner>\0<key>\0<farmerId>" so a prefix
+ * query is a single sorted range walk (O(log n + k)) over the calling user's
+ * farmers only (owner is the farmer's createdBy, as in the farmer list):
+ * - mobile digits (last 10)
+ * - full folded name
+ * - each folded name word ("patil" finds "Ramesh Patil")
+ *
+ * Names are folded to a phonetic skeleton after transliterating Devanagari,
+ * so "रमेश", "Ramesh" and "Rames" share a key. Reads are lock-free; writes
+ * come from FarmerService.upsertFarmer and, with change streams enabled, from
+ * farmer writes on other nodes.
+ */
+@Service
+public class FarmerSuggestIndex implements ChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FarmerSuggestIndex.class);
+
+    private static final char SEPARATOR = '\0';
+
+    private static final Pattern WORD_SPLIT = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern MOBILE_QUERY = Pattern.compile("\\s*\\+?[\\d\\s-]*\\d[\\d\\s-]*");
+    private static final Pattern NON_DIGIT = Pattern.compile("\\D");
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Suggestion> mobileIndex = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Suggestion> nameIndex = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Suggestion> wordIndex = new ConcurrentSkipListMap<>();
+
+    public FarmerSuggestIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("name", "mobileNumber", "createdBy");
+        try (Stream<Farmer> farmers = mongoTemplate.stream(query, Farmer.class)) {
+            farmers.forEach(this::put);
+            logger.info("Farmer suggest index loaded {} farmers in {}ms", byId.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Suggestions stay partial until farmers are saved again
+            logger.warn("Farmer suggest index load failed: {}", e.getMessage());
+        }
+    }
+
+    // ==================== MUTATIONS ====================
+
+    /**
+     * Add or refresh one farmer, dropping keys for the previous name/mobile
+     */
+    public synchronized void put(Farmer farmer) {
+        if (farmer == null || farmer.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(farmer.getCreatedBy() != null ? farmer.getCreatedBy() : "",
+                new Suggestion(farmer.getId(), farmer.getName(), farmer.getMobileNumber()));
+        Entry previous = byId.put(farmer.getId(), entry);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(entry);
+    }
+
+    public synchronized void remove(String farmerId) {
+        Entry previous = byId.remove(farmerId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // ==================== CHANGE STREAM ====================
+
+    @Override
+    public String getListenerName() {
+        return "farmer-suggest";
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("farmers");
+    }
+
+    @Override
+    public void onChanges(String collection, List<CollectionChange> changes) {
+        for (CollectionChange change : changes) {
+            if (change.isDelete()) {
+                remove(change.id());
+            } else if (change.document() != null) {
+                put(mongoTemplate.getConverter().read(Farmer.class, change.document()));
+            }
+        }
+    }
+
+    @Override
+    public void onResync(String collection) {
+        loadOnStartup();
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Top-k of the owner's farmers whose mobile number or name starts with the query
+     * Full-name matches rank ahead of word matches
+     */
+    public List<Suggestion> suggest(String ownerId, String query, int limit) {
+        if (ownerId == null || query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, Suggestion> results = new LinkedHashMap<>();
+
+        if (MOBILE_QUERY.matcher(query).matches()) {
+            String digits = NON_DIGIT.matcher(query.strip()).replaceAll("");
+            if (query.strip().startsWith("+91") || (digits.length() > 10 && digits.startsWith("91"))) {
+                digits = digits.substring(2);
+            } else if (digits.startsWith("0")) {
+                digits = digits.substring(1);
+            }
+            collect(mobileIndex, ownerId + SEPARATOR + digits, limit, results);
+            return new ArrayList<>(results.values());
+        }
+
+        String folded = fold(query);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        collect(nameIndex, ownerId + SEPARATOR + folded, limit, results);
+        if (results.size() < limit) {
+            collect(wordIndex, ownerId + SEPARATOR + folded, limit, results);
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    // ==================== NORMALIZATION ====================
+
+    /**
+     * Fold a Latin or Devanagari name to its phonetic skeleton
+     * Words are kept apart by single spaces
+     */
+    static String fold(String name) {
+        if (name == null) {
+            return "";
+        }
+        String latin = transliterate(name).toLowerCase();
+        StringBuilder out = new StringBuilder(latin.length());
+        for (String word : WORD_SPLIT.split(latin)) {
+            String skeleton = foldWord(word);
+            if (!skeleton.isEmpty()) {
+                if (out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(skeleton);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String foldWord(String word) {
+        StringBuilder out = new StringBuilder(word.length() + 2);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+            switch (c) {
+                case 'q' -> c = 'k';
+                case 'w' -> c = 'v';
+                case 'z' -> c = 'j';
+                case 'x' -> {
+                    append(out, 'k');
+                    c = 's';
+                }
+                case 'e', 'o' -> {
+                    if (next == c) {
+                        c = c == 'e' ? 'i' : 'u'; // "deepak" / "pooja"
+                        i++;
+                    }
+                }
+                default -> {
+                }
+            }
+            // Inherent 'a' and medial 'h' are written inconsistently in Latin
+            // ("chavan"/"chavhan", "bhau"/"bau"), so only a leading one is kept
+            if (out.length() > 0 && (c == 'a' || c == 'h')) {
+                continue;
+            }
+            append(out, c);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Append unless it doubles the previous letter ("patill", "aa", "ii")
+     */
+    private static void append(StringBuilder out, char c) {
+        if (out.length() == 0 || out.charAt(out.length() - 1) != c) {
+            out.append(c);
+        }
+    }
+
+    /**
+     * Map Devanagari (Marathi/Hindi) to plain Latin letters
+     * Inherent vowels are not emitted; fold drops non-leading 'a' anyway
+     */
+    static String transliterate(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x0900 || c > 0x097F) {
+                out.append(c);
+                continue;
+            }
+            out.append(devanagari(c));
+        }
+        return out.toString();
+    }
+
+    private static String devanagari(char c) {
+        if (c >= '०' && c <= '९') {
+            return String.valueOf((char) ('0' + (c - '०')));
+        }
+        return switch (c) {
+            case 'अ' -> "a";
+            case 'आ', 'ा' -> "aa";
+            case 'इ', 'ि' -> "i";
+            case 'ई', 'ी' -> "ii";
+            case 'उ', 'ु' -> "u";
+            case 'ऊ', 'ू' -> "uu";
+            case 'ऋ', 'ृ' -> "ru";
+            case 'ए', 'े' -> "e";
+            case 'ऐ', 'ै' -> "ai";
+            case 'ओ', 'ो', 'ऑ', 'ॉ' -> "o";
+            case 'औ', 'ौ' -> "au";
+            case 'ं', 'ँ', 'ङ', 'ञ', 'ण', 'न' -> "n";
+            case 'क' -> "k";
+            case 'ख' -> "kh";
+            case 'ग' -> "g";
+            case 'घ' -> "gh";
+            case 'च' -> "ch";
+            case 'छ' -> "chh";
+            case 'ज' -> "j";
+            case 'झ' -> "jh";
+            case 'ट', 'त' -> "t";
+            case 'ठ', 'थ' -> "th";
+            case 'ड', 'द' -> "d";
+            case 'ढ', 'ध' -> "dh";
+            case 'प' -> "p";
+            case 'फ' -> "ph";
+            case 'ब' -> "b";
+            case 'भ' -> "bh";
+            case 'म' -> "m";
+            case 'य' -> "y";
+            case 'र' -> "r";
+            case 'ल', 'ळ' -> "l";
+            case 'व' -> "v";
+            case 'श', 'ष' -> "sh";
+            case 'स' -> "s";
+            case 'ह', 'ः' -> "h";
+            default -> ""; // virama, nukta, danda and other signs
+        };
+    }
+
+    // ==================== PRIVATE HELPERS ====================
+
+    private void index(Entry entry) {
+        for (String key : keys(entry)) {
+            indexFor(key).put(key.substring(1), entry.suggestion());
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String key : keys(entry)) {
+            indexFor(key).remove(key.substring(1));
+        }
+    }
+
+    private NavigableMap<String, Suggestion> indexFor(String key) {
+        return switch (key.charAt(0)) {
+            case 'm' -> mobileIndex;
+            case 'n' -> nameIndex;
+            default -> wordIndex;
+        };
+    }
+
+    /**
+     * All index keys for one farmer, tagged with the target index
+     */
+    private static List<String> keys(Entry entry) {
+        List<String> keys = new ArrayList<>();
+        Suggestion suggestion = entry.suggestion();
+        String owner = entry.owner() + SEPARATOR;
+        String id = SEPARATOR + suggestion.id();
+        if (suggestion.mobileNumber() != null) {
+            String mobile = NON_DIGIT.matcher(suggestion.mobileNumber()).replaceAll("");
+            mobile = mobile.length() > 10 ? mobile.substring(mobile.length() - 10) : mobile;
+            if (!mobile.isEmpty()) {
+                keys.add("m" + owner + mobile + id);
+            }
+        }
+        String folded = fold(suggestion.name());
+        if (!folded.isEmpty()) {
+            keys.add("n" + owner + folded + id);
+            String[] words = folded.split(" ");
+            for (int i = 1; i < words.length; i++) {
+                keys.add("w" + owner + words[i] + id);
+            }
+        }
+        return keys;
+    }
+
+    private static void collect(NavigableMap<String, Suggestion> index, String prefix, int limit,
+            Map<String, Suggestion> results) {
+        // Keys sharing the prefix are contiguous; stop at the first one that doesn't
+        for (Map.Entry<String, Suggestion> entry : index.tailMap(prefix, true).entrySet()) {
+            if (results.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                return;
+            }
+            results.putIfAbsent(entry.getValue().id(), entry.getValue());
+        }
+    }
+
+    // ==================== RESULT TYPE ====================
+
+    public record Suggestion(String id, String name, String mobileNumber) {
+    }
+
+    private record Entry(String owner, Suggestion suggestion) {
+    }
+}
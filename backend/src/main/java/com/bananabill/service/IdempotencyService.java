@@ -0,0 +1,358 @@
+package com.bananabill.service;
+
+import com.bananabill.config.BoundedLruCache;
+import com.bananabill.model.IdempotencyRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency Service - Runs a keyed request once and replays its response
+ *
+ * - Claim: the first request inserts an IN_PROGRESS record (unique _id), so
+ *   exactly one node executes it
+ * - Wait: duplicates on the same node wait on the executing request's future;
+ *   duplicates on other nodes poll the record until it completes
+ * - Replay: completed records are kept in idempotency_keys (TTL index) with a
+ *   node-local LRU in front, so hot retries do not reach MongoDB
+ * - Lock: the executing node extends lockedUntil every idempotency.heartbeat-ms
+ *   while the handler runs, so a slow request is not taken over; writes to
+ *   the record are fenced on the lock token of the claim
+ * - Recovery: a record whose node died mid-request is taken over once its
+ *   lock expires; failed requests release their record so a retry runs again
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final BoundedLruCache completed;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Duration lockTimeout;
+    private final Counter replays;
+
+    // Requests executing on this node, completed with their record (RELEASED if it failed)
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    // Records this node holds the lock of, with their lock token
+    private final Map<String, String> executing = new ConcurrentHashMap<>();
+
+    public IdempotencyService(MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${idempotency.lock-timeout-ms:30000}") long lockTimeoutMs,
+            @Value("${idempotency.cache-entries:10000}") int cacheEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.completed = new BoundedLruCache("idempotency", cacheEntries);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.lockTimeout = Duration.ofMillis(lockTimeoutMs);
+        this.replays = meterRegistry.counter("idempotency.replays");
+    }
+
+    // ==================== BEGIN ====================
+
+    /**
+     * Decide whether this request runs, replays a stored response, or is rejected
+     */
+    public Outcome begin(String userId, String key, String method, String path, String requestHash) {
+        String id = recordId(userId, key, method, path);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            IdempotencyRecord cached = completed.get(id, IdempotencyRecord.class);
+            if (cached != null && !cached.isExpired(Instant.now())) {
+                return finished(cached, requestHash);
+            }
+
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                // Same key already executing on this node
+                IdempotencyRecord result = await(running);
+                if (result == RELEASED) {
+                    continue;
+                }
+                return result != null ? finished(result, requestHash) : Outcome.inProgress(id);
+            }
+
+            Outcome outcome;
+            try {
+                outcome = claim(id, userId, key, method, path, requestHash);
+            } catch (RuntimeException e) {
+                // Nothing was claimed: local waiters try for themselves
+                inFlight.remove(id, mine);
+                mine.complete(RELEASED);
+                throw e;
+            }
+            if (outcome.type() != Outcome.Type.EXECUTE) {
+                // Not ours to run: let local waiters see the same result
+                inFlight.remove(id, mine);
+                IdempotencyRecord record = outcome.record();
+                mine.complete(record != null && record.isCompleted() ? record : RELEASED);
+            }
+            if (outcome.type() != Outcome.Type.RETRY) {
+                return outcome;
+            }
+        }
+        return Outcome.inProgress(id);
+    }
+
+    private Outcome claim(String id, String userId, String key, String method, String path, String requestHash) {
+        Instant now = Instant.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setMethod(method);
+        record.setPath(path);
+        record.setRequestHash(requestHash);
+        record.setState(IdempotencyRecord.State.IN_PROGRESS);
+        record.setLockedUntil(now.plus(lockTimeout));
+        record.setLockToken(UUID.randomUUID().toString());
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        try {
+            mongoTemplate.insert(record);
+            executing.put(id, record.getLockToken());
+            return Outcome.execute(id);
+        } catch (DuplicateKeyException e) {
+            return waitForOwner(id, requestHash);
+        }
+    }
+
+    /**
+     * Another node (or an earlier process) holds the key: replay, take over, or wait
+     */
+    private Outcome waitForOwner(String id, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            IdempotencyRecord stored = mongoTemplate.findById(id, IdempotencyRecord.class);
+            Instant now = Instant.now();
+            if (stored == null || stored.isExpired(now)) {
+                // Released, or expired but not yet removed by the TTL monitor
+                mongoTemplate.remove(new Query(Criteria.where("_id").is(id).and("expiresAt").lt(now)),
+                        IdempotencyRecord.class);
+                return Outcome.RETRY;
+            }
+            if (!requestHash.equals(stored.getRequestHash())) {
+                return Outcome.mismatch(id, stored);
+            }
+            if (stored.isCompleted()) {
+                completed.put(id, stored);
+                return finished(stored, requestHash);
+            }
+            if (stored.getLockedUntil() != null && stored.getLockedUntil().isBefore(now) && takeOver(stored, now)) {
+                logger.warn("Idempotency key {} was abandoned by its node, executing again", stored.getIdempotencyKey());
+                return Outcome.execute(id);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return Outcome.inProgress(id);
+            }
+            sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private boolean takeOver(IdempotencyRecord stored, Instant now) {
+        String token = UUID.randomUUID().toString();
+        boolean taken = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(stored.getId())
+                        .and("state").is(IdempotencyRecord.State.IN_PROGRESS)
+                        .and("lockedUntil").is(stored.getLockedUntil())),
+                new Update().set("lockedUntil", now.plus(lockTimeout)).set("lockToken", token),
+                IdempotencyRecord.class).getModifiedCount() == 1;
+        if (taken) {
+            executing.put(stored.getId(), token);
+        }
+        return taken;
+    }
+
+    // ==================== HEARTBEAT ====================
+
+    /**
+     * Extend the lock of every request still running on this node
+     * A record that no longer matches its token was taken over; it is dropped
+     * here and this node will neither complete nor release it
+     */
+    @Scheduled(fixedDelayString = "${idempotency.heartbeat-ms:10000}")
+    public void heartbeat() {
+        Instant lockedUntil = Instant.now().plus(lockTimeout);
+        executing.forEach((id, token) -> {
+            boolean held = mongoTemplate.updateFirst(held(id, token),
+                    new Update().set("lockedUntil", lockedUntil), IdempotencyRecord.class).getMatchedCount() == 1;
+            if (!held && executing.remove(id, token)) {
+                logger.warn("Idempotency record {} was taken over while its request was still running", id);
+            }
+        });
+    }
+
+    // ==================== FINISH ====================
+
+    /**
+     * Store the response of an executed request and hand it to waiting duplicates
+     */
+    public void complete(String id, int status, String contentType, String body) {
+        String token = executing.remove(id);
+        IdempotencyRecord record = token == null ? null : mongoTemplate.findAndModify(
+                held(id, token),
+                new Update()
+                        .set("state", IdempotencyRecord.State.COMPLETED)
+                        .set("responseStatus", status)
+                        .set("contentType", contentType)
+                        .set("responseBody", body)
+                        .unset("lockedUntil")
+                        .unset("lockToken"),
+                FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecord.class);
+        if (record != null) {
+            completed.put(id, record);
+        } else {
+            logger.warn("Idempotency record {} is held by another node, response not stored", id);
+        }
+        CompletableFuture<IdempotencyRecord> waiters = inFlight.remove(id);
+        if (waiters != null) {
+            waiters.complete(record != null ? record : RELEASED);
+        }
+    }
+
+    /**
+     * Forget an executed request that failed, so that a retry runs it again
+     */
+    public void release(String id) {
+        String token = executing.remove(id);
+        try {
+            if (token != null) {
+                mongoTemplate.remove(held(id, token), IdempotencyRecord.class);
+            }
+        } finally {
+            CompletableFuture<IdempotencyRecord> waiters = inFlight.remove(id);
+            if (waiters != null) {
+                waiters.complete(RELEASED);
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * The record while this node's claim on it is still the current one
+     */
+    private static Query held(String id, String token) {
+        return new Query(Criteria.where("_id").is(id)
+                .and("state").is(IdempotencyRecord.State.IN_PROGRESS)
+                .and("lockToken").is(token));
+    }
+
+    private Outcome finished(IdempotencyRecord record, String requestHash) {
+        if (!requestHash.equals(record.getRequestHash())) {
+            return Outcome.mismatch(record.getId(), record);
+        }
+        replays.increment();
+        return Outcome.replay(record.getId(), record);
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return RELEASED;
+        }
+    }
+
+    static String recordId(String userId, String key, String method, String path) {
+        return sha256((userId + '\n' + method + ' ' + path + '\n' + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                digest.update(part);
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== TYPES ====================
+
+    /** Marks a released key for local waiters, who then try to claim it themselves */
+    private static final IdempotencyRecord RELEASED = new IdempotencyRecord();
+
+    /**
+     * What the filter should do with a keyed request
+     *
+     * @param record stored record for REPLAY and MISMATCH
+     */
+    public record Outcome(Type type, String id, IdempotencyRecord record) {
+
+        public enum Type {
+            EXECUTE,
+            REPLAY,
+            MISMATCH,
+            IN_PROGRESS,
+            RETRY
+        }
+
+        static final Outcome RETRY = new Outcome(Type.RETRY, null, null);
+
+        static Outcome execute(String id) {
+            return new Outcome(Type.EXECUTE, id, null);
+        }
+
+        static Outcome replay(String id, IdempotencyRecord record) {
+            return new Outcome(Type.REPLAY, id, record);
+        }
+
+        static Outcome mismatch(String id, IdempotencyRecord record) {
+            return new Outcome(Type.MISMATCH, id, record);
+        }
+
+        static Outcome inProgress(String id) {
+            return new Outcome(Type.IN_PROGRESS, id, null);
+        }
+    }
+}
@@ -1,36 +1,77 @@
 package com.bananabill.service;
 
+import com.bananabill.client.OutboundHttpClient;
+import com.bananabill.exception.ValidationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Map;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
 
 /**
- * Image Upload Service - Uploads base64 images to Cloudinary for public URLs
+ * Image Upload Service - Uploads bill images to Cloudinary for public URLs
  * Required for Twilio WhatsApp which needs HTTPS URLs for media
+ *
+ * - Streamed: the client's bytes (multipart part or raw body) are copied to
+ *   a temporary file, then sent from that file to Cloudinary as a multipart
+ *   upload; no base64 string or in-memory copy of the image is made
+ * - Limited: past images.upload.max-bytes the copy stops (413)
+ * - Checked: SHA-256 is computed while copying and compared with the
+ *   client's X-Content-SHA256, when sent; only PNG and JPEG are accepted
  */
 @Service
 public class ImageUploadService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
 
-    @Value("${cloudinary.cloud.name:}")
-    private String cloudName;
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] JPEG_SIGNATURE = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
 
-    @Value("${cloudinary.upload.preset:}")
-    private String uploadPreset;
+    /**
+     * Result of an upload; url is null when the image could not be published
+     */
+    public record UploadedImage(String url, String sha256, long size) {
+    }
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final String cloudName;
+    private final String uploadPreset;
+    private final long maxBytes;
+
+    // Pooled client: timeout, retries and circuit breaker per integrations.cloudinary
+    private final OutboundHttpClient outboundHttpClient;
+    private final ObjectMapper objectMapper;
+
+    public ImageUploadService(OutboundHttpClient outboundHttpClient,
+            ObjectMapper objectMapper,
+            @Value("${cloudinary.cloud.name:}") String cloudName,
+            @Value("${cloudinary.upload.preset:}") String uploadPreset,
+            @Value("${images.upload.max-bytes:5242880}") long maxBytes) {
+        this.outboundHttpClient = outboundHttpClient;
+        this.objectMapper = objectMapper;
+        this.cloudName = cloudName;
+        this.uploadPreset = uploadPreset;
+        this.maxBytes = maxBytes;
+    }
 
     @jakarta.annotation.PostConstruct
     public void init() {
-        if (cloudName != null && !cloudName.isBlank() && uploadPreset != null && !uploadPreset.isBlank()) {
+        if (isConfigured()) {
             logger.info("Cloudinary configured: cloud={}, preset={}", cloudName, uploadPreset);
         } else {
             logger.warn("Cloudinary NOT configured - WhatsApp images will be text-only");
@@ -38,69 +79,105 @@ public class ImageUploadService {
     }
 
     /**
-     * Upload base64 image to Cloudinary and return public URL
-     * Uses unsigned upload with upload preset for simplicity
-     * 
-     * @param base64Image Base64 encoded image (with or without data URI prefix)
-     * @return Public HTTPS URL of uploaded image
+     * Upload an image read from the client and return its public URL
+     *
+     * @param image          PNG or JPEG bytes; read to the end, not closed
+     * @param expectedSha256 hex SHA-256 sent by the client, or null
+     * @throws MaxUploadSizeExceededException past images.upload.max-bytes
+     * @throws ValidationException            when empty, not PNG/JPEG, or the checksum differs
      */
-    public String uploadBase64Image(String base64Image) {
-        logger.info("=== uploadBase64Image called, image size: {} chars ===",
-                base64Image != null ? base64Image.length() : 0);
-
-        if (cloudName == null || cloudName.isBlank() || uploadPreset == null || uploadPreset.isBlank()) {
-            logger.warn("Cloudinary not configured - cannot upload image");
-            return null;
-        }
-
-        logger.info("Cloudinary config OK, uploading to cloud: {}, preset: {}", cloudName, uploadPreset);
-
+    public UploadedImage uploadImage(InputStream image, String expectedSha256) throws IOException {
+        Path file = Files.createTempFile("bill-image-", ".upload");
         try {
-            String uploadUrl = "https://api.cloudinary.com/v1_1/" + cloudName + "/image/upload";
-
-            // Prepare JSON request - Cloudinary accepts JSON with base64 data URI
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // Keep data URI format - Cloudinary accepts it directly
-            String imageData = base64Image;
-            if (!base64Image.startsWith("data:")) {
-                imageData = "data:image/png;base64," + base64Image;
+            MessageDigest digest = sha256();
+            byte[] head = new byte[PNG_SIGNATURE.length];
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                InputStream in = new DigestInputStream(image, digest);
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (size < head.length) {
+                        System.arraycopy(buffer, 0, head, (int) size, (int) Math.min(read, head.length - size));
+                    }
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new MaxUploadSizeExceededException(maxBytes);
+                    }
+                    out.write(buffer, 0, read);
+                }
             }
 
-            // Use JSON body with explicit public_id to avoid "Display name cannot contain
-            // slashes" error
-            java.util.Map<String, String> body = new java.util.HashMap<>();
-            body.put("file", imageData);
-            body.put("upload_preset", uploadPreset);
-            body.put("public_id", "bill_" + System.currentTimeMillis()); // Unique ID without slashes
+            if (size == 0) {
+                throw new ValidationException("image", "Image is empty");
+            }
+            String contentType = contentType(head);
+            if (contentType == null) {
+                throw new ValidationException("image", "Only PNG or JPEG images are accepted");
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.isBlank() && !expectedSha256.trim().equalsIgnoreCase(sha256)) {
+                throw new ValidationException("image", "Image checksum does not match, please send it again");
+            }
 
-            HttpEntity<java.util.Map<String, String>> request = new HttpEntity<>(body, headers);
+            logger.info("Bill image received: {} bytes, {}, sha256 {}", size, contentType, sha256);
+            return new UploadedImage(upload(file, contentType), sha256, size);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 
-            // Upload to Cloudinary
-            @SuppressWarnings("rawtypes")
-            ResponseEntity<Map> response = restTemplate.postForEntity(uploadUrl, request, Map.class);
+    /**
+     * Multipart upload streamed from the file (re-read on a retry)
+     */
+    private String upload(Path file, String contentType) {
+        if (!isConfigured()) {
+            logger.warn("Cloudinary not configured - cannot upload image");
+            return null;
+        }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String secureUrl = (String) response.getBody().get("secure_url");
-                if (secureUrl != null) {
-                    logger.info("Image uploaded to Cloudinary successfully: {}", secureUrl);
-                    return secureUrl;
+        try {
+            String uploadUrl = outboundHttpClient.baseUrl("cloudinary") + "/v1_1/" + cloudName + "/image/upload";
+            String publicId = "bill_" + System.currentTimeMillis(); // Unique ID without slashes
+            String boundary = "bananabill-" + UUID.randomUUID();
+
+            String head = formField(boundary, "upload_preset", uploadPreset)
+                    + formField(boundary, "public_id", publicId)
+                    + "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"" + publicId
+                    + ("image/png".equals(contentType) ? ".png" : ".jpg") + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n\r\n";
+            String tail = "\r\n--" + boundary + "--\r\n";
+
+            HttpRequest.Builder request = HttpRequest.newBuilder()
+                    .uri(URI.create(uploadUrl))
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.concat(
+                            HttpRequest.BodyPublishers.ofString(head),
+                            HttpRequest.BodyPublishers.ofFile(file),
+                            HttpRequest.BodyPublishers.ofString(tail)));
+
+            HttpResponse<String> response = outboundHttpClient.send("cloudinary", request);
+
+            if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                JsonNode secureUrl = objectMapper.readTree(response.body()).get("secure_url");
+                if (secureUrl != null && secureUrl.isTextual()) {
+                    logger.info("Image uploaded to Cloudinary successfully: {}", secureUrl.asText());
+                    return secureUrl.asText();
                 }
+                logger.error("Failed to upload image to Cloudinary: {}", response.body());
+                return null;
             }
 
-            logger.error("Failed to upload image to Cloudinary: {}", response.getBody());
+            logger.error("Cloudinary HTTP error: {} - Response: {}", response.statusCode(), response.body());
             return null;
 
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            logger.error("Cloudinary HTTP error: {} - Response: {}", e.getStatusCode(), e.getResponseBodyAsString());
-            return null;
-        } catch (org.springframework.web.client.HttpServerErrorException e) {
-            logger.error("Cloudinary server error: {} - Response: {}", e.getStatusCode(), e.getResponseBodyAsString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Cloudinary upload interrupted");
             return null;
         } catch (Exception e) {
             logger.error("Error uploading image to Cloudinary: {} - Type: {}", e.getMessage(), e.getClass().getName());
-            e.printStackTrace();
             return null;
         }
     }
@@ -112,4 +189,40 @@ public class ImageUploadService {
         return cloudName != null && !cloudName.isBlank()
                 && uploadPreset != null && !uploadPreset.isBlank();
     }
+
+    private static String formField(String boundary, String name, String value) {
+        return "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n";
+    }
+
+    /**
+     * Type from the file's signature, not from what the client declared
+     */
+    private static String contentType(byte[] head) {
+        if (startsWith(head, PNG_SIGNATURE)) {
+            return "image/png";
+        }
+        if (startsWith(head, JPEG_SIGNATURE)) {
+            return "image/jpeg";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, byte[] signature) {
+        for (int i = 0; i < signature.length; i++) {
+            if (head[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.bananabill.service;
 
+import com.bananabill.client.OutboundHttpClient;
 import com.bananabill.exception.ValidationException;
 import com.bananabill.model.Otp;
 import com.bananabill.repository.OtpRepository;
@@ -9,7 +10,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Instant;
@@ -23,18 +23,21 @@ public class OtpService {
     private final JwtTokenProvider jwtTokenProvider;
     private final String fast2SmsApiKey;
     private final String frontendUrl;
+    private final OutboundHttpClient outboundHttpClient;
 
     public OtpService(
             OtpRepository otpRepository,
             PasswordEncoder passwordEncoder,
             JwtTokenProvider jwtTokenProvider,
             @Value("${fast2sms.api.key:}") String fast2SmsApiKey,
-            @Value("${frontend.url:http://localhost:5173}") String frontendUrl) {
+            @Value("${frontend.url:http://localhost:5173}") String frontendUrl,
+            OutboundHttpClient outboundHttpClient) {
         this.otpRepository = otpRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.fast2SmsApiKey = fast2SmsApiKey;
         this.frontendUrl = frontendUrl;
+        this.outboundHttpClient = outboundHttpClient;
     }
 
     public boolean sendOtp(String mobile, String action) throws Exception {
@@ -49,18 +52,17 @@ public class OtpService {
         if (fast2SmsApiKey != null && !fast2SmsApiKey.isBlank()) {
             String message = String.format("Your Banana Bill OTP is %s. Valid for 5 minutes.", otp);
 
-            HttpClient client = HttpClient.newHttpClient();
             String body = String.format("{\"route\":\"q\",\"message\":\"%s\",\"language\":\"english\",\"flash\":0,\"numbers\":\"%s\"}",
                     message.replace("\"", "\\\""), mobile);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://www.fast2sms.com/dev/bulkV2"))
+            // Pooled client: timeout, retries and circuit breaker per integrations.fast2sms
+            HttpRequest.Builder request = HttpRequest.newBuilder()
+                    .uri(URI.create(outboundHttpClient.baseUrl("fast2sms") + "/dev/bulkV2"))
                     .header("authorization", fast2SmsApiKey)
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .build();
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = outboundHttpClient.send("fast2sms", request);
             // best-effort: consider non-200 as failure
             return response.statusCode() >= 200 && response.statusCode() < 300;
         }
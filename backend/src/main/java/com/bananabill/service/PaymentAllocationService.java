@@ -0,0 +1,389 @@
+package com.bananabill.service;
+
+import com.bananabill.config.BillingConfig;
+import com.bananabill.dto.AllocatePaymentRequest;
+import com.bananabill.dto.response.PaymentAllocationResult;
+import com.bananabill.dto.response.PaymentAllocationResult.BillAllocation;
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.exception.PaymentException;
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+import com.bananabill.model.PaymentHistory;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.User;
+import com.bananabill.util.SecurityUtils;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Payment Allocation Service - Applies one lump-sum payment across many bills
+ *
+ * - Oldest unpaid/partial bills first, or the bills the trader picked, in order
+ * - Whatever is left after every bill is settled becomes advance on the last bill,
+ *   and goes into the farmer's advance pool for their next bills
+ * - One ordered bulk write for the bills (version-checked) and one insert for
+ *   the payment history rows, instead of a round trip per bill
+ * - With mongo.transactions.enabled both writes commit together; without it a
+ *   version conflict or a failed history insert undoes the bills already
+ *   written before failing
+ */
+@Service
+public class PaymentAllocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentAllocationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final BillingConfig billingConfig;
+    private final BillReadCache billCache;
+    private final DomainEventPublisher eventPublisher;
+    private final AdvancePoolService advancePool;
+    private final int maxBills;
+
+    public PaymentAllocationService(MongoTemplate mongoTemplate,
+            BillingConfig billingConfig,
+            BillReadCache billCache,
+            DomainEventPublisher eventPublisher,
+            AdvancePoolService advancePool,
+            @Value("${payments.allocation.max-bills:500}") int maxBills) {
+        this.mongoTemplate = mongoTemplate;
+        this.billingConfig = billingConfig;
+        this.billCache = billCache;
+        this.eventPublisher = eventPublisher;
+        this.advancePool = advancePool;
+        this.maxBills = maxBills;
+    }
+
+    /**
+     * Spread a payment over the farmer's bills and record one history row per bill
+     */
+    @Transactional
+    public PaymentAllocationResult allocate(AllocatePaymentRequest request) {
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw PaymentException.invalidAmount();
+        }
+        BigDecimal amount = scaleMoney(request.getAmount());
+        List<String> billIds = request.getBillIds();
+        boolean chosen = billIds != null && !billIds.isEmpty();
+
+        List<Bill> bills = chosen
+                ? findChosenBills(request.getFarmerId(), billIds)
+                : findUnpaidBills(request.getFarmerId());
+        List<Allocation> allocations = plan(request.getFarmerId(), bills, amount, !chosen && bills.size() == maxBills);
+
+        User currentUser = SecurityUtils.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        allocations.forEach(allocation -> allocation.apply(currentUser.getId(), now));
+
+        writeBills(allocations);
+
+        String allocationId = new ObjectId().toHexString();
+        recordPaymentHistory(allocations, allocationId, request, currentUser, now);
+
+        for (Allocation allocation : allocations) {
+            billCache.evict(allocation.bill.getId());
+            eventPublisher.publish(PaymentRecorded.of(allocation.bill, allocation.applied, allocation.before));
+        }
+        Allocation last = allocations.get(allocations.size() - 1);
+        advancePool.creditOverpayment(last.bill, last.before);
+
+        BigDecimal advance = last.bill.getAdvanceAmount() != null
+                ? last.bill.getAdvanceAmount().subtract(orZero(last.before.advanceAmount()))
+                : BigDecimal.ZERO;
+        logger.info("Allocated {} across {} bills for farmer {} (advance {})",
+                amount, allocations.size(), request.getFarmerId(), advance);
+
+        return new PaymentAllocationResult(allocationId, request.getFarmerId(), amount, advance,
+                allocations.stream().map(Allocation::toResult).toList());
+    }
+
+    // ==================== BILL SELECTION ====================
+
+    private List<Bill> findUnpaidBills(String farmerId) {
+        Query query = new Query(Criteria.where("farmerId").is(farmerId)
+                .and("paymentStatus").in(null, PaymentStatus.UNPAID, PaymentStatus.PARTIAL))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                .limit(maxBills);
+        return mongoTemplate.find(query, Bill.class);
+    }
+
+    private List<Bill> findChosenBills(String farmerId, List<String> billIds) {
+        if (billIds.size() > maxBills) {
+            throw new ValidationException("billIds", "At most " + maxBills + " bills per allocation");
+        }
+        if (new HashSet<>(billIds).size() != billIds.size()) {
+            throw new ValidationException("billIds", "A bill may only be listed once");
+        }
+
+        Map<String, Bill> found = mongoTemplate.find(new Query(Criteria.where("_id").in(billIds)), Bill.class)
+                .stream()
+                .collect(Collectors.toMap(Bill::getId, Function.identity()));
+
+        List<Bill> bills = new ArrayList<>(billIds.size());
+        for (String billId : billIds) {
+            Bill bill = found.get(billId);
+            if (bill == null) {
+                throw PaymentException.billNotFound(billId);
+            }
+            if (!farmerId.equals(bill.getFarmerId())) {
+                throw new ValidationException("billIds", "Bill " + bill.getBillNumber() + " belongs to another farmer");
+            }
+            if (bill.getPaymentStatus() == PaymentStatus.PAID) {
+                throw PaymentException.alreadyPaid(billId);
+            }
+            bills.add(bill);
+        }
+        return bills;
+    }
+
+    private Bill findLatestBill(String farmerId) {
+        Query query = new Query(Criteria.where("farmerId").is(farmerId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        return mongoTemplate.findOne(query, Bill.class);
+    }
+
+    // ==================== PLANNING ====================
+
+    /**
+     * Decide how much goes to each bill; the excess lands on the last bill as advance
+     *
+     * @param truncated the unpaid bill query hit maxBills, so newer unpaid bills were not loaded
+     */
+    private List<Allocation> plan(String farmerId, List<Bill> bills, BigDecimal amount, boolean truncated) {
+        List<Allocation> allocations = new ArrayList<>();
+        BigDecimal remaining = amount;
+
+        for (Bill bill : bills) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal owed = orZero(bill.getNetAmount()).subtract(orZero(bill.getPaidAmount()));
+            if (owed.signum() <= 0) {
+                continue;
+            }
+            BigDecimal applied = remaining.min(owed);
+            allocations.add(new Allocation(bill, applied));
+            remaining = remaining.subtract(applied);
+        }
+
+        if (remaining.signum() > 0) {
+            if (truncated) {
+                throw new ValidationException("amount",
+                        "Payment covers more than " + maxBills + " bills; choose the bills or pay in parts");
+            }
+            if (!billingConfig.isTrackOverpayment()) {
+                Bill last = allocations.isEmpty() ? null : allocations.get(allocations.size() - 1).bill;
+                throw PaymentException.overpaymentNotAllowed(last != null ? last.getId() : null);
+            }
+            if (allocations.isEmpty()) {
+                Bill latest = findLatestBill(farmerId);
+                if (latest == null) {
+                    throw PaymentException.nothingToAllocate(farmerId);
+                }
+                Allocation advance = new Allocation(latest, remaining);
+                advance.advance = remaining;
+                allocations.add(advance);
+            } else {
+                Allocation last = allocations.get(allocations.size() - 1);
+                last.applied = last.applied.add(remaining);
+                last.advance = remaining;
+            }
+        }
+        return allocations;
+    }
+
+    // ==================== WRITES ====================
+
+    private void writeBills(List<Allocation> allocations) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Bill.class);
+        for (Allocation allocation : allocations) {
+            Bill bill = allocation.bill;
+            bulk.updateOne(versionQuery(bill.getId(), allocation.expectedVersion), new Update()
+                    .set("paidAmount", bill.getPaidAmount())
+                    .set("advanceAmount", bill.getAdvanceAmount())
+                    .set("paymentStatus", bill.getPaymentStatus())
+                    .set("paymentDate", bill.getPaymentDate())
+                    .set("updatedAt", bill.getUpdatedAt())
+                    .set("updatedBy", bill.getUpdatedBy())
+                    .inc("version", 1));
+        }
+
+        BulkWriteResult result = bulk.execute();
+        if (result.getMatchedCount() == allocations.size()) {
+            allocations.forEach(allocation -> allocation.bill.setVersion(nextVersion(allocation.expectedVersion)));
+            return;
+        }
+
+        logger.warn("Payment allocation conflict: {} of {} bills changed concurrently",
+                allocations.size() - result.getMatchedCount(), allocations.size());
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // No transaction to roll back: put back the bills this allocation did write
+            undo(allocations);
+        }
+        throw PaymentException.concurrentUpdate();
+    }
+
+    private void undo(List<Allocation> allocations) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class);
+        for (Allocation allocation : allocations) {
+            BillBalance before = allocation.before;
+            bulk.updateOne(versionQuery(allocation.bill.getId(), nextVersion(allocation.expectedVersion)), new Update()
+                    .set("paidAmount", before.paidAmount())
+                    .set("advanceAmount", before.advanceAmount())
+                    .set("paymentStatus", before.paymentStatus())
+                    .set("paymentDate", allocation.previousPaymentDate)
+                    .inc("version", 1));
+        }
+        int undone = bulk.execute().getModifiedCount();
+        logger.info("Undid {} bill updates of the conflicting allocation", undone);
+    }
+
+    private static Query versionQuery(String billId, Long version) {
+        return new Query(Criteria.where("_id").is(billId).and("version").is(version));
+    }
+
+    private static Long nextVersion(Long version) {
+        return version != null ? version + 1 : 1L;
+    }
+
+    /**
+     * One PAYMENT row per bill for what settled it; an overpayment gets its
+     * own ADVANCE_RECEIVED row so history totals tell payments and advance apart
+     */
+    private void recordPaymentHistory(List<Allocation> allocations, String allocationId,
+            AllocatePaymentRequest request, User currentUser, LocalDateTime now) {
+        List<PaymentHistory> rows = new ArrayList<>(allocations.size() + 1);
+        for (Allocation allocation : allocations) {
+            BigDecimal previousPaid = orZero(allocation.before.paidAmount());
+            BigDecimal payment = allocation.applied.subtract(allocation.advance);
+            if (payment.signum() > 0) {
+                rows.add(historyRow(allocation, payment, previousPaid, previousPaid.add(payment),
+                        PaymentHistory.PaymentType.PAYMENT, allocationId, request, currentUser, now));
+            }
+            if (allocation.advance.signum() > 0) {
+                rows.add(historyRow(allocation, allocation.advance, previousPaid.add(payment),
+                        allocation.bill.getPaidAmount(), PaymentHistory.PaymentType.ADVANCE_RECEIVED,
+                        allocationId, request, currentUser, now));
+            }
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Part of the transaction: a failure here rolls the bills back too
+            mongoTemplate.insert(rows, PaymentHistory.class);
+            return;
+        }
+        try {
+            mongoTemplate.insert(rows, PaymentHistory.class);
+        } catch (Exception e) {
+            // No transaction: a payment without its audit rows must not stand
+            logger.error("Failed to record payment history for allocation {}; undoing the payment",
+                    allocationId, e);
+            mongoTemplate.remove(new Query(Criteria.where("allocationId").is(allocationId)), PaymentHistory.class);
+            undo(allocations);
+            throw PaymentException.notRecorded();
+        }
+    }
+
+    private PaymentHistory historyRow(Allocation allocation, BigDecimal amount, BigDecimal previousPaid,
+            BigDecimal newPaid, PaymentHistory.PaymentType type, String allocationId,
+            AllocatePaymentRequest request, User currentUser, LocalDateTime now) {
+        Bill bill = allocation.bill;
+        PaymentHistory history = new PaymentHistory();
+        history.setBillId(bill.getId());
+        history.setBillNumber(bill.getBillNumber());
+        history.setFarmerId(bill.getFarmerId());
+        if (bill.getFarmer() != null) {
+            history.setFarmerName(bill.getFarmer().getName());
+            history.setFarmerMobile(bill.getFarmer().getMobileNumber());
+        }
+        history.setAmount(amount);
+        history.setPreviousPaidAmount(previousPaid);
+        history.setNewPaidAmount(newPaid);
+        history.setBillNetAmount(bill.getNetAmount());
+        history.setPaymentType(type);
+        history.setPaymentMethod(request.getPaymentMethod());
+        history.setTransactionRef(request.getTransactionRef());
+        history.setNotes(request.getNotes());
+        history.setAllocationId(allocationId);
+        history.setCreatedBy(currentUser.getId());
+        history.setCreatedByName(currentUser.getName());
+        history.setCreatedAt(now);
+        return history;
+    }
+
+    // ==================== HELPERS ====================
+
+    private BigDecimal scaleMoney(BigDecimal value) {
+        return value.setScale(billingConfig.getMoneyScale(), billingConfig.getRoundingMode());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * One bill's share of the payment, with what is needed to write or undo it
+     */
+    private final class Allocation {
+        final Bill bill;
+        final BillBalance before;
+        final Long expectedVersion;
+        final LocalDateTime previousPaymentDate;
+        BigDecimal applied;
+        /** Part of applied beyond what the bill owed */
+        BigDecimal advance = BigDecimal.ZERO;
+
+        Allocation(Bill bill, BigDecimal applied) {
+            this.bill = bill;
+            this.before = BillBalance.of(bill);
+            this.expectedVersion = bill.getVersion();
+            this.previousPaymentDate = bill.getPaymentDate();
+            this.applied = applied;
+        }
+
+        void apply(String userId, LocalDateTime now) {
+            BigDecimal netAmount = orZero(bill.getNetAmount());
+            BigDecimal newPaid = scaleMoney(orZero(bill.getPaidAmount()).add(applied));
+            bill.setPaidAmount(newPaid);
+            if (newPaid.compareTo(netAmount) >= 0) {
+                bill.setPaymentStatus(PaymentStatus.PAID);
+                if (newPaid.compareTo(netAmount) > 0) {
+                    bill.setAdvanceAmount(scaleMoney(newPaid.subtract(netAmount)));
+                }
+            } else {
+                bill.setPaymentStatus(PaymentStatus.PARTIAL);
+            }
+            bill.setPaymentDate(now);
+            bill.setUpdatedAt(now);
+            bill.setUpdatedBy(userId);
+        }
+
+        BillAllocation toResult() {
+            BigDecimal outstanding = orZero(bill.getNetAmount()).subtract(bill.getPaidAmount()).max(BigDecimal.ZERO);
+            return new BillAllocation(bill.getId(), bill.getBillNumber(), applied, bill.getPaidAmount(),
+                    outstanding, bill.getPaymentStatus());
+        }
+    }
+}
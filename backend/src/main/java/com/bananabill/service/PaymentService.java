@@ -1,8 +1,11 @@
 package com.bananabill.service;
 
 import com.bananabill.config.BillingConfig;
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.PaymentRecorded;
 import com.bananabill.exception.PaymentException;
 import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
 import com.bananabill.model.PaymentHistory;
 import com.bananabill.model.PaymentStatus;
 import com.bananabill.model.User;
@@ -34,13 +37,22 @@ public class PaymentService {
     private final BillRepository billRepository;
     private final PaymentHistoryRepository paymentHistoryRepository;
     private final BillingConfig billingConfig;
+    private final BillReadCache billCache;
+    private final DomainEventPublisher eventPublisher;
+    private final AdvancePoolService advancePool;
 
     public PaymentService(BillRepository billRepository,
             PaymentHistoryRepository paymentHistoryRepository,
-            BillingConfig billingConfig) {
+            BillingConfig billingConfig,
+            BillReadCache billCache,
+            DomainEventPublisher eventPublisher,
+            AdvancePoolService advancePool) {
         this.billRepository = billRepository;
         this.paymentHistoryRepository = paymentHistoryRepository;
         this.billingConfig = billingConfig;
+        this.billCache = billCache;
+        this.eventPublisher = eventPublisher;
+        this.advancePool = advancePool;
     }
 
     /**
@@ -52,6 +64,7 @@ public class PaymentService {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> PaymentException.billNotFound(billId));
 
+        BillBalance before = BillBalance.of(bill);
         BigDecimal currentPaid = getCurrentPaidAmount(bill);
         BigDecimal newPaidAmount = currentPaid.add(amount);
         BigDecimal netAmount = bill.getNetAmount() != null ? bill.getNetAmount() : BigDecimal.ZERO;
@@ -63,6 +76,9 @@ public class PaymentService {
                 amount, billId, bill.getPaymentStatus());
 
         Bill savedBill = billRepository.save(bill);
+        billCache.evict(savedBill.getId());
+        eventPublisher.publish(PaymentRecorded.of(savedBill, amount, before));
+        advancePool.creditOverpayment(savedBill, before);
         recordPaymentHistory(savedBill, amount, currentPaid, newPaidAmount,
                 PaymentHistory.PaymentType.PAYMENT, null, null);
 
@@ -76,13 +92,19 @@ public class PaymentService {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> PaymentException.billNotFound(billId));
 
+        BillBalance before = BillBalance.of(bill);
+        BigDecimal previousPaid = getCurrentPaidAmount(bill);
         bill.setPaymentStatus(PaymentStatus.PAID);
         bill.setPaidAmount(bill.getNetAmount());
         bill.setPaymentDate(LocalDateTime.now());
         bill.setUpdatedAt(LocalDateTime.now());
         bill.setUpdatedBy(getCurrentUser().getId());
 
-        return billRepository.save(bill);
+        Bill savedBill = billRepository.save(bill);
+        billCache.evict(savedBill.getId());
+        BigDecimal paidDelta = getCurrentPaidAmount(savedBill).subtract(previousPaid);
+        eventPublisher.publish(PaymentRecorded.of(savedBill, paidDelta, before));
+        return savedBill;
     }
 
     /**
@@ -96,6 +118,8 @@ public class PaymentService {
         Bill bill = billRepository.findById(billId)
                 .orElseThrow(() -> PaymentException.billNotFound(billId));
 
+        BillBalance before = BillBalance.of(bill);
+        BigDecimal previousPaid = getCurrentPaidAmount(bill);
         bill.setPaymentStatus(status);
         if (paidAmount != null) {
             bill.setPaidAmount(scaleMoney(paidAmount));
@@ -106,7 +130,11 @@ public class PaymentService {
         bill.setUpdatedAt(LocalDateTime.now());
         bill.setUpdatedBy(getCurrentUser().getId());
 
-        return billRepository.save(bill);
+        Bill savedBill = billRepository.save(bill);
+        billCache.evict(savedBill.getId());
+        BigDecimal paidDelta = getCurrentPaidAmount(savedBill).subtract(previousPaid);
+        eventPublisher.publish(PaymentRecorded.of(savedBill, paidDelta, before));
+        return savedBill;
     }
 
     /**
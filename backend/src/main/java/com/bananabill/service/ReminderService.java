@@ -0,0 +1,340 @@
+package com.bananabill.service;
+
+import com.bananabill.job.JobContext;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.ReminderClaim;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reminder Service - WhatsApp reminders for overdue bills
+ *
+ * Runs as the overdue-reminders cluster job (OverdueReminderJob), so one
+ * node sweeps at a time and the send budget holds for the whole cluster.
+ *
+ * - Scan: overdue bills are read in keyset pages over idx_bill_overdue_scan
+ *   (paymentStatus, dueDate, _id), which serves the sort without an in-memory
+ *   stage; each page's reminders go out before the next page is read, so no
+ *   cursor stays open and memory holds one page
+ * - Group: one message per trader and farmer listing all their overdue bills,
+ *   read when the farmer first shows up in the scan
+ * - Cool-down: a farmer is reminded at most once per reminders.cooldown-hours;
+ *   the reminder_claims record decides which node sends, then the bills'
+ *   lastReminderSent is set in one bulk update
+ * - Budget: messages are spaced to reminders.max-per-minute, and a run stops
+ *   after reminders.max-per-run; the rest go out on the next run
+ */
+@Service
+public class ReminderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderService.class);
+
+    private static final int LISTED_BILLS = 5;
+
+    private static final String[] SCAN_FIELDS = {
+            "farmerId", "farmer", "createdBy", "billNumber", "netAmount", "paidAmount", "dueDate" };
+
+    private final MongoTemplate mongoTemplate;
+    private final WhatsAppService whatsAppService;
+    private final BillReadCache billCache;
+    private final Duration cooldown;
+    private final int pageSize;
+    private final int maxPerMinute;
+    private final int maxPerRun;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReminderService(MongoTemplate mongoTemplate,
+            WhatsAppService whatsAppService,
+            BillReadCache billCache,
+            MeterRegistry meterRegistry,
+            @Value("${reminders.cooldown-hours:72}") long cooldownHours,
+            @Value("${reminders.page-size:500}") int pageSize,
+            @Value("${reminders.max-per-minute:30}") int maxPerMinute,
+            @Value("${reminders.max-per-run:2000}") int maxPerRun) {
+        this.mongoTemplate = mongoTemplate;
+        this.whatsAppService = whatsAppService;
+        this.billCache = billCache;
+        this.cooldown = Duration.ofHours(cooldownHours);
+        this.pageSize = pageSize;
+        this.maxPerMinute = maxPerMinute;
+        this.maxPerRun = maxPerRun;
+        this.sentCounter = meterRegistry.counter("reminders.sent");
+        this.failedCounter = meterRegistry.counter("reminders.failed");
+    }
+
+    /**
+     * Send one reminder per farmer with overdue bills outside the cool-down
+     *
+     * Stops early (LeaseLostException) once another node may have taken over
+     * the run; every farmer already messaged keeps its claim.
+     */
+    public RunReport run(JobContext context) {
+        if (!whatsAppService.isConfigured()) {
+            logger.warn("Overdue reminders enabled but Twilio is not configured - skipping run");
+            return RunReport.EMPTY;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return RunReport.EMPTY;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            Criteria overdue = overdue(now, now.minus(cooldown));
+
+            SendBudget budget = new SendBudget(maxPerMinute);
+            Set<String> seen = new HashSet<>();
+            int sent = 0;
+            int skipped = 0;
+            int failed = 0;
+            LocalDateTime lastDue = null;
+            String lastId = null;
+            scan:
+            while (sent < maxPerRun) {
+                List<Bill> page = nextPage(overdue, lastDue, lastId);
+                for (Bill bill : page) {
+                    if (sent >= maxPerRun) {
+                        break scan;
+                    }
+                    if (!seen.add(ReminderClaim.idOf(bill.getCreatedBy(), bill.getFarmerId()))) {
+                        continue;
+                    }
+                    context.checkLease();
+                    switch (send(reminderFor(bill, overdue), budget)) {
+                        case SENT -> sent++;
+                        case SKIPPED -> skipped++;
+                        case FAILED -> failed++;
+                        case INTERRUPTED -> {
+                            break scan;
+                        }
+                    }
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                Bill last = page.get(page.size() - 1);
+                lastDue = last.getDueDate();
+                lastId = last.getId();
+            }
+
+            RunReport report = new RunReport(seen.size(), sent, skipped, failed);
+            logger.info("Overdue reminders: {} farmers due, {} sent, {} skipped, {} failed in {}ms",
+                    report.farmers(), sent, skipped, failed, System.currentTimeMillis() - start);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SendResult send(Reminder reminder, SendBudget budget) {
+        if (reminder.mobileNumber == null || reminder.mobileNumber.isBlank() || reminder.billIds.isEmpty()) {
+            return SendResult.SKIPPED;
+        }
+        Instant sentAt = Instant.now();
+        if (!claim(reminder, sentAt)) {
+            // Another node reminded this farmer within the cool-down
+            return SendResult.SKIPPED;
+        }
+        try {
+            budget.acquire();
+            whatsAppService.sendTextMessage(reminder.mobileNumber, reminder.message());
+            markReminded(reminder, sentAt);
+            sentCounter.increment();
+            return SendResult.SENT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unclaim(reminder, sentAt);
+            return SendResult.INTERRUPTED;
+        } catch (RuntimeException e) {
+            logger.warn("Overdue reminder to farmer {} failed: {}", reminder.farmerId, e.getMessage());
+            unclaim(reminder, sentAt);
+            failedCounter.increment();
+            return SendResult.FAILED;
+        }
+    }
+
+    // ==================== SCAN ====================
+
+    private static Criteria overdue(LocalDateTime now, LocalDateTime cutoff) {
+        return Criteria.where("paymentStatus").in(PaymentStatus.UNPAID, PaymentStatus.PARTIAL)
+                .and("dueDate").lt(now)
+                .orOperator(Criteria.where("lastReminderSent").is(null),
+                        Criteria.where("lastReminderSent").lt(cutoff));
+    }
+
+    /**
+     * Next keyset page of overdue bills, oldest due date first
+     * Only one page is held at a time; its reminders go out before the next is read
+     */
+    private List<Bill> nextPage(Criteria overdue, LocalDateTime lastDue, String lastId) {
+        Criteria page = lastId == null ? overdue
+                : new Criteria().andOperator(overdue, new Criteria().orOperator(
+                        Criteria.where("dueDate").gt(lastDue),
+                        Criteria.where("dueDate").is(lastDue).and("id").gt(lastId)));
+        Query query = new Query(page)
+                .with(Sort.by(Sort.Direction.ASC, "dueDate", "id"))
+                .limit(pageSize);
+        query.fields().include(SCAN_FIELDS);
+        return mongoTemplate.find(query, Bill.class);
+    }
+
+    /**
+     * All overdue bills of the farmer behind this bill, for one message
+     * A farmer's bills can span pages; reading them together keeps the message
+     * complete and marks them all, so later pages skip the farmer
+     */
+    private Reminder reminderFor(Bill first, Criteria overdue) {
+        Query query = new Query(new Criteria().andOperator(overdue,
+                Criteria.where("createdBy").is(first.getCreatedBy()).and("farmerId").is(first.getFarmerId())))
+                .with(Sort.by(Sort.Direction.ASC, "dueDate", "id"));
+        query.fields().include(SCAN_FIELDS);
+        Reminder reminder = new Reminder(first.getCreatedBy(), first.getFarmerId(), first.getFarmer());
+        mongoTemplate.find(query, Bill.class).forEach(reminder::add);
+        return reminder;
+    }
+
+    // ==================== CLAIM ====================
+
+    /**
+     * Move the farmer's claim to sentAt unless it was moved within the cool-down
+     *
+     * A fresh claim does not match the query, so the upsert tries to insert the
+     * same _id and fails: exactly one node wins.
+     */
+    private boolean claim(Reminder reminder, Instant sentAt) {
+        String id = ReminderClaim.idOf(reminder.traderId, reminder.farmerId);
+        try {
+            mongoTemplate.upsert(
+                    new Query(Criteria.where("_id").is(id).and("sentAt").lt(sentAt.minus(cooldown))),
+                    new Update()
+                            .set("traderId", reminder.traderId)
+                            .set("farmerId", reminder.farmerId)
+                            .set("sentAt", sentAt)
+                            .set("billCount", reminder.billIds.size())
+                            .set("expiresAt", sentAt.plus(cooldown)),
+                    ReminderClaim.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void unclaim(Reminder reminder, Instant sentAt) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(ReminderClaim.idOf(reminder.traderId, reminder.farmerId))
+                .and("sentAt").is(sentAt)), ReminderClaim.class);
+    }
+
+    private void markReminded(Reminder reminder, Instant sentAt) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(reminder.billIds)),
+                new Update().set("lastReminderSent", LocalDateTime.ofInstant(sentAt, ZoneId.systemDefault())),
+                Bill.class);
+        billCache.evictAll(reminder.billIds);
+    }
+
+    // ==================== TYPES ====================
+
+    public record RunReport(int farmers, int sent, int skipped, int failed) {
+        static final RunReport EMPTY = new RunReport(0, 0, 0, 0);
+    }
+
+    private enum SendResult {
+        SENT,
+        SKIPPED,
+        FAILED,
+        INTERRUPTED
+    }
+
+    /**
+     * Overdue bills of one farmer for one trader
+     */
+    static final class Reminder {
+
+        final String traderId;
+        final String farmerId;
+        final String farmerName;
+        final String mobileNumber;
+        final List<String> billIds = new ArrayList<>();
+        final List<String> billNumbers = new ArrayList<>();
+        BigDecimal outstanding = BigDecimal.ZERO;
+
+        Reminder(String traderId, String farmerId, FarmerSnapshot farmer) {
+            this.traderId = traderId;
+            this.farmerId = farmerId;
+            this.farmerName = farmer != null ? farmer.getName() : null;
+            this.mobileNumber = farmer != null ? farmer.getMobileNumber() : null;
+        }
+
+        void add(Bill bill) {
+            billIds.add(bill.getId());
+            billNumbers.add(bill.getBillNumber());
+            BigDecimal net = bill.getNetAmount() != null ? bill.getNetAmount() : BigDecimal.ZERO;
+            BigDecimal paid = bill.getPaidAmount() != null ? bill.getPaidAmount() : BigDecimal.ZERO;
+            outstanding = outstanding.add(net.subtract(paid).max(BigDecimal.ZERO));
+        }
+
+        String message() {
+            String listed = String.join(", ", billNumbers.subList(0, Math.min(LISTED_BILLS, billNumbers.size())));
+            if (billNumbers.size() > LISTED_BILLS) {
+                listed += " (+" + (billNumbers.size() - LISTED_BILLS) + " more)";
+            }
+            return String.format(
+                    "🍌 *Banana Bill*\n\n" +
+                            "👤 Name: %s\n" +
+                            "⏰ Overdue bills: %d\n" +
+                            "📋 Bill No: %s\n" +
+                            "💰 Pending Amount: ₹%,.0f\n\n" +
+                            "Thank you!",
+                    farmerName != null ? farmerName : "",
+                    billIds.size(),
+                    listed,
+                    outstanding.doubleValue());
+        }
+    }
+
+    /**
+     * Spaces sends evenly so a run never exceeds max-per-minute
+     */
+    static final class SendBudget {
+
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        SendBudget(int perMinute) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+        }
+
+        void acquire() throws InterruptedException {
+            long wait = nextSlot - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            nextSlot = Math.max(nextSlot, System.nanoTime()) + intervalNanos;
+        }
+    }
+}
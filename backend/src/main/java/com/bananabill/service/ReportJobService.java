@@ -0,0 +1,468 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.ReportJobRequest;
+import com.bananabill.dto.response.ApiResponse;
+import com.bananabill.exception.ReportJobException;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.ReportJob;
+import com.bananabill.model.ReportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Report Job Service - Runs long reports off the request thread
+ *
+ * - Jobs are stored in report_jobs and run on reportExecutor, at most
+ *   report.jobs.concurrency at a time per node
+ * - Waiting jobs are queued per trader and taken round-robin, so one trader
+ *   submitting many reports cannot starve the others
+ * - The finished report is the same JSON the synchronous endpoint returns,
+ *   gzipped into report_results; jobs and results expire after ttl-hours
+ * - Cancellation is cooperative: a running job checks its status between
+ *   stages and drops its result if it was cancelled meanwhile
+ * - Jobs lost with a node are failed by ReportJobReaper after timeout-minutes
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final List<ReportJob.Status> PENDING = List.of(ReportJob.Status.QUEUED, ReportJob.Status.RUNNING);
+
+    private final ReportService reportService;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor reportExecutor;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+    private final int maxPendingPerUser;
+    private final Duration ttl;
+    private final long maxResultBytes;
+    private final Duration timeout;
+
+    // Waiting job ids per trader, and the order in which traders get their next turn
+    private final Object queueLock = new Object();
+    private final Map<String, Deque<String>> queues = new LinkedHashMap<>();
+    private final Deque<String> turns = new ArrayDeque<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ReportJobService(ReportService reportService,
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            @Qualifier("reportExecutor") Executor reportExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${report.jobs.concurrency:2}") int concurrency,
+            @Value("${report.jobs.max-pending-per-user:5}") int maxPendingPerUser,
+            @Value("${report.jobs.ttl-hours:24}") int ttlHours,
+            @Value("${report.jobs.max-result-bytes:15728640}") long maxResultBytes,
+            @Value("${report.jobs.timeout-minutes:15}") int timeoutMinutes) {
+        this.reportService = reportService;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.reportExecutor = reportExecutor;
+        this.meterRegistry = meterRegistry;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxPendingPerUser = maxPendingPerUser;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.maxResultBytes = maxResultBytes;
+        this.timeout = Duration.ofMinutes(timeoutMinutes);
+        meterRegistry.gauge("report.jobs.queued", queued);
+        meterRegistry.gauge("report.jobs.active", active);
+    }
+
+    // ==================== SUBMIT / POLL ====================
+
+    /**
+     * Validate and queue a report job for the trader
+     */
+    public ReportJob submit(String userId, ReportJobRequest request) {
+        Map<String, String> params = toParams(request);
+
+        long pending = mongoTemplate.count(new Query(Criteria.where("userId").is(userId)
+                .and("status").in(PENDING)), ReportJob.class);
+        if (pending >= maxPendingPerUser) {
+            throw ReportJobException.tooManyJobs(maxPendingPerUser);
+        }
+
+        Instant now = Instant.now();
+        ReportJob job = new ReportJob();
+        job.setUserId(userId);
+        job.setType(request.getType());
+        job.setParams(params);
+        job.setStatus(ReportJob.Status.QUEUED);
+        job.setStage("queued");
+        job.setSubmittedAt(now);
+        job.setExpiresAt(now.plus(ttl));
+        job = mongoTemplate.insert(job);
+
+        logger.info("Queued {} report job {} for user {}", job.getType(), job.getId(), userId);
+        enqueue(userId, job.getId());
+        dispatch();
+        return job;
+    }
+
+    public ReportJob getJob(String userId, String jobId) {
+        ReportJob job = mongoTemplate.findOne(owned(userId, jobId), ReportJob.class);
+        if (job == null) {
+            throw ReportJobException.notFound(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * The trader's jobs, newest first
+     */
+    public List<ReportJob> getJobs(String userId, int limit) {
+        return mongoTemplate.find(new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "submittedAt"))
+                .limit(limit), ReportJob.class);
+    }
+
+    /**
+     * Cancel a queued or running job; finished jobs are returned unchanged
+     */
+    public ReportJob cancel(String userId, String jobId) {
+        Query query = owned(userId, jobId);
+        query.addCriteria(Criteria.where("status").in(PENDING));
+        long matched = mongoTemplate.updateFirst(query, new Update()
+                .set("status", ReportJob.Status.CANCELLED)
+                .set("stage", "cancelled")
+                .set("finishedAt", Instant.now()),
+                ReportJob.class).getMatchedCount();
+
+        if (matched == 1) {
+            synchronized (queueLock) {
+                Deque<String> queue = queues.get(userId);
+                if (queue != null && queue.remove(jobId)) {
+                    queued.decrementAndGet();
+                }
+            }
+            logger.info("Cancelled report job {}", jobId);
+        }
+        return getJob(userId, jobId);
+    }
+
+    /**
+     * Gzipped JSON of a finished report
+     */
+    public byte[] getResult(String userId, String jobId) {
+        ReportJob job = getJob(userId, jobId);
+        if (job.getStatus() != ReportJob.Status.SUCCEEDED) {
+            throw ReportJobException.notReady(jobId, job.getStatus().name());
+        }
+        ReportResult result = mongoTemplate.findOne(owned(userId, jobId), ReportResult.class);
+        if (result == null) {
+            throw ReportJobException.notReady(jobId, "EXPIRED");
+        }
+        return result.getData();
+    }
+
+    // ==================== FAIR QUEUE ====================
+
+    private void enqueue(String userId, String jobId) {
+        synchronized (queueLock) {
+            queues.computeIfAbsent(userId, key -> {
+                turns.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(jobId);
+            queued.incrementAndGet();
+        }
+    }
+
+    /**
+     * Next job in round-robin order over traders, or null if none is waiting
+     */
+    private String nextJob() {
+        while (!turns.isEmpty()) {
+            String userId = turns.pollFirst();
+            Deque<String> queue = queues.get(userId);
+            String jobId = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(userId);
+            } else {
+                turns.addLast(userId);
+            }
+            if (jobId != null) {
+                queued.decrementAndGet();
+                return jobId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hand waiting jobs to reportExecutor while there are free slots
+     */
+    private void dispatch() {
+        while (true) {
+            String jobId;
+            synchronized (queueLock) {
+                if (active.get() >= concurrency) {
+                    return;
+                }
+                jobId = nextJob();
+                if (jobId == null) {
+                    return;
+                }
+                active.incrementAndGet();
+            }
+            try {
+                reportExecutor.execute(() -> runJob(jobId));
+            } catch (RejectedExecutionException e) {
+                active.decrementAndGet();
+                finish(jobId, ReportJob.Status.FAILED, "Report executor is full, please retry later");
+            }
+        }
+    }
+
+    // ==================== EXECUTION ====================
+
+    private void runJob(String jobId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ReportJob.Status outcome = ReportJob.Status.CANCELLED;
+        try {
+            ReportJob job = start(jobId);
+            if (job == null) {
+                return;
+            }
+
+            Map<String, Object> report = generate(job.getType(), job.getParams());
+            if (!advance(jobId, 70, "compressing")) {
+                return;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(report));
+            byte[] compressed = gzip(json);
+            if (compressed.length > maxResultBytes) {
+                outcome = ReportJob.Status.FAILED;
+                finish(jobId, outcome, "Report is too large (" + compressed.length
+                        + " bytes compressed); narrow the date range or leave out bills");
+                return;
+            }
+            if (!advance(jobId, 90, "storing")) {
+                return;
+            }
+
+            ReportResult result = new ReportResult();
+            result.setId(jobId);
+            result.setUserId(job.getUserId());
+            result.setData(compressed);
+            result.setExpiresAt(job.getExpiresAt());
+            mongoTemplate.save(result);
+
+            boolean stored = mongoTemplate.updateFirst(running(jobId), new Update()
+                    .set("status", ReportJob.Status.SUCCEEDED)
+                    .set("progress", 100)
+                    .set("stage", "done")
+                    .set("finishedAt", Instant.now())
+                    .set("resultBytes", (long) json.length)
+                    .set("compressedBytes", (long) compressed.length),
+                    ReportJob.class).getMatchedCount() == 1;
+            if (stored) {
+                outcome = ReportJob.Status.SUCCEEDED;
+                logger.info("Report job {} finished: {} bytes ({} compressed)", jobId, json.length, compressed.length);
+            } else {
+                // Cancelled or timed out while storing
+                mongoTemplate.remove(new Query(Criteria.where("_id").is(jobId)), ReportResult.class);
+            }
+        } catch (Exception e) {
+            outcome = ReportJob.Status.FAILED;
+            logger.error("Report job {} failed: {}", jobId, e.getMessage(), e);
+            finish(jobId, outcome, e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("report.jobs.run", "status", outcome.name()));
+            active.decrementAndGet();
+            dispatch();
+        }
+    }
+
+    /**
+     * QUEUED -> RUNNING; null if the job was cancelled or failed while it waited
+     */
+    private ReportJob start(String jobId) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(jobId).and("status").is(ReportJob.Status.QUEUED));
+        if (mongoTemplate.updateFirst(query, new Update()
+                .set("status", ReportJob.Status.RUNNING)
+                .set("progress", 10)
+                .set("stage", "querying")
+                .set("startedAt", now),
+                ReportJob.class).getMatchedCount() == 0) {
+            return null;
+        }
+        return mongoTemplate.findById(jobId, ReportJob.class);
+    }
+
+    /**
+     * Record progress of a running job
+     *
+     * @return false if the job is no longer running (cancelled or timed out)
+     */
+    private boolean advance(String jobId, int progress, String stage) {
+        return mongoTemplate.updateFirst(running(jobId),
+                new Update().set("progress", progress).set("stage", stage),
+                ReportJob.class).getMatchedCount() == 1;
+    }
+
+    private void finish(String jobId, ReportJob.Status status, String error) {
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(jobId).and("status").in(PENDING)),
+                    new Update()
+                            .set("status", status)
+                            .set("stage", status.name().toLowerCase())
+                            .set("error", error)
+                            .set("finishedAt", Instant.now()),
+                    ReportJob.class);
+        } catch (Exception e) {
+            logger.warn("Could not record outcome of report job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Fail jobs that have been pending longer than the timeout, e.g. because
+     * the node that queued them went down
+     *
+     * @return number of jobs failed
+     */
+    public long failStaleJobs() {
+        Instant now = Instant.now();
+        long failed = mongoTemplate.updateMulti(
+                new Query(Criteria.where("status").in(PENDING).and("submittedAt").lt(now.minus(timeout))),
+                new Update()
+                        .set("status", ReportJob.Status.FAILED)
+                        .set("stage", "failed")
+                        .set("error", "Report did not finish within " + timeout.toMinutes() + " minutes")
+                        .set("finishedAt", now),
+                ReportJob.class).getModifiedCount();
+        if (failed > 0) {
+            logger.warn("Failed {} stale report job(s)", failed);
+        }
+        return failed;
+    }
+
+    // ==================== REPORTS ====================
+
+    private Map<String, Object> generate(ReportJob.Type type, Map<String, String> params) {
+        boolean includeBills = Boolean.parseBoolean(params.getOrDefault("includeBills", "true"));
+        return switch (type) {
+            case MONTHLY -> reportService.getMonthlyReport(Integer.parseInt(params.get("year")),
+                    Integer.parseInt(params.get("month")), includeBills);
+            case DATE_RANGE -> reportService.getDateRangeReport(LocalDate.parse(params.get("startDate")),
+                    LocalDate.parse(params.get("endDate")), includeBills);
+            case SUMMARY -> reportService.getReportSummary(new BillAnalyticsCache.Filter(
+                    params.containsKey("startDate") ? LocalDate.parse(params.get("startDate")) : null,
+                    params.containsKey("endDate") ? LocalDate.parse(params.get("endDate")) : null,
+                    params.get("farmerId"),
+                    params.containsKey("paymentStatus") ? PaymentStatus.valueOf(params.get("paymentStatus")) : null,
+                    params.containsKey("minWeight") ? new BigDecimal(params.get("minWeight")) : null,
+                    params.containsKey("maxWeight") ? new BigDecimal(params.get("maxWeight")) : null));
+        };
+    }
+
+    /**
+     * Check the request up front, so a bad job fails on submit instead of in the queue
+     */
+    static Map<String, String> toParams(ReportJobRequest request) {
+        Map<String, String> params = new LinkedHashMap<>();
+        switch (request.getType()) {
+            case MONTHLY -> {
+                if (request.getYear() == null || request.getMonth() == null) {
+                    throw ReportJobException.invalidRequest("Monthly reports need year and month");
+                }
+                params.put("year", request.getYear().toString());
+                params.put("month", request.getMonth().toString());
+                params.put("includeBills", String.valueOf(!Boolean.FALSE.equals(request.getIncludeBills())));
+            }
+            case DATE_RANGE -> {
+                LocalDate start = parseDate(request.getStartDate(), "startDate");
+                LocalDate end = parseDate(request.getEndDate(), "endDate");
+                if (start == null || end == null) {
+                    throw ReportJobException.invalidRequest("Date range reports need startDate and endDate");
+                }
+                if (end.isBefore(start)) {
+                    throw ReportJobException.invalidRequest("endDate must not be before startDate");
+                }
+                params.put("startDate", start.toString());
+                params.put("endDate", end.toString());
+                params.put("includeBills", String.valueOf(!Boolean.FALSE.equals(request.getIncludeBills())));
+            }
+            case SUMMARY -> {
+                LocalDate start = parseDate(request.getStartDate(), "startDate");
+                LocalDate end = parseDate(request.getEndDate(), "endDate");
+                putIfPresent(params, "startDate", start);
+                putIfPresent(params, "endDate", end);
+                putIfPresent(params, "farmerId",
+                        request.getFarmerId() != null && !request.getFarmerId().isBlank() ? request.getFarmerId() : null);
+                putIfPresent(params, "paymentStatus", request.getPaymentStatus());
+                putIfPresent(params, "minWeight",
+                        request.getMinWeight() != null ? request.getMinWeight().toPlainString() : null);
+                putIfPresent(params, "maxWeight",
+                        request.getMaxWeight() != null ? request.getMaxWeight().toPlainString() : null);
+            }
+        }
+        return params;
+    }
+
+    private static LocalDate parseDate(String value, String field) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ReportJobException.invalidRequest(field + " must be a date (yyyy-MM-dd)");
+        }
+    }
+
+    private static void putIfPresent(Map<String, String> params, String key, Object value) {
+        if (value != null) {
+            params.put(key, value.toString());
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static Query owned(String userId, String jobId) {
+        return new Query(Criteria.where("_id").is(jobId).and("userId").is(userId));
+    }
+
+    private static Query running(String jobId) {
+        return new Query(Criteria.where("_id").is(jobId).and("status").is(ReportJob.Status.RUNNING));
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(512, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -1,98 +1,70 @@
 package com.bananabill.service;
 
+import com.bananabill.config.ReportingMongo;
 import com.bananabill.model.Bill;
-import com.bananabill.repository.BillRepository;
+import com.bananabill.model.PaymentStatus;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
 
-        private final BillRepository billRepository;
+        private final BillAnalyticsCache analyticsCache;
+        private final BillArchiveService archiveService;
+        private final ReportingMongo reportingMongo;
 
-        public ReportService(BillRepository billRepository) {
-                this.billRepository = billRepository;
+        public ReportService(BillAnalyticsCache analyticsCache, BillArchiveService archiveService,
+                        ReportingMongo reportingMongo) {
+                this.analyticsCache = analyticsCache;
+                this.archiveService = archiveService;
+                this.reportingMongo = reportingMongo;
         }
 
         /**
-         * Get monthly report for a specific year and month
+         * Get monthly report statistics, without the bill list
          */
         public Map<String, Object> getMonthlyReport(int year, int month) {
+                return getMonthlyReport(year, month, false);
+        }
+
+        /**
+         * Get monthly report, optionally with the bill list
+         * Statistics come from the analytics cache when it is loaded; without
+         * includeBills no bill is read then, and billsUrl points at the stream
+         */
+        public Map<String, Object> getMonthlyReport(int year, int month, boolean includeBills) {
                 // Get start and end of month
                 YearMonth yearMonth = YearMonth.of(year, month);
                 LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
                 LocalDateTime endOfMonth = yearMonth.atEndOfMonth().atTime(LocalTime.MAX);
 
-                // Get all bills for this month
-                List<Bill> bills = billRepository.findByCreatedAtBetween(startOfMonth, endOfMonth);
+                if (analyticsCache.isReady()) {
+                        Map<String, Object> report = buildCachedReport(
+                                        BillAnalyticsCache.Filter.between(yearMonth.atDay(1), yearMonth.atEndOfMonth()),
+                                        includeBills ? findBills(startOfMonth, endOfMonth)
+                                                        : null);
+                        report.put("year", year);
+                        report.put("month", month);
+                        report.put("monthName", yearMonth.getMonth().toString());
+                        putBillsUrl(report, includeBills, "/api/reports/monthly/bills?year=" + year + "&month=" + month);
+                        return report;
+                }
 
-                // Calculate statistics
-                long totalBills = bills.size();
-
-                double totalAmount = bills.stream()
-                                .mapToDouble(bill -> bill.getNetAmount().doubleValue())
-                                .sum();
-
-                double averageAmount = totalBills > 0 ? totalAmount / totalBills : 0;
-
-                // Total weight
-                double totalWeight = bills.stream()
-                                .mapToDouble(bill -> bill.getFinalNetWeight().doubleValue())
-                                .sum();
-
-                // Get farmer-wise breakdown
-                Map<String, Map<String, Object>> farmerBreakdown = bills.stream()
-                                .collect(Collectors.groupingBy(
-                                                bill -> bill.getFarmer().getId(),
-                                                Collectors.collectingAndThen(
-                                                                Collectors.toList(),
-                                                                farmerBills -> {
-                                                                        Map<String, Object> farmerStats = new HashMap<>();
-                                                                        farmerStats.put("name", farmerBills.get(0)
-                                                                                        .getFarmer().getName());
-                                                                        farmerStats.put("mobile", farmerBills.get(0)
-                                                                                        .getFarmer().getMobileNumber());
-                                                                        farmerStats.put("billCount",
-                                                                                        farmerBills.size());
-                                                                        farmerStats.put("totalAmount", farmerBills
-                                                                                        .stream()
-                                                                                        .mapToDouble(b -> b
-                                                                                                        .getNetAmount()
-                                                                                                        .doubleValue())
-                                                                                        .sum());
-                                                                        farmerStats.put("totalWeight", farmerBills
-                                                                                        .stream()
-                                                                                        .mapToDouble(b -> b
-                                                                                                        .getFinalNetWeight()
-                                                                                                        .doubleValue())
-                                                                                        .sum());
-                                                                        return farmerStats;
-                                                                })));
-
-                // Convert to list and sort by total amount (descending)
-                List<Map<String, Object>> farmerList = new ArrayList<>(farmerBreakdown.values());
-                farmerList.sort((a, b) -> Double.compare(
-                                (Double) b.get("totalAmount"),
-                                (Double) a.get("totalAmount")));
-
-                // Build response
-                Map<String, Object> report = new HashMap<>();
+                Map<String, Object> report = buildDatabaseReport(findBills(startOfMonth, endOfMonth), includeBills);
                 report.put("year", year);
                 report.put("month", month);
                 report.put("monthName", yearMonth.getMonth().toString());
-                report.put("totalBills", totalBills);
-                report.put("totalAmount", Math.round(totalAmount * 100.0) / 100.0);
-                report.put("averageAmount", Math.round(averageAmount * 100.0) / 100.0);
-                report.put("totalWeight", Math.round(totalWeight * 100.0) / 100.0);
-                report.put("farmers", farmerList);
-                report.put("bills", bills);
-
+                putBillsUrl(report, includeBills, "/api/reports/monthly/bills?year=" + year + "&month=" + month);
                 return report;
         }
 
@@ -100,15 +72,23 @@ public class ReportService {
          * Get available months that have bills
          */
         public List<Map<String, Object>> getAvailableMonths() {
-                List<Bill> allBills = billRepository.findAll();
+                List<YearMonth> months;
+                if (analyticsCache.isReady()) {
+                        months = analyticsCache.availableMonths();
+                } else {
+                        months = Stream.concat(
+                                        findCreatedAt().stream()
+                                                        .map(bill -> {
+                                                                LocalDate date = bill.getCreatedAt().toLocalDate();
+                                                                return YearMonth.of(date.getYear(), date.getMonth());
+                                                        }),
+                                        archiveService.getArchivedMonths().stream())
+                                        .distinct()
+                                        .sorted(Comparator.reverseOrder())
+                                        .toList();
+                }
 
-                return allBills.stream()
-                                .map(bill -> {
-                                        LocalDate date = bill.getCreatedAt().toLocalDate();
-                                        return YearMonth.of(date.getYear(), date.getMonth());
-                                })
-                                .distinct()
-                                .sorted(Comparator.reverseOrder())
+                return months.stream()
                                 .map(ym -> {
                                         Map<String, Object> monthInfo = new HashMap<>();
                                         monthInfo.put("year", ym.getYear());
@@ -121,75 +101,208 @@ public class ReportService {
         }
 
         /**
-         * Get report for a specific date range
+         * Get date range report statistics, without the bill list
          */
         public Map<String, Object> getDateRangeReport(LocalDate startDate, LocalDate endDate) {
+                return getDateRangeReport(startDate, endDate, false);
+        }
+
+        /**
+         * Get date range report, optionally with the bill list
+         * Statistics come from the analytics cache when it is loaded; without
+         * includeBills no bill is read then, and billsUrl points at the stream
+         */
+        public Map<String, Object> getDateRangeReport(LocalDate startDate, LocalDate endDate, boolean includeBills) {
                 LocalDateTime startDateTime = startDate.atStartOfDay();
                 LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-                // Get all bills for this date range
-                List<Bill> bills = billRepository.findByCreatedAtBetween(startDateTime, endDateTime);
+                if (analyticsCache.isReady()) {
+                        Map<String, Object> report = buildCachedReport(
+                                        BillAnalyticsCache.Filter.between(startDate, endDate),
+                                        includeBills ? findBills(startDateTime, endDateTime)
+                                                        : null);
+                        report.put("startDate", startDate.toString());
+                        report.put("endDate", endDate.toString());
+                        putBillsUrl(report, includeBills,
+                                        "/api/reports/date-range/bills?startDate=" + startDate + "&endDate=" + endDate);
+                        return report;
+                }
 
-                // Calculate statistics
-                long totalBills = bills.size();
+                Map<String, Object> report = buildDatabaseReport(findBills(startDateTime, endDateTime), includeBills);
+                report.put("startDate", startDate.toString());
+                report.put("endDate", endDate.toString());
+                putBillsUrl(report, includeBills,
+                                "/api/reports/date-range/bills?startDate=" + startDate + "&endDate=" + endDate);
+                return report;
+        }
+
+        /**
+         * Filtered report summary (date, farmer, status, weight band)
+         * Served from the analytics cache; falls back to MongoDB when it is not loaded
+         */
+        public Map<String, Object> getReportSummary(BillAnalyticsCache.Filter filter) {
+                if (analyticsCache.isReady()) {
+                        Map<String, Object> summary = buildCachedReport(filter, null);
+                        summary.put("source", "cache");
+                        return summary;
+                }
+
+                LocalDateTime start = filter.startDate() != null ? filter.startDate().atStartOfDay()
+                                : LocalDateTime.of(1970, 1, 1, 0, 0);
+                LocalDateTime end = filter.endDate() != null ? filter.endDate().atTime(LocalTime.MAX)
+                                : LocalDateTime.now().plusYears(100);
+
+                List<Bill> bills = findBills(start, end).stream()
+                                .filter(bill -> filter.farmerId() == null || filter.farmerId().equals(bill.getFarmerId()))
+                                .filter(bill -> filter.paymentStatus() == null || filter.paymentStatus() == (bill
+                                                .getPaymentStatus() != null ? bill.getPaymentStatus() : PaymentStatus.UNPAID))
+                                .filter(bill -> filter.minWeight() == null || (bill.getFinalNetWeight() != null
+                                                && bill.getFinalNetWeight().compareTo(filter.minWeight()) >= 0))
+                                .filter(bill -> filter.maxWeight() == null || (bill.getFinalNetWeight() != null
+                                                && bill.getFinalNetWeight().compareTo(filter.maxWeight()) <= 0))
+                                .collect(Collectors.toList());
+
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("totalBills", (long) bills.size());
+                summary.put("totalAmount", round(bills.stream()
+                                .mapToDouble(bill -> value(bill.getNetAmount())).sum()));
+                summary.put("totalWeight", round(bills.stream()
+                                .mapToDouble(bill -> value(bill.getFinalNetWeight())).sum()));
+                summary.put("source", "database");
+                return summary;
+        }
+
+        /**
+         * Build report statistics from a parallel scan of the analytics cache
+         */
+        private Map<String, Object> buildCachedReport(BillAnalyticsCache.Filter filter, List<Bill> bills) {
+                BillAnalyticsCache.Aggregate aggregate = analyticsCache.aggregate(filter);
+
+                List<Map<String, Object>> farmerList = new ArrayList<>(aggregate.farmers().size());
+                for (BillAnalyticsCache.FarmerTotals totals : aggregate.farmers()) {
+                        Map<String, Object> farmerStats = new HashMap<>();
+                        farmerStats.put("farmerId", totals.farmerId());
+                        farmerStats.put("name", totals.name());
+                        farmerStats.put("mobile", totals.mobile());
+                        farmerStats.put("billCount", totals.billCount());
+                        farmerStats.put("totalAmount", totals.totalAmount().doubleValue());
+                        farmerStats.put("totalWeight", totals.totalWeight().doubleValue());
+                        farmerList.add(farmerStats);
+                }
+
+                double totalAmount = aggregate.totalAmount().doubleValue();
+                double averageAmount = aggregate.billCount() > 0 ? totalAmount / aggregate.billCount() : 0;
+
+                Map<String, Object> report = new HashMap<>();
+                report.put("totalBills", aggregate.billCount());
+                report.put("totalAmount", round(totalAmount));
+                report.put("averageAmount", round(averageAmount));
+                report.put("totalWeight", round(aggregate.totalWeight().doubleValue()));
+                report.put("outstandingAmount", round(aggregate.outstandingAmount().doubleValue()));
+                report.put("farmers", farmerList);
+                if (bills != null) {
+                        report.put("bills", bills);
+                }
+                return report;
+        }
 
-                double totalAmount = bills.stream()
-                                .mapToDouble(bill -> bill.getNetAmount().doubleValue())
-                                .sum();
-
-                double averageAmount = totalBills > 0 ? totalAmount / totalBills : 0;
-
-                // Total weight
-                double totalWeight = bills.stream()
-                                .mapToDouble(bill -> bill.getFinalNetWeight().doubleValue())
-                                .sum();
-
-                // Get farmer-wise breakdown
-                Map<String, Map<String, Object>> farmerBreakdown = bills.stream()
-                                .collect(Collectors.groupingBy(
-                                                bill -> bill.getFarmer().getId(),
-                                                Collectors.collectingAndThen(
-                                                                Collectors.toList(),
-                                                                farmerBills -> {
-                                                                        Map<String, Object> farmerStats = new HashMap<>();
-                                                                        farmerStats.put("name", farmerBills.get(0)
-                                                                                        .getFarmer().getName());
-                                                                        farmerStats.put("mobile", farmerBills.get(0)
-                                                                                        .getFarmer().getMobileNumber());
-                                                                        farmerStats.put("billCount",
-                                                                                        farmerBills.size());
-                                                                        farmerStats.put("totalAmount", farmerBills
-                                                                                        .stream()
-                                                                                        .mapToDouble(b -> b
-                                                                                                        .getNetAmount()
-                                                                                                        .doubleValue())
-                                                                                        .sum());
-                                                                        farmerStats.put("totalWeight", farmerBills
-                                                                                        .stream()
-                                                                                        .mapToDouble(b -> b
-                                                                                                        .getFinalNetWeight()
-                                                                                                        .doubleValue())
-                                                                                        .sum());
-                                                                        return farmerStats;
-                                                                })));
-
-                // Convert to list and sort by total amount (descending)
-                List<Map<String, Object>> farmerList = new ArrayList<>(farmerBreakdown.values());
+        /**
+         * Same statistics as buildCachedReport, computed from the bills themselves
+         * (analytics cache not loaded); missing amounts and weights count as zero
+         */
+        private Map<String, Object> buildDatabaseReport(List<Bill> bills, boolean includeBills) {
+                Map<String, Map<String, Object>> byFarmer = new LinkedHashMap<>();
+                double totalAmount = 0;
+                double totalWeight = 0;
+                double outstandingAmount = 0;
+                for (Bill bill : bills) {
+                        double amount = value(bill.getNetAmount());
+                        double weight = value(bill.getFinalNetWeight());
+                        totalAmount += amount;
+                        totalWeight += weight;
+                        if (bill.getPaymentStatus() != PaymentStatus.PAID) {
+                                outstandingAmount += Math.max(0, amount - value(bill.getPaidAmount()));
+                        }
+
+                        String farmerId = bill.getFarmerId() != null ? bill.getFarmerId()
+                                        : bill.getFarmer() != null ? bill.getFarmer().getId() : "";
+                        Map<String, Object> farmerStats = byFarmer.computeIfAbsent(farmerId, id -> {
+                                Map<String, Object> stats = new HashMap<>();
+                                stats.put("farmerId", id);
+                                stats.put("name", bill.getFarmer() != null ? bill.getFarmer().getName() : null);
+                                stats.put("mobile", bill.getFarmer() != null ? bill.getFarmer().getMobileNumber() : null);
+                                stats.put("billCount", 0L);
+                                stats.put("totalAmount", 0.0);
+                                stats.put("totalWeight", 0.0);
+                                return stats;
+                        });
+                        farmerStats.put("billCount", (Long) farmerStats.get("billCount") + 1);
+                        farmerStats.put("totalAmount", (Double) farmerStats.get("totalAmount") + amount);
+                        farmerStats.put("totalWeight", (Double) farmerStats.get("totalWeight") + weight);
+                }
+
+                // Sort by total amount (descending)
+                List<Map<String, Object>> farmerList = new ArrayList<>(byFarmer.values());
                 farmerList.sort((a, b) -> Double.compare(
                                 (Double) b.get("totalAmount"),
                                 (Double) a.get("totalAmount")));
 
-                // Build response
+                long totalBills = bills.size();
                 Map<String, Object> report = new HashMap<>();
-                report.put("startDate", startDate.toString());
-                report.put("endDate", endDate.toString());
                 report.put("totalBills", totalBills);
-                report.put("totalAmount", Math.round(totalAmount * 100.0) / 100.0);
-                report.put("averageAmount", Math.round(averageAmount * 100.0) / 100.0);
-                report.put("totalWeight", Math.round(totalWeight * 100.0) / 100.0);
+                report.put("totalAmount", round(totalAmount));
+                report.put("averageAmount", round(totalBills > 0 ? totalAmount / totalBills : 0));
+                report.put("totalWeight", round(totalWeight));
+                report.put("outstandingAmount", round(outstandingAmount));
                 report.put("farmers", farmerList);
-                report.put("bills", bills);
-
+                if (includeBills) {
+                        report.put("bills", bills);
+                }
                 return report;
         }
+
+        /**
+         * Bills created in a range, live from MongoDB plus any archived months
+         * Live bills are read through the reporting pool (see ReportingMongo)
+         */
+        private List<Bill> findBills(LocalDateTime start, LocalDateTime end) {
+                List<Bill> bills = reportingMongo.template().find(
+                                new Query(Criteria.where("createdAt").gt(start).lt(end)), Bill.class);
+                List<Bill> archived = archiveService.findBetween(start, end);
+                if (archived.isEmpty()) {
+                        return bills;
+                }
+                // While a month is being exported its bills are briefly in both; the live copy wins
+                Set<String> liveIds = bills.stream().map(Bill::getId).collect(Collectors.toSet());
+                List<Bill> merged = new ArrayList<>(bills.size() + archived.size());
+                archived.stream().filter(bill -> !liveIds.contains(bill.getId())).forEach(merged::add);
+                merged.addAll(bills);
+                return merged;
+        }
+
+        /**
+         * Creation dates of all live bills, for the month list when the analytics cache is off
+         */
+        private List<Bill> findCreatedAt() {
+                Query query = new Query();
+                query.fields().include("createdAt");
+                return reportingMongo.template().find(query, Bill.class);
+        }
+
+        /**
+         * Without the inline list, tell the client where to stream the bills from
+         */
+        private static void putBillsUrl(Map<String, Object> report, boolean includeBills, String url) {
+                if (!includeBills) {
+                        report.put("billsUrl", url);
+                }
+        }
+
+        private static double value(BigDecimal amount) {
+                return amount != null ? amount.doubleValue() : 0;
+        }
+
+        private static double round(double value) {
+                return Math.round(value * 100.0) / 100.0;
+        }
 }
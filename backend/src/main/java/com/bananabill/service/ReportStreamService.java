@@ -0,0 +1,229 @@
+package com.bananabill.service;
+
+import com.bananabill.config.ReportingMongo;
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.util.RequestDeadline;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Report Stream Service - Streams report bills and bill exports
+ *
+ * - Reactive: with reports.stream.reactive, live bills are read through the
+ *   reactive MongoDB driver (ReportingMongo.reactiveTemplate()), so no
+ *   request thread waits on the query and no list of bills is built;
+ *   otherwise they are read in keyset pages off the request thread
+ * - Backpressure: the HTTP writer requests one bill at a time; the cursor
+ *   (or the next page) fetches its next batch (reports.stream.batch-size)
+ *   only once the previous one is written, so a slow download holds one
+ *   batch, not the whole range
+ * - Bounded: ranges over reports.stream.max-days are refused, and the
+ *   request deadline left when the stream starts is the queries' maxTimeMS
+ *   (the reads run off the request thread, where the deadline is not seen)
+ * - Concurrency: the reporting bulkhead holds a permit for each download
+ *   until it ends, so at most bulkheads.reporting.max-concurrent run at once;
+ *   their blocking reads (pages, archive segments) share a scheduler of that
+ *   many threads instead of the global boundedElastic pool
+ * - Archived months come first, oldest first, one month's segment at a time
+ *
+ * Same bills as ReportService (createdAt strictly inside the range), in
+ * createdAt order.
+ */
+@Service
+public class ReportStreamService {
+
+    static final String CSV_HEADER = "billNumber,createdAt,farmerName,farmerMobile,vehicleNumber,"
+            + "grossWeight,finalNetWeight,ratePerKg,totalAmount,majuri,netAmount,"
+            + "paymentStatus,paidAmount,paymentDate\n";
+
+    private final ReportingMongo reportingMongo;
+    private final BillArchiveService archiveService;
+    private final int batchSize;
+    private final int maxDays;
+    private final Scheduler scheduler;
+
+    public ReportStreamService(ReportingMongo reportingMongo,
+            BillArchiveService archiveService,
+            @Value("${reports.stream.batch-size:200}") int batchSize,
+            @Value("${reports.stream.max-days:366}") int maxDays,
+            @Value("${bulkheads.reporting.max-concurrent:6}") int maxStreams) {
+        this.reportingMongo = reportingMongo;
+        this.archiveService = archiveService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDays = maxDays;
+        // One thread per admitted download; each has at most one read pending
+        int threads = Math.max(1, maxStreams);
+        this.scheduler = Schedulers.newBoundedElastic(threads, threads * 2, "report-stream");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    // ==================== STREAMS ====================
+
+    /**
+     * Bills created within (start, end), archived months first
+     *
+     * @throws ValidationException when the range is reversed or longer than reports.stream.max-days
+     */
+    public Flux<Bill> streamBills(LocalDateTime start, LocalDateTime end) {
+        if (end.isBefore(start)) {
+            throw new ValidationException("endDate", "End date must not be before the start date");
+        }
+        if (Duration.between(start, end).toDays() >= maxDays) {
+            throw new ValidationException("endDate", "Streamed ranges are limited to " + maxDays + " days");
+        }
+        // Captured on the request thread; 0 = no deadline
+        long maxTimeMs = RequestDeadline.isSet() ? RequestDeadline.timeoutMillis(Long.MAX_VALUE) : 0;
+        return Flux.concat(archivedBills(start, end), liveBills(start, end, maxTimeMs));
+    }
+
+    /**
+     * Bills of one month
+     */
+    public Flux<Bill> streamMonth(YearMonth month) {
+        return streamBills(month.atDay(1).atStartOfDay(), month.atEndOfMonth().atTime(LocalTime.MAX));
+    }
+
+    /**
+     * CSV export: a header line, then one line per bill
+     */
+    public Flux<String> exportCsv(LocalDateTime start, LocalDateTime end) {
+        return Flux.concat(Mono.just(CSV_HEADER), streamBills(start, end).map(ReportStreamService::toCsvRow));
+    }
+
+    private Flux<Bill> liveBills(LocalDateTime start, LocalDateTime end, long maxTimeMs) {
+        if (!reportingMongo.isReactive()) {
+            return pagedBills(start, end, maxTimeMs);
+        }
+        Query query = new Query(Criteria.where("createdAt").gt(start).lt(end))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .cursorBatchSize(batchSize);
+        if (maxTimeMs > 0) {
+            // Server time over all of the cursor's batches, not time spent waiting on the client
+            query.maxTimeMsec(maxTimeMs);
+        }
+        return reportingMongo.reactiveTemplate().find(query, Bill.class);
+    }
+
+    /**
+     * Without the reactive pool: one blocking page of batch-size bills at a
+     * time on the shared pool, each fetched only once the previous one is taken
+     */
+    private Flux<Bill> pagedBills(LocalDateTime start, LocalDateTime end, long maxTimeMs) {
+        return fetchPage(start, end, null, maxTimeMs)
+                .expand(page -> page.size() < batchSize ? Mono.empty()
+                        : fetchPage(start, end, page.get(page.size() - 1), maxTimeMs))
+                .concatMapIterable(page -> page, 1);
+    }
+
+    private Mono<List<Bill>> fetchPage(LocalDateTime start, LocalDateTime end, Bill after, long maxTimeMs) {
+        return Mono.fromCallable(() -> {
+            Criteria criteria = Criteria.where("createdAt").gt(start).lt(end);
+            if (after != null) {
+                criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                        Criteria.where("createdAt").gt(after.getCreatedAt()),
+                        Criteria.where("createdAt").is(after.getCreatedAt()).and("_id").gt(after.getId())));
+            }
+            Query query = new Query(criteria)
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                    .limit(batchSize);
+            if (maxTimeMs > 0) {
+                query.maxTimeMsec(maxTimeMs);
+            }
+            return reportingMongo.template().find(query, Bill.class);
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * Segments are memory-mapped files: read each month off the event loop
+     */
+    private Flux<Bill> archivedBills(LocalDateTime start, LocalDateTime end) {
+        YearMonth from = YearMonth.from(start);
+        YearMonth to = YearMonth.from(end);
+        return Flux.defer(() -> Flux.fromIterable(archiveService.getArchivedMonths()))
+                .filter(month -> !month.isBefore(from) && !month.isAfter(to))
+                .sort(Comparator.naturalOrder())
+                .concatMap(month -> Mono.fromCallable(() -> archiveService.findBetween(
+                        later(start, month.atDay(1).atStartOfDay()),
+                        earlier(end, month.atEndOfMonth().atTime(LocalTime.MAX))))
+                        .subscribeOn(scheduler)
+                        .flatMapIterable(bills -> bills
+                                .stream()
+                                .filter(bill -> bill.getCreatedAt() != null
+                                        && bill.getCreatedAt().isAfter(start)
+                                        && bill.getCreatedAt().isBefore(end))
+                                .sorted(Comparator.comparing(Bill::getCreatedAt))
+                                .toList()), 1);
+    }
+
+    // ==================== CSV ====================
+
+    static String toCsvRow(Bill bill) {
+        PaymentStatus status = bill.getPaymentStatus() != null ? bill.getPaymentStatus() : PaymentStatus.UNPAID;
+        return Stream.of(
+                bill.getBillNumber(),
+                bill.getCreatedAt(),
+                bill.getFarmer() != null ? bill.getFarmer().getName() : null,
+                bill.getFarmer() != null ? bill.getFarmer().getMobileNumber() : null,
+                bill.getVehicleNumber(),
+                bill.getGrossWeight(),
+                bill.getFinalNetWeight(),
+                bill.getRatePerKg(),
+                bill.getTotalAmount(),
+                bill.getMajuri(),
+                bill.getNetAmount(),
+                status,
+                bill.getPaidAmount(),
+                bill.getPaymentDate())
+                .map(ReportStreamService::csvField)
+                .collect(Collectors.joining(",", "", "\n"));
+    }
+
+    /**
+     * Quote when needed; text starting like a formula is prefixed with ' so
+     * spreadsheets do not evaluate it (CSV injection)
+     */
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            text = "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime earlier(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -1,8 +1,11 @@
 package com.bananabill.service;
 
+import com.bananabill.client.OutboundHttpClient;
+import com.bananabill.client.TwilioHttpClient;
 import com.bananabill.model.Bill;
 import com.bananabill.security.UrlValidator;
 import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.slf4j.Logger;
@@ -26,6 +29,7 @@ public class WhatsAppService {
     private static final Logger logger = LoggerFactory.getLogger(WhatsAppService.class);
 
     private final ImageUploadService imageUploadService;
+    private final OutboundHttpClient outboundHttpClient;
 
     @Value("${twilio.account.sid}")
     private String accountSid;
@@ -36,8 +40,9 @@ public class WhatsAppService {
     @Value("${twilio.whatsapp.from}")
     private String fromNumber;
 
-    public WhatsAppService(ImageUploadService imageUploadService) {
+    public WhatsAppService(ImageUploadService imageUploadService, OutboundHttpClient outboundHttpClient) {
         this.imageUploadService = imageUploadService;
+        this.outboundHttpClient = outboundHttpClient;
     }
 
     @PostConstruct
@@ -45,12 +50,23 @@ public class WhatsAppService {
         if (accountSid != null && !accountSid.isBlank() &&
                 authToken != null && !authToken.isBlank()) {
             Twilio.init(accountSid, authToken);
+            // Pooled client: timeout, retries and circuit breaker per integrations.twilio
+            Twilio.setRestClient(new TwilioRestClient.Builder(accountSid, authToken)
+                    .httpClient(new TwilioHttpClient(outboundHttpClient))
+                    .build());
             logger.info("Twilio WhatsApp service initialized");
         } else {
             logger.warn("Twilio credentials not configured - WhatsApp disabled");
         }
     }
 
+    /**
+     * Whether Twilio credentials are set, i.e. messages can actually be sent
+     */
+    public boolean isConfigured() {
+        return accountSid != null && !accountSid.isBlank() && authToken != null && !authToken.isBlank();
+    }
+
     /**
      * Send bill to farmer's WhatsApp with image
      * 
@@ -62,7 +78,7 @@ public class WhatsAppService {
      */
     public void sendBillToFarmer(Bill bill, String imageUrl) {
         // Skip if Twilio is not configured
-        if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
+        if (!isConfigured()) {
             logger.warn("Twilio not configured - skipping WhatsApp send for bill {}", bill.getBillNumber());
             throw new RuntimeException(
                     "Twilio WhatsApp is not configured. Please configure TWILIO_ACCOUNT_SID, TWILIO_AUTH_TOKEN, and TWILIO_WHATSAPP_FROM in environment.");
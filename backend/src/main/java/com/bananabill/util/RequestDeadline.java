@@ -0,0 +1,82 @@
+package com.bananabill.util;
+
+import com.bananabill.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of the current request (set by RequestDeadlineFilter)
+ *
+ * Held per thread like the security context: code on the request thread
+ * sees it, background threads have none and are not limited. MongoDB
+ * reads get the remaining time as maxTimeMS, outbound HTTP calls use it
+ * to cap their own timeouts. Once the request has written to MongoDB its
+ * database work is no longer limited, so a flow is never cut off half done.
+ */
+public final class RequestDeadline {
+
+    // System.nanoTime() at which the budget runs out
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    // Set by the first MongoDB write of the request
+    private static final ThreadLocal<Boolean> WRITTEN = new ThreadLocal<>();
+
+    private RequestDeadline() {
+        // Utility class - no instantiation
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+        WRITTEN.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    /**
+     * Record that the request has started writing
+     */
+    public static void markWritten() {
+        WRITTEN.set(Boolean.TRUE);
+    }
+
+    public static boolean hasWritten() {
+        return WRITTEN.get() != null;
+    }
+
+    /**
+     * Milliseconds left (zero or less once passed), Long.MAX_VALUE without a deadline
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * @throws DeadlineExceededException once the budget is used up
+     */
+    public static void check() {
+        if (remainingMillis() <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+
+    /**
+     * Timeout for a call that would otherwise wait up to configuredMillis:
+     * the smaller of the two
+     *
+     * @throws DeadlineExceededException once the budget is used up
+     */
+    public static long timeoutMillis(long configuredMillis) {
+        check();
+        return Math.min(configuredMillis, remainingMillis());
+    }
+}
@@ -0,0 +1,293 @@
+package com.bananabill.client;
+
+import com.bananabill.config.IntegrationConfig;
+import com.bananabill.exception.DeadlineExceededException;
+import com.bananabill.exception.IntegrationUnavailableException;
+import com.bananabill.util.RequestDeadline;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a local stub server standing in for the providers
+ */
+class OutboundHttpClientTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboundHttpClient client;
+
+    // Replies in order; the last one repeats
+    private final Deque<Integer> statuses = new ArrayDeque<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile long delayMs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::reply);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        IntegrationConfig config = new IntegrationConfig();
+        for (IntegrationConfig.Provider provider : config.providers().values()) {
+            provider.setBaseUrl(baseUrl);
+            provider.setTimeoutMs(2000);
+            provider.setRetryBackoffMs(10);
+            provider.setCircuitMinimumCalls(4);
+            provider.setCircuitWindowSize(4);
+            provider.setCircuitOpenMs(60000);
+        }
+        executor = Executors.newFixedThreadPool(2);
+        meterRegistry = new SimpleMeterRegistry();
+        client = new OutboundHttpClient(config, executor, meterRegistry);
+        statuses.add(200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void reply(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        authorizations.add(authorization != null ? authorization : "");
+        int status;
+        synchronized (statuses) {
+            status = statuses.size() > 1 ? statuses.poll() : statuses.peek();
+        }
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "{\"sid\":\"SM123\",\"status\":\"queued\",\"secure_url\":\"https://res.cloudinary.com/x.png\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void replies(Integer... sequence) {
+        synchronized (statuses) {
+            statuses.clear();
+            statuses.addAll(List.of(sequence));
+        }
+    }
+
+    private HttpRequest.Builder get(String provider) {
+        return HttpRequest.newBuilder(URI.create(client.baseUrl(provider) + "/status")).GET();
+    }
+
+    private HttpRequest.Builder post(String provider) {
+        return HttpRequest.newBuilder(URI.create(client.baseUrl(provider) + "/dev/bulkV2"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"numbers\":\"9876543210\"}"));
+    }
+
+    // ==================== CALLS ====================
+
+    @Test
+    void send_ShouldReturnResponseAndRecordLatency() throws Exception {
+        HttpResponse<String> response = client.send("fast2sms", post("fast2sms"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"numbers\":\"9876543210\"}", bodies.get(0));
+        assertEquals(1, meterRegistry.get("integration.requests")
+                .tag("provider", "fast2sms").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void sendAsync_ShouldNotBlockTheCaller() throws Exception {
+        delayMs = 300;
+        long started = System.nanoTime();
+
+        var response = client.sendAsync("cloudinary", post("cloudinary"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 200);
+        assertEquals(200, response.get().statusCode());
+    }
+
+    // ==================== RETRIES ====================
+
+    @Test
+    void send_ShouldRetryWhenProviderWasUnavailable() throws Exception {
+        replies(503, 200);
+
+        HttpResponse<String> response = client.send("fast2sms", get("fast2sms"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, hits.get());
+        assertEquals(1.0, meterRegistry.get("integration.retries").tag("provider", "fast2sms").counter().count());
+    }
+
+    @Test
+    void send_ShouldNotRepeatPostWhenProviderWasUnavailable() throws Exception {
+        replies(503, 200);
+
+        assertEquals(503, client.send("twilio", post("twilio")).statusCode());
+        replies(429, 200);
+        assertEquals(429, client.send("fast2sms", post("fast2sms")).statusCode());
+
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void send_ShouldRetryPostCarryingIdempotencyKey() throws Exception {
+        replies(503, 200);
+
+        HttpResponse<String> response = client.send("fast2sms",
+                post("fast2sms").header("Idempotency-Key", "otp-9876543210-1"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void send_ShouldNotRepeatPostAfterServerError() throws Exception {
+        replies(500, 200);
+
+        HttpResponse<String> response = client.send("twilio", post("twilio"));
+
+        assertEquals(500, response.statusCode());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void send_ShouldRetryIdempotentCallAfterServerError() throws Exception {
+        replies(500, 500, 200);
+
+        HttpResponse<String> response = client.send("cloudinary", get("cloudinary"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void send_ShouldStopRetryingOnceBudgetIsSpent() throws Exception {
+        IntegrationConfig config = new IntegrationConfig();
+        config.getFast2sms().setBaseUrl(client.baseUrl("fast2sms"));
+        config.getFast2sms().setRetryBackoffMs(1);
+        config.getFast2sms().setRetryBudgetRatio(0);
+        config.getFast2sms().setRetryBudgetMax(1);
+        config.getFast2sms().setCircuitMinimumCalls(100);
+        OutboundHttpClient budgeted = new OutboundHttpClient(config, executor, meterRegistry);
+        replies(503);
+
+        assertEquals(503, budgeted.send("fast2sms", get("fast2sms")).statusCode());
+        assertEquals(2, hits.get()); // One retry from the saved token
+        assertEquals(503, budgeted.send("fast2sms", get("fast2sms")).statusCode());
+        assertEquals(3, hits.get()); // Budget spent: no retry
+    }
+
+    // ==================== TIMEOUTS ====================
+
+    @Test
+    void send_ShouldBeCappedByRequestDeadline() {
+        delayMs = 1000;
+        RequestDeadline.start(Duration.ofMillis(200));
+        long started = System.nanoTime();
+
+        assertThrows(HttpTimeoutException.class, () -> client.send("twilio", post("twilio")));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 900);
+        assertEquals(1, meterRegistry.get("integration.requests")
+                .tag("provider", "twilio").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void send_ShouldBeRefusedOnceDeadlineHasPassed() {
+        RequestDeadline.start(Duration.ZERO);
+
+        assertThrows(DeadlineExceededException.class, () -> client.send("fast2sms", post("fast2sms")));
+        assertEquals(0, hits.get());
+    }
+
+    // ==================== CIRCUIT BREAKER ====================
+
+    @Test
+    void circuit_ShouldOpenAfterRepeatedFailuresAndFailFast() throws Exception {
+        replies(500);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(500, client.send("twilio", post("twilio")).statusCode());
+        }
+
+        assertThrows(IntegrationUnavailableException.class, () -> client.send("twilio", post("twilio")));
+        assertEquals(4, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(), meterRegistry.get("integration.circuit.state")
+                .tag("provider", "twilio").gauge().value());
+
+        // Other providers are unaffected
+        replies(200);
+        assertEquals(200, client.send("fast2sms", post("fast2sms")).statusCode());
+    }
+
+    @Test
+    void circuit_ShouldLetOneTrialThroughAfterOpenTimeAndCloseOnSuccess() {
+        long[] now = {0};
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, 1000, () -> now[0]);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now[0] += Duration.ofMillis(1000).toNanos();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire()); // Only one trial at a time
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    // ==================== TWILIO ====================
+
+    @Test
+    void twilioClient_ShouldSendMessageFormThroughSharedClient() {
+        TwilioRestClient restClient = new TwilioRestClient.Builder("AC123", "token")
+                .httpClient(new TwilioHttpClient(client))
+                .build();
+
+        Message message = Message.creator(new PhoneNumber("whatsapp:+919876543210"),
+                new PhoneNumber("whatsapp:+14155238886"), "Bill BB24010001").create(restClient);
+
+        assertEquals("SM123", message.getSid());
+        assertTrue(bodies.get(0).contains("Body=Bill+BB24010001"));
+        assertTrue(authorizations.get(0).startsWith("Basic "));
+        assertEquals(1, meterRegistry.get("integration.requests")
+                .tag("provider", "twilio").tag("outcome", "success").timer().count());
+    }
+}
@@ -0,0 +1,109 @@
+package com.bananabill.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW_MS = 100;
+
+    private long now;
+
+    private AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimit(initial, min, max, 1.5, WINDOW_MS, 0.5, 0.2, () -> now);
+    }
+
+    /**
+     * One sample window: n requests in flight together, each taking rttMs
+     */
+    private void window(AdaptiveConcurrencyLimit limit, int n, long rttMs) {
+        for (int i = 0; i < n; i++) {
+            assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.CRITICAL));
+        }
+        long rtt = TimeUnit.MILLISECONDS.toNanos(rttMs);
+        for (int i = 0; i < n - 1; i++) {
+            limit.onComplete(rtt);
+        }
+        now += TimeUnit.MILLISECONDS.toNanos(WINDOW_MS);
+        limit.onComplete(rtt);
+    }
+
+    // ==================== PRIORITIES ====================
+
+    @Test
+    void lowerPriorities_ShouldGetOnlyPartOfTheLimit() {
+        AdaptiveConcurrencyLimit limit = limit(10, 1, 100);
+
+        assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.LOW));
+        assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.LOW));
+        assertFalse(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.LOW));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.NORMAL));
+        }
+        assertFalse(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.NORMAL));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.CRITICAL));
+        }
+        assertFalse(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.CRITICAL));
+        assertEquals(10, limit.getInFlight());
+
+        limit.onComplete(-1);
+        assertEquals(9, limit.getInFlight());
+        assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.CRITICAL));
+    }
+
+    // ==================== ADAPTATION ====================
+
+    @Test
+    void limit_ShouldShrinkWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = limit(100, 10, 400);
+        window(limit, 20, 10);
+        assertEquals(10.0, limit.getLongRttMs(), 0.01);
+
+        for (int i = 0; i < 10; i++) {
+            window(limit, 20, 100);
+        }
+
+        assertTrue(limit.getLimit() < 50, "limit was " + limit.getLimit());
+        assertEquals(100.0, limit.getRecentRttMs(), 0.01);
+    }
+
+    @Test
+    void limit_ShouldGrowWhileLatencyHoldsUnderLoad() {
+        AdaptiveConcurrencyLimit limit = limit(20, 10, 400);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, limit.getLimit(), 10);
+        }
+
+        assertTrue(limit.getLimit() > 30, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void limit_ShouldNotGrowWhenMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = limit(30, 10, 400);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, 10, 10); // Under half the limit in use
+        }
+
+        assertEquals(30, limit.getLimit());
+    }
+
+    @Test
+    void limit_ShouldStayWithinBounds() {
+        AdaptiveConcurrencyLimit limit = limit(20, 15, 400);
+        window(limit, 10, 1);
+
+        for (int i = 0; i < 50; i++) {
+            window(limit, 10, 1000);
+        }
+
+        assertEquals(15, limit.getLimit());
+    }
+}
@@ -0,0 +1,79 @@
+package com.bananabill.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedLruCacheTest {
+
+    @Test
+    void put_BeyondMaxEntries_ShouldEvictLeastRecentlyUsed() {
+        BoundedLruCache cache = new BoundedLruCache("bills", 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    // ==================== LOADER ====================
+
+    @Test
+    void slowLoad_ShouldNotBlockOtherKeys() throws Exception {
+        BoundedLruCache cache = new BoundedLruCache("bills", 10);
+        cache.put("b", "cached");
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+            loaderStarted.countDown();
+            releaseLoader.await();
+            return "loaded";
+        }));
+        assertTrue(loaderStarted.await(2, TimeUnit.SECONDS));
+
+        // While "a" is loading, other keys are read and written at once
+        CompletableFuture<Object> other = CompletableFuture.supplyAsync(() -> {
+            cache.put("c", "new");
+            return cache.get("b").get();
+        });
+        assertEquals("cached", other.get(2, TimeUnit.SECONDS));
+
+        releaseLoader.countDown();
+        assertEquals("loaded", slow.get(2, TimeUnit.SECONDS));
+        assertEquals("loaded", cache.get("a").get());
+    }
+
+    @Test
+    void concurrentLoadsOfSameKey_ShouldCallLoaderOnce() throws Exception {
+        BoundedLruCache cache = new BoundedLruCache("bills", 10);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+            calls.incrementAndGet();
+            loaderStarted.countDown();
+            releaseLoader.await();
+            return "loaded";
+        }));
+        assertTrue(loaderStarted.await(2, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+            calls.incrementAndGet();
+            return "again";
+        }));
+
+        releaseLoader.countDown();
+        assertEquals("loaded", first.get(2, TimeUnit.SECONDS));
+        assertEquals("loaded", second.get(2, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+}
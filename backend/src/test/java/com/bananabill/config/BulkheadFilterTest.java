@@ -0,0 +1,199 @@
+package com.bananabill.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+    private BulkheadConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new BulkheadConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private BulkheadFilter filter() {
+        return new BulkheadFilter(config, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        return request;
+    }
+
+    private static Bulkhead bulkhead(BulkheadFilter filter, String name) {
+        return filter.getBulkheads().stream().filter(b -> b.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    // ==================== CLASSIFICATION ====================
+
+    @Test
+    void classify_ShouldMapEndpointsToWorkloads() {
+        BulkheadFilter filter = filter();
+
+        assertEquals("entry", filter.classify(request("POST", "/bills")).getName());
+        assertEquals("entry", filter.classify(request("PUT", "/bills/b1")).getName());
+        assertEquals("payment", filter.classify(request("POST", "/bills/b1/record-payment")).getName());
+        assertEquals("reporting", filter.classify(request("GET", "/reports/monthly")).getName());
+        assertEquals("reporting", filter.classify(request("GET", "/reports/monthly/bills")).getName());
+        assertEquals("reporting", filter.classify(request("GET", "/reports/date-range/bills")).getName());
+        assertEquals("reporting", filter.classify(request("GET", "/bills/export")).getName());
+        assertEquals("messaging", filter.classify(request("POST", "/reports/send-statement-whatsapp")).getName());
+        assertEquals("messaging", filter.classify(request("POST", "/bills/b1/send-whatsapp")).getName());
+    }
+
+    @Test
+    void classify_ShouldLeaveOtherRequestsUnlimited() {
+        BulkheadFilter filter = filter();
+
+        assertNull(filter.classify(request("GET", "/bills/b1")));
+        assertNull(filter.classify(request("GET", "/dashboard/stream")));
+        assertNull(filter.classify(request("GET", "/health")));
+    }
+
+    // ==================== LIMITS ====================
+
+    @Test
+    void saturatedWorkload_ShouldGet503WithRetryAfter() throws Exception {
+        config.getReporting().setMaxConcurrent(1);
+        config.getReporting().setMaxQueued(0);
+        BulkheadFilter filter = filter();
+        assertEquals(Bulkhead.Outcome.ACQUIRED, bulkhead(filter, "reporting").acquire());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("GET", "/reports/monthly"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("10", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("reporting"));
+        assertNull(chain.getRequest());
+        assertEquals(1.0, meterRegistry.counter("bulkhead.rejected",
+                "workload", "reporting", "reason", "queue_full").count());
+    }
+
+    @Test
+    void saturatedWorkload_ShouldNotAffectOtherWorkloads() throws Exception {
+        config.getReporting().setMaxConcurrent(1);
+        config.getReporting().setMaxQueued(0);
+        BulkheadFilter filter = filter();
+        bulkhead(filter, "reporting").acquire();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("POST", "/bills"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void permit_ShouldBeReleasedWhenRequestFails() {
+        BulkheadFilter filter = filter();
+        MockFilterChain failing = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                throw new ServletException("boom");
+            }
+        };
+
+        assertThrows(ServletException.class,
+                () -> filter.doFilter(request("POST", "/bills"), new MockHttpServletResponse(), failing));
+        assertEquals(0, bulkhead(filter, "entry").getActive());
+    }
+
+    @Test
+    void asyncRequest_ShouldHoldPermitUntilAsyncContextCompletes() throws Exception {
+        BulkheadFilter filter = filter();
+        MockHttpServletRequest request = request("GET", "/reports/monthly/bills");
+        request.setAsyncSupported(true);
+        MockFilterChain streaming = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                req.startAsync();
+            }
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), streaming);
+
+        assertEquals(1, bulkhead(filter, "reporting").getActive());
+        request.getAsyncContext().complete();
+        assertEquals(0, bulkhead(filter, "reporting").getActive());
+    }
+
+    @Test
+    void streamsBeyondReportingLimit_ShouldGet503UntilOneFinishes() throws Exception {
+        config.getReporting().setMaxConcurrent(2);
+        config.getReporting().setMaxQueued(0);
+        BulkheadFilter filter = filter();
+        MockFilterChain streaming = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                req.startAsync();
+            }
+        };
+        List<MockHttpServletRequest> open = new ArrayList<>();
+        for (String path : List.of("/reports/monthly/bills", "/bills/export")) {
+            MockHttpServletRequest request = request("GET", path);
+            request.setAsyncSupported(true);
+            filter.doFilter(request, new MockHttpServletResponse(), streaming);
+            open.add(request);
+        }
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/reports/date-range/bills"), rejected, new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+
+        open.get(0).getAsyncContext().complete();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/reports/date-range/bills"), admitted, new MockFilterChain());
+        assertEquals(200, admitted.getStatus());
+    }
+
+    @Test
+    void queuedRequest_ShouldTimeOut() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 50, 1);
+        assertEquals(Bulkhead.Outcome.ACQUIRED, bulkhead.acquire());
+
+        long start = System.currentTimeMillis();
+        assertEquals(Bulkhead.Outcome.TIMED_OUT, bulkhead.acquire());
+        assertTrue(System.currentTimeMillis() - start >= 45);
+        assertEquals(0, bulkhead.getQueued());
+
+        bulkhead.release();
+        assertEquals(Bulkhead.Outcome.ACQUIRED, bulkhead.acquire());
+    }
+
+    @Test
+    void disabled_ShouldPassEverythingThrough() throws Exception {
+        config.setEnabled(false);
+        config.getReporting().setMaxConcurrent(1);
+        config.getReporting().setMaxQueued(0);
+        config.getReporting().setPaths(List.of("/reports/**"));
+        BulkheadFilter filter = filter();
+        bulkhead(filter, "reporting").acquire();
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("GET", "/reports/monthly"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,133 @@
+package com.bananabill.config;
+
+import com.bananabill.exception.DeadlineExceededException;
+import com.bananabill.util.RequestDeadline;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeadlineMongoDatabaseFactoryTest {
+
+    private MongoCollection<Document> collection;
+    private FindIterable<Document> iterable;
+    private MongoCollection<Document> bills;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoClient client = mock(MongoClient.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        collection = mock(MongoCollection.class);
+        iterable = mock(FindIterable.class);
+        when(client.getDatabase("bananabill")).thenReturn(database);
+        when(database.getCollection("bills")).thenReturn(collection);
+        when(collection.find()).thenReturn(iterable);
+        when(iterable.maxTime(anyLong(), any())).thenReturn(iterable);
+
+        bills = new DeadlineMongoDatabaseFactory(client, "bananabill").getMongoDatabase().getCollection("bills");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    // ==================== MONGO OPERATIONS ====================
+
+    @Test
+    void find_ShouldGetRemainingBudgetAsMaxTime() {
+        RequestDeadline.start(Duration.ofSeconds(5));
+
+        bills.find();
+
+        verify(iterable).maxTime(longThat(ms -> ms > 4000 && ms <= 5000), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void find_ShouldBeUnchangedWithoutDeadline() {
+        assertSame(iterable, bills.find());
+
+        verify(iterable, never()).maxTime(anyLong(), any());
+    }
+
+    @Test
+    void count_ShouldLowerLongerMaxTimeOnly() {
+        RequestDeadline.start(Duration.ofSeconds(5));
+        CountOptions unset = new CountOptions();
+        CountOptions longer = new CountOptions().maxTime(60, TimeUnit.SECONDS);
+        CountOptions shorter = new CountOptions().maxTime(100, TimeUnit.MILLISECONDS);
+
+        bills.countDocuments(new Document(), unset);
+        bills.countDocuments(new Document(), longer);
+        bills.countDocuments(new Document(), shorter);
+
+        assertTrue(unset.getMaxTime(TimeUnit.MILLISECONDS) <= 5000);
+        assertTrue(longer.getMaxTime(TimeUnit.MILLISECONDS) <= 5000);
+        assertEquals(100, shorter.getMaxTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void operation_ShouldBeRefusedOnceDeadlineHasPassed() {
+        RequestDeadline.start(Duration.ZERO);
+
+        assertThrows(DeadlineExceededException.class, () -> bills.insertOne(new Document("_id", "b1")));
+        verify(collection, never()).insertOne(any());
+    }
+
+    @Test
+    void findOneAndUpdate_ShouldNotGetMaxTime() {
+        RequestDeadline.start(Duration.ofSeconds(5));
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions();
+
+        bills.findOneAndUpdate(new Document(), new Document(), options);
+
+        assertEquals(0, options.getMaxTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void operation_ShouldNotBeLimitedOnceRequestHasWritten() {
+        RequestDeadline.start(Duration.ofMillis(50));
+        bills.insertOne(new Document("_id", "b1"));
+        RequestDeadline.start(Duration.ZERO);
+
+        bills.deleteOne(new Document("_id", "b1"));
+        assertSame(iterable, bills.find());
+
+        verify(collection).deleteOne(any(Document.class));
+        verify(iterable, never()).maxTime(anyLong(), any());
+    }
+
+    // ==================== BUDGETS ====================
+
+    @Test
+    void budgetFor_ShouldUseFirstMatchingEntryOrDefault() {
+        RequestDeadlineFilter filter = new RequestDeadlineFilter(true, 10000,
+                List.of("GET /dashboard/stream=0", "GET /reports/**=30000"));
+
+        assertEquals(0, filter.budgetFor(request("GET", "/dashboard/stream")));
+        assertEquals(30000, filter.budgetFor(request("GET", "/reports/monthly")));
+        assertEquals(10000, filter.budgetFor(request("POST", "/reports/jobs")));
+        assertEquals(10000, filter.budgetFor(request("GET", "/bills/b1")));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        return request;
+    }
+}
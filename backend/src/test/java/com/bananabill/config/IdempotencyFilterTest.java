@@ -0,0 +1,121 @@
+package com.bananabill.config;
+
+import com.bananabill.model.User;
+import com.bananabill.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    private static final int MAX_REQUEST_BYTES = 16;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(idempotencyService, new ObjectMapper().findAndRegisterModules(),
+                List.of("/bills"), 65536, MAX_REQUEST_BYTES);
+
+        User user = new User();
+        user.setId("user-1");
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+        SecurityContextHolder.setContext(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bills");
+        request.setContextPath("/api");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContent(body);
+        return request;
+    }
+
+    // ==================== REQUEST SIZE ====================
+
+    @Test
+    void bodyWithinLimit_ShouldBeHashedAndPassedOn() throws Exception {
+        when(idempotencyService.begin(eq("user-1"), eq("key-1"), eq("POST"), eq("/bills"), anyString()))
+                .thenReturn(new IdempotencyService.Outcome(IdempotencyService.Outcome.Type.EXECUTE, "id-1", null));
+        AtomicReference<byte[]> seen = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                seen.set(request.getInputStream().readAllBytes());
+            }
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("{\"a\":1}".getBytes()), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals("{\"a\":1}".getBytes(), seen.get());
+    }
+
+    @Test
+    void oversizedContentLength_ShouldGet413WithoutClaimingKey() throws Exception {
+        MockHttpServletRequest request = request(new byte[MAX_REQUEST_BYTES + 1]);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+        verifyNoInteractions(idempotencyService);
+    }
+
+    @Test
+    void oversizedBodyWithoutContentLength_ShouldStopReadingAtLimit() throws Exception {
+        // Chunked upload: no Content-Length, body longer than the cap
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bills") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContextPath("/api");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContent(new byte[MAX_REQUEST_BYTES * 4]);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        // Read one byte past the cap, not the whole body
+        assertEquals(MAX_REQUEST_BYTES * 4 - (MAX_REQUEST_BYTES + 1), request.getInputStream().readAllBytes().length);
+        verifyNoInteractions(idempotencyService);
+    }
+}
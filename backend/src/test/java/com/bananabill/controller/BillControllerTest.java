@@ -3,8 +3,10 @@ package com.bananabill.controller;
 import com.bananabill.dto.CreateBillRequest;
 import com.bananabill.model.Bill;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
 import com.bananabill.model.PaymentStatus;
 import com.bananabill.service.BillService;
+import com.bananabill.service.ImageUploadService;
 import com.bananabill.service.WhatsAppService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +16,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -45,6 +48,9 @@ class BillControllerTest {
     @MockBean
     private WhatsAppService whatsAppService;
 
+    @MockBean
+    private ImageUploadService imageUploadService;
+
     private Bill testBill;
     private CreateBillRequest createRequest;
 
@@ -60,7 +66,8 @@ class BillControllerTest {
         testBill = new Bill();
         testBill.setId("bill-1");
         testBill.setBillNumber("B001");
-        testBill.setFarmer(farmer);
+        testBill.setFarmerId("farmer-1");
+        testBill.setFarmer(FarmerSnapshot.of(farmer));
         testBill.setGrossWeight(new BigDecimal("100"));
         testBill.setPattiWeight(new BigDecimal("5"));
         testBill.setBoxCount(2);
@@ -141,6 +148,18 @@ class BillControllerTest {
         verify(billService, times(1)).deleteBill("bill-1");
     }
 
+    @Test
+    void getRecentBills_ShouldIncludeFarmerVillage() throws Exception {
+        when(billService.getRecentBills(10)).thenReturn(List.of(testBill));
+        when(billService.getFarmerVillages(List.of(testBill))).thenReturn(Map.of("farmer-1", "Raver"));
+
+        mockMvc.perform(get("/bills/recent?limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].farmer.village").value("Raver"));
+
+        verify(billService, never()).getFarmerVillage(any());
+    }
+
     @Test
     void getRecentBills_ShouldReturnBillsList() throws Exception {
         when(billService.getRecentBills(10)).thenReturn(List.of(testBill));
@@ -220,4 +239,37 @@ class BillControllerTest {
 
         verify(billService, times(1)).searchBillsWithFilters(anyString(), any(), any(), anyString());
     }
+
+    @Test
+    void sendWhatsApp_ShouldAcceptRawImageBody() throws Exception {
+        byte[] image = { (byte) 0x89, 'P', 'N', 'G' };
+        when(billService.getBillById("bill-1")).thenReturn(testBill);
+        when(imageUploadService.uploadImage(any(), eq("abc123")))
+                .thenReturn(new ImageUploadService.UploadedImage("https://res.cloudinary.com/demo/b.png", "abc123", 4));
+
+        mockMvc.perform(post("/bills/bill-1/send-whatsapp")
+                .with(csrf())
+                .contentType(MediaType.IMAGE_PNG)
+                .header("X-Content-SHA256", "abc123")
+                .content(image))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.sha256").value("abc123"));
+
+        verify(whatsAppService).sendBillToFarmer(testBill, "https://res.cloudinary.com/demo/b.png");
+    }
+
+    @Test
+    void sendWhatsApp_ShouldAcceptMultipartImage() throws Exception {
+        when(billService.getBillById("bill-1")).thenReturn(testBill);
+        when(imageUploadService.uploadImage(any(), isNull()))
+                .thenReturn(new ImageUploadService.UploadedImage("https://res.cloudinary.com/demo/b.png", "abc123", 4));
+
+        mockMvc.perform(multipart("/bills/bill-1/send-whatsapp")
+                .file(new MockMultipartFile("image", "bill.png", "image/png", new byte[] { 1, 2, 3, 4 }))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.phone").value("9876543210"));
+
+        verify(whatsAppService).sendBillToFarmer(testBill, "https://res.cloudinary.com/demo/b.png");
+    }
 }
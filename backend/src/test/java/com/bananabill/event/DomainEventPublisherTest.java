@@ -0,0 +1,175 @@
+package com.bananabill.event;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.Farmer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DomainEventPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publish_ShouldDeliverInOrderOffTheCallingThread() throws InterruptedException {
+        RecordingListener listener = new RecordingListener("recorder", 3);
+        publisher = new DomainEventPublisher(List.of(listener), meterRegistry, 100);
+
+        publisher.publish(BillCreated.of(bill("BB250300001")));
+        publisher.publish(BillUpdated.of(bill("BB250300001"), null));
+        publisher.publish(BillDeleted.of(bill("BB250300001")));
+
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("BillCreated", "BillUpdated", "BillDeleted"), listener.names());
+        assertTrue(listener.threads.stream().allMatch(name -> name.equals("events-recorder")));
+    }
+
+    @Test
+    void publish_InsideTransaction_ShouldWaitForCommit() throws InterruptedException {
+        RecordingListener listener = new RecordingListener("recorder", 1);
+        publisher = new DomainEventPublisher(List.of(listener), meterRegistry, 100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publish(BillCreated.of(bill("BB250300001")));
+        assertFalse(listener.done.await(200, TimeUnit.MILLISECONDS));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publish_WhenQueueFull_ShouldDropWithoutBlockingAndReconcileOnceDrained() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener blocked = new RecordingListener("blocked", 1) {
+            @Override
+            public void onEvent(DomainEvent event) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onEvent(event);
+            }
+        };
+        publisher = new DomainEventPublisher(List.of(blocked), meterRegistry, 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(BillCreated.of(bill("BB25030000" + i)));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs < 500, "publish must not wait on a full queue, took " + elapsedMs + "ms");
+        assertFalse(blocked.dropped.isEmpty());
+        assertTrue(meterRegistry.get("domain.events.dropped").tag("listener", "blocked").counter().count() > 0);
+        assertEquals(1, blocked.reconciled.getCount(), "no reconcile while the backlog is still queued");
+
+        release.countDown();
+        assertTrue(blocked.reconciled.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("domain.events.reconciled").tag("listener", "blocked").counter().count());
+    }
+
+    @Test
+    void publish_WhenListenerThrows_ShouldKeepDelivering() throws InterruptedException {
+        RecordingListener failing = new RecordingListener("failing", 2) {
+            @Override
+            public void onEvent(DomainEvent event) {
+                super.onEvent(event);
+                throw new IllegalStateException("boom");
+            }
+        };
+        publisher = new DomainEventPublisher(List.of(failing), meterRegistry, 100);
+
+        publisher.publish(BillCreated.of(bill("BB250300001")));
+        publisher.publish(BillCreated.of(bill("BB250300002")));
+
+        assertTrue(failing.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("BillCreated", "BillCreated"), failing.names());
+    }
+
+    @Test
+    void publish_ShouldSkipListenersThatDoNotSupportTheEvent() throws InterruptedException {
+        RecordingListener billsOnly = new RecordingListener("bills", 1) {
+            @Override
+            public boolean supports(DomainEvent event) {
+                return event instanceof BillEvent;
+            }
+        };
+        publisher = new DomainEventPublisher(List.of(billsOnly), meterRegistry, 100);
+
+        publisher.publish(FarmerUpdated.of(new Farmer(), null));
+        publisher.publish(PaymentRecorded.of(bill("BB250300001"), BigDecimal.TEN, null));
+
+        assertTrue(billsOnly.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("PaymentRecorded"), billsOnly.names());
+    }
+
+    private Bill bill(String billNumber) {
+        Bill bill = new Bill();
+        bill.setId("id-" + billNumber);
+        bill.setBillNumber(billNumber);
+        return bill;
+    }
+
+    private static class RecordingListener implements DomainEventListener {
+
+        private final String name;
+        private final CountDownLatch done;
+        private final List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        final List<DomainEvent> dropped = new CopyOnWriteArrayList<>();
+        final CountDownLatch reconciled = new CountDownLatch(1);
+
+        RecordingListener(String name, int expected) {
+            this.name = name;
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public String getListenerName() {
+            return name;
+        }
+
+        @Override
+        public void onEvent(DomainEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }
+
+        @Override
+        public void onDropped(DomainEvent event) {
+            dropped.add(event);
+        }
+
+        @Override
+        public void reconcile() {
+            reconciled.countDown();
+        }
+
+        List<String> names() {
+            return events.stream().map(event -> event.getClass().getSimpleName()).toList();
+        }
+    }
+}
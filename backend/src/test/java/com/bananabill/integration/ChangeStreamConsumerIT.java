@@ -0,0 +1,231 @@
+package com.bananabill.integration;
+
+import com.bananabill.event.ChangeStreamConsumer;
+import com.bananabill.event.ChangeStreamListener;
+import com.bananabill.event.CollectionChange;
+import com.bananabill.model.ChangeStreamCheckpoint;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Change stream consumer against a real single-node replica set
+ * Runs with mvn verify (failsafe); skipped when Docker is not available
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeStreamConsumerIT {
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private final List<ChangeStreamConsumer> consumers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "change_stream_it");
+        mongoTemplate.getDb().drop();
+        mongoTemplate.createCollection("bills");
+        mongoTemplate.createCollection("farmers");
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumers.forEach(ChangeStreamConsumer::stop);
+        client.close();
+    }
+
+    // ==================== DELIVERY ====================
+
+    @Test
+    void writes_ShouldReachListenerInOrderWithFullDocuments() {
+        RecordingListener listener = new RecordingListener(Set.of("bills"));
+        start("node-a", listener);
+
+        ObjectId id = new ObjectId();
+        bills().insertOne(new Document("_id", id).append("billNumber", "BB2601001").append("netAmount", "100.00"));
+        bills().updateOne(Filters.eq("_id", id), Updates.set("netAmount", "150.00"));
+        bills().deleteOne(Filters.eq("_id", id));
+
+        await(() -> listener.changes().size() == 3);
+        List<CollectionChange> changes = listener.changes();
+        assertEquals(List.of(CollectionChange.Type.INSERT, CollectionChange.Type.UPDATE, CollectionChange.Type.DELETE),
+                changes.stream().map(CollectionChange::type).toList());
+        assertTrue(changes.stream().allMatch(change -> id.toHexString().equals(change.id())));
+        assertEquals("150.00", changes.get(1).document().getString("netAmount"));
+        assertNull(changes.get(2).document());
+    }
+
+    @Test
+    void collectionsWithoutListeners_ShouldNotBeWatched() {
+        RecordingListener listener = new RecordingListener(Set.of("bills"));
+        ChangeStreamConsumer consumer = start("node-a", listener);
+
+        mongoTemplate.getCollection("farmers").insertOne(new Document("name", "Ramesh"));
+        bills().insertOne(new Document("billNumber", "BB2601002"));
+
+        await(() -> listener.changes().size() == 1);
+        assertEquals(Set.of("bills"), consumer.getWatchedCollections());
+        assertEquals("bills", listener.changes().get(0).collection());
+    }
+
+    @Test
+    void burstOfWrites_ShouldArriveInBoundedBatches() {
+        RecordingListener listener = new RecordingListener(Set.of("bills"));
+        start("node-a", listener);
+
+        bills().insertMany(IntStream.range(0, 50)
+                .mapToObj(i -> new Document("billNumber", "BB26010" + (100 + i)))
+                .toList());
+
+        await(() -> listener.changes().size() == 50);
+        assertTrue(listener.batchSizes.stream().allMatch(size -> size <= 10));
+        assertEquals("BB26010100", listener.changes().get(0).document().getString("billNumber"));
+        assertEquals("BB26010149", listener.changes().get(49).document().getString("billNumber"));
+    }
+
+    // ==================== RESUME ====================
+
+    @Test
+    void restart_ShouldResumeFromCheckpoint() {
+        RecordingListener first = new RecordingListener(Set.of("bills"));
+        ChangeStreamConsumer consumer = start("node-a", first);
+        ObjectId seen = new ObjectId();
+        bills().insertOne(new Document("_id", seen));
+        await(() -> first.changes().size() == 1);
+        consumer.stop();
+
+        ObjectId missed = new ObjectId();
+        bills().insertOne(new Document("_id", missed));
+
+        RecordingListener second = new RecordingListener(Set.of("bills"));
+        start("node-a", second);
+        await(() -> !second.changes().isEmpty());
+
+        assertEquals(List.of(missed.toHexString()), second.changes().stream().map(CollectionChange::id).toList());
+    }
+
+    @Test
+    void nodes_ShouldKeepSeparateCheckpoints() {
+        RecordingListener nodeA = new RecordingListener(Set.of("bills"));
+        RecordingListener nodeB = new RecordingListener(Set.of("bills"));
+        start("node-a", nodeA);
+        start("node-b", nodeB);
+
+        bills().insertOne(new Document("billNumber", "BB2601003"));
+
+        await(() -> nodeA.changes().size() == 1 && nodeB.changes().size() == 1);
+        assertNotNull(mongoTemplate.findById("node-a:bills", ChangeStreamCheckpoint.class));
+        assertNotNull(mongoTemplate.findById("node-b:bills", ChangeStreamCheckpoint.class));
+    }
+
+    @Test
+    void droppedCollection_ShouldResyncAndKeepWatching() {
+        RecordingListener listener = new RecordingListener(Set.of("bills"));
+        start("node-a", listener);
+
+        bills().drop();
+        await(() -> listener.resyncs.contains("bills"));
+
+        // The stream is reopened after the resync
+        await(() -> {
+            bills().insertOne(new Document("billNumber", "BB2601004"));
+            return listener.changes().stream().anyMatch(change -> !change.isDelete());
+        });
+    }
+
+    // ==================== HELPERS ====================
+
+    private ChangeStreamConsumer start(String nodeId, ChangeStreamListener listener) {
+        ChangeStreamConsumer consumer = new ChangeStreamConsumer(List.of(listener), mongoTemplate,
+                new SimpleMeterRegistry(), List.of("bills", "farmers", "payment_history", "users"),
+                nodeId, 10, 200, 0);
+        consumers.add(consumer);
+        consumer.start();
+        // The first checkpoint is written once the stream is open
+        await(() -> mongoTemplate.findById(nodeId + ":bills", ChangeStreamCheckpoint.class) != null);
+        return consumer;
+    }
+
+    private MongoCollection<Document> bills() {
+        return mongoTemplate.getCollection("bills");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MS + "ms");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    private static final class RecordingListener implements ChangeStreamListener {
+
+        private final Set<String> collections;
+        private final List<CollectionChange> received = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final List<String> resyncs = new CopyOnWriteArrayList<>();
+
+        RecordingListener(Set<String> collections) {
+            this.collections = collections;
+        }
+
+        @Override
+        public String getListenerName() {
+            return "recording";
+        }
+
+        @Override
+        public Set<String> getWatchedCollections() {
+            return collections;
+        }
+
+        @Override
+        public void onChanges(String collection, List<CollectionChange> changes) {
+            batchSizes.add(changes.size());
+            received.addAll(changes);
+        }
+
+        @Override
+        public void onResync(String collection) {
+            resyncs.add(collection);
+        }
+
+        List<CollectionChange> changes() {
+            return List.copyOf(received);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.bananabill.integration;
+
+import com.bananabill.job.ClusterJob;
+import com.bananabill.job.ClusterJobScheduler;
+import com.bananabill.job.JobContext;
+import com.bananabill.job.JobLeaseManager;
+import com.bananabill.model.JobLease;
+import com.bananabill.model.JobRun;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cluster jobs with several application contexts (nodes) sharing one MongoDB
+ * Runs with mvn verify (failsafe); skipped when Docker is not available
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ClusterJobSchedulerIT {
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+
+    private static final String DATABASE = "cluster_job_it";
+
+    private final List<AnnotationConfigApplicationContext> nodes = new ArrayList<>();
+    private final List<Execution> executions = new CopyOnWriteArrayList<>();
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(AnnotationConfigApplicationContext::close);
+        client.close();
+    }
+
+    // ==================== ONCE PER TICK ====================
+
+    @Test
+    void tick_ShouldRunOnOneNodeOnly() {
+        List<ClusterJobScheduler> schedulers = startNodes(3);
+        Instant tick = Instant.parse("2026-01-01T10:00:00Z");
+
+        int ran = triggerTogether(schedulers, "single", tick);
+
+        assertEquals(1, ran);
+        assertEquals(1, executions("single").size());
+    }
+
+    @Test
+    void sameTick_ShouldNotRunAgain_NextTickShould() {
+        List<ClusterJobScheduler> schedulers = startNodes(2);
+        Instant tick = Instant.parse("2026-01-01T10:00:00Z");
+
+        schedulers.get(0).trigger("single", tick);
+        assertEquals(0, schedulers.get(1).trigger("single", tick));
+        assertEquals(1, schedulers.get(1).trigger("single", tick.plusSeconds(60)));
+        assertEquals(2, executions("single").size());
+    }
+
+    @Test
+    void partitionedJob_ShouldBeSplitBetweenNodes() {
+        List<ClusterJobScheduler> schedulers = startNodes(3);
+
+        int ran = triggerTogether(schedulers, "partitioned", Instant.parse("2026-01-01T10:00:00Z"));
+
+        List<Execution> runs = executions("partitioned");
+        assertEquals(6, ran);
+        assertEquals(Set.of(0, 1, 2, 3, 4, 5), runs.stream().map(Execution::partition).collect(Collectors.toSet()));
+        assertEquals(6, runs.size());
+        assertTrue(runs.stream().map(Execution::node).distinct().count() > 1);
+    }
+
+    // ==================== FENCING ====================
+
+    @Test
+    void expiredLease_ShouldBeTakenOverWithHigherToken() throws Exception {
+        startNodes(2);
+        JobLeaseManager nodeA = nodes.get(0).getBean(JobLeaseManager.class);
+        JobLeaseManager nodeB = nodes.get(1).getBean(JobLeaseManager.class);
+
+        JobLeaseManager.Lease first = nodeA.acquire("fenced:0", "tick-1", Duration.ofMillis(200));
+        assertNotNull(first);
+        assertNull(nodeB.acquire("fenced:0", "tick-1", Duration.ofMillis(200)));
+
+        Thread.sleep(300);
+        JobLeaseManager.Lease second = nodeB.acquire("fenced:0", "tick-1", Duration.ofSeconds(10));
+
+        assertNotNull(second);
+        assertTrue(second.token() > first.token());
+        assertFalse(nodeA.heartbeat(first, Duration.ofSeconds(10)));
+        assertFalse(nodeA.complete(first));
+        assertTrue(nodeB.complete(second));
+    }
+
+    @Test
+    void lostLease_ShouldStopJobAndBeRecorded() {
+        List<ClusterJobScheduler> schedulers = startNodes(1);
+        Instant tick = Instant.parse("2026-01-01T10:00:00Z");
+
+        CompletableFuture<Integer> run = new CompletableFuture<>();
+        new Thread(() -> run.complete(schedulers.get(0).trigger("long", tick))).start();
+        awaitExecution("long");
+        // Another node fenced this one off
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(JobLease.idOf("long", 0))),
+                new Update().inc("token", 1), JobLease.class);
+
+        assertEquals(1, run.join());
+        List<JobRun> history = schedulers.get(0).getRecentRuns("long", 10);
+        assertEquals(JobRun.Status.LEASE_LOST, history.get(0).getStatus());
+    }
+
+    // ==================== HISTORY ====================
+
+    @Test
+    void runs_ShouldBeRecordedWithStatus() {
+        List<ClusterJobScheduler> schedulers = startNodes(1);
+
+        schedulers.get(0).trigger("single", Instant.parse("2026-01-01T10:00:00Z"));
+        schedulers.get(0).trigger("failing", Instant.parse("2026-01-01T10:00:00Z"));
+
+        JobRun succeeded = schedulers.get(0).getRecentRuns("single", 10).get(0);
+        assertEquals(JobRun.Status.SUCCEEDED, succeeded.getStatus());
+        assertNotNull(succeeded.getFinishedAt());
+        assertTrue(succeeded.getToken() > 0);
+
+        JobRun failed = schedulers.get(0).getRecentRuns("failing", 10).get(0);
+        assertEquals(JobRun.Status.FAILED, failed.getStatus());
+        assertEquals("boom", failed.getError());
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * One application context per node, each with its own MongoDB client
+     */
+    private List<ClusterJobScheduler> startNodes(int count) {
+        List<ClusterJobScheduler> schedulers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String node = "node-" + (char) ('a' + i);
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.getEnvironment().getPropertySources().addFirst(
+                    new MapPropertySource("node", Map.of("jobs.node-id", node)));
+            context.registerBean(MongoClient.class, () -> MongoClients.create(mongo.getReplicaSetUrl()));
+            context.registerBean(MongoTemplate.class,
+                    () -> new MongoTemplate(context.getBean(MongoClient.class), DATABASE));
+            context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            context.registerBean("single", ClusterJob.class, () -> new RecordingJob("single", node, 1, 0, false));
+            context.registerBean("partitioned", ClusterJob.class,
+                    () -> new RecordingJob("partitioned", node, 6, 200, false));
+            context.registerBean("failing", ClusterJob.class, () -> new RecordingJob("failing", node, 1, 0, true));
+            context.registerBean("long", ClusterJob.class, () -> new LongJob(node));
+            context.register(JobLeaseManager.class, ClusterJobScheduler.class);
+            context.refresh();
+            nodes.add(context);
+            schedulers.add(context.getBean(ClusterJobScheduler.class));
+        }
+        return schedulers;
+    }
+
+    /**
+     * Trigger the same tick on every node at once, one thread per node
+     */
+    private static int triggerTogether(List<ClusterJobScheduler> schedulers, String jobName, Instant tick) {
+        ExecutorService threads = Executors.newFixedThreadPool(schedulers.size());
+        try {
+            List<CompletableFuture<Integer>> runs = schedulers.stream()
+                    .map(scheduler -> CompletableFuture.supplyAsync(() -> scheduler.trigger(jobName, tick), threads))
+                    .toList();
+            return runs.stream().mapToInt(CompletableFuture::join).sum();
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    private List<Execution> executions(String jobName) {
+        return executions.stream().filter(execution -> execution.job().equals(jobName)).toList();
+    }
+
+    private void awaitExecution(String jobName) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (executions(jobName).isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Job " + jobName + " did not start");
+            }
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Execution(String job, String node, int partition, long token) {
+    }
+
+    private class RecordingJob implements ClusterJob {
+
+        private final String name;
+        private final String node;
+        private final int partitions;
+        private final long workMs;
+        private final boolean fail;
+
+        RecordingJob(String name, String node, int partitions, long workMs, boolean fail) {
+            this.name = name;
+            this.node = node;
+            this.partitions = partitions;
+            this.workMs = workMs;
+            this.fail = fail;
+        }
+
+        @Override
+        public String getJobName() {
+            return name;
+        }
+
+        @Override
+        public String getCron() {
+            return "0 0 10 * * *";
+        }
+
+        @Override
+        public int getPartitions() {
+            return partitions;
+        }
+
+        @Override
+        public void run(JobContext context) {
+            executions.add(new Execution(name, node, context.partition(), context.fencingToken()));
+            sleep(workMs);
+            if (fail) {
+                throw new IllegalStateException("boom");
+            }
+        }
+    }
+
+    /**
+     * Works in small steps until its lease is lost
+     */
+    private class LongJob extends RecordingJob {
+
+        LongJob(String node) {
+            super("long", node, 1, 0, false);
+        }
+
+        @Override
+        public Duration getLeaseDuration() {
+            return Duration.ofMillis(600);
+        }
+
+        @Override
+        public void run(JobContext context) {
+            super.run(context);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                context.checkLease();
+                sleep(50);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bananabill.repository;
 
 import com.bananabill.model.Bill;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
 import com.bananabill.model.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,7 +42,7 @@ class BillRepositoryTest {
         testBill = new Bill();
         testBill.setId("bill-1");
         testBill.setBillNumber("B001");
-        testBill.setFarmer(testFarmer);
+        testBill.setFarmer(FarmerSnapshot.of(testFarmer));
         testBill.setFarmerId("farmer-1");
         testBill.setGrossWeight(new BigDecimal("100"));
         testBill.setNetAmount(new BigDecimal("5000"));
@@ -0,0 +1,346 @@
+package com.bananabill.service;
+
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.job.JobLeaseManager;
+import com.bananabill.model.AdvancePool;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+import com.bananabill.model.PaymentHistory;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.User;
+import com.bananabill.util.SecurityUtils;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvancePoolServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillReadCache billCache;
+
+    @Mock
+    private DomainEventPublisher eventPublisher;
+
+    @Mock
+    private JobLeaseManager leases;
+
+    private MockedStatic<SecurityUtils> securityUtils;
+    private AdvancePoolService advancePool;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId("trader-a");
+        user.setName("Trader A");
+        securityUtils = mockStatic(SecurityUtils.class);
+        securityUtils.when(SecurityUtils::getCurrentUser).thenReturn(user);
+
+        advancePool = new AdvancePoolService(mongoTemplate, billCache, eventPublisher, leases,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        securityUtils.close();
+    }
+
+    // ==================== CREDIT ====================
+
+    @Test
+    void creditOverpayment_ShouldAddOnlyNewAdvance() {
+        Bill bill = bill("bill-1", "1000.00", "1300.00");
+        BillBalance before = BillBalance.of(bill);
+        bill.setAdvanceAmount(new BigDecimal("300.00"));
+
+        advancePool.creditOverpayment(bill, before);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(AdvancePool.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("300.00")), inc.get("balance"));
+    }
+
+    @Test
+    void creditOverpayment_WithoutNewAdvance_ShouldNotWrite() {
+        Bill bill = bill("bill-1", "1000.00", "1000.00");
+
+        advancePool.creditOverpayment(bill, BillBalance.of(bill));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // ==================== APPLY ====================
+
+    @Test
+    void applyTo_WithoutPool_ShouldLeaveBillUnpaid() {
+        Bill bill = bill("bill-2", "800.00", "0");
+
+        AdvancePoolService.Claim claim = advancePool.applyTo(bill);
+
+        assertTrue(claim.isEmpty());
+        assertEquals(PaymentStatus.UNPAID, bill.getPaymentStatus());
+        verify(mongoTemplate).findById("farmer-1", AdvancePool.class);
+        verifyNoMoreInteractions(mongoTemplate);
+    }
+
+    @Test
+    void applyTo_ShouldDrawOldestAdvanceFirst() {
+        when(mongoTemplate.findById("farmer-1", AdvancePool.class))
+                .thenReturn(pool(source("bill-a", "300.00"), source("bill-b", "700.00")));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AdvancePool.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        Bill bill = bill("bill-2", "800.00", "0");
+
+        AdvancePoolService.Claim claim = advancePool.applyTo(bill);
+
+        assertEquals(new BigDecimal("800.00"), claim.amount());
+        assertEquals(List.of("bill-a", "bill-b"), claim.draws().stream().map(AdvancePoolService.Draw::billId).toList());
+        assertEquals(new BigDecimal("500.00"), claim.draws().get(1).amount());
+        assertEquals(PaymentStatus.PAID, bill.getPaymentStatus());
+        assertEquals(new BigDecimal("800.00"), bill.getPaidAmount());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(AdvancePool.class));
+        assertEquals(7L, query.getValue().getQueryObject().get("revision"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(new Decimal128(new BigDecimal("200.00")), set.get("balance"));
+    }
+
+    @Test
+    void applyTo_WithSmallerAdvance_ShouldLeaveBillPartial() {
+        when(mongoTemplate.findById("farmer-1", AdvancePool.class)).thenReturn(pool(source("bill-a", "300.00")));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AdvancePool.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        Bill bill = bill("bill-2", "800.00", "0");
+
+        advancePool.applyTo(bill);
+
+        assertEquals(PaymentStatus.PARTIAL, bill.getPaymentStatus());
+        assertEquals(new BigDecimal("300.00"), bill.getPaidAmount());
+    }
+
+    @Test
+    void applyTo_WhenPoolChangesConcurrently_ShouldRetry() {
+        when(mongoTemplate.findById("farmer-1", AdvancePool.class)).thenReturn(pool(source("bill-a", "300.00")));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AdvancePool.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        AdvancePoolService.Claim claim = advancePool.applyTo(bill("bill-2", "800.00", "0"));
+
+        assertEquals(new BigDecimal("300.00"), claim.amount());
+        verify(mongoTemplate, times(2)).findById("farmer-1", AdvancePool.class);
+    }
+
+    // ==================== SETTLE ====================
+
+    @Test
+    void settle_ShouldMoveAdvanceOffSourceBillAndRecordBothSides() {
+        Bill source = bill("bill-a", "1000.00", "1300.00");
+        source.setAdvanceAmount(new BigDecimal("300.00"));
+        source.setPaymentStatus(PaymentStatus.PAID);
+        when(mongoTemplate.findById("bill-a", Bill.class)).thenReturn(source);
+        when(mongoTemplate.save(any(Bill.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Bill bill = bill("bill-2", "800.00", "300.00");
+        AdvancePoolService.Claim claim = new AdvancePoolService.Claim("farmer-1", new BigDecimal("300.00"),
+                List.of(new AdvancePoolService.Draw("bill-a", "BBbill-a", new BigDecimal("300.00"))));
+
+        advancePool.settle(bill, claim);
+
+        assertEquals(new BigDecimal("1000.00"), source.getPaidAmount());
+        assertEquals(0, source.getAdvanceAmount().signum());
+        assertEquals(PaymentStatus.PAID, source.getPaymentStatus());
+
+        ArgumentCaptor<PaymentRecorded> event = ArgumentCaptor.forClass(PaymentRecorded.class);
+        verify(eventPublisher).publish(event.capture());
+        assertEquals(new BigDecimal("-300.00"), event.getValue().amount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentHistory>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(rows.capture(), eq(PaymentHistory.class));
+        assertEquals(2, rows.getValue().size());
+        assertTrue(rows.getValue().stream()
+                .allMatch(row -> row.getPaymentType() == PaymentHistory.PaymentType.ADVANCE_USED));
+        assertEquals(new BigDecimal("300.00"), rows.getValue().get(0).getAmount());
+        assertEquals(new BigDecimal("-300.00"), rows.getValue().get(1).getAmount());
+    }
+
+    @Test
+    void settle_WhenHistoryInsertFails_ShouldPutSourceBillsBack() {
+        Bill source = bill("bill-a", "1000.00", "1300.00");
+        source.setAdvanceAmount(new BigDecimal("300.00"));
+        when(mongoTemplate.findById("bill-a", Bill.class)).thenReturn(source);
+        when(mongoTemplate.save(any(Bill.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.insert(anyList(), eq(PaymentHistory.class)))
+                .thenThrow(new IllegalStateException("write concern timeout"));
+
+        Bill bill = bill("bill-2", "800.00", "300.00");
+        AdvancePoolService.Claim claim = new AdvancePoolService.Claim("farmer-1", new BigDecimal("300.00"),
+                List.of(new AdvancePoolService.Draw("bill-a", "BBbill-a", new BigDecimal("300.00"))));
+
+        assertThrows(IllegalStateException.class, () -> advancePool.settle(bill, claim));
+
+        assertEquals(new BigDecimal("1300.00"), source.getPaidAmount());
+        assertEquals(new BigDecimal("300.00"), source.getAdvanceAmount());
+        verify(mongoTemplate, times(2)).save(source);
+        verify(mongoTemplate).remove(any(Query.class), eq(PaymentHistory.class));
+    }
+
+    // ==================== RETURN ====================
+
+    @Test
+    void returnDraws_ShouldPutAdvanceBackOnSourceAndPool() {
+        Bill source = bill("bill-a", "1000.00", "1000.00");
+        source.setAdvanceAmount(BigDecimal.ZERO);
+        source.setPaymentStatus(PaymentStatus.PAID);
+        when(mongoTemplate.findById("bill-a", Bill.class)).thenReturn(source);
+        when(mongoTemplate.save(any(Bill.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.find(any(Query.class), eq(PaymentHistory.class)))
+                .thenReturn(List.of(drawRow("bill-a", "-300.00")));
+
+        Bill deleted = bill("bill-2", "800.00", "300.00");
+        advancePool.returnDraws(deleted);
+
+        assertEquals(new BigDecimal("1300.00"), source.getPaidAmount());
+        assertEquals(new BigDecimal("300.00"), source.getAdvanceAmount());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(AdvancePool.class));
+        assertEquals(new Decimal128(new BigDecimal("300.00")),
+                ((Document) update.getValue().getUpdateObject().get("$inc")).get("balance"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentHistory>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(rows.capture(), eq(PaymentHistory.class));
+        assertEquals(new BigDecimal("300.00"), rows.getValue().get(0).getAmount());
+        assertEquals("bill-2", rows.getValue().get(0).getRelatedBillId());
+    }
+
+    @Test
+    void returnDraws_WhenAlreadyReturned_ShouldDoNothing() {
+        when(mongoTemplate.find(any(Query.class), eq(PaymentHistory.class)))
+                .thenReturn(List.of(drawRow("bill-a", "-300.00"), drawRow("bill-a", "300.00")));
+
+        advancePool.returnDraws(bill("bill-2", "800.00", "300.00"));
+
+        verify(mongoTemplate, never()).save(any(Bill.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(AdvancePool.class));
+    }
+
+    @Test
+    void release_ShouldPutDrawsBackAtTheFront() {
+        AdvancePoolService.Claim claim = new AdvancePoolService.Claim("farmer-1", new BigDecimal("300.00"),
+                List.of(new AdvancePoolService.Draw("bill-a", "BBbill-a", new BigDecimal("300.00"))));
+
+        advancePool.release(claim);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(AdvancePool.class));
+        Update.Modifiers push = (Update.Modifiers) ((Document) update.getValue().getUpdateObject().get("$push"))
+                .get("sources");
+        assertTrue(push.getModifiers().stream()
+                .anyMatch(modifier -> "$position".equals(modifier.getKey()) && Integer.valueOf(0).equals(modifier.getValue())));
+    }
+
+    // ==================== REBUILD ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildAll_ShouldSwapInRebuiltPoolsWithOneRename() {
+        Bill overpaid = bill("bill-a", "1000.00", "1300.00");
+        overpaid.setAdvanceAmount(new BigDecimal("300.00"));
+        MongoCollection<Document> staging = mock(MongoCollection.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(overpaid));
+        when(mongoTemplate.getCollectionName(AdvancePool.class)).thenReturn("advance_pools");
+        when(mongoTemplate.getCollection("advance_pools_rebuild")).thenReturn(staging);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.getName()).thenReturn("bananabill");
+
+        assertEquals(1, advancePool.rebuildAll());
+
+        verify(mongoTemplate).insert(anyCollection(), eq("advance_pools_rebuild"));
+        verify(staging).renameCollection(eq(new MongoNamespace("bananabill", "advance_pools")),
+                any(RenameCollectionOptions.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(AdvancePool.class));
+    }
+
+    @Test
+    void buildIfMissing_WhenAnotherNodeHoldsTheLease_ShouldNotBuild() {
+        when(mongoTemplate.estimatedCount(AdvancePool.class)).thenReturn(0L);
+        when(leases.acquire(anyString(), anyString(), any())).thenReturn(null);
+
+        advancePool.buildIfMissing();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Bill.class));
+    }
+
+    // ==================== HELPERS ====================
+
+    private static PaymentHistory drawRow(String sourceId, String amount) {
+        PaymentHistory row = new PaymentHistory();
+        row.setBillId(sourceId);
+        row.setBillNumber("BB" + sourceId);
+        row.setAmount(new BigDecimal(amount));
+        row.setRelatedBillId("bill-2");
+        row.setPaymentType(PaymentHistory.PaymentType.ADVANCE_USED);
+        return row;
+    }
+
+    private static AdvancePool pool(AdvancePool.Source... sources) {
+        AdvancePool pool = new AdvancePool();
+        pool.setId("farmer-1");
+        pool.setRevision(7L);
+        pool.setSources(new ArrayList<>(List.of(sources)));
+        pool.setBalance(pool.getSources().stream().map(AdvancePool.Source::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return pool;
+    }
+
+    private static AdvancePool.Source source(String billId, String amount) {
+        return new AdvancePool.Source(billId, "BB" + billId, new BigDecimal(amount));
+    }
+
+    private static Bill bill(String id, String netAmount, String paidAmount) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber("BB" + id);
+        bill.setFarmerId("farmer-1");
+        bill.setCreatedBy("trader-a");
+        bill.setNetAmount(new BigDecimal(netAmount));
+        bill.setPaidAmount(new BigDecimal(paidAmount));
+        bill.setPaymentStatus(PaymentStatus.UNPAID);
+        return bill;
+    }
+}
@@ -0,0 +1,185 @@
+package com.bananabill.service;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillAnalyticsCacheTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillArchiveService archiveService;
+
+    private BillAnalyticsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BillAnalyticsCache(mongoTemplate, archiveService, true, new SimpleMeterRegistry());
+
+        when(mongoTemplate.stream(any(Query.class), eq(Bill.class))).thenReturn(Stream.of(
+                bill("b1", "farmer-1", "Ramesh", "5000.00", "100.50", PaymentStatus.UNPAID,
+                        LocalDateTime.of(2026, 1, 5, 10, 0)),
+                bill("b2", "farmer-1", "Ramesh", "2500.00", "50.25", PaymentStatus.PAID,
+                        LocalDateTime.of(2026, 1, 20, 10, 0)),
+                bill("b3", "farmer-2", "Suresh", "1000.00", "20.00", PaymentStatus.UNPAID,
+                        LocalDateTime.of(2026, 2, 3, 10, 0))));
+
+        cache.reload();
+    }
+
+    @Test
+    void aggregate_ByDateRange_ShouldSumAmountsAndWeights() {
+        BillAnalyticsCache.Aggregate result = cache.aggregate(BillAnalyticsCache.Filter.between(
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)));
+
+        assertEquals(2, result.billCount());
+        assertEquals(0, new BigDecimal("7500.00").compareTo(result.totalAmount()));
+        assertEquals(0, new BigDecimal("150.75").compareTo(result.totalWeight()));
+        assertEquals(0, new BigDecimal("5000.00").compareTo(result.outstandingAmount()));
+        assertEquals(1, result.farmers().size());
+        assertEquals("Ramesh", result.farmers().get(0).name());
+    }
+
+    @Test
+    void aggregate_ByStatusAndWeightBand_ShouldFilterRows() {
+        BillAnalyticsCache.Aggregate unpaid = cache.aggregate(new BillAnalyticsCache.Filter(
+                null, null, null, PaymentStatus.UNPAID, null, null));
+        assertEquals(2, unpaid.billCount());
+
+        BillAnalyticsCache.Aggregate heavy = cache.aggregate(new BillAnalyticsCache.Filter(
+                null, null, null, null, new BigDecimal("50.25"), null));
+        assertEquals(2, heavy.billCount());
+    }
+
+    @Test
+    void aggregate_UnknownFarmer_ShouldBeEmpty() {
+        BillAnalyticsCache.Aggregate result = cache.aggregate(new BillAnalyticsCache.Filter(
+                null, null, "missing", null, null, null));
+
+        assertEquals(0, result.billCount());
+        assertTrue(result.farmers().isEmpty());
+    }
+
+    @Test
+    void upsertAndRemove_ShouldKeepScanCurrent() {
+        Bill paid = bill("b1", "farmer-1", "Ramesh", "5000.00", "100.50", PaymentStatus.PAID,
+                LocalDateTime.of(2026, 1, 5, 10, 0));
+        paid.setPaidAmount(new BigDecimal("5000.00"));
+        cache.upsert(paid);
+        cache.remove("b3");
+
+        BillAnalyticsCache.Aggregate result = cache.aggregate(BillAnalyticsCache.Filter.between(null, null));
+
+        assertEquals(2, result.billCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.outstandingAmount()));
+        assertEquals(2, cache.liveRows());
+    }
+
+    @Test
+    void writesDuringFirstLoad_ShouldBeReplayedBeforeReady() {
+        BillAnalyticsCache warming = new BillAnalyticsCache(mongoTemplate, archiveService, true, new SimpleMeterRegistry());
+        when(mongoTemplate.stream(any(Query.class), eq(Bill.class))).thenAnswer(invocation -> {
+            // Saved and deleted while the load is reading
+            warming.upsert(bill("b9", "farmer-2", "Suresh", "300.00", "5.00", PaymentStatus.UNPAID,
+                    LocalDateTime.of(2026, 2, 10, 10, 0)));
+            warming.remove("b1");
+            assertFalse(warming.isReady());
+            return Stream.of(bill("b1", "farmer-1", "Ramesh", "5000.00", "100.50", PaymentStatus.UNPAID,
+                    LocalDateTime.of(2026, 1, 5, 10, 0)));
+        });
+
+        warming.reload();
+
+        BillAnalyticsCache.Aggregate result = warming.aggregate(BillAnalyticsCache.Filter.between(null, null));
+        assertTrue(warming.isReady());
+        assertEquals(1, result.billCount());
+        assertEquals(0, new BigDecimal("300.00").compareTo(result.totalAmount()));
+    }
+
+    @Test
+    void reloadAfterReady_ShouldKeepServingReadsAndReplayWrites() {
+        when(mongoTemplate.stream(any(Query.class), eq(Bill.class))).thenAnswer(invocation -> {
+            // Another thread reads the current table while the new one is being built
+            BillAnalyticsCache.Aggregate during = CompletableFuture
+                    .supplyAsync(() -> cache.aggregate(BillAnalyticsCache.Filter.between(null, null)))
+                    .get(2, TimeUnit.SECONDS);
+            assertEquals(3, during.billCount());
+            // Saved after the build read it: visible now and after the swap
+            cache.upsert(bill("b2", "farmer-1", "Ramesh", "2500.00", "50.25", PaymentStatus.UNPAID,
+                    LocalDateTime.of(2026, 1, 20, 10, 0)));
+            return Stream.of(
+                    bill("b1", "farmer-1", "Ramesh", "5000.00", "100.50", PaymentStatus.UNPAID,
+                            LocalDateTime.of(2026, 1, 5, 10, 0)),
+                    bill("b2", "farmer-1", "Ramesh", "2500.00", "50.25", PaymentStatus.PAID,
+                            LocalDateTime.of(2026, 1, 20, 10, 0)));
+        });
+
+        cache.reload();
+
+        BillAnalyticsCache.Aggregate result = cache.aggregate(
+                new BillAnalyticsCache.Filter(null, null, null, PaymentStatus.UNPAID, null, null));
+        assertTrue(cache.isReady());
+        assertEquals(2, cache.liveRows());
+        assertEquals(2, result.billCount());
+    }
+
+    @Test
+    void availableMonths_ShouldBeDistinctNewestFirst() {
+        List<YearMonth> months = cache.availableMonths();
+
+        assertEquals(List.of(YearMonth.of(2026, 2), YearMonth.of(2026, 1)), months);
+    }
+
+    @Test
+    void disabledCache_ShouldNotBeReady() {
+        BillAnalyticsCache disabled = new BillAnalyticsCache(mongoTemplate, archiveService, false, new SimpleMeterRegistry());
+        disabled.loadOnStartup();
+
+        assertFalse(disabled.isReady());
+        assertTrue(cache.estimatedBytes() > 0);
+    }
+
+    private Bill bill(String id, String farmerId, String name, String netAmount, String weight,
+            PaymentStatus status, LocalDateTime createdAt) {
+        Farmer farmer = new Farmer();
+        farmer.setId(farmerId);
+        farmer.setName(name);
+        farmer.setMobileNumber("98765432" + farmerId.charAt(farmerId.length() - 1) + "0");
+
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setFarmerId(farmerId);
+        bill.setFarmer(FarmerSnapshot.of(farmer));
+        bill.setNetAmount(new BigDecimal(netAmount));
+        bill.setFinalNetWeight(new BigDecimal(weight));
+        bill.setPaymentStatus(status);
+        bill.setPaidAmount(status == PaymentStatus.PAID ? new BigDecimal(netAmount) : BigDecimal.ZERO);
+        bill.setCreatedAt(createdAt);
+        return bill;
+    }
+}
@@ -0,0 +1,129 @@
+package com.bananabill.service;
+
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillArchiveSegmentTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void writeAndOpen_ShouldRoundTripBills() throws IOException {
+        Path file = BillArchiveSegment.write(archiveDir, MONTH, List.of(
+                bill("b2", "BB250300002", "Suresh", LocalDateTime.of(2025, 3, 20, 9, 30)),
+                bill("b1", "BB250300001", "Ramesh", LocalDateTime.of(2025, 3, 5, 10, 0))));
+
+        try (BillArchiveSegment segment = BillArchiveSegment.open(file)) {
+            assertEquals(MONTH, segment.getMonth());
+            assertEquals(2, segment.size());
+            assertTrue(segment.verify());
+
+            Bill found = segment.findByBillNumber("BB250300002");
+            assertNotNull(found);
+            assertEquals("b2", found.getId());
+            assertEquals("Suresh", found.getFarmer().getName());
+            assertEquals(LocalDateTime.of(2025, 3, 20, 9, 30), found.getCreatedAt());
+            assertEquals(0, new BigDecimal("4875.50").compareTo(found.getNetAmount()));
+            assertEquals(0, new BigDecimal("99.510").compareTo(found.getFinalNetWeight()));
+            assertEquals(PaymentStatus.PAID, found.getPaymentStatus());
+
+            assertNull(segment.findByBillNumber("BB250399999"));
+        }
+    }
+
+    @Test
+    void findBetween_ShouldReturnBillsInCreatedOrder() throws IOException {
+        Path file = BillArchiveSegment.write(archiveDir, MONTH, List.of(
+                bill("b3", "BB250300003", "C", LocalDateTime.of(2025, 3, 25, 8, 0)),
+                bill("b1", "BB250300001", "A", LocalDateTime.of(2025, 3, 1, 8, 0)),
+                bill("b2", "BB250300002", "B", LocalDateTime.of(2025, 3, 10, 8, 0))));
+
+        try (BillArchiveSegment segment = BillArchiveSegment.open(file)) {
+            List<Bill> range = segment.findBetween(LocalDateTime.of(2025, 3, 2, 0, 0),
+                    LocalDateTime.of(2025, 3, 25, 0, 0));
+
+            assertEquals(1, range.size());
+            assertEquals("b2", range.get(0).getId());
+            assertEquals(List.of("b1", "b2", "b3"), segment.readAll().stream().map(Bill::getId).toList());
+        }
+    }
+
+    @Test
+    void write_ShouldKeepEveryFieldAndLongValuesExactly() throws IOException {
+        Bill full = bill("b1", "BB250300001", "रामचंद्र ".repeat(40), LocalDateTime.of(2025, 3, 5, 10, 0, 0, 123456789));
+        full.setVersion(7L);
+        full.setVehicleNumber("MH-12-AB-1234 / trailer MH-12-CD-5678");
+        full.setPattiWeight(new BigDecimal("0.500"));
+        full.setBoxCount(42);
+        full.setNetAmount(new BigDecimal("4875.5000"));
+        full.setCreatedBy("user-with-a-rather-long-identifier-0123456789");
+        full.setLastReminderSent(LocalDateTime.of(2025, 4, 1, 10, 0));
+        full.setDueDate(LocalDateTime.of(2025, 3, 20, 0, 0));
+        full.setUpdatedAt(LocalDateTime.of(2025, 3, 21, 8, 15));
+        full.setUpdatedBy("admin");
+        Bill sparse = new Bill();
+        sparse.setId("b2");
+        sparse.setBillNumber("BB250300002");
+        sparse.setPaidAmount(null);
+        sparse.setAdvanceAmount(null);
+        sparse.setPaymentStatus(null);
+
+        Path file = BillArchiveSegment.write(archiveDir, MONTH, List.of(full, sparse));
+
+        try (BillArchiveSegment segment = BillArchiveSegment.open(file)) {
+            assertTrue(segment.verify());
+            assertEquals(full, segment.findByBillNumber("BB250300001"));
+            assertEquals(sparse, segment.findByBillNumber("BB250300002"));
+        }
+    }
+
+    @Test
+    void monthOf_ShouldParseSegmentFileNames() {
+        assertEquals(MONTH, BillArchiveSegment.monthOf(BillArchiveSegment.fileName(MONTH)));
+        assertNull(BillArchiveSegment.monthOf("bills-2025-03.seg.tmp"));
+        assertNull(BillArchiveSegment.monthOf("bills-2025-13.seg"));
+    }
+
+    @Test
+    void write_WhenSegmentExists_ShouldRefuseToOverwrite() throws IOException {
+        List<Bill> bills = List.of(bill("b1", "BB250300001", "A", LocalDateTime.of(2025, 3, 5, 10, 0)));
+        BillArchiveSegment.write(archiveDir, MONTH, bills);
+
+        assertThrows(IOException.class, () -> BillArchiveSegment.write(archiveDir, MONTH, bills));
+    }
+
+    private Bill bill(String id, String billNumber, String farmerName, LocalDateTime createdAt) {
+        FarmerSnapshot farmer = new FarmerSnapshot("farmer-" + id, farmerName, "9876543210");
+
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber(billNumber);
+        bill.setFarmer(farmer);
+        bill.setFarmerId(farmer.getId());
+        bill.setGrossWeight(new BigDecimal("100"));
+        bill.setFinalNetWeight(new BigDecimal("99.51"));
+        bill.setRatePerKg(new BigDecimal("50"));
+        bill.setTotalAmount(new BigDecimal("4975.50"));
+        bill.setMajuri(new BigDecimal("100"));
+        bill.setNetAmount(new BigDecimal("4875.50"));
+        bill.setPaidAmount(new BigDecimal("4875.50"));
+        bill.setPaymentStatus(PaymentStatus.PAID);
+        bill.setCreatedAt(createdAt);
+        return bill;
+    }
+}
@@ -0,0 +1,157 @@
+package com.bananabill.service;
+
+import com.bananabill.job.JobContext;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillArchiveServiceTest {
+
+    private static final int RETAIN_MONTHS = 6;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillArchiveStore store;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private BulkWriteResult bulkResult;
+
+    @TempDir
+    Path archiveDir;
+
+    private BillArchiveService archiveService;
+    private YearMonth month;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new BillArchiveService(mongoTemplate, store, archiveDir.toString(), true, RETAIN_MONTHS);
+        month = YearMonth.now().minusMonths(RETAIN_MONTHS + 1L);
+    }
+
+    private Bill bill(String id, long version) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setVersion(version);
+        bill.setBillNumber("BB" + id);
+        bill.setFarmerId("farmer-1");
+        bill.setFarmer(new FarmerSnapshot("farmer-1", "Ramesh", "9876543210"));
+        bill.setNetAmount(new BigDecimal("1000.00"));
+        bill.setPaidAmount(new BigDecimal("1000.00"));
+        bill.setPaymentStatus(PaymentStatus.PAID);
+        bill.setCreatedAt(month.atDay(5).atTime(10, 0));
+        return bill;
+    }
+
+    private static Bill idOnly(String id) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        return bill;
+    }
+
+    // ==================== EXPORT ====================
+
+    @Test
+    void exportMonth_ShouldPublishBeforeRemovingAndOnlyAtArchivedVersion() throws Exception {
+        when(mongoTemplate.count(any(Query.class), eq(Bill.class))).thenReturn(0L);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(
+                List.of(bill("0001", 3), bill("0002", 1)), // month to archive
+                List.of(idOnly("0001"), idOnly("0002")), // still live
+                List.of(idOnly("0002"))); // edited meanwhile: its delete matched nothing
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(bulkResult);
+        when(bulkResult.getDeletedCount()).thenReturn(1);
+
+        int removed = archiveService.exportMonth(month, JobContext.standalone("archive-export"));
+
+        assertEquals(1, removed);
+        InOrder order = inOrder(store, bulk);
+        order.verify(store).upload(archiveDir.resolve(BillArchiveSegment.fileName(month)));
+        order.verify(bulk).execute();
+
+        ArgumentCaptor<Query> removes = ArgumentCaptor.forClass(Query.class);
+        verify(bulk, times(2)).remove(removes.capture());
+        assertEquals(3L, removes.getAllValues().get(0).getQueryObject().get("version"));
+        verify(store).addSuperseded(BillArchiveSegment.fileName(month), List.of("0002"));
+
+        // The edited bill is served live, not from the archive
+        assertTrue(archiveService.isArchived(month, "0001"));
+        assertFalse(archiveService.isArchived(month, "0002"));
+        assertEquals(List.of("0001"), archiveService.findBetween(null, null).stream().map(Bill::getId).toList());
+        assertNull(archiveService.findByBillNumber("BB0002"));
+    }
+
+    @Test
+    void exportMonth_ShouldNotArchiveWhileBillsAreUnsettled() throws Exception {
+        when(mongoTemplate.count(any(Query.class), eq(Bill.class))).thenReturn(2L);
+
+        assertEquals(0, archiveService.exportMonth(month, JobContext.standalone("archive-export")));
+        verify(store, never()).upload(any());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Bill.class));
+    }
+
+    @Test
+    void exportMonth_ShouldRefuseMonthsInsideRetentionWindow() {
+        YearMonth lastRetained = YearMonth.now().minusMonths(RETAIN_MONTHS);
+
+        assertThrows(IllegalStateException.class,
+                () -> archiveService.exportMonth(lastRetained, JobContext.standalone("archive-export")));
+    }
+
+    // ==================== SYNC ====================
+
+    @Test
+    void isArchived_ShouldFetchClosedMonthExportedByAnotherNode() throws Exception {
+        Path exported = BillArchiveSegment.write(archiveDir.resolve("other-node"), month, List.of(bill("0001", 1)));
+        String fileName = BillArchiveSegment.fileName(month);
+        when(store.list()).thenReturn(List.of(new BillArchiveStore.StoredSegment(fileName, Set.of())));
+        doAnswer(invocation -> {
+            Files.copy(exported, invocation.<Path>getArgument(1));
+            return null;
+        }).when(store).download(eq(fileName), any(Path.class));
+
+        assertTrue(archiveService.isArchived(month, "0001"));
+        assertEquals(bill("0001", 1), archiveService.findByBillNumber("BB0001"));
+        verify(store, times(1)).list();
+    }
+
+    @Test
+    void isArchived_ShouldNotQueryStoreForOpenMonths() {
+        assertFalse(archiveService.isArchived(YearMonth.now(), "0001"));
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void findBetween_WithoutSegments_ShouldBeEmpty() {
+        assertTrue(archiveService.findBetween(LocalDateTime.now().minusYears(1), LocalDateTime.now()).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.bananabill.service;
+
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.repository.BillRepository;
+import com.bananabill.repository.FarmerRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillQueryServiceTest {
+
+    @Mock
+    private BillRepository billRepository;
+
+    @Mock
+    private FarmerRepository farmerRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private BillQueryService billQueryService;
+
+    @Test
+    void getBillFields_ShouldProjectOnlyRequestedFields() {
+        Bill bill = new Bill();
+        bill.setId("bill-1");
+        bill.setBillNumber("BB250300001");
+        bill.setFarmer(new FarmerSnapshot("farmer-1", "Ramesh", "9876543210"));
+        bill.setNetAmount(new BigDecimal("4875.50"));
+        bill.setPaymentStatus(PaymentStatus.UNPAID);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(bill));
+
+        List<Map<String, Object>> rows = billQueryService.getBillFields(
+                BillQueryService.Listing.RECENT, "billNumber, farmerName,netAmount", null, 10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Bill.class));
+        assertEquals(new Document(Map.of("_id", 1, "billNumber", 1, "farmer.name", 1, "netAmount", 1)),
+                query.getValue().getFieldsObject());
+        assertEquals(10, query.getValue().getLimit());
+
+        assertEquals(List.of("id", "billNumber", "farmerName", "netAmount"), List.copyOf(rows.get(0).keySet()));
+        assertEquals("Ramesh", rows.get(0).get("farmerName"));
+    }
+
+    @Test
+    void getBillFields_WithUnknownField_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> billQueryService.getBillFields(
+                BillQueryService.Listing.UNPAID, "billNumber,password", null, 0));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bananabill.service;
+
+import com.bananabill.config.BoundedLruCache;
+import com.bananabill.config.CacheConfig;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillReadCacheTest {
+
+    private BillReadCache billCache;
+
+    @BeforeEach
+    void setUp() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new BoundedLruCache(CacheConfig.BILLS, 10),
+                new BoundedLruCache(CacheConfig.BILL_NUMBERS, 10)));
+        cacheManager.afterPropertiesSet();
+        billCache = new BillReadCache(cacheManager);
+    }
+
+    private static Bill bill() {
+        Bill bill = new Bill();
+        bill.setId("b1");
+        bill.setVersion(2L);
+        bill.setBillNumber("BB25030001");
+        bill.setFarmerId("farmer-1");
+        bill.setFarmer(new FarmerSnapshot("farmer-1", "Ramesh Patil", "9876543210"));
+        bill.setVehicleNumber("MH12AB1234");
+        bill.setGrossWeight(new BigDecimal("100.5"));
+        bill.setPattiWeight(new BigDecimal("2"));
+        bill.setBoxCount(10);
+        bill.setNetWeight(new BigDecimal("98.5"));
+        bill.setDandaWeight(new BigDecimal("1"));
+        bill.setTutWastage(new BigDecimal("0.5"));
+        bill.setFinalNetWeight(new BigDecimal("97"));
+        bill.setRatePerKg(new BigDecimal("20"));
+        bill.setTotalAmount(new BigDecimal("1940"));
+        bill.setMajuri(new BigDecimal("40"));
+        bill.setNetAmount(new BigDecimal("1900"));
+        bill.setCreatedBy("user-1");
+        bill.setCreatedAt(LocalDateTime.of(2025, 3, 5, 10, 0));
+        bill.setPaymentStatus(PaymentStatus.PARTIAL);
+        bill.setPaidAmount(new BigDecimal("500"));
+        bill.setPaymentDate(LocalDateTime.of(2025, 3, 6, 10, 0));
+        bill.setDueDate(LocalDateTime.of(2025, 3, 20, 0, 0));
+        bill.setLastReminderSent(LocalDateTime.of(2025, 3, 21, 10, 0));
+        bill.setAdvanceAmount(BigDecimal.ZERO);
+        bill.setUpdatedAt(LocalDateTime.of(2025, 3, 6, 10, 0));
+        bill.setUpdatedBy("user-1");
+        return bill;
+    }
+
+    @Test
+    void get_ShouldReturnEqualCopyEveryTime() {
+        billCache.put(bill());
+
+        Bill first = billCache.get("b1");
+
+        assertEquals(bill(), first);
+        assertNotSame(first, billCache.get("b1"));
+        assertEquals(bill(), billCache.find("BB25030001"));
+    }
+
+    @Test
+    void callerChanges_ShouldNotReachCachedBill() {
+        Bill original = bill();
+        billCache.put(original);
+        original.setPaidAmount(new BigDecimal("1900"));
+
+        Bill read = billCache.get("b1");
+        read.setPaymentStatus(PaymentStatus.PAID);
+        read.getFarmer().setName("Changed");
+
+        Bill again = billCache.get("b1");
+        assertEquals(new BigDecimal("500"), again.getPaidAmount());
+        assertEquals(PaymentStatus.PARTIAL, again.getPaymentStatus());
+        assertEquals("Ramesh Patil", again.getFarmer().getName());
+    }
+}
@@ -0,0 +1,116 @@
+package com.bananabill.service;
+
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.repository.BillRepository;
+import com.bananabill.repository.FarmerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillServiceTest {
+
+    @Mock
+    private BillRepository billRepository;
+
+    @Mock
+    private FarmerRepository farmerRepository;
+
+    @Mock
+    private BillArchiveService archiveService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private BillReadCache billCache;
+    private BillService billService;
+
+    @BeforeEach
+    void setUp() {
+        billCache = new BillReadCache(new ConcurrentMapCacheManager());
+        billService = new BillService(billRepository, farmerRepository, null, null, null,
+                archiveService, billCache, mongoTemplate, null, null);
+    }
+
+    @Test
+    void getBillById_ShouldReadThroughCache() {
+        when(billRepository.findById("bill-1")).thenReturn(Optional.of(bill("bill-1", "BB250300001")));
+
+        billService.getBillById("bill-1");
+        Bill second = billService.getBillById("bill-1");
+
+        assertEquals("BB250300001", second.getBillNumber());
+        verify(billRepository, times(1)).findById("bill-1");
+    }
+
+    @Test
+    void getBillByNumber_ShouldShareCacheWithLookup() {
+        when(billRepository.findByBillNumber("BB250300001")).thenReturn(Optional.of(bill("bill-1", "BB250300001")));
+        billService.getBillByNumber("BB250300001");
+
+        List<BillService.BillLookup> results = billService.lookupBills(List.of("bill-1", "BB250300001"));
+
+        assertEquals("bill-1", results.get(0).bill().getId());
+        assertEquals("bill-1", results.get(1).bill().getId());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void lookupBills_ShouldUseOneQueryAndKeepRequestOrder() {
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(
+                bill("bill-2", "BB250300002"), bill("bill-1", "BB250300001")));
+
+        List<BillService.BillLookup> results = billService.lookupBills(
+                Arrays.asList("BB250300001", "missing", "bill-2", "BB250300001"));
+
+        assertEquals(List.of("BB250300001", "missing", "bill-2", "BB250300001"),
+                results.stream().map(BillService.BillLookup::key).toList());
+        assertEquals("bill-1", results.get(0).bill().getId());
+        assertNull(results.get(1).bill());
+        assertEquals("bill-2", results.get(2).bill().getId());
+        assertEquals("bill-1", results.get(3).bill().getId());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Bill.class));
+        verify(archiveService).findByBillNumber("missing");
+    }
+
+    @Test
+    void lookupBills_WhenArchived_ShouldFallBackToArchive() {
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+        when(archiveService.findByBillNumber("BB240100007")).thenReturn(bill("old-7", "BB240100007"));
+
+        List<BillService.BillLookup> results = billService.lookupBills(List.of("BB240100007"));
+
+        assertEquals("old-7", results.get(0).bill().getId());
+    }
+
+    @Test
+    void lookupBills_WithTooManyKeys_ShouldThrowValidationException() {
+        List<String> keys = Collections.nCopies(BillService.MAX_LOOKUP_KEYS + 1, "BB250300001");
+
+        assertThrows(ValidationException.class, () -> billService.lookupBills(keys));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private Bill bill(String id, String billNumber) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber(billNumber);
+        return bill;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.response.DashboardSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardServiceTest {
+
+    @Test
+    void getSummary_WithinTtl_ShouldReuseCachedSummary() {
+        CountingDashboardService service = new CountingDashboardService(60_000, null);
+
+        DashboardSummary first = service.getSummary();
+        DashboardSummary second = service.getSummary();
+
+        assertSame(first, second);
+        assertEquals(1, service.calls.get());
+    }
+
+    @Test
+    void getSummary_AfterInvalidate_ShouldAggregateAgain() {
+        CountingDashboardService service = new CountingDashboardService(60_000, null);
+
+        service.getSummary();
+        service.invalidate();
+        service.getSummary();
+
+        assertEquals(2, service.calls.get());
+    }
+
+    @Test
+    void getSummary_ConcurrentCallers_ShouldShareOneAggregation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingDashboardService service = new CountingDashboardService(60_000, release);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<DashboardSummary>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(service::getSummary));
+            }
+            // Let every caller reach getSummary before the aggregation finishes
+            Thread.sleep(200);
+            release.countDown();
+
+            DashboardSummary expected = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<DashboardSummary> result : results) {
+                assertSame(expected, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, service.calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getSummary_WhenAggregationFails_ShouldNotCacheFailure() {
+        CountingDashboardService service = new CountingDashboardService(60_000, null);
+        service.fail = true;
+
+        assertThrows(IllegalStateException.class, service::getSummary);
+
+        service.fail = false;
+        assertNotNull(service.getSummary());
+        assertEquals(2, service.calls.get());
+    }
+
+    private static class CountingDashboardService extends DashboardService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release;
+        private volatile boolean fail;
+
+        CountingDashboardService(long ttlMs, CountDownLatch release) {
+            super(null, ttlMs);
+            this.release = release;
+        }
+
+        @Override
+        DashboardSummary aggregate() {
+            calls.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new IllegalStateException("mongo down");
+            }
+            return new DashboardSummary(1, 1, BigDecimal.ONE, BigDecimal.ONE, 0, BigDecimal.ZERO, 0,
+                    BigDecimal.ZERO, List.of(), LocalDateTime.now());
+        }
+    }
+}
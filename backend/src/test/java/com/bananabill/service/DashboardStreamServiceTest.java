@@ -0,0 +1,129 @@
+package com.bananabill.service;
+
+import com.bananabill.event.BillCreated;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.model.Bill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardStreamServiceTest {
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final List<Runnable> pending = new ArrayList<>();
+
+    @Test
+    void onEvent_ShouldReachOnlyTheOwningTrader() {
+        DashboardStreamService service = service(Runnable::run, 64, 256);
+        RecordingEmitter traderA = subscribe(service, "trader-a", null);
+        RecordingEmitter traderB = subscribe(service, "trader-b", null);
+
+        service.onEvent(BillCreated.of(bill("BB250300001", "trader-a")));
+
+        assertTrue(traderA.text().contains("event:BILL_CREATED"));
+        assertTrue(traderA.text().contains("BB250300001"));
+        assertFalse(traderB.text().contains("BB250300001"));
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayMissedEvents() {
+        DashboardStreamService service = service(Runnable::run, 64, 256);
+        RecordingEmitter first = subscribe(service, "trader-a", null);
+        service.onEvent(BillCreated.of(bill("BB250300001", "trader-a")));
+        String lastSeen = first.lastEventId();
+        service.onEvent(BillCreated.of(bill("BB250300002", "trader-a")));
+        service.onEvent(PaymentRecorded.of(bill("BB250300002", "trader-a"), new BigDecimal("500"), null));
+
+        RecordingEmitter resumed = subscribe(service, "trader-a", lastSeen);
+
+        assertFalse(resumed.text().contains("BB250300001"));
+        assertTrue(resumed.text().contains("BB250300002"));
+        assertTrue(resumed.text().contains("event:PAYMENT_RECORDED"));
+    }
+
+    @Test
+    void subscribe_WhenReplayBufferRolledOver_ShouldAskForResync() {
+        DashboardStreamService service = service(Runnable::run, 64, 1);
+        RecordingEmitter first = subscribe(service, "trader-a", null);
+        service.onEvent(BillCreated.of(bill("BB250300001", "trader-a")));
+        String lastSeen = first.lastEventId();
+        service.onEvent(BillCreated.of(bill("BB250300002", "trader-a")));
+        service.onEvent(BillCreated.of(bill("BB250300003", "trader-a")));
+
+        RecordingEmitter resumed = subscribe(service, "trader-a", lastSeen);
+
+        assertTrue(resumed.text().contains("event:resync"));
+        assertFalse(resumed.text().contains("BB250300003"));
+    }
+
+    @Test
+    void onEvent_WhenClientFallsBehind_ShouldDropBacklogAndResync() {
+        // Tasks are held back, as if the client's socket were not draining
+        DashboardStreamService service = service(pending::add, 2, 256);
+        RecordingEmitter slow = subscribe(service, "trader-a", null);
+        for (int i = 1; i <= 5; i++) {
+            service.onEvent(BillCreated.of(bill("BB25030000" + i, "trader-a")));
+        }
+
+        new ArrayList<>(pending).forEach(Runnable::run);
+
+        assertTrue(slow.text().contains("event:resync"));
+        assertFalse(slow.text().contains("BB250300005"));
+    }
+
+    private DashboardStreamService service(Executor executor, int queueCapacity, int replaySize) {
+        return new DashboardStreamService(executor, new SimpleMeterRegistry(),
+                60_000, queueCapacity, replaySize) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(DashboardStreamService service, String traderId, String lastEventId) {
+        service.subscribe(traderId, lastEventId);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private Bill bill(String billNumber, String traderId) {
+        Bill bill = new Bill();
+        bill.setId("id-" + billNumber);
+        bill.setBillNumber(billNumber);
+        bill.setCreatedBy(traderId);
+        bill.setNetAmount(new BigDecimal("1000"));
+        return bill;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final StringBuilder sent = new StringBuilder();
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                sent.append(part.getData());
+            }
+        }
+
+        synchronized String text() {
+            return sent.toString();
+        }
+
+        synchronized String lastEventId() {
+            String text = sent.toString();
+            int start = text.lastIndexOf("id:") + 3;
+            return text.substring(start, text.indexOf('\n', start));
+        }
+    }
+}
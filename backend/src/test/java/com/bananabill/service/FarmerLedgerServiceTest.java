@@ -0,0 +1,167 @@
+package com.bananabill.service;
+
+import com.bananabill.event.BillCreated;
+import com.bananabill.event.BillDeleted;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.model.Bill;
+import com.bananabill.model.BillBalance;
+import com.bananabill.model.FarmerLedger;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FarmerLedgerServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillArchiveService archiveService;
+
+    private FarmerLedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new FarmerLedgerService(mongoTemplate, archiveService, new SimpleMeterRegistry(), true, 0);
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    @Test
+    void billCreated_ShouldIncrementTotalsAndSetLastBill() {
+        Bill bill = bill("1000.00", "0", PaymentStatus.UNPAID);
+
+        ledgerService.onEvent(BillCreated.of(bill));
+
+        Document update = capturedUpdate(true);
+        Document inc = (Document) update.get("$inc");
+        assertEquals(1L, inc.get("billCount"));
+        assertEquals(1L, inc.get("unpaidBills"));
+        assertEquals(new Decimal128(new BigDecimal("1000.00")), inc.get("totalAmount"));
+        assertEquals(new Decimal128(new BigDecimal("1000.00")), inc.get("outstandingBalance"));
+        assertFalse(inc.containsKey("paidAmount"));
+        assertEquals("BB250300001", ((Document) update.get("$set")).get("lastBillNumber"));
+    }
+
+    @Test
+    void partialPayment_ShouldMoveAmountFromOutstandingToPaid() {
+        Bill bill = bill("1000.00", "0", PaymentStatus.UNPAID);
+        BillBalance before = BillBalance.of(bill);
+        bill.setPaidAmount(new BigDecimal("400.00"));
+        bill.setPaymentStatus(PaymentStatus.PARTIAL);
+        bill.setPaymentDate(LocalDateTime.now());
+
+        ledgerService.onEvent(PaymentRecorded.of(bill, new BigDecimal("400.00"), before));
+
+        Document update = capturedUpdate(true);
+        Document inc = (Document) update.get("$inc");
+        assertEquals(new Decimal128(new BigDecimal("400.00")), inc.get("paidAmount"));
+        assertEquals(new Decimal128(new BigDecimal("-400.00")), inc.get("outstandingBalance"));
+        assertFalse(inc.containsKey("billCount"));
+        assertFalse(inc.containsKey("unpaidBills"));
+        assertTrue(update.containsKey("$max"));
+    }
+
+    @Test
+    void finalPayment_ShouldClearUnpaidCountAndAmount() {
+        Bill bill = bill("1000.00", "400.00", PaymentStatus.PARTIAL);
+        BillBalance before = BillBalance.of(bill);
+        bill.setPaidAmount(new BigDecimal("1000.00"));
+        bill.setPaymentStatus(PaymentStatus.PAID);
+
+        ledgerService.onEvent(PaymentRecorded.of(bill, new BigDecimal("600.00"), before));
+
+        Document inc = (Document) capturedUpdate(true).get("$inc");
+        assertEquals(-1L, inc.get("unpaidBills"));
+        assertEquals(new Decimal128(new BigDecimal("-1000.00")), inc.get("unpaidAmount"));
+        assertEquals(new Decimal128(new BigDecimal("-600.00")), inc.get("outstandingBalance"));
+    }
+
+    @Test
+    void billDeleted_ShouldSubtractWithoutUpsert() {
+        Bill bill = bill("1000.00", "0", PaymentStatus.UNPAID);
+        FarmerLedger ledger = new FarmerLedger();
+        ledger.setLastBillId("another-bill");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FarmerLedger.class))).thenReturn(ledger);
+
+        ledgerService.onEvent(BillDeleted.of(bill));
+
+        Document inc = (Document) capturedUpdate(false).get("$inc");
+        assertEquals(-1L, inc.get("billCount"));
+        assertEquals(new Decimal128(new BigDecimal("-1000.00")), inc.get("totalAmount"));
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(Bill.class));
+    }
+
+    @Test
+    void droppedEvent_ShouldRebuildFarmerBeforeNextEvent() {
+        Bill bill = bill("1000.00", "0", PaymentStatus.UNPAID);
+        when(mongoTemplate.exists(any(Query.class), eq(Bill.class))).thenReturn(false);
+
+        ledgerService.onDropped(BillCreated.of(bill));
+        ledgerService.onEvent(BillCreated.of(bill("500.00", "0", PaymentStatus.UNPAID)));
+
+        // No bills left for the farmer: its ledger is removed, then the new event applies
+        verify(mongoTemplate).remove(any(Query.class), eq(FarmerLedger.class));
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FarmerLedger.class));
+    }
+
+    // ==================== TOTALS ====================
+
+    @Test
+    void totals_ShouldMatchIgnoringScale() {
+        FarmerLedgerService.Totals a = FarmerLedgerService.Totals.of(BillBalance.of(bill("1000", "0", PaymentStatus.UNPAID)));
+        FarmerLedgerService.Totals b = FarmerLedgerService.Totals.of(BillBalance.of(bill("1000.00", "0.00", PaymentStatus.UNPAID)));
+
+        assertTrue(a.matches(b));
+        assertFalse(a.matches(a.plus(b)));
+        assertTrue(a.plus(b).minus(b).matches(a));
+    }
+
+    // ==================== HELPERS ====================
+
+    private Document capturedUpdate(boolean upsert) {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), options.capture(),
+                eq(FarmerLedger.class));
+        assertEquals(upsert, options.getValue().isUpsert());
+        return update.getValue().getUpdateObject();
+    }
+
+    private static Bill bill(String netAmount, String paidAmount, PaymentStatus status) {
+        Bill bill = new Bill();
+        bill.setId("bill-1");
+        bill.setBillNumber("BB250300001");
+        bill.setFarmerId("farmer-1");
+        bill.setFarmer(new FarmerSnapshot("farmer-1", "Ramesh Patil", "9876543210"));
+        bill.setCreatedBy("trader-a");
+        bill.setCreatedAt(LocalDateTime.now());
+        bill.setNetAmount(new BigDecimal(netAmount));
+        bill.setFinalNetWeight(new BigDecimal("100.000"));
+        bill.setPaidAmount(new BigDecimal(paidAmount));
+        bill.setPaymentStatus(status);
+        return bill;
+    }
+}
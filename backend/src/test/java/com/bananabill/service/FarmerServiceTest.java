@@ -1,17 +1,26 @@
 package com.bananabill.service;
 
 import com.bananabill.dto.FarmerRequest;
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.FarmerUpdated;
 import com.bananabill.exception.ResourceNotFoundException;
+import com.bananabill.exception.ValidationException;
 import com.bananabill.model.Farmer;
 import com.bananabill.model.User;
+import com.bananabill.dto.response.FarmerListItem;
 import com.bananabill.repository.FarmerRepository;
+import com.bananabill.util.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -29,6 +38,15 @@ class FarmerServiceTest {
     @Mock
     private FarmerRepository farmerRepository;
 
+    @Mock
+    private FarmerSuggestIndex suggestIndex;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DomainEventPublisher eventPublisher;
+
     @InjectMocks
     private FarmerService farmerService;
 
@@ -43,6 +61,11 @@ class FarmerServiceTest {
         testFarmer.setAddress("Test Address");
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void findByMobile_WhenFarmerExists_ShouldReturnFarmer() {
         when(farmerRepository.findByMobileNumber("9876543210")).thenReturn(Optional.of(testFarmer));
@@ -101,4 +124,94 @@ class FarmerServiceTest {
 
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void getFarmerPage_WhenMoreRowsExist_ShouldReturnCursorAndListProjection() {
+        Farmer second = new Farmer();
+        second.setId("farmer-2");
+        second.setName("Zed Farmer");
+        second.setMobileNumber("9876500000");
+
+        try (MockedStatic<SecurityUtils> security = mockStatic(SecurityUtils.class)) {
+            security.when(SecurityUtils::getCurrentUserId).thenReturn("user-1");
+            when(mongoTemplate.find(any(Query.class), eq(Farmer.class)))
+                    .thenReturn(List.of(testFarmer, second));
+
+            FarmerService.FarmerPage result = farmerService.getFarmerPage(null, 1, true);
+
+            assertTrue(result.page().hasMore());
+            assertEquals(1, result.page().size());
+            assertEquals(new FarmerListItem("farmer-1", "Test Farmer", "9876543210"),
+                    result.page().content().get(0));
+            assertNotNull(result.page().nextCursor());
+            assertTrue(result.etag().startsWith("W/"));
+
+            // The cursor round-trips into the next query
+            when(mongoTemplate.find(any(Query.class), eq(Farmer.class))).thenReturn(List.of(second));
+            FarmerService.FarmerPage next = farmerService.getFarmerPage(result.page().nextCursor(), 1, true);
+
+            assertFalse(next.page().hasMore());
+            assertNull(next.page().nextCursor());
+            assertNotEquals(result.etag(), next.etag());
+        }
+    }
+
+    @Test
+    void getFarmerPage_WithMalformedCursor_ShouldThrowValidationException() {
+        try (MockedStatic<SecurityUtils> security = mockStatic(SecurityUtils.class)) {
+            security.when(SecurityUtils::getCurrentUserId).thenReturn("user-1");
+
+            assertThrows(ValidationException.class, () -> farmerService.getFarmerPage("not-a-cursor", 10, true));
+        }
+    }
+
+    @Test
+    void upsertFarmer_WhenRenamed_ShouldPublishRename() {
+        FarmerRequest request = new FarmerRequest();
+        request.setName("Renamed Farmer");
+        request.setMobileNumber("9876543210");
+
+        mockCurrentUser();
+        when(farmerRepository.findByMobileNumber("9876543210")).thenReturn(Optional.of(testFarmer));
+        when(farmerRepository.save(any(Farmer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        farmerService.upsertFarmer(request);
+
+        FarmerUpdated event = publishedEvent();
+        assertTrue(event.renamed());
+        assertEquals("Test Farmer", event.previousName());
+        assertEquals("Renamed Farmer", event.farmer().getName());
+    }
+
+    @Test
+    void upsertFarmer_WhenNameUnchanged_ShouldNotPublishRename() {
+        FarmerRequest request = new FarmerRequest();
+        request.setName("Test Farmer");
+        request.setMobileNumber("9876543210");
+        request.setAddress("New Address");
+
+        mockCurrentUser();
+        when(farmerRepository.findByMobileNumber("9876543210")).thenReturn(Optional.of(testFarmer));
+        when(farmerRepository.save(any(Farmer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        farmerService.upsertFarmer(request);
+
+        assertFalse(publishedEvent().renamed());
+    }
+
+    private FarmerUpdated publishedEvent() {
+        ArgumentCaptor<FarmerUpdated> captor = ArgumentCaptor.forClass(FarmerUpdated.class);
+        verify(eventPublisher).publish(captor.capture());
+        return captor.getValue();
+    }
+
+    private void mockCurrentUser() {
+        User user = new User();
+        user.setId("user-1");
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+    }
 }
@@ -0,0 +1,87 @@
+package com.bananabill.service;
+
+import com.bananabill.event.FarmerUpdated;
+import com.bananabill.model.Bill;
+import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FarmerSnapshotPropagatorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillReadCache billCache;
+
+    private FarmerSnapshotPropagator propagator;
+
+    @BeforeEach
+    void setUp() {
+        propagator = new FarmerSnapshotPropagator(mongoTemplate, billCache, 500, 0, false);
+        when(mongoTemplate.getCollectionName(Bill.class)).thenReturn("bills");
+    }
+
+    @Test
+    void propagate_ShouldBumpVersionWithSnapshot() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bills")))
+                .thenReturn(List.of(new Document("_id", "b1"), new Document("_id", "b2")), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Bill.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        propagator.propagate(new FarmerSnapshot("farmer-1", "Ramesh Patil", "9876543210"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Bill.class));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        assertTrue(update.getValue().getUpdateObject().get("$set", Document.class).containsKey("farmer"));
+        // Only bills that are still stale are rewritten, so none is bumped twice
+        assertTrue(query.getValue().getQueryObject().toJson().contains("farmer.name"));
+        verify(billCache).evictAll(List.of("b1", "b2"));
+    }
+
+    @Test
+    void reconcile_ShouldPropagateCurrentNameOfDroppedRenames() {
+        Farmer dropped = new Farmer();
+        dropped.setId("farmer-1");
+        dropped.setName("Ramesh P");
+        Farmer current = new Farmer();
+        current.setId("farmer-1");
+        current.setName("Ramesh Patil");
+        current.setMobileNumber("9876543210");
+        when(mongoTemplate.findById("farmer-1", Farmer.class)).thenReturn(current);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("bills")))
+                .thenReturn(List.of(new Document("_id", "b1")), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Bill.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        propagator.onDropped(FarmerUpdated.of(dropped, "Ramesh"));
+        propagator.reconcile();
+        propagator.reconcile();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(Bill.class));
+        FarmerSnapshot written = (FarmerSnapshot) update.getValue().getUpdateObject()
+                .get("$set", Document.class).get("farmer");
+        assertEquals("Ramesh Patil", written.getName());
+        verify(mongoTemplate, times(1)).findById("farmer-1", Farmer.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bananabill.service;
+
+import com.bananabill.model.Farmer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FarmerSuggestIndexTest {
+
+    private static final String OWNER = "user-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private FarmerSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FarmerSuggestIndex(mongoTemplate);
+        index.put(farmer("farmer-1", "Ramesh Patil", "9876543210"));
+        index.put(farmer("farmer-2", "रमेश पाटील", "9123456789"));
+        index.put(farmer("farmer-3", "Suresh Chavan", "9988776655"));
+    }
+
+    @Test
+    void suggest_ByLatinPrefix_ShouldMatchDevanagariNames() {
+        assertEquals(List.of("farmer-1", "farmer-2"), ids(index.suggest(OWNER, "Rame", 10)));
+    }
+
+    @Test
+    void suggest_ByDevanagariPrefix_ShouldMatchLatinNames() {
+        assertEquals(List.of("farmer-1", "farmer-2"), ids(index.suggest(OWNER, "पाटी", 10)));
+    }
+
+    @Test
+    void suggest_BySpellingVariant_ShouldMatch() {
+        assertEquals(List.of("farmer-3"), ids(index.suggest(OWNER, "chavhan", 10)));
+    }
+
+    @Test
+    void suggest_ByMobilePrefix_ShouldIgnoreCountryCode() {
+        assertEquals(List.of("farmer-1"), ids(index.suggest(OWNER, "+91 98765", 10)));
+        assertEquals(List.of("farmer-3"), ids(index.suggest(OWNER, "99887", 10)));
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        assertEquals(1, index.suggest(OWNER, "ram", 1).size());
+    }
+
+    @Test
+    void put_WhenRenamed_ShouldDropOldKeys() {
+        index.put(farmer("farmer-3", "Ganesh More", "9988776655"));
+
+        assertTrue(index.suggest(OWNER, "suresh", 10).isEmpty());
+        assertEquals(List.of("farmer-3"), ids(index.suggest(OWNER, "ganesh", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void suggest_ShouldOnlyReturnTheOwnersFarmers() {
+        Farmer other = farmer("farmer-9", "Ramesh Jadhav", "9876500000");
+        other.setCreatedBy("user-2");
+        index.put(other);
+
+        assertEquals(List.of("farmer-1", "farmer-2"), ids(index.suggest(OWNER, "ramesh", 10)));
+        assertEquals(List.of("farmer-9"), ids(index.suggest("user-2", "ramesh", 10)));
+        assertEquals(List.of("farmer-1"), ids(index.suggest(OWNER, "98765", 10)));
+        assertTrue(index.suggest("user-3", "ramesh", 10).isEmpty());
+    }
+
+    private List<String> ids(List<FarmerSuggestIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(FarmerSuggestIndex.Suggestion::id).toList();
+    }
+
+    private Farmer farmer(String id, String name, String mobile) {
+        Farmer farmer = new Farmer();
+        farmer.setId(id);
+        farmer.setName(name);
+        farmer.setMobileNumber(mobile);
+        farmer.setCreatedBy(OWNER);
+        return farmer;
+    }
+}
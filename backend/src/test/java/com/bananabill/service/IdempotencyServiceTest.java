@@ -0,0 +1,219 @@
+package com.bananabill.service;
+
+import com.bananabill.model.IdempotencyRecord;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String HASH = "hash-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(mongoTemplate, new SimpleMeterRegistry(), 24, 2000, 30000, 100);
+    }
+
+    // ==================== FIRST REQUEST ====================
+
+    @Test
+    void begin_NewKey_ShouldClaimAndExecute() {
+        IdempotencyService.Outcome outcome = begin(HASH);
+
+        assertEquals(IdempotencyService.Outcome.Type.EXECUTE, outcome.type());
+        verify(mongoTemplate).insert(argThat((IdempotencyRecord record) ->
+                record.getState() == IdempotencyRecord.State.IN_PROGRESS && HASH.equals(record.getRequestHash())));
+    }
+
+    @Test
+    void begin_AfterComplete_ShouldReplayFromLocalCache() {
+        String id = begin(HASH).id();
+        stubComplete(id, HASH);
+        idempotencyService.complete(id, 200, "application/json", "{\"success\":true}");
+
+        IdempotencyService.Outcome replay = begin(HASH);
+
+        assertEquals(IdempotencyService.Outcome.Type.REPLAY, replay.type());
+        assertEquals("{\"success\":true}", replay.record().getResponseBody());
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).findById(anyString(), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void begin_SameKeyDifferentRequest_ShouldBeMismatch() {
+        String id = begin(HASH).id();
+        stubComplete(id, HASH);
+        idempotencyService.complete(id, 200, "application/json", "{}");
+
+        assertEquals(IdempotencyService.Outcome.Type.MISMATCH, begin("hash-2").type());
+    }
+
+    @Test
+    void begin_KeysAreScopedPerUser() {
+        String first = idempotencyService.begin("trader-a", "key-1", "POST", "/bills", HASH).id();
+        String second = idempotencyService.begin("trader-b", "key-1", "POST", "/bills", HASH).id();
+
+        assertNotEquals(first, second);
+    }
+
+    // ==================== OTHER NODES ====================
+
+    @Test
+    void begin_CompletedOnAnotherNode_ShouldReplayStoredResponse() {
+        doThrow(new DuplicateKeyException("dup")).when(mongoTemplate).insert(any(IdempotencyRecord.class));
+        when(mongoTemplate.findById(anyString(), eq(IdempotencyRecord.class))).thenReturn(record(HASH, true, null));
+
+        IdempotencyService.Outcome outcome = begin(HASH);
+
+        assertEquals(IdempotencyService.Outcome.Type.REPLAY, outcome.type());
+        assertEquals(201, outcome.record().getResponseStatus());
+    }
+
+    @Test
+    void begin_AbandonedByAnotherNode_ShouldTakeOver() {
+        doThrow(new DuplicateKeyException("dup")).when(mongoTemplate).insert(any(IdempotencyRecord.class));
+        when(mongoTemplate.findById(anyString(), eq(IdempotencyRecord.class)))
+                .thenReturn(record(HASH, false, Instant.now().minusSeconds(60)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertEquals(IdempotencyService.Outcome.Type.EXECUTE, begin(HASH).type());
+    }
+
+    @Test
+    void begin_StillRunningOnAnotherNode_ShouldReportInProgressAfterWaiting() {
+        doThrow(new DuplicateKeyException("dup")).when(mongoTemplate).insert(any(IdempotencyRecord.class));
+        when(mongoTemplate.findById(anyString(), eq(IdempotencyRecord.class)))
+                .thenReturn(record(HASH, false, Instant.now().plusSeconds(60)));
+
+        assertEquals(IdempotencyService.Outcome.Type.IN_PROGRESS, begin(HASH).type());
+    }
+
+    // ==================== SAME NODE ====================
+
+    @Test
+    void concurrentDuplicate_ShouldWaitForFirstExecution() throws Exception {
+        String id = begin(HASH).id();
+
+        CompletableFuture<IdempotencyService.Outcome> duplicate = CompletableFuture.supplyAsync(() -> begin(HASH));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        stubComplete(id, HASH);
+        idempotencyService.complete(id, 201, "application/json", "{\"id\":\"bill-1\"}");
+
+        IdempotencyService.Outcome outcome = duplicate.get(2, TimeUnit.SECONDS);
+        assertEquals(IdempotencyService.Outcome.Type.REPLAY, outcome.type());
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void release_ShouldLetWaitingDuplicateExecute() throws Exception {
+        String id = begin(HASH).id();
+        CompletableFuture<IdempotencyService.Outcome> duplicate = CompletableFuture.supplyAsync(() -> begin(HASH));
+        Thread.sleep(100);
+
+        idempotencyService.release(id);
+
+        assertEquals(IdempotencyService.Outcome.Type.EXECUTE, duplicate.get(2, TimeUnit.SECONDS).type());
+        verify(mongoTemplate, times(2)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void begin_WhenClaimFails_ShouldNotLeaveDuplicatesWaiting() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new IllegalStateException("mongo down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(IllegalStateException.class, () -> begin(HASH));
+
+        // The failed attempt left nothing in flight, so a retry claims right away
+        assertEquals(IdempotencyService.Outcome.Type.EXECUTE, begin(HASH).type());
+    }
+
+    // ==================== LOCK ====================
+
+    @Test
+    void heartbeat_ShouldExtendLockOfRunningRequest() {
+        begin(HASH);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        idempotencyService.heartbeat();
+
+        verify(mongoTemplate).updateFirst(argThat((Query query) -> query.getQueryObject().containsKey("lockToken")),
+                argThat((Update update) -> update.getUpdateObject().get("$set", Document.class)
+                        .containsKey("lockedUntil")),
+                eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void complete_AfterTakeOverByAnotherNode_ShouldNotOverwriteRecord() {
+        String id = begin(HASH).id();
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        idempotencyService.heartbeat();
+        idempotencyService.complete(id, 201, "application/json", "{}");
+        idempotencyService.release(id);
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(IdempotencyRecord.class));
+    }
+
+    // ==================== HELPERS ====================
+
+    private IdempotencyService.Outcome begin(String requestHash) {
+        return idempotencyService.begin("trader-a", "key-1", "POST", "/bills", requestHash);
+    }
+
+    private void stubComplete(String id, String requestHash) {
+        IdempotencyRecord stored = record(requestHash, true, null);
+        stored.setId(id);
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> {
+                    Update update = invocation.getArgument(1);
+                    Document set = (Document) update.getUpdateObject().get("$set");
+                    stored.setResponseStatus((Integer) set.get("responseStatus"));
+                    stored.setResponseBody((String) set.get("responseBody"));
+                    return stored;
+                });
+    }
+
+    private static IdempotencyRecord record(String requestHash, boolean completed, Instant lockedUntil) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId("id");
+        record.setRequestHash(requestHash);
+        record.setState(completed ? IdempotencyRecord.State.COMPLETED : IdempotencyRecord.State.IN_PROGRESS);
+        record.setLockedUntil(lockedUntil);
+        record.setResponseStatus(201);
+        record.setExpiresAt(Instant.now().plusSeconds(3600));
+        return record;
+    }
+}
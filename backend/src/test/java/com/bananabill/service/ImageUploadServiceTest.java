@@ -0,0 +1,145 @@
+package com.bananabill.service;
+
+import com.bananabill.client.OutboundHttpClient;
+import com.bananabill.config.IntegrationConfig;
+import com.bananabill.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a local stub server standing in for Cloudinary
+ */
+class ImageUploadServiceTest {
+
+    private static final byte[] PNG = pngOf(1000);
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private OutboundHttpClient client;
+
+    private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+    private final List<byte[]> bodies = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1_1/demo/image/upload", exchange -> {
+            contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            bodies.add(exchange.getRequestBody().readAllBytes());
+            byte[] body = "{\"secure_url\":\"https://res.cloudinary.com/demo/bill_1.png\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        IntegrationConfig config = new IntegrationConfig();
+        config.getCloudinary().setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        executor = Executors.newFixedThreadPool(2);
+        client = new OutboundHttpClient(config, executor, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private ImageUploadService service(String cloudName, long maxBytes) {
+        return new ImageUploadService(client, new ObjectMapper(), cloudName, "bills", maxBytes);
+    }
+
+    private static byte[] pngOf(int size) {
+        byte[] image = new byte[size];
+        byte[] signature = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+        System.arraycopy(signature, 0, image, 0, signature.length);
+        for (int i = signature.length; i < size; i++) {
+            image[i] = (byte) i;
+        }
+        return image;
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    // ==================== UPLOAD ====================
+
+    @Test
+    void uploadImage_ShouldSendRawBytesAsMultipartAndReturnUrl() throws Exception {
+        ImageUploadService.UploadedImage uploaded = service("demo", 5000)
+                .uploadImage(new ByteArrayInputStream(PNG), sha256(PNG));
+
+        assertEquals("https://res.cloudinary.com/demo/bill_1.png", uploaded.url());
+        assertEquals(sha256(PNG), uploaded.sha256());
+        assertEquals(PNG.length, uploaded.size());
+        assertTrue(contentTypes.get(0).startsWith("multipart/form-data; boundary="));
+
+        String body = new String(bodies.get(0), StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("name=\"upload_preset\"\r\n\r\nbills\r\n"));
+        assertTrue(body.contains("Content-Type: image/png\r\n\r\n"));
+        assertTrue(body.contains(new String(PNG, StandardCharsets.ISO_8859_1)), "image bytes sent as-is");
+        assertFalse(body.contains("base64"));
+    }
+
+    @Test
+    void uploadImage_ShouldHashButNotUploadWithoutCloudinary() throws Exception {
+        ImageUploadService.UploadedImage uploaded = service("", 5000)
+                .uploadImage(new ByteArrayInputStream(PNG), null);
+
+        assertNull(uploaded.url());
+        assertEquals(sha256(PNG), uploaded.sha256());
+        assertTrue(bodies.isEmpty());
+    }
+
+    // ==================== LIMITS ====================
+
+    @Test
+    void uploadImage_ShouldStopReadingPastSizeLimit() {
+        ImageUploadService service = service("demo", 500);
+
+        assertThrows(MaxUploadSizeExceededException.class,
+                () -> service.uploadImage(new ByteArrayInputStream(pngOf(100_000)), null));
+        assertTrue(bodies.isEmpty());
+    }
+
+    @Test
+    void uploadImage_ShouldRejectChecksumMismatch() {
+        ImageUploadService service = service("demo", 5000);
+
+        assertThrows(ValidationException.class,
+                () -> service.uploadImage(new ByteArrayInputStream(PNG), sha256(new byte[] { 1 })));
+        assertTrue(bodies.isEmpty());
+    }
+
+    @Test
+    void uploadImage_ShouldRejectWhatIsNotPngOrJpeg() {
+        ImageUploadService service = service("demo", 5000);
+
+        assertThrows(ValidationException.class, () -> service.uploadImage(
+                new ByteArrayInputStream("<svg onload=alert(1)>".getBytes(StandardCharsets.UTF_8)), null));
+        assertThrows(ValidationException.class,
+                () -> service.uploadImage(new ByteArrayInputStream(new byte[0]), null));
+    }
+}
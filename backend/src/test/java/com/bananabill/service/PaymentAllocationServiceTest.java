@@ -0,0 +1,336 @@
+package com.bananabill.service;
+
+import com.bananabill.config.BillingConfig;
+import com.bananabill.dto.AllocatePaymentRequest;
+import com.bananabill.dto.response.PaymentAllocationResult;
+import com.bananabill.event.DomainEventPublisher;
+import com.bananabill.event.PaymentRecorded;
+import com.bananabill.exception.PaymentException;
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.PaymentHistory;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.User;
+import com.bananabill.util.SecurityUtils;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentAllocationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BillingConfig billingConfig;
+
+    @Mock
+    private BillReadCache billCache;
+
+    @Mock
+    private DomainEventPublisher eventPublisher;
+
+    @Mock
+    private AdvancePoolService advancePool;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+
+    private MockedStatic<SecurityUtils> securityUtils;
+    private PaymentAllocationService allocationService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(billingConfig.getMoneyScale()).thenReturn(2);
+        lenient().when(billingConfig.getRoundingMode()).thenReturn(RoundingMode.HALF_UP);
+        lenient().when(billingConfig.isTrackOverpayment()).thenReturn(true);
+        lenient().when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Bill.class)))
+                .thenReturn(bulkOperations);
+        lenient().when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+
+        User user = new User();
+        user.setId("trader-a");
+        user.setName("Trader A");
+        securityUtils = mockStatic(SecurityUtils.class);
+        securityUtils.when(SecurityUtils::getCurrentUser).thenReturn(user);
+
+        allocationService = new PaymentAllocationService(mongoTemplate, billingConfig, billCache, eventPublisher,
+                advancePool, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        securityUtils.close();
+    }
+
+    // ==================== FIFO ====================
+
+    @Test
+    void allocate_ShouldSettleOldestBillsFirst() {
+        Bill oldest = bill("bill-1", "1000.00", "0");
+        Bill partial = bill("bill-2", "800.00", "300.00");
+        partial.setPaymentStatus(PaymentStatus.PARTIAL);
+        Bill newest = bill("bill-3", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(oldest, partial, newest));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(3);
+
+        PaymentAllocationResult result = allocationService.allocate(request("1800"));
+
+        assertEquals(List.of("1000.00", "500.00", "300.00"), result.bills().stream()
+                .map(allocation -> allocation.applied().toPlainString()).toList());
+        assertEquals(PaymentStatus.PAID, oldest.getPaymentStatus());
+        assertEquals(PaymentStatus.PAID, partial.getPaymentStatus());
+        assertEquals(PaymentStatus.PARTIAL, newest.getPaymentStatus());
+        assertEquals(0, new BigDecimal("300").compareTo(result.bills().get(2).outstanding()));
+        assertEquals(0, result.advance().signum());
+        assertEquals(4L, oldest.getVersion());
+
+        verify(bulkOperations, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(eventPublisher, times(3)).publish(any(PaymentRecorded.class));
+        verify(billCache).evict("bill-2");
+    }
+
+    @Test
+    void allocate_ShouldStopOnceAmountIsUsedUp() {
+        Bill oldest = bill("bill-1", "1000.00", "0");
+        Bill newest = bill("bill-2", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(oldest, newest));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+
+        PaymentAllocationResult result = allocationService.allocate(request("400"));
+
+        assertEquals(1, result.bills().size());
+        assertEquals(PaymentStatus.PARTIAL, oldest.getPaymentStatus());
+        assertEquals(PaymentStatus.UNPAID, newest.getPaymentStatus());
+    }
+
+    @Test
+    void allocate_ShouldWriteOneHistoryRowPerBillInOneInsert() {
+        Bill first = bill("bill-1", "1000.00", "0");
+        Bill second = bill("bill-2", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(first, second));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(2);
+
+        AllocatePaymentRequest request = request("1600");
+        request.setPaymentMethod("UPI");
+        PaymentAllocationResult result = allocationService.allocate(request);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentHistory>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(rows.capture(), eq(PaymentHistory.class));
+        assertEquals(2, rows.getValue().size());
+        assertTrue(rows.getValue().stream().allMatch(row -> result.allocationId().equals(row.getAllocationId())
+                && "UPI".equals(row.getPaymentMethod())
+                && "trader-a".equals(row.getCreatedBy())));
+        assertEquals(new BigDecimal("600.00"), rows.getValue().get(1).getAmount());
+    }
+
+    // ==================== EXCESS ====================
+
+    @Test
+    void allocate_ExcessShouldBecomeAdvanceOnLastBill() {
+        Bill only = bill("bill-1", "1000.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(only));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+
+        PaymentAllocationResult result = allocationService.allocate(request("1250"));
+
+        assertEquals(new BigDecimal("1250.00"), only.getPaidAmount());
+        assertEquals(new BigDecimal("250.00"), only.getAdvanceAmount());
+        assertEquals(PaymentStatus.PAID, only.getPaymentStatus());
+        assertEquals(0, new BigDecimal("250").compareTo(result.advance()));
+        verify(advancePool).creditOverpayment(eq(only), argThat(before -> before.advanceAmount().signum() == 0));
+
+        // The overpayment is recorded as advance, not as part of the payment
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentHistory>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(rows.capture(), eq(PaymentHistory.class));
+        assertEquals(List.of(PaymentHistory.PaymentType.PAYMENT, PaymentHistory.PaymentType.ADVANCE_RECEIVED),
+                rows.getValue().stream().map(PaymentHistory::getPaymentType).toList());
+        assertEquals(new BigDecimal("1000.00"), rows.getValue().get(0).getAmount());
+        assertEquals(new BigDecimal("250.00"), rows.getValue().get(1).getAmount());
+        assertEquals(new BigDecimal("1000.00"), rows.getValue().get(1).getPreviousPaidAmount());
+        assertEquals(new BigDecimal("1250.00"), rows.getValue().get(1).getNewPaidAmount());
+    }
+
+    @Test
+    void allocate_WithNothingOwed_ShouldPutAdvanceOnLatestBill() {
+        Bill latest = bill("bill-9", "1000.00", "1000.00");
+        latest.setPaymentStatus(PaymentStatus.PAID);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+        when(mongoTemplate.findOne(any(Query.class), eq(Bill.class))).thenReturn(latest);
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+
+        allocationService.allocate(request("500"));
+
+        assertEquals(new BigDecimal("500.00"), latest.getAdvanceAmount());
+    }
+
+    @Test
+    void allocate_ExcessWithoutOverpaymentTracking_ShouldFailBeforeWriting() {
+        when(billingConfig.isTrackOverpayment()).thenReturn(false);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class)))
+                .thenReturn(List.of(bill("bill-1", "1000.00", "0")));
+
+        PaymentException ex = assertThrows(PaymentException.class,
+                () -> allocationService.allocate(request("1500")));
+
+        assertEquals("OVERPAYMENT_NOT_ALLOWED", ex.getErrorCode());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Bill.class));
+    }
+
+    @Test
+    void allocate_WithNoBillsAtAll_ShouldFail() {
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of());
+
+        PaymentException ex = assertThrows(PaymentException.class,
+                () -> allocationService.allocate(request("500")));
+
+        assertEquals("NOTHING_TO_ALLOCATE", ex.getErrorCode());
+    }
+
+    // ==================== CHOSEN BILLS ====================
+
+    @Test
+    void allocate_WithBillIds_ShouldFollowRequestOrder() {
+        Bill older = bill("bill-1", "1000.00", "0");
+        Bill newer = bill("bill-2", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(older, newer));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(2);
+
+        AllocatePaymentRequest request = request("1000");
+        request.setBillIds(List.of("bill-2", "bill-1"));
+        PaymentAllocationResult result = allocationService.allocate(request);
+
+        assertEquals(List.of("bill-2", "bill-1"), result.bills().stream()
+                .map(PaymentAllocationResult.BillAllocation::billId).toList());
+        assertEquals(PaymentStatus.PAID, newer.getPaymentStatus());
+        assertEquals(new BigDecimal("400.00"), older.getPaidAmount());
+    }
+
+    @Test
+    void allocate_WithBillOfAnotherFarmer_ShouldReject() {
+        Bill foreign = bill("bill-1", "1000.00", "0");
+        foreign.setFarmerId("farmer-2");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(foreign));
+
+        AllocatePaymentRequest request = request("500");
+        request.setBillIds(List.of("bill-1"));
+
+        assertThrows(ValidationException.class, () -> allocationService.allocate(request));
+    }
+
+    @Test
+    void allocate_WithPaidBill_ShouldReject() {
+        Bill paid = bill("bill-1", "1000.00", "1000.00");
+        paid.setPaymentStatus(PaymentStatus.PAID);
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(paid));
+
+        AllocatePaymentRequest request = request("500");
+        request.setBillIds(List.of("bill-1"));
+
+        PaymentException ex = assertThrows(PaymentException.class, () -> allocationService.allocate(request));
+        assertEquals("ALREADY_PAID", ex.getErrorCode());
+    }
+
+    @Test
+    void allocate_WithDuplicateBillIds_ShouldReject() {
+        AllocatePaymentRequest request = request("500");
+        request.setBillIds(List.of("bill-1", "bill-1"));
+
+        assertThrows(ValidationException.class, () -> allocationService.allocate(request));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // ==================== CONFLICTS ====================
+
+    @Test
+    void allocate_WhenBillChangedConcurrently_ShouldUndoAndFail() {
+        Bill first = bill("bill-1", "1000.00", "0");
+        Bill second = bill("bill-2", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(first, second));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(1);
+
+        PaymentException ex = assertThrows(PaymentException.class,
+                () -> allocationService.allocate(request("1600")));
+
+        assertEquals("CONCURRENT_UPDATE", ex.getErrorCode());
+        // No transaction here: a second bulk puts back what was written
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class);
+        verify(bulkOperations, times(4)).updateOne(any(Query.class), any(Update.class));
+        verify(mongoTemplate, never()).insert(anyList(), eq(PaymentHistory.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void allocate_WhenHistoryInsertFails_ShouldUndoAndFail() {
+        Bill first = bill("bill-1", "1000.00", "0");
+        Bill second = bill("bill-2", "600.00", "0");
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(first, second));
+        when(bulkWriteResult.getMatchedCount()).thenReturn(2);
+        when(mongoTemplate.insert(anyList(), eq(PaymentHistory.class)))
+                .thenThrow(new IllegalStateException("write concern timeout"));
+
+        PaymentException ex = assertThrows(PaymentException.class,
+                () -> allocationService.allocate(request("1600")));
+
+        assertEquals("NOT_RECORDED", ex.getErrorCode());
+        // Rows that did get in are removed and the bills are put back
+        verify(mongoTemplate).remove(any(Query.class), eq(PaymentHistory.class));
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, Bill.class);
+        verify(bulkOperations, times(4)).updateOne(any(Query.class), any(Update.class));
+        verifyNoInteractions(eventPublisher, advancePool);
+    }
+
+    @Test
+    void allocate_WithNonPositiveAmount_ShouldFail() {
+        assertThrows(PaymentException.class, () -> allocationService.allocate(request("0")));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // ==================== HELPERS ====================
+
+    private static AllocatePaymentRequest request(String amount) {
+        AllocatePaymentRequest request = new AllocatePaymentRequest();
+        request.setFarmerId("farmer-1");
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static Bill bill(String id, String netAmount, String paidAmount) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber("BB" + id);
+        bill.setFarmerId("farmer-1");
+        bill.setCreatedBy("trader-a");
+        bill.setCreatedAt(LocalDateTime.now());
+        bill.setNetAmount(new BigDecimal(netAmount));
+        bill.setPaidAmount(new BigDecimal(paidAmount));
+        bill.setPaymentStatus(PaymentStatus.UNPAID);
+        bill.setVersion(3L);
+        return bill;
+    }
+}
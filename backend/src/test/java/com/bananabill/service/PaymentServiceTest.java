@@ -4,6 +4,7 @@ import com.bananabill.config.BillingConfig;
 import com.bananabill.exception.PaymentException;
 import com.bananabill.model.Bill;
 import com.bananabill.model.Farmer;
+import com.bananabill.model.FarmerSnapshot;
 import com.bananabill.model.PaymentHistory;
 import com.bananabill.model.PaymentStatus;
 import com.bananabill.repository.BillRepository;
@@ -54,7 +55,7 @@ class PaymentServiceTest {
         testBill = new Bill();
         testBill.setId("bill-1");
         testBill.setBillNumber("B001");
-        testBill.setFarmer(testFarmer);
+        testBill.setFarmer(FarmerSnapshot.of(testFarmer));
         testBill.setFarmerId("farmer-1");
         testBill.setNetAmount(new BigDecimal("5000"));
         testBill.setPaidAmount(BigDecimal.ZERO);
@@ -0,0 +1,193 @@
+package com.bananabill.service;
+
+import com.bananabill.job.JobContext;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.model.ReminderClaim;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WhatsAppService whatsAppService;
+
+    @Mock
+    private BillReadCache billCache;
+
+    private ReminderService reminderService;
+
+    @BeforeEach
+    void setUp() {
+        reminderService = new ReminderService(mongoTemplate, whatsAppService, billCache,
+                new SimpleMeterRegistry(), 72, 2, 600_000, 100);
+        lenient().when(whatsAppService.isConfigured()).thenReturn(true);
+    }
+
+    // ==================== GROUPING ====================
+
+    @Test
+    void run_ShouldSendOneMessagePerFarmer() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00"), bill("b2", "farmer-1", "500.00")),
+                List.of(bill("b3", "farmer-2", "700.00")));
+
+        ReminderService.RunReport report = reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(2, report.farmers());
+        assertEquals(2, report.sent());
+        assertEquals(2, scanQueries.size());
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(whatsAppService).sendTextMessage(eq("9000000001"), message.capture());
+        assertTrue(message.getValue().contains("BBb1, BBb2"));
+        assertTrue(message.getValue().contains("1,500"));
+    }
+
+    @Test
+    void run_ShouldPageWithKeysetAfterLastBill() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00"), bill("b2", "farmer-1", "500.00")), List.of());
+
+        reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(2, scanQueries.size());
+        assertFalse(scanQueries.get(0).getQueryObject().toString().contains("b2"));
+        assertTrue(scanQueries.get(1).getQueryObject().toString().contains("b2"));
+        assertEquals(2, scanQueries.get(1).getLimit());
+    }
+
+    @Test
+    void run_ShouldSendEachPageBeforeReadingTheNext() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00"), bill("b2", "farmer-2", "500.00")),
+                List.of(bill("b3", "farmer-3", "700.00")));
+        doAnswer(invocation -> {
+            // Page 1 is being sent: page 2 has not been read yet
+            assertEquals(1, scanQueries.size());
+            return null;
+        }).when(whatsAppService).sendTextMessage(eq("9000000001"), anyString());
+
+        ReminderService.RunReport report = reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(3, report.sent());
+    }
+
+    @Test
+    void run_FarmerSpanningPages_ShouldGetOneCompleteMessage() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00"), bill("b2", "farmer-2", "500.00")),
+                List.of(bill("b3", "farmer-1", "700.00")));
+
+        ReminderService.RunReport report = reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(2, report.farmers());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(whatsAppService).sendTextMessage(eq("9000000001"), message.capture());
+        assertTrue(message.getValue().contains("BBb1, BBb3"));
+    }
+
+    @Test
+    void run_ShouldMarkAllBillsOfFarmerInOneUpdate() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00")));
+
+        reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(Bill.class));
+        assertTrue(update.getValue().modifies("lastReminderSent"));
+        verify(billCache).evictAll(List.of("b1"));
+    }
+
+    // ==================== CLAIMS ====================
+
+    @Test
+    void run_FarmerClaimedByAnotherNode_ShouldSkip() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00")));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ReminderClaim.class)))
+                .thenThrow(new DuplicateKeyException("dup"));
+
+        ReminderService.RunReport report = reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(1, report.skipped());
+        verify(whatsAppService, never()).sendTextMessage(anyString(), anyString());
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Bill.class));
+    }
+
+    @Test
+    void run_SendFails_ShouldReleaseClaimForNextRun() {
+        stubScan(List.of(bill("b1", "farmer-1", "1000.00")));
+        doThrow(new RuntimeException("Twilio down")).when(whatsAppService).sendTextMessage(anyString(), anyString());
+
+        ReminderService.RunReport report = reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        assertEquals(1, report.failed());
+        verify(mongoTemplate).remove(any(Query.class), eq(ReminderClaim.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Bill.class));
+    }
+
+    @Test
+    void run_WhenTwilioNotConfigured_ShouldNotScan() {
+        when(whatsAppService.isConfigured()).thenReturn(false);
+
+        reminderService.run(JobContext.standalone("overdue-reminders"));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // ==================== HELPERS ====================
+
+    private final List<Query> scanQueries = new ArrayList<>();
+
+    /**
+     * Scan queries get the pages in turn; a farmer's query gets that farmer's bills from every page
+     */
+    @SafeVarargs
+    private void stubScan(List<Bill>... pages) {
+        List<Bill> all = Arrays.stream(pages).flatMap(List::stream).toList();
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            String filter = query.getQueryObject().toString();
+            if (filter.contains("farmerId=")) {
+                return all.stream().filter(bill -> filter.contains("farmerId=" + bill.getFarmerId())).toList();
+            }
+            scanQueries.add(query);
+            return scanQueries.size() <= pages.length ? pages[scanQueries.size() - 1] : List.of();
+        });
+    }
+
+    private static Bill bill(String id, String farmerId, String netAmount) {
+        Bill bill = new Bill();
+        bill.setId(id);
+        bill.setBillNumber("BB" + id);
+        bill.setFarmerId(farmerId);
+        bill.setCreatedBy("trader-a");
+        bill.setFarmer(new FarmerSnapshot(farmerId, "Farmer " + farmerId,
+                "farmer-1".equals(farmerId) ? "9000000001" : "9000000002"));
+        bill.setNetAmount(new BigDecimal(netAmount));
+        bill.setPaidAmount(BigDecimal.ZERO);
+        bill.setPaymentStatus(PaymentStatus.UNPAID);
+        bill.setDueDate(LocalDateTime.now().minusDays(10));
+        return bill;
+    }
+}
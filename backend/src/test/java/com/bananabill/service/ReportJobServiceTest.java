@@ -0,0 +1,206 @@
+package com.bananabill.service;
+
+import com.bananabill.dto.ReportJobRequest;
+import com.bananabill.exception.ReportJobException;
+import com.bananabill.model.ReportJob;
+import com.bananabill.model.ReportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<String> started = new ArrayList<>();
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.insert(any(ReportJob.class))).thenAnswer(invocation -> {
+            ReportJob job = invocation.getArgument(0);
+            job.setId(job.getUserId() + "-" + (++nextId));
+            return job;
+        });
+        lenient().when(mongoTemplate.findById(anyString(), eq(ReportJob.class))).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            started.add(id);
+            ReportJob job = new ReportJob();
+            job.setId(id);
+            job.setUserId(id.substring(0, id.indexOf('-')));
+            job.setType(ReportJob.Type.SUMMARY);
+            job.setParams(Map.of());
+            job.setExpiresAt(Instant.now().plusSeconds(3600));
+            return job;
+        });
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReportJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        lenient().when(reportService.getReportSummary(any())).thenReturn(Map.of("totalBills", 3));
+    }
+
+    private ReportJobService service(int concurrency, long maxResultBytes) {
+        return new ReportJobService(reportService, mongoTemplate, new ObjectMapper().findAndRegisterModules(),
+                tasks::add, new SimpleMeterRegistry(), concurrency, 5, 24, maxResultBytes, 15);
+    }
+
+    private void runAll() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static ReportJobRequest summary() {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setType(ReportJob.Type.SUMMARY);
+        return request;
+    }
+
+    // ==================== SUBMIT ====================
+
+    @Test
+    void submit_ShouldRejectWhenTooManyPending() {
+        when(mongoTemplate.count(any(Query.class), eq(ReportJob.class))).thenReturn(5L);
+
+        ReportJobException ex = assertThrows(ReportJobException.class,
+                () -> service(2, 1_000_000).submit("a", summary()));
+
+        assertEquals("TOO_MANY_REPORT_JOBS", ex.getErrorCode());
+        verify(mongoTemplate, never()).insert(any(ReportJob.class));
+    }
+
+    @Test
+    void toParams_ShouldRejectIncompleteRequests() {
+        ReportJobRequest monthly = new ReportJobRequest();
+        monthly.setType(ReportJob.Type.MONTHLY);
+        monthly.setYear(2026);
+        assertThrows(ReportJobException.class, () -> ReportJobService.toParams(monthly));
+
+        ReportJobRequest range = new ReportJobRequest();
+        range.setType(ReportJob.Type.DATE_RANGE);
+        range.setStartDate("2026-02-01");
+        range.setEndDate("2026-01-01");
+        assertThrows(ReportJobException.class, () -> ReportJobService.toParams(range));
+
+        range.setEndDate("not-a-date");
+        assertThrows(ReportJobException.class, () -> ReportJobService.toParams(range));
+    }
+
+    @Test
+    void toParams_ShouldDefaultToIncludingBills() {
+        ReportJobRequest monthly = new ReportJobRequest();
+        monthly.setType(ReportJob.Type.MONTHLY);
+        monthly.setYear(2026);
+        monthly.setMonth(3);
+
+        assertEquals(Map.of("year", "2026", "month", "3", "includeBills", "true"),
+                ReportJobService.toParams(monthly));
+    }
+
+    // ==================== FAIR QUEUE ====================
+
+    @Test
+    void queue_ShouldAlternateBetweenTraders() {
+        ReportJobService service = service(1, 1_000_000);
+
+        service.submit("a", summary()); // a-1 starts at once
+        service.submit("a", summary());
+        service.submit("a", summary());
+        service.submit("b", summary());
+        service.submit("b", summary());
+        assertEquals(1, tasks.size());
+
+        runAll();
+
+        assertEquals(List.of("a-1", "a-2", "b-4", "a-3", "b-5"), started);
+    }
+
+    // ==================== EXECUTION ====================
+
+    @Test
+    void run_ShouldStoreGzippedResponse() throws Exception {
+        ReportJobService service = service(2, 1_000_000);
+
+        service.submit("a", summary());
+        runAll();
+
+        ArgumentCaptor<ReportResult> result = ArgumentCaptor.forClass(ReportResult.class);
+        verify(mongoTemplate).save(result.capture());
+        assertEquals("a-1", result.getValue().getId());
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(result.getValue().getData()))
+                .readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"totalBills\":3"));
+        assertTrue(json.contains("\"success\":true"));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), updates.capture(), eq(ReportJob.class));
+        assertEquals(ReportJob.Status.SUCCEEDED,
+                updates.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void run_ShouldDropResultWhenCancelledMeanwhile() {
+        // Start succeeds, then the job is no longer RUNNING
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ReportJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        service(2, 1_000_000).submit("a", summary());
+        runAll();
+
+        verify(reportService).getReportSummary(any());
+        verify(mongoTemplate, never()).save(any(ReportResult.class));
+    }
+
+    @Test
+    void run_ShouldFailReportsOverSizeLimit() {
+        service(2, 10).submit("a", summary());
+        runAll();
+
+        verify(mongoTemplate, never()).save(any(ReportResult.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), updates.capture(), eq(ReportJob.class));
+        assertEquals(ReportJob.Status.FAILED,
+                updates.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void getResult_ShouldRejectUnfinishedJob() {
+        ReportJob job = new ReportJob();
+        job.setId("a-1");
+        job.setStatus(ReportJob.Status.RUNNING);
+        when(mongoTemplate.findOne(any(Query.class), eq(ReportJob.class))).thenReturn(job);
+
+        ReportJobException ex = assertThrows(ReportJobException.class,
+                () -> service(2, 1_000_000).getResult("a", "a-1"));
+
+        assertEquals("REPORT_NOT_READY", ex.getErrorCode());
+    }
+}
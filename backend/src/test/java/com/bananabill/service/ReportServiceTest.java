@@ -0,0 +1,119 @@
+package com.bananabill.service;
+
+import com.bananabill.config.ReportingMongo;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private BillAnalyticsCache analyticsCache;
+
+    @Mock
+    private BillArchiveService archiveService;
+
+    @Mock
+    private ReportingMongo reportingMongo;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        when(analyticsCache.isReady()).thenReturn(false);
+        when(reportingMongo.template()).thenReturn(mongoTemplate);
+        when(archiveService.findBetween(any(), any())).thenReturn(List.of());
+        reportService = new ReportService(analyticsCache, archiveService, reportingMongo);
+    }
+
+    private static Bill bill(String farmerId, String netAmount, String paidAmount, String weight,
+            PaymentStatus status) {
+        Bill bill = new Bill();
+        bill.setFarmerId(farmerId);
+        bill.setFarmer(new FarmerSnapshot(farmerId, "Farmer " + farmerId, "9876543210"));
+        bill.setNetAmount(netAmount != null ? new BigDecimal(netAmount) : null);
+        bill.setPaidAmount(paidAmount != null ? new BigDecimal(paidAmount) : null);
+        bill.setFinalNetWeight(weight != null ? new BigDecimal(weight) : null);
+        bill.setPaymentStatus(status);
+        bill.setCreatedAt(LocalDateTime.of(2026, 1, 10, 10, 0));
+        return bill;
+    }
+
+    // ==================== CACHED ====================
+
+    @Test
+    void monthlyReport_FromCache_ShouldNotReadBillsByDefault() {
+        when(analyticsCache.isReady()).thenReturn(true);
+        when(analyticsCache.aggregate(any())).thenReturn(new BillAnalyticsCache.Aggregate(2,
+                new BigDecimal("1500.00"), new BigDecimal("30.5"), new BigDecimal("600.00"), List.of()));
+
+        Map<String, Object> report = reportService.getMonthlyReport(2026, 1);
+
+        assertEquals(2L, report.get("totalBills"));
+        assertFalse(report.containsKey("bills"));
+        assertEquals("/api/reports/monthly/bills?year=2026&month=1", report.get("billsUrl"));
+        verifyNoInteractions(mongoTemplate, archiveService);
+    }
+
+    // ==================== DATABASE FALLBACK ====================
+
+    @Test
+    void monthlyReport_WithoutCache_ShouldMatchCachedShape() {
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(
+                bill("f1", "1000.00", "400.00", "20.5", PaymentStatus.PARTIAL),
+                bill("f1", "500.00", "500.00", "10", PaymentStatus.PAID),
+                bill("f2", "300.00", null, "5", PaymentStatus.UNPAID)));
+
+        Map<String, Object> report = reportService.getMonthlyReport(2026, 1, true);
+
+        assertEquals(3L, report.get("totalBills"));
+        assertEquals(1800.0, report.get("totalAmount"));
+        assertEquals(600.0, report.get("averageAmount"));
+        assertEquals(35.5, report.get("totalWeight"));
+        assertEquals(900.0, report.get("outstandingAmount"));
+        assertEquals("JANUARY", report.get("monthName"));
+        assertEquals(3, ((List<?>) report.get("bills")).size());
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> farmers = (List<Map<String, Object>>) report.get("farmers");
+        assertEquals("f1", farmers.get(0).get("farmerId"));
+        assertEquals(2L, farmers.get(0).get("billCount"));
+        assertEquals(1500.0, farmers.get(0).get("totalAmount"));
+    }
+
+    @Test
+    void dateRangeReport_WithoutCache_ShouldHonourIncludeBillsAndSkipMissingAmounts() {
+        when(mongoTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(List.of(
+                bill("f1", null, null, null, null),
+                bill("f1", "250.00", null, "4", PaymentStatus.UNPAID)));
+
+        Map<String, Object> report = reportService.getDateRangeReport(
+                java.time.LocalDate.of(2026, 1, 1), java.time.LocalDate.of(2026, 1, 31), false);
+
+        assertFalse(report.containsKey("bills"));
+        assertEquals(2L, report.get("totalBills"));
+        assertEquals(250.0, report.get("totalAmount"));
+        assertEquals(4.0, report.get("totalWeight"));
+        assertEquals(250.0, report.get("outstandingAmount"));
+    }
+}
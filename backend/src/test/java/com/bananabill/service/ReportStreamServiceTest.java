@@ -0,0 +1,204 @@
+package com.bananabill.service;
+
+import com.bananabill.config.ReportingMongo;
+import com.bananabill.exception.ValidationException;
+import com.bananabill.model.Bill;
+import com.bananabill.model.FarmerSnapshot;
+import com.bananabill.model.PaymentStatus;
+import com.bananabill.util.RequestDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportStreamServiceTest {
+
+    @Mock
+    private ReportingMongo reportingMongo;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveTemplate;
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private BillArchiveService archiveService;
+
+    private ReportStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(reportingMongo.isReactive()).thenReturn(true);
+        lenient().when(reportingMongo.reactiveTemplate()).thenReturn(reactiveTemplate);
+        lenient().when(reportingMongo.template()).thenReturn(template);
+        lenient().when(archiveService.getArchivedMonths()).thenReturn(List.of());
+        service = new ReportStreamService(reportingMongo, archiveService, 50, 366, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    private static Bill bill(String number, LocalDateTime createdAt) {
+        Bill bill = new Bill();
+        bill.setBillNumber(number);
+        bill.setCreatedAt(createdAt);
+        bill.setFarmer(new FarmerSnapshot("f1", "Ramesh", "9876543210"));
+        bill.setNetAmount(new BigDecimal("1250.50"));
+        return bill;
+    }
+
+    // ==================== STREAMS ====================
+
+    @Test
+    void streamBills_ShouldEmitArchivedMonthsOldestFirstThenLiveBills() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 31, 23, 59);
+        when(archiveService.getArchivedMonths())
+                .thenReturn(List.of(YearMonth.of(2024, 2), YearMonth.of(2024, 1), YearMonth.of(2023, 12)));
+        when(archiveService.findBetween(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(0);
+            return List.of(bill("BB" + from.getMonthValue(), from.plusDays(1)));
+        });
+        when(reactiveTemplate.find(any(Query.class), eq(Bill.class)))
+                .thenReturn(Flux.just(bill("LIVE", LocalDateTime.of(2024, 3, 5, 10, 0))));
+
+        List<String> numbers = service.streamBills(start, end).map(Bill::getBillNumber).collectList().block();
+
+        assertEquals(List.of("BB1", "BB2", "LIVE"), numbers);
+        verify(archiveService, never()).findBetween(eq(LocalDateTime.of(2023, 12, 1, 0, 0)), any());
+    }
+
+    @Test
+    void liveQuery_ShouldBeSortedByCreationWithBoundedBatches() {
+        when(reactiveTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(Flux.empty());
+
+        service.streamMonth(YearMonth.of(2024, 5)).blockLast();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveTemplate).find(query.capture(), eq(Bill.class));
+        assertEquals(50, query.getValue().getMeta().getCursorBatchSize());
+        assertTrue(query.getValue().getSortObject().containsKey("createdAt"));
+    }
+
+    @Test
+    void liveQuery_ShouldGetRemainingDeadlineAsMaxTime() {
+        when(reactiveTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(Flux.empty());
+        RequestDeadline.start(Duration.ofSeconds(30));
+
+        Flux<Bill> bills = service.streamMonth(YearMonth.of(2024, 5));
+        RequestDeadline.clear();
+        bills.blockLast();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveTemplate).find(query.capture(), eq(Bill.class));
+        Long maxTime = query.getValue().getMeta().getMaxTimeMsec();
+        assertTrue(maxTime != null && maxTime > 29000 && maxTime <= 30000, "maxTime " + maxTime);
+    }
+
+    @Test
+    void streamBills_ShouldRefuseRangesBeyondMaxDays() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+        assertThrows(ValidationException.class, () -> service.streamBills(start, start.plusDays(400)));
+        assertThrows(ValidationException.class, () -> service.streamBills(start, start.minusDays(1)));
+        verifyNoInteractions(reactiveTemplate, archiveService);
+    }
+
+    @Test
+    void streamBills_ShouldPageThroughSharedPoolWithoutReactiveClient() {
+        when(reportingMongo.isReactive()).thenReturn(false);
+        List<Bill> firstPage = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Bill bill = bill("B" + i, LocalDateTime.of(2024, 1, 2, 0, 0).plusMinutes(i));
+            bill.setId("id" + i);
+            firstPage.add(bill);
+        }
+        when(template.find(any(Query.class), eq(Bill.class)))
+                .thenReturn(firstPage, List.of(bill("LAST", LocalDateTime.of(2024, 1, 3, 0, 0))));
+
+        List<Bill> bills = service.streamMonth(YearMonth.of(2024, 1)).collectList().block();
+
+        assertEquals(51, bills.size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(template, times(2)).find(query.capture(), eq(Bill.class));
+        assertEquals(50, query.getAllValues().get(0).getLimit());
+        assertTrue(query.getAllValues().get(1).getQueryObject().toString().contains("id49"));
+        verifyNoInteractions(reactiveTemplate);
+    }
+
+    @Test
+    void streamBills_ShouldOnlyPullWhatTheSubscriberRequested() {
+        AtomicLong requested = new AtomicLong();
+        Flux<Bill> live = Flux.range(1, 10_000)
+                .map(i -> bill("B" + i, LocalDateTime.of(2024, 1, 2, 0, 0)))
+                .doOnRequest(requested::addAndGet);
+        when(reactiveTemplate.find(any(Query.class), eq(Bill.class))).thenReturn(live);
+
+        List<Bill> received = new ArrayList<>();
+        service.streamMonth(YearMonth.of(2024, 1)).subscribe(new BaseSubscriber<Bill>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(3);
+            }
+
+            @Override
+            protected void hookOnNext(Bill bill) {
+                received.add(bill);
+            }
+        });
+
+        assertEquals(3, received.size());
+        assertTrue(requested.get() <= 3, "requested " + requested.get());
+    }
+
+    // ==================== CSV ====================
+
+    @Test
+    void exportCsv_ShouldStartWithHeaderAndEmitOneLinePerBill() {
+        when(reactiveTemplate.find(any(Query.class), eq(Bill.class)))
+                .thenReturn(Flux.just(bill("BB24010001", LocalDateTime.of(2024, 1, 2, 9, 30))));
+
+        List<String> lines = service.exportCsv(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 31, 23, 59)).collectList().block();
+
+        assertEquals(2, lines.size());
+        assertEquals(ReportStreamService.CSV_HEADER, lines.get(0));
+        assertTrue(lines.get(1).startsWith("BB24010001,2024-01-02T09:30,Ramesh,9876543210,"));
+        assertTrue(lines.get(1).contains(",1250.50," + PaymentStatus.UNPAID + ","));
+        assertTrue(lines.get(1).endsWith("\n"));
+    }
+
+    @Test
+    void csvField_ShouldQuoteAndNeutralizeFormulas() {
+        assertEquals("", ReportStreamService.csvField(null));
+        assertEquals("\"Patil, Ramesh\"", ReportStreamService.csvField("Patil, Ramesh"));
+        assertEquals("\"say \"\"hi\"\"\"", ReportStreamService.csvField("say \"hi\""));
+        assertEquals("'=HYPERLINK(1)", ReportStreamService.csvField("=HYPERLINK(1)"));
+        assertEquals("-12.5", ReportStreamService.csvField(new BigDecimal("-12.5")));
+    }
+}
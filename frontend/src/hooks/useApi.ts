@@ -235,18 +235,15 @@ export function useDashboardStats() {
     return useQuery({
         queryKey: queryKeys.dashboardStats(),
         queryFn: async (): Promise<DashboardStats> => {
-            // Parallel fetches
-            const [todayRes, totalRes, unpaidRes] = await Promise.all([
-                apiClient.get('/bills/stats/today'),
-                apiClient.get('/bills/stats/total'),
-                apiClient.get('/bills/stats/unpaid'),
-            ]);
+            // Single aggregated call
+            const response = await apiClient.get('/dashboard/summary');
+            const summary = response.data.data || response.data;
 
             return {
-                todayCount: todayRes.data.count || todayRes.data.data?.count || 0,
-                totalCount: totalRes.data.count || totalRes.data.data?.count || 0,
-                unpaidCount: unpaidRes.data.count || unpaidRes.data.data?.count || 0,
-                unpaidAmount: unpaidRes.data.totalAmount || unpaidRes.data.data?.totalAmount || 0,
+                todayCount: summary.todayBills || 0,
+                totalCount: summary.totalBills || 0,
+                unpaidCount: summary.unpaidBills || 0,
+                unpaidAmount: Number(summary.unpaidAmount) || 0,
             };
         },
         staleTime: 1 * 60 * 1000, // 1 minute
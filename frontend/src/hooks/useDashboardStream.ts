@@ -0,0 +1,81 @@
+import { useEffect, useRef } from 'react';
+import apiClient, { getAccessToken } from '@/services/apiClient';
+
+export interface DashboardDelta {
+    id: number;
+    type: 'BILL_CREATED' | 'BILL_UPDATED' | 'BILL_DELETED' | 'PAYMENT_RECORDED';
+    billId: string;
+    billNumber: string;
+    farmerName?: string;
+    netAmount?: number;
+    paidAmount?: number;
+    paymentStatus?: string;
+    amount?: number;
+    occurredAt: string;
+}
+
+const RECONNECT_DELAY_MS = 3000;
+
+/**
+ * Subscribe to live dashboard deltas (GET /dashboard/stream, Server-Sent Events)
+ * Uses fetch instead of EventSource so the JWT can go in the Authorization header.
+ * Reconnects with Last-Event-ID; onResync means "reload the summary".
+ */
+export const useDashboardStream = (
+    onDelta: (delta: DashboardDelta) => void,
+    onResync: () => void,
+) => {
+    const handlers = useRef({ onDelta, onResync });
+    handlers.current = { onDelta, onResync };
+
+    useEffect(() => {
+        const controller = new AbortController();
+        let lastEventId: string | null = null;
+
+        const connect = async () => {
+            while (!controller.signal.aborted) {
+                try {
+                    const headers: Record<string, string> = { Accept: 'text/event-stream' };
+                    const token = getAccessToken();
+                    if (token) headers['Authorization'] = `Bearer ${token}`;
+                    if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+                    const response = await fetch(`${apiClient.defaults.baseURL}/dashboard/stream`, {
+                        headers,
+                        signal: controller.signal,
+                    });
+                    if (!response.ok || !response.body) throw new Error(`stream ${response.status}`);
+
+                    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                    let buffer = '';
+                    for (;;) {
+                        const { value, done } = await reader.read();
+                        if (done) break;
+                        buffer += value;
+                        let end;
+                        while ((end = buffer.indexOf('\n\n')) >= 0) {
+                            const block = buffer.slice(0, end);
+                            buffer = buffer.slice(end + 2);
+                            let event = 'message';
+                            let data = '';
+                            for (const line of block.split('\n')) {
+                                if (line.startsWith('id:')) lastEventId = line.slice(3).trim();
+                                else if (line.startsWith('event:')) event = line.slice(6).trim();
+                                else if (line.startsWith('data:')) data += line.slice(5).trim();
+                            }
+                            if (event === 'resync') handlers.current.onResync();
+                            else if (data) handlers.current.onDelta(JSON.parse(data));
+                        }
+                    }
+                } catch {
+                    if (controller.signal.aborted) return;
+                }
+                // Missed events are replayed (or a resync is sent) after reconnecting
+                await new Promise((resolve) => setTimeout(resolve, RECONNECT_DELAY_MS));
+            }
+        };
+
+        connect();
+        return () => controller.abort();
+    }, []);
+};
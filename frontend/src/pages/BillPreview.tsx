@@ -5,7 +5,6 @@ import { Button } from '@/components/ui/button';
 import { useToast } from '@/hooks/use-toast';
 import { billService, paymentService, BillWithFarmer } from '@/services/billService';
 import { generateBillPDF } from '@/services/exportService';
-import { cloudinaryService } from '@/services/cloudinaryService';
 import { ArrowLeft, Download, Share2, Banana, Printer, CheckCircle } from 'lucide-react';
 import { format } from 'date-fns';
 
@@ -51,16 +50,9 @@ const BillPreview: React.FC = () => {
       const { generateBillImage } = await import('@/services/exportService');
       const blob = await generateBillImage(billRef.current);
 
-      // Upload to Cloudinary (same as Statement)
-      toast({ title: 'Uploading to cloud...' });
-      const filename = `bill_${bill.billNumber}_${Date.now()}`;
-      const imageUrl = await cloudinaryService.uploadImage(blob, filename);
-
-      console.log('Image uploaded to Cloudinary:', imageUrl);
-
-      // Send Cloudinary URL to backend for WhatsApp
+      // Send the image to the backend, which uploads it and sends it via WhatsApp
       toast({ title: 'Sending to WhatsApp...' });
-      await billService.sendToWhatsApp(id, imageUrl);
+      await billService.sendImageToWhatsApp(id, blob);
 
       toast({ title: 'Bill sent via WhatsApp!', description: 'Farmer will receive the bill image' });
     } catch (error) {
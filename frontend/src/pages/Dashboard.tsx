@@ -1,9 +1,10 @@
-import React, { useEffect, useState } from 'react';
+import React, { useCallback, useEffect, useState } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { useAuth } from '@/contexts/AuthContext';
 import { useLanguage } from '@/contexts/LanguageContext';
 import { Button } from '@/components/ui/button';
 import { billService } from '@/services/billService';
+import { useDashboardStream } from '@/hooks/useDashboardStream';
 import LanguageSwitch from '@/components/LanguageSwitch';
 import { Banana, Plus, History, LogOut, FileText, Calendar } from 'lucide-react';
 
@@ -15,23 +16,24 @@ const Dashboard: React.FC = () => {
   const [totalCount, setTotalCount] = useState(0);
   const [loading, setLoading] = useState(true);
 
+  const fetchStats = useCallback(async () => {
+    try {
+      const summary = await billService.getDashboardSummary();
+      setTodayCount(summary.todayBills);
+      setTotalCount(summary.totalBills);
+    } catch (error) {
+      console.error('Error fetching stats:', error);
+    } finally {
+      setLoading(false);
+    }
+  }, []);
+
   useEffect(() => {
-    const fetchStats = async () => {
-      try {
-        const [today, total] = await Promise.all([
-          billService.getTodayCount(),
-          billService.getTotalCount(),
-        ]);
-        setTodayCount(today);
-        setTotalCount(total);
-      } catch (error) {
-        console.error('Error fetching stats:', error);
-      } finally {
-        setLoading(false);
-      }
-    };
     fetchStats();
-  }, []);
+  }, [fetchStats]);
+
+  // Pushed updates instead of polling; the server coalesces the reloads
+  useDashboardStream(fetchStats, fetchStats);
 
   const handleLogout = async () => {
     await signOut();
@@ -60,6 +60,20 @@ const processQueue = (error: Error | null, token: string | null = null) => {
     failedQueue = [];
 };
 
+// Writes the backend runs at most once per Idempotency-Key
+const IDEMPOTENT_PATHS = [
+    /^\/bills$/,
+    /^\/bills\/[^/]+\/(record-payment|mark-paid)$/,
+    /^\/bills\/allocate-payment$/,
+];
+
+const newIdempotencyKey = (): string => {
+    if (typeof crypto !== 'undefined' && typeof crypto.randomUUID === 'function') {
+        return crypto.randomUUID();
+    }
+    return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}${Math.random().toString(36).slice(2)}`;
+};
+
 // Request interceptor - add access token to headers
 apiClient.interceptors.request.use(
     (config: InternalAxiosRequestConfig) => {
@@ -67,6 +81,12 @@ apiClient.interceptors.request.use(
         if (accessToken && config.headers) {
             config.headers['Authorization'] = `Bearer ${accessToken}`;
         }
+        // Set once per request config, so retries of the same request reuse the key
+        const path = (config.url || '').split('?')[0];
+        if (config.method === 'post' && config.headers && !config.headers['Idempotency-Key']
+            && IDEMPOTENT_PATHS.some(pattern => pattern.test(path))) {
+            config.headers['Idempotency-Key'] = newIdempotencyKey();
+        }
         return config;
     },
     (error) => Promise.reject(error)
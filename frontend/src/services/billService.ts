@@ -108,6 +108,18 @@ interface BackendBillResponse {
   createdAt: string;
 }
 
+export interface DashboardSummary {
+  totalBills: number;
+  todayBills: number;
+  todayWeight: number;
+  todayAmount: number;
+  unpaidBills: number;
+  unpaidAmount: number;
+  outstandingBills: number;
+  outstandingBalance: number;
+  generatedAt: string;
+}
+
 export interface CreateBillInput {
   farmerId: string;
   vehicleNumber?: string | null;
@@ -235,6 +247,12 @@ export const billService = {
     return data.count;
   },
 
+  /** All dashboard numbers in one request (one aggregation on the server) */
+  async getDashboardSummary(): Promise<DashboardSummary> {
+    const response = await apiClient.get('/dashboard/summary');
+    return response.data.data || response.data;
+  },
+
   async getRecent(limit = 10): Promise<Bill[]> {
     const response = await apiClient.get(`/bills/recent?limit=${limit}`);
     const backendBills = response.data.data || response.data;
@@ -246,6 +264,20 @@ export const billService = {
     return response.data.data || response.data;
   },
 
+  /** Send the bill image itself (raw bytes, no base64); the server uploads it for WhatsApp */
+  async sendImageToWhatsApp(billId: string, image: Blob): Promise<{ message: string; phone: string; sha256: string }> {
+    const headers: Record<string, string> = { 'Content-Type': image.type || 'image/png' };
+    // SHA-256 lets the server reject an image damaged on the way (crypto.subtle needs HTTPS or localhost)
+    if (globalThis.crypto?.subtle) {
+      const digest = await crypto.subtle.digest('SHA-256', await image.arrayBuffer());
+      headers['X-Content-SHA256'] = Array.from(new Uint8Array(digest))
+        .map((b) => b.toString(16).padStart(2, '0'))
+        .join('');
+    }
+    const response = await apiClient.post(`/bills/${billId}/send-whatsapp`, image, { headers });
+    return response.data.data || response.data;
+  },
+
   async update(id: string, billData: CreateBillInput): Promise<Bill> {
     const response = await apiClient.put(`/bills/${id}`, billData);
     return response.data.data || response.data;
@@ -297,6 +329,22 @@ export const billService = {
 };
 
 // ========== REPORT SERVICE ==========
+
+/**
+ * Bills streamed as NDJSON (one bill per line) by /reports/monthly/bills and /reports/date-range/bills
+ */
+async function getStreamedBills(url: string, params: Record<string, string | number>): Promise<Bill[]> {
+  const response = await apiClient.get<string>(url, {
+    params,
+    responseType: 'text',
+    headers: { Accept: 'application/x-ndjson' },
+  });
+  return response.data
+    .split('\n')
+    .filter(line => line.trim() !== '')
+    .map(line => JSON.parse(line) as Bill);
+}
+
 export const reportService = {
   async getMonthlyReport(year: number, month: number): Promise<{
     totalBills: number;
@@ -306,10 +354,12 @@ export const reportService = {
     farmers: Array<{ name: string; mobile: string; billCount: number; totalAmount: number; totalWeight: number }>;
     bills: Bill[];
   }> {
-    const response = await apiClient.get('/reports/monthly', {
-      params: { year, month }
-    });
-    return response.data.data || response.data;
+    // Statistics and bill rows in parallel; the report itself no longer inlines the bills
+    const [response, bills] = await Promise.all([
+      apiClient.get('/reports/monthly', { params: { year, month } }),
+      getStreamedBills('/reports/monthly/bills', { year, month }),
+    ]);
+    return { ...(response.data.data || response.data), bills };
   },
 
   async getAvailableMonths(): Promise<Array<{ year: number; month: number; label: string }>> {
@@ -331,10 +381,11 @@ export const reportService = {
   },
 
   async getDateRangeReport(startDate: string, endDate: string): Promise<{ bills: Bill[]; totalAmount: number; totalWeight: number }> {
-    const response = await apiClient.get('/reports/date-range', {
-      params: { startDate, endDate }
-    });
-    return response.data.data || response.data;
+    const [response, bills] = await Promise.all([
+      apiClient.get('/reports/date-range', { params: { startDate, endDate } }),
+      getStreamedBills('/reports/date-range/bills', { startDate, endDate }),
+    ]);
+    return { ...(response.data.data || response.data), bills };
   },
 };
 